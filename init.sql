@@ -27,6 +27,12 @@ CREATE EXTENSION IF NOT EXISTS "pgcrypto";
 -- - payments
 -- - loyalty_programs
 -- - loyalty_transactions
+-- - hourly_sales_rollups
+-- - hourly_product_sales_rollups
+-- - webhook_inbox
+-- - scheduler_locks
+-- - outbox_events
+-- - qr_code_images
 -- =========================================
 
 -- =========================================
@@ -39,11 +45,19 @@ CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
 CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders(created_at);
 CREATE INDEX IF NOT EXISTS idx_orders_customer_id ON orders(customer_id);
 CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders(status, created_at);
+-- Paginação por cursor (created_at, id) nas listagens de pedidos
+CREATE INDEX IF NOT EXISTS idx_orders_created_id ON orders(created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created ON orders(customer_id, created_at);
 
 -- Índices para Payments
 CREATE INDEX IF NOT EXISTS idx_payments_order_id ON payments(order_id);
 CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
 CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments(created_at);
+-- Varredura de expiração: só pagamentos ainda abertos entram no índice
+CREATE INDEX IF NOT EXISTS idx_payments_open_created ON payments(created_at, id) WHERE status IN ('PENDING', 'PROCESSING');
+CREATE INDEX IF NOT EXISTS idx_payments_open_pix_created ON payments(created_at, id) WHERE method = 'PIX' AND status IN ('PENDING', 'PROCESSING');
+-- Reconciliação: pagina os PROCESSING pelo id externo
+CREATE INDEX IF NOT EXISTS idx_payments_processing_external ON payments(external_payment_id) WHERE status = 'PROCESSING';
 
 -- Índices para Menu Items
 CREATE INDEX IF NOT EXISTS idx_menu_items_category ON menu_items(category);
@@ -61,11 +75,86 @@ CREATE INDEX IF NOT EXISTS idx_loyalty_tier ON loyalty_programs(tier);
 -- Índices para Loyalty Transactions
 CREATE INDEX IF NOT EXISTS idx_loyalty_transactions_program ON loyalty_transactions(loyalty_program_id);
 CREATE INDEX IF NOT EXISTS idx_loyalty_transactions_created ON loyalty_transactions(created_at);
+-- Um crédito por pedido: a fila de fidelidade entrega "pelo menos uma vez"
+CREATE UNIQUE INDEX IF NOT EXISTS uq_loyalty_transactions_order_earned ON loyalty_transactions(order_id) WHERE type = 'EARNED';
 
 -- Índices para Order Items
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_menu_item_id ON order_items(menu_item_id);
 
+-- Índices para Rollups de Vendas (a unicidade de bucket_start já é criada pelo Hibernate)
+CREATE INDEX IF NOT EXISTS idx_hourly_product_sales_bucket_category ON hourly_product_sales_rollups(bucket_start, category);
+
+-- Índice parcial para a caixa de entrada de webhooks: só eventos pendentes são varridos pelo worker
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_pending ON webhook_inbox(next_attempt_at, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_payments_external_payment_id ON payments(external_payment_id);
+
+-- Pagamentos aprovados do dia, lidos pela consulta agregada do dashboard
+CREATE INDEX IF NOT EXISTS idx_payments_approved_paid_at ON payments(paid_at) WHERE status = 'APPROVED';
+
+-- Outbox de mensagens: o relay só varre eventos pendentes, na ordem de gravação
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(id) WHERE status = 'PENDING';
+
+-- Migração das imagens de QR Code: o Base64 que ficava em payments.qr_code_base64 vai para
+-- qr_code_images (chave = SHA-256 do PNG) e o pagamento guarda só o hash. Base64 inválido é descartado;
+-- o código PIX copia-e-cola continua em payments.qr_code.
+DO $$
+DECLARE
+    r RECORD;
+    png BYTEA;
+    png_hash TEXT;
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'payments' AND column_name = 'qr_code_base64') THEN
+        FOR r IN SELECT id, qr_code_base64 FROM payments
+                 WHERE qr_code_base64 IS NOT NULL AND qr_code_base64 <> '' AND qr_code_hash IS NULL LOOP
+            BEGIN
+                png := decode(r.qr_code_base64, 'base64');
+                png_hash := encode(digest(png, 'sha256'), 'hex');
+                INSERT INTO qr_code_images (hash, content, created_at) VALUES (png_hash, png, NOW())
+                    ON CONFLICT (hash) DO NOTHING;
+                UPDATE payments SET qr_code_hash = png_hash WHERE id = r.id;
+            EXCEPTION WHEN OTHERS THEN
+                RAISE WARNING 'QR Code do pagamento % descartado: %', r.id, SQLERRM;
+            END;
+        END LOOP;
+        ALTER TABLE payments DROP COLUMN qr_code_base64;
+    END IF;
+END $$;
+
+-- =========================================
+-- SEQUÊNCIAS DE IDS
+-- =========================================
+-- As entidades principais usam sequências com o otimizador pooled do Hibernate
+-- (allocationSize = 50): cada nextval reserva um bloco de 50 ids, e o Hibernate
+-- consegue agrupar os INSERTs em lote. O INCREMENT BY precisa ser igual ao allocationSize.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS menu_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS loyalty_transactions_seq START WITH 1 INCREMENT BY 50;
+
+-- Migração de bancos criados com ids IDENTITY: remove o IDENTITY/DEFAULT das colunas id
+-- e posiciona cada sequência no maior id existente. O próximo bloco reservado começa logo
+-- depois dele; a sequência nunca volta, então o bloco pode ser reexecutado com a aplicação no ar.
+DO $$
+DECLARE
+    t TEXT;
+    max_id BIGINT;
+    last_id BIGINT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'menu_items', 'orders', 'order_items', 'payments', 'loyalty_transactions'] LOOP
+        IF to_regclass(t) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', t);
+            EXECUTE format('SELECT COALESCE(MAX(id), 1) FROM %I', t) INTO max_id;
+            EXECUTE format('SELECT last_value FROM %I', t || '_seq') INTO last_id;
+            PERFORM setval((t || '_seq')::regclass, GREATEST(max_id, last_id), true);
+        END IF;
+    END LOOP;
+END $$;
+
 -- =========================================
 -- DADOS INICIAIS
 -- =========================================
@@ -76,96 +165,76 @@ CREATE INDEX IF NOT EXISTS idx_order_items_menu_item_id ON order_items(menu_item
 
 -- Usuário Admin (email: admin@portalchurras.com, senha: Admin@123)
 -- Hash gerado com BCrypt strength 10
-INSERT INTO users (name, email, password, phone, role, active, created_at, updated_at) 
+INSERT INTO users (id, name, email, password, phone, role, active, created_at, updated_at) 
 VALUES 
-('Administrador', 'admin@portalchurras.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11999999999', 'ADMIN', true, NOW(), NOW())
+(nextval('users_seq'), 'Administrador', 'admin@portalchurras.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11999999999', 'ADMIN', true, NOW(), NOW())
 ON CONFLICT (email) DO NOTHING;
 
 -- Usuário Funcionário (email: funcionario@portalchurras.com, senha: Func@123)
-INSERT INTO users (name, email, password, phone, role, active, created_at, updated_at) 
+INSERT INTO users (id, name, email, password, phone, role, active, created_at, updated_at) 
 VALUES 
-('Funcionário Teste', 'funcionario@portalchurras.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11988888888', 'EMPLOYEE', true, NOW(), NOW())
+(nextval('users_seq'), 'Funcionário Teste', 'funcionario@portalchurras.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11988888888', 'EMPLOYEE', true, NOW(), NOW())
 ON CONFLICT (email) DO NOTHING;
 
 -- Cliente Teste (email: cliente@email.com, senha: Cliente@123)
-INSERT INTO users (name, email, password, phone, role, active, created_at, updated_at) 
+INSERT INTO users (id, name, email, password, phone, role, active, created_at, updated_at) 
 VALUES 
-('Cliente Teste', 'cliente@email.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11977777777', 'CUSTOMER', true, NOW(), NOW())
+(nextval('users_seq'), 'Cliente Teste', 'cliente@email.com', '$2a$10$xQjKHvD9kcZhVHKqQqH.WeO7bC3Y8H9H9GHYF.Qhv1VqGf2h.EHmO', '11977777777', 'CUSTOMER', true, NOW(), NOW())
 ON CONFLICT (email) DO NOTHING;
 
 -- =========================================
 -- ITENS DO CARDÁPIO
 -- =========================================
-INSERT INTO menu_items (name, description, price, category, preparation_time, active, created_at, updated_at) VALUES
+INSERT INTO menu_items (id, name, description, price, category, preparation_time, active, created_at, updated_at) VALUES
 -- Combos
-('Combo Família', 'X-Burger + X-Bacon + Batata Grande + Refrigerante 2L', 79.90, 'COMBOS', '30 min', true, NOW(), NOW()),
-('Combo Casal', '2 X-Burgers + Batata Média + 2 Refrigerantes', 54.90, 'COMBOS', '25 min', true, NOW(), NOW()),
-('Combo Individual', 'X-Burger + Batata Pequena + Refrigerante', 29.90, 'COMBOS', '15 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Combo Família', 'X-Burger + X-Bacon + Batata Grande + Refrigerante 2L', 79.90, 'COMBOS', '30 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Combo Casal', '2 X-Burgers + Batata Média + 2 Refrigerantes', 54.90, 'COMBOS', '25 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Combo Individual', 'X-Burger + Batata Pequena + Refrigerante', 29.90, 'COMBOS', '15 min', true, NOW(), NOW()),
 
 -- Hambúrgueres
-('X-Burger', 'Hambúrguer, queijo, alface, tomate, molho especial', 18.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
-('X-Bacon', 'X-Burger + bacon crocante', 22.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
-('X-Egg', 'X-Burger + ovo', 20.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
-('X-Tudo', 'Hambúrguer, queijo, bacon, ovo, presunto, alface, tomate', 28.90, 'HAMBURGUERES', '20 min', true, NOW(), NOW()),
-('Veggie Burger', 'Hambúrguer vegetariano com queijo e salada', 19.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'X-Burger', 'Hambúrguer, queijo, alface, tomate, molho especial', 18.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'X-Bacon', 'X-Burger + bacon crocante', 22.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'X-Egg', 'X-Burger + ovo', 20.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'X-Tudo', 'Hambúrguer, queijo, bacon, ovo, presunto, alface, tomate', 28.90, 'HAMBURGUERES', '20 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Veggie Burger', 'Hambúrguer vegetariano com queijo e salada', 19.90, 'HAMBURGUERES', '15 min', true, NOW(), NOW()),
 
 -- Espetinhos
-('Espetinho de Carne', 'Carne bovina temperada', 8.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
-('Espetinho de Frango', 'Frango marinado especial', 7.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
-('Espetinho de Kafta', 'Kafta artesanal temperada', 9.00, 'ESPETINHOS', '12 min', true, NOW(), NOW()),
-('Espetinho de Linguiça', 'Linguiça artesanal', 8.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
-('Espetinho Vegetariano', 'Mix de legumes grelhados', 6.00, 'ESPETINHOS', '8 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Espetinho de Carne', 'Carne bovina temperada', 8.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Espetinho de Frango', 'Frango marinado especial', 7.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Espetinho de Kafta', 'Kafta artesanal temperada', 9.00, 'ESPETINHOS', '12 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Espetinho de Linguiça', 'Linguiça artesanal', 8.00, 'ESPETINHOS', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Espetinho Vegetariano', 'Mix de legumes grelhados', 6.00, 'ESPETINHOS', '8 min', true, NOW(), NOW()),
 
 -- Porções
-('Batata Frita P', 'Porção pequena de batata frita', 10.00, 'PORCOES', '10 min', true, NOW(), NOW()),
-('Batata Frita M', 'Porção média de batata frita', 15.00, 'PORCOES', '10 min', true, NOW(), NOW()),
-('Batata Frita G', 'Porção grande de batata frita', 20.00, 'PORCOES', '12 min', true, NOW(), NOW()),
-('Onion Rings', 'Anéis de cebola empanados', 18.00, 'PORCOES', '12 min', true, NOW(), NOW()),
-('Nuggets', '10 unidades de nuggets de frango', 16.00, 'PORCOES', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Batata Frita P', 'Porção pequena de batata frita', 10.00, 'PORCOES', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Batata Frita M', 'Porção média de batata frita', 15.00, 'PORCOES', '10 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Batata Frita G', 'Porção grande de batata frita', 20.00, 'PORCOES', '12 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Onion Rings', 'Anéis de cebola empanados', 18.00, 'PORCOES', '12 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Nuggets', '10 unidades de nuggets de frango', 16.00, 'PORCOES', '10 min', true, NOW(), NOW()),
 
 -- Bebidas
-('Refrigerante Lata', 'Coca-Cola, Guaraná ou Sprite', 5.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
-('Refrigerante 600ml', 'Coca-Cola, Guaraná ou Sprite', 8.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
-('Refrigerante 2L', 'Coca-Cola, Guaraná ou Sprite', 12.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
-('Suco Natural', 'Laranja, Limão ou Maracujá', 8.00, 'BEBIDAS', '5 min', true, NOW(), NOW()),
-('Água Mineral', 'Garrafa 500ml', 3.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Refrigerante Lata', 'Coca-Cola, Guaraná ou Sprite', 5.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Refrigerante 600ml', 'Coca-Cola, Guaraná ou Sprite', 8.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Refrigerante 2L', 'Coca-Cola, Guaraná ou Sprite', 12.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Suco Natural', 'Laranja, Limão ou Maracujá', 8.00, 'BEBIDAS', '5 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Água Mineral', 'Garrafa 500ml', 3.00, 'BEBIDAS', '1 min', true, NOW(), NOW()),
 
 -- Adicionais
-('Bacon Extra', 'Porção extra de bacon', 5.00, 'ADICIONAIS', '2 min', true, NOW(), NOW()),
-('Queijo Extra', 'Fatia extra de queijo', 3.00, 'ADICIONAIS', '1 min', true, NOW(), NOW()),
-('Ovo Extra', 'Ovo frito adicional', 3.00, 'ADICIONAIS', '3 min', true, NOW(), NOW()),
-('Molho Especial', 'Porção extra do molho da casa', 2.00, 'ADICIONAIS', '1 min', true, NOW(), NOW())
+(nextval('menu_items_seq'), 'Bacon Extra', 'Porção extra de bacon', 5.00, 'ADICIONAIS', '2 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Queijo Extra', 'Fatia extra de queijo', 3.00, 'ADICIONAIS', '1 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Ovo Extra', 'Ovo frito adicional', 3.00, 'ADICIONAIS', '3 min', true, NOW(), NOW()),
+(nextval('menu_items_seq'), 'Molho Especial', 'Porção extra do molho da casa', 2.00, 'ADICIONAIS', '1 min', true, NOW(), NOW())
 ON CONFLICT DO NOTHING;
 
 -- =========================================
 -- FUNÇÕES E TRIGGERS (Automatização)
 -- =========================================
 
--- Função para calcular pontos de fidelidade automaticamente
-CREATE OR REPLACE FUNCTION calculate_loyalty_points()
-RETURNS TRIGGER AS $$
-BEGIN
-    -- Se o pedido foi aprovado e tem um cliente registrado
-    IF NEW.status = 'DELIVERED' AND OLD.status != 'DELIVERED' AND NEW.customer_id IS NOT NULL THEN
-        -- Adicionar pontos (1 real = 10 pontos base)
-        UPDATE loyalty_programs 
-        SET total_points = total_points + (NEW.total * 10)::INTEGER,
-            available_points = available_points + (NEW.total * 10)::INTEGER,
-            total_spent = total_spent + NEW.total,
-            total_orders = total_orders + 1,
-            last_activity_at = NOW()
-        WHERE user_id = NEW.customer_id;
-    END IF;
-    RETURN NEW;
-END;
-$$ LANGUAGE plpgsql;
-
--- Criar trigger para calcular pontos
+-- Pontos de fidelidade por pedido entregue: creditados pela aplicação, fora da transação do pedido
+-- (LoyaltyConsumer com a outbox ligada, LoyaltyAccrualListener sem ela).
+-- O trigger antigo creditava de novo no mesmo UPDATE e é removido.
 DROP TRIGGER IF EXISTS trigger_calculate_loyalty ON orders;
-CREATE TRIGGER trigger_calculate_loyalty
-    AFTER UPDATE ON orders
-    FOR EACH ROW
-    EXECUTE FUNCTION calculate_loyalty_points();
+DROP FUNCTION IF EXISTS calculate_loyalty_points();
 
 -- Função para atualizar tier automaticamente
 CREATE OR REPLACE FUNCTION update_loyalty_tier()
@@ -259,9 +328,10 @@ CREATE INDEX IF NOT EXISTS idx_order_items_menu_item_id ON order_items(menu_item
 -- 1. Extensões (pgcrypto) ✓
 -- 2. Aguardar Hibernate criar tabelas
 -- 3. Índices de performance ✓
--- 4. Dados iniciais (usuários + menu) ✓
--- 5. Funções e triggers de automação ✓
--- 6. Views analíticas ✓
+-- 4. Sequências de ids (e migração de colunas IDENTITY) ✓
+-- 5. Dados iniciais (usuários + menu) ✓
+-- 6. Funções e triggers de automação ✓
+-- 7. Views analíticas ✓
 --
 -- NOTA: Configurações de performance do PostgreSQL devem ser
 -- ajustadas no arquivo postgresql.conf ou via AWS RDS console
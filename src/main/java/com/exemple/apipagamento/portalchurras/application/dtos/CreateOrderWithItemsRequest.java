@@ -0,0 +1,53 @@
+package com.exemple.apipagamento.portalchurras.application.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CreateOrderWithItemsRequest {
+
+    // Para usuários registrados
+    private Long customerId;
+
+    // Para pedidos de convidados (quando customerId é null)
+    @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
+    private String customerName;
+
+    @Email(message = "Email deve ter formato válido")
+    @Size(max = 100, message = "Email deve ter no máximo 100 caracteres")
+    private String customerEmail;
+
+    @Size(max = 20, message = "Telefone deve ter no máximo 20 caracteres")
+    private String customerPhone;
+
+    @Size(max = 500, message = "Observações devem ter no máximo 500 caracteres")
+    private String notes;
+
+    // Carrinho completo; o total é calculado a partir dos preços do cardápio
+    @NotEmpty(message = "O pedido deve ter ao menos um item")
+    @Size(max = 50, message = "O pedido pode ter no máximo 50 itens")
+    @Valid
+    private List<AddOrderItemRequest> items = new ArrayList<>();
+
+    public CreateOrderWithItemsRequest() {}
+
+    // Getters e Setters
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public List<AddOrderItemRequest> getItems() { return items; }
+    public void setItems(List<AddOrderItemRequest> items) { this.items = items; }
+}
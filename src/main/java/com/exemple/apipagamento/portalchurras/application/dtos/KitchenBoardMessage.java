@@ -0,0 +1,64 @@
+package com.exemple.apipagamento.portalchurras.application.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Mensagem do painel da cozinha. SNAPSHOT traz o quadro inteiro; ADDED/UPDATED trazem um pedido
+ * e REMOVED apenas o id. O cliente descarta deltas com versão menor ou igual à do snapshot recebido.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KitchenBoardMessage {
+
+    public enum Type { SNAPSHOT, ADDED, UPDATED, REMOVED }
+
+    private Type type;
+    private long version;
+    private List<KitchenOrderDTO> orders;
+    private KitchenOrderDTO order;
+    private Long orderId;
+
+    public KitchenBoardMessage() {}
+
+    public static KitchenBoardMessage snapshot(long version, List<KitchenOrderDTO> orders) {
+        KitchenBoardMessage message = new KitchenBoardMessage();
+        message.type = Type.SNAPSHOT;
+        message.version = version;
+        message.orders = orders;
+        return message;
+    }
+
+    public static KitchenBoardMessage delta(Type type, long version, KitchenOrderDTO order) {
+        KitchenBoardMessage message = new KitchenBoardMessage();
+        message.type = type;
+        message.version = version;
+        message.order = order;
+        message.orderId = order.getId();
+        return message;
+    }
+
+    public static KitchenBoardMessage removed(long version, Long orderId) {
+        KitchenBoardMessage message = new KitchenBoardMessage();
+        message.type = Type.REMOVED;
+        message.version = version;
+        message.orderId = orderId;
+        return message;
+    }
+
+    // Getters e Setters
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public List<KitchenOrderDTO> getOrders() { return orders; }
+    public void setOrders(List<KitchenOrderDTO> orders) { this.orders = orders; }
+
+    public KitchenOrderDTO getOrder() { return order; }
+    public void setOrder(KitchenOrderDTO order) { this.order = order; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+}
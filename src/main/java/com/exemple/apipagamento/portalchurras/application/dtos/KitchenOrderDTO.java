@@ -0,0 +1,74 @@
+package com.exemple.apipagamento.portalchurras.application.dtos;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Versão enxuta de um pedido para o painel da cozinha: só o necessário para preparar.
+ */
+public class KitchenOrderDTO {
+
+    private Long id;
+    private OrderStatus status;
+    private String customerName;
+    private String notes;
+    private LocalDateTime createdAt;
+    private List<Item> items;
+
+    public KitchenOrderDTO() {}
+
+    public KitchenOrderDTO(Long id, OrderStatus status, String customerName, String notes,
+                           LocalDateTime createdAt, List<Item> items) {
+        this.id = id;
+        this.status = status;
+        this.customerName = customerName;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.items = items;
+    }
+
+    public static class Item {
+
+        private String name;
+        private Integer quantity;
+        private String observations;
+
+        public Item() {}
+
+        public Item(String name, Integer quantity, String observations) {
+            this.name = name;
+            this.quantity = quantity;
+            this.observations = observations;
+        }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+        public String getObservations() { return observations; }
+        public void setObservations(String observations) { this.observations = observations; }
+    }
+
+    // Getters e Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+}
@@ -6,6 +6,8 @@ import java.util.Map;
 public class MenuResponseDTO {
     private Map<String, List<MenuItemDTO>> menu;
 
+    public MenuResponseDTO() {}
+
     public MenuResponseDTO(Map<String, List<MenuItemDTO>> menu) {
         this.menu = menu;
     }
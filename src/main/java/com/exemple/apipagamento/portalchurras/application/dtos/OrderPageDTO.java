@@ -0,0 +1,33 @@
+package com.exemple.apipagamento.portalchurras.application.dtos;
+
+import java.util.List;
+
+public class OrderPageDTO {
+
+    private List<OrderDTO> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // Enviar como "cursor" para buscar a próxima página
+
+    public OrderPageDTO() {}
+
+    public OrderPageDTO(List<OrderDTO> content, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters e Setters
+    public List<OrderDTO> getContent() { return content; }
+    public void setContent(List<OrderDTO> content) { this.content = content; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -13,7 +13,7 @@ public class PaymentDTO {
     private BigDecimal amount;
     private String externalPaymentId;
     private String qrCode;
-    private String qrCodeBase64;
+    private String qrCodeUrl;
     private String ticketUrl;
     private String failureReason;
     private LocalDateTime createdAt;
@@ -40,8 +40,8 @@ public class PaymentDTO {
     public String getQrCode() { return qrCode; }
     public void setQrCode(String qrCode) { this.qrCode = qrCode; }
 
-    public String getQrCodeBase64() { return qrCodeBase64; }
-    public void setQrCodeBase64(String qrCodeBase64) { this.qrCodeBase64 = qrCodeBase64; }
+    public String getQrCodeUrl() { return qrCodeUrl; }
+    public void setQrCodeUrl(String qrCodeUrl) { this.qrCodeUrl = qrCodeUrl; }
 
     public String getTicketUrl() { return ticketUrl; }
     public void setTicketUrl(String ticketUrl) { this.ticketUrl = ticketUrl; }
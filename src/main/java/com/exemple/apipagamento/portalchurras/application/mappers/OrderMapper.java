@@ -99,7 +99,10 @@ public class OrderMapper {
         dto.setAmount(payment.getAmount());
         dto.setExternalPaymentId(payment.getExternalPaymentId());
         dto.setQrCode(payment.getQrCode());
-        dto.setQrCodeBase64(payment.getQrCodeBase64());
+        // A imagem é servida à parte, pelo hash e com cache; o DTO leva só o endereço
+        if (payment.getQrCodeHash() != null) {
+            dto.setQrCodeUrl("/api/payments/qr/" + payment.getQrCodeHash() + ".png");
+        }
         dto.setTicketUrl(payment.getTicketUrl());
         dto.setFailureReason(payment.getFailureReason());
         dto.setCreatedAt(payment.getCreatedAt());
@@ -0,0 +1,211 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaPaymentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de pedidos, itens e pagamentos linha a linha.
+ * Os dados vêm de um cursor com fetch size fixo e são escritos direto na saída,
+ * então o uso de memória não depende do tamanho do período.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] ORDER_COLUMNS = {
+            "order_id", "created_at", "updated_at", "status", "total",
+            "customer_id", "customer_name", "customer_email", "customer_phone", "notes"
+    };
+
+    private static final String[] ORDER_ITEM_COLUMNS = {
+            "order_item_id", "order_id", "order_created_at", "order_status", "menu_item_id",
+            "menu_item_name", "category", "quantity", "unit_price", "total_price", "observations"
+    };
+
+    private static final String[] PAYMENT_COLUMNS = {
+            "payment_id", "order_id", "created_at", "method", "status", "amount",
+            "external_payment_id", "paid_at", "expired_at", "failure_reason"
+    };
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação inválido: " + value);
+        }
+    }
+
+    private final JpaOrderRepository orderRepository;
+    private final JpaPaymentRepository paymentRepository;
+    private final ObjectWriter jsonWriter;
+
+    public ExportService(JpaOrderRepository orderRepository,
+                         JpaPaymentRepository paymentRepository,
+                         ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public void validatePeriod(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
+        }
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Data de início deve ser anterior à data de fim");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime start, LocalDateTime end, OrderStatus status,
+                             Format format, OutputStream out) throws IOException {
+        validatePeriod(start, end);
+        try (Stream<Object[]> rows = orderRepository.streamOrdersForExport(start, end, status)) {
+            return write(rows.map(this::withGuestData), ORDER_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOrderItems(LocalDateTime start, LocalDateTime end, OrderStatus status,
+                                 Format format, OutputStream out) throws IOException {
+        validatePeriod(start, end);
+        try (Stream<Object[]> rows = orderRepository.streamOrderItemsForExport(start, end, status)) {
+            return write(rows, ORDER_ITEM_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportPayments(LocalDateTime start, LocalDateTime end, PaymentStatus status,
+                               Format format, OutputStream out) throws IOException {
+        validatePeriod(start, end);
+        try (Stream<Object[]> rows = paymentRepository.streamPaymentsForExport(start, end, status)) {
+            return write(rows, PAYMENT_COLUMNS, format, out);
+        }
+    }
+
+    // Pedidos de convidados não têm usuário: nome, email e telefone ficam nas observações
+    private Object[] withGuestData(Object[] row) {
+        if (row[5] == null) {
+            String notes = (String) row[9];
+            row[6] = Order.extractGuestName(notes);
+            row[7] = Order.extractGuestEmail(notes);
+            row[8] = Order.extractGuestPhone(notes);
+        }
+        return row;
+    }
+
+    private long write(Stream<Object[]> rows, String[] columns, Format format, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<Object[]> iterator = rows.iterator();
+
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeCsvLine(writer, columns);
+            while (iterator.hasNext()) {
+                writeCsvLine(writer, iterator.next());
+                count++;
+            }
+            writer.flush();
+        } else {
+            OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Map<String, Object> line = new LinkedHashMap<>();
+                for (int i = 0; i < columns.length; i++) {
+                    line.put(columns[i], row[i]);
+                }
+                jsonWriter.writeValue(buffered, line);
+                buffered.write('\n');
+                count++;
+            }
+            buffered.flush();
+        }
+
+        logger.debug("Exportação concluída: {} linhas em {}", count, format);
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(toCsvValue(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String toCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text;
+        if (value instanceof BigDecimal decimal) {
+            text = decimal.toPlainString();
+        } else if (value instanceof Enum<?> enumValue) {
+            text = enumValue.name();
+        } else if (value instanceof CharSequence chars) {
+            text = chars.toString();
+            // Texto livre (nome, email, observações) que começa como fórmula vira texto na planilha
+            if (isFormulaStart(text)) {
+                return "\"'" + text.replace("\"", "\"\"") + '"';
+            }
+        } else {
+            text = value.toString();
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static boolean isFormulaStart(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        char first = text.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
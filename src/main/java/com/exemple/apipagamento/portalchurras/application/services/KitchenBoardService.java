@@ -0,0 +1,151 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.application.dtos.KitchenBoardMessage;
+import com.exemple.apipagamento.portalchurras.application.dtos.KitchenOrderDTO;
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderUpdatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Painel em memória dos pedidos ativos da cozinha.
+ * É carregado na inicialização e depois mantido pelos eventos de pedido; cada mudança vira um delta
+ * publicado em /topic/kitchen, e quem se inscreve em /app/kitchen recebe o snapshot atual.
+ * Os deltas só são aplicados depois do commit, para a cozinha nunca ver um pedido que sofreu rollback.
+ */
+@Service
+public class KitchenBoardService {
+
+    public static final String TOPIC = "/topic/kitchen";
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenBoardService.class);
+
+    private static final List<OrderStatus> ACTIVE_STATUSES = Arrays.stream(OrderStatus.values())
+            .filter(OrderStatus::isActive)
+            .toList();
+
+    private final OrderRepository orderRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Acesso sempre sob o lock: a versão precisa seguir a mesma ordem dos envios. ReentrantLock em vez de
+    // synchronized porque o envio acontece com o lock tomado e prenderia a virtual thread à thread portadora
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, KitchenOrderDTO> board = new HashMap<>();
+    private long version;
+
+    public KitchenBoardService(OrderRepository orderRepository, SimpMessagingTemplate messagingTemplate) {
+        this.orderRepository = orderRepository;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void seed() {
+        List<Order> activeOrders = orderRepository.findByStatusIn(ACTIVE_STATUSES);
+        lock.lock();
+        try {
+            board.clear();
+            activeOrders.forEach(order -> board.put(order.getId(), toKitchenOrder(order)));
+            version++;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Painel da cozinha carregado com {} pedidos ativos", activeOrders.size());
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        apply(event.getOrder());
+    }
+
+    @EventListener
+    public void onOrderUpdated(OrderUpdatedEvent event) {
+        apply(event.getOrder());
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        apply(event.getOrder());
+    }
+
+    public KitchenBoardMessage snapshot() {
+        lock.lock();
+        try {
+            List<KitchenOrderDTO> orders = board.values().stream()
+                    .sorted(Comparator.comparing(KitchenOrderDTO::getCreatedAt).thenComparing(KitchenOrderDTO::getId))
+                    .toList();
+            return KitchenBoardMessage.snapshot(version, orders);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A conversão acontece ainda dentro da transação, enquanto itens e produtos podem ser carregados
+    private void apply(Order order) {
+        Long orderId = order.getId();
+        KitchenOrderDTO kitchenOrder = order.getStatus().isActive() ? toKitchenOrder(order) : null;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(orderId, kitchenOrder);
+                }
+            });
+        } else {
+            publish(orderId, kitchenOrder);
+        }
+    }
+
+    private void publish(Long orderId, KitchenOrderDTO kitchenOrder) {
+        lock.lock();
+        try {
+            KitchenBoardMessage message;
+            if (kitchenOrder == null) {
+                if (board.remove(orderId) == null) {
+                    return;
+                }
+                message = KitchenBoardMessage.removed(++version, orderId);
+            } else {
+                KitchenBoardMessage.Type type = board.put(orderId, kitchenOrder) == null
+                        ? KitchenBoardMessage.Type.ADDED
+                        : KitchenBoardMessage.Type.UPDATED;
+                message = KitchenBoardMessage.delta(type, ++version, kitchenOrder);
+            }
+
+            try {
+                messagingTemplate.convertAndSend(TOPIC, message);
+            } catch (Exception e) {
+                // O painel continua consistente; clientes que perderem o delta se recuperam pelo snapshot
+                logger.warn("Falha ao publicar delta do painel da cozinha (pedido {}): {}", orderId, e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private KitchenOrderDTO toKitchenOrder(Order order) {
+        List<KitchenOrderDTO.Item> items = order.getItems() == null ? List.of() : order.getItems().stream()
+                .map(item -> new KitchenOrderDTO.Item(
+                        item.getMenuItem() != null ? item.getMenuItem().getName() : null,
+                        item.getQuantity(),
+                        item.getObservations()))
+                .toList();
+        return new KitchenOrderDTO(order.getId(), order.getStatus(), order.getCustomerName(),
+                order.getNotes(), order.getCreatedAt(), items);
+    }
+}
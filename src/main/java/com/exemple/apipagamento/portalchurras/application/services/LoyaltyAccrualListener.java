@@ -0,0 +1,85 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crédito de pontos de fidelidade sem RabbitMQ. Com a outbox desligada o LoyaltyConsumer não recebe
+ * nada, então cada pedido entregue é creditado aqui, depois do commit e numa thread própria (virtual
+ * conforme spring.threads.virtual.enabled), fora da transação do pedido. Com a outbox ligada o crédito fica com a fila de fidelidade.
+ * Reentregas são ignoradas pelo LoyaltyService; um pedido perdido numa queda entre o commit e o crédito
+ * não é refeito.
+ */
+@Component
+public class LoyaltyAccrualListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoyaltyAccrualListener.class);
+
+    private final LoyaltyService loyaltyService;
+    private final OutboxProperties outboxProperties;
+    private final boolean enabled;
+    private final ExecutorService executor;
+
+    public LoyaltyAccrualListener(LoyaltyService loyaltyService,
+                                  OutboxProperties outboxProperties,
+                                  @Value("${loyalty.after-commit-accrual-enabled:true}") boolean enabled,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.loyaltyService = loyaltyService;
+        this.outboxProperties = outboxProperties;
+        this.enabled = enabled;
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("loyalty-accrual-", 0).factory());
+        } else {
+            // Uma thread de plataforma basta: o crédito é curto e as entregas chegam uma a uma
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "loyalty-accrual-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!enabled || outboxProperties.isEnabled()
+                || event.getNewStatus() != OrderStatus.DELIVERED || event.getPreviousStatus() == OrderStatus.DELIVERED) {
+            return;
+        }
+        Order order = event.getOrder();
+        User customer = order.getCustomer();
+        if (customer == null) {
+            return;
+        }
+
+        LoyaltyService.DeliveredOrder delivered =
+                new LoyaltyService.DeliveredOrder(order.getId(), customer.getId(), order.getTotal());
+        executor.execute(() -> {
+            try {
+                loyaltyService.accrueDeliveredOrders(List.of(delivered));
+            } catch (RuntimeException e) {
+                logger.error("Erro ao creditar pontos do pedido {}: {}", delivered.orderId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -3,31 +3,45 @@ package com.exemple.apipagamento.portalchurras.application.services;
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
 import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
 import com.exemple.apipagamento.portalchurras.infrastructure.repositories.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class LoyaltyService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LoyaltyService.class);
+
     private final LoyaltyProgramRepository loyaltyProgramRepository;
     private final LoyaltyTransactionRepository loyaltyTransactionRepository;
     private final UserRepository userRepository;
+    private final JpaOrderRepository orderRepository;
     
     // Configuração: 1 real = 10 pontos
     private static final BigDecimal POINTS_PER_REAL = new BigDecimal("10");
     
     public LoyaltyService(LoyaltyProgramRepository loyaltyProgramRepository,
                          LoyaltyTransactionRepository loyaltyTransactionRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         JpaOrderRepository orderRepository) {
         this.loyaltyProgramRepository = loyaltyProgramRepository;
         this.loyaltyTransactionRepository = loyaltyTransactionRepository;
         this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Pedido entregue a creditar: só o necessário para calcular os pontos, sem carregar o pedido.
+     */
+    public record DeliveredOrder(Long orderId, Long customerId, BigDecimal total) {
     }
 
     public LoyaltyProgram createLoyaltyProgram(Long userId) {
@@ -45,44 +59,128 @@ public class LoyaltyService {
     public LoyaltyProgram earnPoints(Long userId, Order order) {
         LoyaltyProgram program = loyaltyProgramRepository.findByUserId(userId)
             .orElseGet(() -> createLoyaltyProgram(userId));
-        
-        // Calcular pontos baseados no valor do pedido
-        Integer basePoints = order.getTotal()
-            .multiply(POINTS_PER_REAL)
-            .intValue();
-        
+
+        // Um pedido rende pontos uma única vez
+        boolean alreadyEarned = loyaltyTransactionRepository.findByOrderId(order.getId()).stream()
+            .anyMatch(t -> t.getType() == LoyaltyTransaction.TransactionType.EARNED);
+        if (alreadyEarned) {
+            return program;
+        }
+
+        return creditOrders(program, List.of(new DeliveredOrder(order.getId(), userId, order.getTotal())));
+    }
+
+    /**
+     * Credita os pontos de um lote de pedidos entregues, consumido da fila de fidelidade.
+     * Pedidos que já renderam pontos (reentregas da fila) e pedidos de convidados são ignorados;
+     * os pedidos do mesmo cliente são somados no mesmo programa com uma única atualização.
+     *
+     * @return quantidade de pedidos creditados
+     */
+    public int accrueDeliveredOrders(List<DeliveredOrder> deliveredOrders) {
+        Map<Long, DeliveredOrder> byOrderId = new LinkedHashMap<>();
+        for (DeliveredOrder delivered : deliveredOrders) {
+            // Convidados não têm programa; pedidos abaixo de R$ 0,10 não rendem pontos
+            if (delivered.orderId() != null && delivered.customerId() != null
+                    && delivered.total() != null && basePoints(delivered.total()) > 0) {
+                byOrderId.putIfAbsent(delivered.orderId(), delivered);
+            }
+        }
+        if (byOrderId.isEmpty()) {
+            return 0;
+        }
+
+        loyaltyTransactionRepository.findOrderIdsByType(byOrderId.keySet(), LoyaltyTransaction.TransactionType.EARNED)
+            .forEach(byOrderId::remove);
+
+        // Programas atualizados sempre na ordem do cliente: dois lotes concorrentes não se travam
+        Map<Long, List<DeliveredOrder>> byCustomer = byOrderId.values().stream()
+            .collect(Collectors.groupingBy(DeliveredOrder::customerId, TreeMap::new, Collectors.toList()));
+
+        int credited = 0;
+        for (Map.Entry<Long, List<DeliveredOrder>> entry : byCustomer.entrySet()) {
+            Optional<LoyaltyProgram> program = findOrCreateProgram(entry.getKey());
+            if (program.isEmpty()) {
+                logger.warn("Cliente {} não encontrado, {} pedido(s) sem pontos", entry.getKey(), entry.getValue().size());
+                continue;
+            }
+            creditOrders(program.get(), entry.getValue());
+            credited += entry.getValue().size();
+        }
+        return credited;
+    }
+
+    private Optional<LoyaltyProgram> findOrCreateProgram(Long userId) {
+        Optional<LoyaltyProgram> program = loyaltyProgramRepository.findByUserId(userId);
+        if (program.isPresent()) {
+            return program;
+        }
+        return userRepository.findById(userId)
+            .map(user -> loyaltyProgramRepository.save(new LoyaltyProgram(user)));
+    }
+
+    // Calcular pontos baseados no valor do pedido
+    private static int basePoints(BigDecimal orderTotal) {
+        return orderTotal.multiply(POINTS_PER_REAL).intValue();
+    }
+
+    // Soma os pontos dos pedidos no banco numa única atualização e grava uma transação por pedido
+    private LoyaltyProgram creditOrders(LoyaltyProgram program, List<DeliveredOrder> orders) {
         // Aplicar multiplicador baseado no tier
-        Integer pointsToAdd = basePoints * program.getPointsMultiplier();
-        
-        // Adicionar pontos
-        program.addPoints(pointsToAdd, order.getTotal());
-        
-        // Criar transação
-        String description = String.format("Pedido #%d - %d pontos (x%d)", 
-            order.getId(), pointsToAdd, program.getPointsMultiplier());
-        LoyaltyTransaction transaction = new LoyaltyTransaction(
-            program, order, LoyaltyTransaction.TransactionType.EARNED, 
-            pointsToAdd, description
-        );
-        
-        loyaltyTransactionRepository.save(transaction);
-        return loyaltyProgramRepository.save(program);
+        int multiplier = program.getPointsMultiplier();
+        int totalPoints = 0;
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        for (DeliveredOrder delivered : orders) {
+            totalPoints += basePoints(delivered.total()) * multiplier;
+            totalSpent = totalSpent.add(delivered.total());
+        }
+
+        loyaltyProgramRepository.creditPoints(program.getId(), totalPoints, totalSpent, orders.size(), LocalDateTime.now());
+        LoyaltyProgram current = reload(program.getId());
+
+        // A linha continua travada por esta transação: o saldo lido é o que acabamos de gravar
+        int balance = current.getAvailablePoints() - totalPoints;
+        List<LoyaltyTransaction> transactions = new ArrayList<>();
+        for (DeliveredOrder delivered : orders) {
+            int points = basePoints(delivered.total()) * multiplier;
+            String description = String.format("Pedido #%d - %d pontos (x%d)",
+                delivered.orderId(), points, multiplier);
+            transactions.add(new LoyaltyTransaction(current, orderRepository.getReferenceById(delivered.orderId()),
+                LoyaltyTransaction.TransactionType.EARNED, points, description, balance));
+            balance += points;
+        }
+        loyaltyTransactionRepository.saveAll(transactions);
+
+        current.checkTierUpgrade();
+        return loyaltyProgramRepository.save(current);
     }
 
     public LoyaltyProgram redeemPoints(Long userId, Integer points, String reason) {
+        if (points == null || points <= 0) {
+            throw new IllegalArgumentException("Pontos devem ser positivos");
+        }
         LoyaltyProgram program = loyaltyProgramRepository.findByUserId(userId)
             .orElseThrow(() -> new IllegalArgumentException("Programa de fidelidade não encontrado"));
-        
-        program.usePoints(points);
-        
+
+        // Débito condicional: dois resgates simultâneos não conseguem gastar o mesmo saldo
+        if (loyaltyProgramRepository.debitPoints(program.getId(), points, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Pontos insuficientes");
+        }
+        LoyaltyProgram current = reload(program.getId());
+
         // Criar transação
         LoyaltyTransaction transaction = new LoyaltyTransaction(
-            program, null, LoyaltyTransaction.TransactionType.REDEEMED, 
-            points, reason
+            current, null, LoyaltyTransaction.TransactionType.REDEEMED,
+            points, reason, current.getAvailablePoints() + points
         );
-        
+
         loyaltyTransactionRepository.save(transaction);
-        return loyaltyProgramRepository.save(program);
+        return current;
+    }
+
+    private LoyaltyProgram reload(Long programId) {
+        return loyaltyProgramRepository.findById(programId)
+            .orElseThrow(() -> new IllegalStateException("Programa de fidelidade removido durante a atualização"));
     }
 
     public Optional<LoyaltyProgram> findByUserId(Long userId) {
@@ -109,17 +207,23 @@ public class LoyaltyService {
     }
 
     public void addBonusPoints(Long userId, Integer points, String reason) {
+        if (points == null || points <= 0) {
+            throw new IllegalArgumentException("Pontos devem ser positivos");
+        }
         LoyaltyProgram program = loyaltyProgramRepository.findByUserId(userId)
             .orElseThrow(() -> new IllegalArgumentException("Programa de fidelidade não encontrado"));
-        
-        program.addPoints(points, BigDecimal.ZERO);
-        
+
+        // Bônus não conta como pedido nem como gasto
+        loyaltyProgramRepository.creditPoints(program.getId(), points, BigDecimal.ZERO, 0, LocalDateTime.now());
+        LoyaltyProgram current = reload(program.getId());
+
         LoyaltyTransaction transaction = new LoyaltyTransaction(
-            program, null, LoyaltyTransaction.TransactionType.BONUS, 
-            points, reason
+            current, null, LoyaltyTransaction.TransactionType.BONUS,
+            points, reason, current.getAvailablePoints() - points
         );
-        
+
         loyaltyTransactionRepository.save(transaction);
-        loyaltyProgramRepository.save(program);
+        current.checkTierUpgrade();
+        loyaltyProgramRepository.save(current);
     }
-}
\ No newline at end of file
+}
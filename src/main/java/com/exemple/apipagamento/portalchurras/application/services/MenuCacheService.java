@@ -0,0 +1,200 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.application.dtos.MenuItemDTO;
+import com.exemple.apipagamento.portalchurras.application.dtos.MenuResponseDTO;
+import com.exemple.apipagamento.portalchurras.application.mappers.MenuItemMapper;
+import com.exemple.apipagamento.portalchurras.domain.events.MenuChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cache do cardápio em dois níveis: um near-cache Caffeine em cada instância, com o cardápio
+ * já agrupado por categoria, e o cache "menu" do Redis compartilhado entre as instâncias.
+ *
+ * Mudanças no cardápio limpam os dois níveis após o commit e avisam as outras instâncias
+ * pelo canal {@link #INVALIDATION_CHANNEL}, para que descartem o próprio near-cache.
+ * Se o Redis estiver fora, o cache segue só com o nível local e o banco.
+ */
+@Service
+public class MenuCacheService {
+
+    public static final String CACHE_NAME = "menu";
+    public static final String INVALIDATION_CHANNEL = "menu-cache-invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuCacheService.class);
+    private static final String ACTIVE_MENU_KEY = "active";
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuItemMapper menuItemMapper;
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean redisEnabled;
+
+    private final Cache<String, MenuResponseDTO> nearCache;
+    private final Cache<String, String> versionCache;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    // Identifica esta instância para ignorar as próprias mensagens de invalidação
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public MenuCacheService(MenuItemRepository menuItemRepository,
+                            MenuItemMapper menuItemMapper,
+                            CacheManager cacheManager,
+                            RedisTemplate<String, Object> redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${menu.cache.redis.enabled:true}") boolean redisEnabled,
+                            @Value("${menu.cache.near-ttl:PT5M}") Duration nearTtl) {
+        this.menuItemRepository = menuItemRepository;
+        this.menuItemMapper = menuItemMapper;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.redisEnabled = redisEnabled;
+
+        // O TTL local só cobre mensagens de invalidação perdidas; a invalidação normal é por evento
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(16)
+                .expireAfterWrite(nearTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "menu.near");
+
+        // A versão fica só no nível local: uma consulta agregada barata, invalidada junto com o cardápio
+        this.versionCache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(nearTtl)
+                .build();
+
+        this.redisHits = Counter.builder("menu.cache.redis")
+                .tag("result", "hit")
+                .description("Leituras do cardápio atendidas pelo Redis")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("menu.cache.redis")
+                .tag("result", "miss")
+                .description("Leituras do cardápio que precisaram ir ao banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cardápio ativo agrupado por categoria. Em caso de miss local, só uma thread por instância
+     * consulta Redis/banco; as demais esperam o mesmo resultado.
+     */
+    public MenuResponseDTO getActiveMenu() {
+        return nearCache.get(ACTIVE_MENU_KEY, key -> loadFromRedisOrDatabase());
+    }
+
+    /**
+     * Versão atual do cardápio (hash hexadecimal), usada como ETag por todas as leituras do cardápio.
+     */
+    public String getMenuVersion() {
+        return versionCache.get(ACTIVE_MENU_KEY, key ->
+                DigestUtils.md5DigestAsHex(menuItemRepository.findCatalogVersion().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        logger.debug("Cardápio alterado (item {}), invalidando cache", event.getMenuItemId());
+        invalidate();
+        publishInvalidation();
+    }
+
+    /**
+     * Mensagem recebida do canal de invalidação. O Redis já foi limpo pela instância de origem.
+     */
+    public void onRemoteInvalidation(String originNodeId) {
+        if (!nodeId.equals(originNodeId)) {
+            versionCache.invalidateAll();
+            nearCache.invalidateAll();
+        }
+    }
+
+    public void invalidate() {
+        // Limpa o Redis antes e depois do local: uma carga em andamento pode ter gravado
+        // o valor antigo no Redis, e invalidateAll espera essa carga terminar
+        evictRedis();
+        versionCache.invalidateAll();
+        nearCache.invalidateAll();
+        evictRedis();
+    }
+
+    private MenuResponseDTO loadFromRedisOrDatabase() {
+        org.springframework.cache.Cache redisCache = redisCache();
+        if (redisCache != null) {
+            try {
+                MenuResponseDTO cached = redisCache.get(ACTIVE_MENU_KEY, MenuResponseDTO.class);
+                if (cached != null) {
+                    redisHits.increment();
+                    return cached;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao ler cardápio do Redis: {}", e.getMessage());
+            }
+        }
+
+        redisMisses.increment();
+        MenuResponseDTO menu = loadFromDatabase();
+
+        if (redisCache != null) {
+            try {
+                redisCache.put(ACTIVE_MENU_KEY, menu);
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao gravar cardápio no Redis: {}", e.getMessage());
+            }
+        }
+        return menu;
+    }
+
+    private MenuResponseDTO loadFromDatabase() {
+        List<MenuItemDTO> items = menuItemMapper.toDTOList(menuItemRepository.findByActiveTrue());
+        Map<String, List<MenuItemDTO>> menuByCategory = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getCategory().name().toLowerCase()));
+        return new MenuResponseDTO(menuByCategory);
+    }
+
+    private void evictRedis() {
+        org.springframework.cache.Cache redisCache = redisCache();
+        if (redisCache == null) {
+            return;
+        }
+        try {
+            redisCache.evict(ACTIVE_MENU_KEY);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao invalidar cardápio no Redis: {}", e.getMessage());
+        }
+    }
+
+    private void publishInvalidation() {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao publicar invalidação do cardápio: {}", e.getMessage());
+        }
+    }
+
+    private org.springframework.cache.Cache redisCache() {
+        return redisEnabled ? cacheManager.getCache(CACHE_NAME) : null;
+    }
+}
@@ -2,8 +2,10 @@ package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
 import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
+import com.exemple.apipagamento.portalchurras.domain.events.MenuChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
 import com.exemple.apipagamento.portalchurras.domain.usecases.MenuItemUseCases;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,9 +18,11 @@ import java.util.Optional;
 public class MenuItemService implements MenuItemUseCases {
 
     private final MenuItemRepository menuItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MenuItemService(MenuItemRepository menuItemRepository) {
+    public MenuItemService(MenuItemRepository menuItemRepository, ApplicationEventPublisher eventPublisher) {
         this.menuItemRepository = menuItemRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -31,7 +35,7 @@ public class MenuItemService implements MenuItemUseCases {
         }
 
         MenuItem menuItem = new MenuItem(name, description, price, category, preparationTime);
-        return menuItemRepository.save(menuItem);
+        return changed(menuItemRepository.save(menuItem));
     }
 
     @Override
@@ -47,46 +51,43 @@ public class MenuItemService implements MenuItemUseCases {
         }
 
         menuItem.updateDetails(name, description, price, preparationTime);
-        return menuItemRepository.save(menuItem);
+        return changed(menuItemRepository.save(menuItem));
     }
 
     @Override
-    // @CacheEvict(value = "menuItems", allEntries = true)  // TEMPORARILY DISABLED
     public void deleteMenuItem(Long id) {
         if (!menuItemRepository.findById(id).isPresent()) {
             throw new IllegalArgumentException("Item não encontrado: " + id);
         }
         menuItemRepository.deleteById(id);
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
     }
 
     @Override
-    // @CacheEvict(value = "menuItems", allEntries = true)  // TEMPORARILY DISABLED
     public void deactivateMenuItem(Long id) {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Item não encontrado: " + id));
 
         menuItem.deactivate();
-        menuItemRepository.save(menuItem);
+        changed(menuItemRepository.save(menuItem));
     }
 
     @Override
-    // @CacheEvict(value = "menuItems", allEntries = true)  // TEMPORARILY DISABLED
     public void activateMenuItem(Long id) {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Item não encontrado: " + id));
 
         menuItem.activate();
-        menuItemRepository.save(menuItem);
+        changed(menuItemRepository.save(menuItem));
     }
 
     @Override
-    // @CacheEvict(value = "menuItems", allEntries = true)  // TEMPORARILY DISABLED
     public MenuItem updateMenuItemImage(Long id, String imageUrl) {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Item não encontrado: " + id));
 
         menuItem.updateImageUrl(imageUrl);
-        return menuItemRepository.save(menuItem);
+        return changed(menuItemRepository.save(menuItem));
     }
 
     @Override
@@ -97,15 +98,19 @@ public class MenuItemService implements MenuItemUseCases {
 
     @Override
     @Transactional(readOnly = true)
-    // @Cacheable(value = "menuItems", key = "'active'")  // Desabilitado temporariamente para testes
     public List<MenuItem> findAllActiveMenuItems() {
         return menuItemRepository.findByActiveTrue();
     }
 
     @Override
     @Transactional(readOnly = true)
-    // @Cacheable(value = "menuItems", key = "'category:' + #category")  // Desabilitado temporariamente para testes
     public List<MenuItem> findMenuItemsByCategory(MenuCategory category) {
         return menuItemRepository.findByCategoryAndActiveTrue(category);
     }
+
+    // O cache do cardápio é invalidado após o commit (MenuCacheService)
+    private MenuItem changed(MenuItem menuItem) {
+        eventPublisher.publishEvent(new MenuChangedEvent(menuItem != null ? menuItem.getId() : null));
+        return menuItem;
+    }
 }
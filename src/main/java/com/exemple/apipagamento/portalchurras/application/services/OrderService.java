@@ -1,32 +1,48 @@
 package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderUpdatedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.*;
 import com.exemple.apipagamento.portalchurras.domain.usecases.OrderUseCases;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService implements OrderUseCases {
 
+    // Limite de linhas por carrinho; cada linha já tem a própria quantidade
+    static final int MAX_CART_ITEMS = 50;
+
     private final OrderRepository orderRepository;
     private final MenuItemRepository menuItemRepository;
     private final UserRepository userRepository; // ADICIONADO
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderService(OrderRepository orderRepository,
                         MenuItemRepository menuItemRepository,
-                        UserRepository userRepository) { // ADICIONADO
+                        UserRepository userRepository, // ADICIONADO
+                        ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.menuItemRepository = menuItemRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // ALTERADO: Método para criar pedido com usuário registrado
@@ -43,7 +59,7 @@ public class OrderService implements OrderUseCases {
         }
 
         Order order = new Order(customer, BigDecimal.ZERO, notes);
-        return orderRepository.save(order);
+        return created(orderRepository.save(order));
     }
 
     // ALTERADO: Método original atualizado para pedidos de convidados
@@ -64,15 +80,81 @@ public class OrderService implements OrderUseCases {
         if (existingUser != null) {
             // Se o usuário existe, criar pedido usando o usuário
             Order order = new Order(existingUser, total != null ? total : BigDecimal.ZERO, notes);
-            return orderRepository.save(order);
+            return created(orderRepository.save(order));
         } else {
             // Criar pedido como convidado
             Order order = new Order(customerName, customerEmail, customerPhone,
                     total != null ? total : BigDecimal.ZERO, notes);
-            return orderRepository.save(order);
+            return created(orderRepository.save(order));
         }
     }
 
+    @Override
+    public Order createOrderWithItems(Long customerId, String customerName, String customerEmail,
+                                      String customerPhone, String notes, List<CartItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("O pedido deve ter ao menos um item");
+        }
+        if (items.size() > MAX_CART_ITEMS) {
+            throw new IllegalArgumentException("O pedido pode ter no máximo " + MAX_CART_ITEMS + " itens");
+        }
+        for (CartItem item : items) {
+            if (item == null || item.menuItemId() == null) {
+                throw new IllegalArgumentException("ID do item do menu não pode ser nulo");
+            }
+            if (item.quantity() == null || item.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantidade deve ser maior que zero");
+            }
+        }
+
+        Order order = newOrder(customerId, customerName, customerEmail, customerPhone, notes);
+
+        // Todos os produtos do carrinho em uma consulta; disponibilidade e preço validados em memória
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(
+                        items.stream().map(CartItem::menuItemId).distinct().toList()).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+
+        for (CartItem item : items) {
+            MenuItem menuItem = menuItems.get(item.menuItemId());
+            if (menuItem == null) {
+                throw new IllegalArgumentException("Item do menu não encontrado: " + item.menuItemId());
+            }
+            if (!menuItem.getActive()) {
+                throw new IllegalArgumentException("Item do menu não está ativo: " + menuItem.getName());
+            }
+            if (menuItem.getPrice() == null || menuItem.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Item do menu sem preço válido: " + menuItem.getName());
+            }
+            order.addItem(menuItem, item.quantity(), item.observations());
+        }
+
+        return created(orderRepository.insertWithItems(order));
+    }
+
+    // Cliente do pedido com itens: cadastrado (por id ou pelo email informado) ou convidado
+    private Order newOrder(Long customerId, String customerName, String customerEmail,
+                           String customerPhone, String notes) {
+        if (customerId != null) {
+            User customer = userRepository.findById(customerId)
+                    .orElseThrow(() -> new IllegalArgumentException("Cliente não encontrado: " + customerId));
+            if (!customer.getActive()) {
+                throw new IllegalArgumentException("Cliente está inativo: " + customer.getEmail());
+            }
+            return new Order(customer, BigDecimal.ZERO, notes);
+        }
+
+        if (customerName == null || customerName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Nome do cliente é obrigatório");
+        }
+        if (customerEmail != null && !customerEmail.trim().isEmpty()) {
+            Optional<User> existingUser = userRepository.findByEmail(customerEmail.trim());
+            if (existingUser.isPresent()) {
+                return new Order(existingUser.get(), BigDecimal.ZERO, notes);
+            }
+        }
+        return new Order(customerName, customerEmail, customerPhone, BigDecimal.ZERO, notes);
+    }
+
     @Override
     public Order addItemToOrder(Long orderId, Long menuItemId, Integer quantity, String observations) {
         if (orderId == null) {
@@ -106,7 +188,7 @@ public class OrderService implements OrderUseCases {
             }
 
             order.addItem(menuItem, quantity, observations);
-            return orderRepository.save(order);
+            return updated(orderRepository.save(order));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao adicionar item ao pedido: " + e.getMessage(), e);
         }
@@ -125,7 +207,7 @@ public class OrderService implements OrderUseCases {
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderId));
 
         order.removeItem(orderItemId);
-        return orderRepository.save(order);
+        return updated(orderRepository.save(order));
     }
 
     @Override
@@ -144,7 +226,7 @@ public class OrderService implements OrderUseCases {
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderId));
 
         order.updateItemQuantity(orderItemId, newQuantity);
-        return orderRepository.save(order);
+        return updated(orderRepository.save(order));
     }
 
     @Override
@@ -159,8 +241,11 @@ public class OrderService implements OrderUseCases {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderId));
 
+        OrderStatus previousStatus = order.getStatus();
         order.updateStatus(newStatus);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder, previousStatus));
+        return savedOrder;
     }
 
     @Override
@@ -174,7 +259,7 @@ public class OrderService implements OrderUseCases {
 
         order.setNotes(notes != null ? notes.trim() : null);
 
-        return orderRepository.save(order);
+        return updated(orderRepository.save(order));
     }
 
     @Override
@@ -186,8 +271,11 @@ public class OrderService implements OrderUseCases {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Pedido não encontrado: " + orderId));
 
+        OrderStatus previousStatus = order.getStatus();
         order.cancel(reason);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder, previousStatus));
+        return savedOrder;
     }
 
     @Override
@@ -198,8 +286,9 @@ public class OrderService implements OrderUseCases {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Order> findAllOrders() {
-        return orderRepository.findAll();
+    public Optional<String> findOrderVersion(Long id) {
+        return orderRepository.findVersionById(id)
+                .map(version -> DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)));
     }
 
     @Override
@@ -259,12 +348,75 @@ public class OrderService implements OrderUseCases {
                 OrderStatus.IN_PREPARATION,
                 OrderStatus.READY
         );
-        return activeStatuses.stream()
-                .flatMap(status -> orderRepository.findByStatus(status).stream())
-                .distinct()
+        // Uma única consulta com o grafo completo; a ordenação estável mantém a ordem de criação dentro de cada status
+        return orderRepository.findByStatusIn(activeStatuses).stream()
+                .sorted(Comparator.comparingInt(order -> activeStatuses.indexOf(order.getStatus())))
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPage findOrdersPage(OrderCursor after, int size) {
+        validatePageSize(size);
+        return OrderPage.fromLookahead(orderRepository.findPage(cursorOrFirst(after), size + 1), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPage findOrdersPageByStatus(OrderStatus status, OrderCursor after, int size) {
+        validatePageSize(size);
+        return OrderPage.fromLookahead(orderRepository.findPageByStatus(status, cursorOrFirst(after), size + 1), size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPage findOrdersPageByCustomerEmail(String customerEmail, OrderCursor after, int size) {
+        if (customerEmail == null || customerEmail.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email do cliente não pode estar vazio");
+        }
+        validatePageSize(size);
+
+        Optional<User> user = userRepository.findByEmail(customerEmail.trim());
+        List<Order> fetched = user.isPresent()
+                ? orderRepository.findPageByCustomer(user.get(), cursorOrFirst(after), size + 1)
+                : orderRepository.findPageByCustomerEmail(customerEmail.trim(), cursorOrFirst(after), size + 1);
+        return OrderPage.fromLookahead(fetched, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPage findOrdersPageByDateRange(LocalDateTime start, LocalDateTime end, OrderCursor after, int size) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Data de início não pode ser posterior à data de fim");
+        }
+        validatePageSize(size);
+        return OrderPage.fromLookahead(
+                orderRepository.findPageByCreatedAtBetween(start, end, cursorOrFirst(after), size + 1), size);
+    }
+
+    private Order created(Order order) {
+        eventPublisher.publishEvent(new OrderCreatedEvent(order));
+        return order;
+    }
+
+    private Order updated(Order order) {
+        eventPublisher.publishEvent(new OrderUpdatedEvent(order));
+        return order;
+    }
+
+    private void validatePageSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
+        }
+    }
+
+    private OrderCursor cursorOrFirst(OrderCursor after) {
+        return after != null ? after : OrderCursor.first();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BigDecimal calculateOrderTotal(Long orderId) {
@@ -0,0 +1,112 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.OrderEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena a outbox para o RabbitMQ em lotes com publisher confirms. Só um nó publica por vez
+ * (scheduler_locks), o que mantém a ordem por pedido/pagamento. A linha só é apagada depois
+ * da confirmação do broker: uma queda no meio do lote gera reenvio, nunca perda.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String LOCK_NAME = "outbox-relay";
+
+    private final OutboxService outboxService;
+    private final OrderEventPublisher publisher;
+    private final SchedulerLockService lockService;
+    private final OutboxProperties properties;
+    private final Timer relayTimer;
+    private final Counter published;
+    private final Counter failed;
+    private final AtomicLong pending = new AtomicLong();
+
+    public OutboxRelay(OutboxService outboxService,
+                       OrderEventPublisher publisher,
+                       SchedulerLockService lockService,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxService = outboxService;
+        this.publisher = publisher;
+        this.lockService = lockService;
+        this.properties = properties;
+        this.relayTimer = Timer.builder("messaging.outbox.relay")
+                .description("Duração de cada execução do relay da outbox")
+                .register(meterRegistry);
+        this.published = Counter.builder("messaging.outbox.published")
+                .description("Eventos da outbox confirmados pelo broker")
+                .register(meterRegistry);
+        this.failed = Counter.builder("messaging.outbox.failed")
+                .description("Tentativas de publicação da outbox sem confirmação")
+                .register(meterRegistry);
+        Gauge.builder("messaging.outbox.pending", pending, AtomicLong::get)
+                .description("Eventos pendentes na outbox ao fim da última execução do relay")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${messaging.outbox.poll-interval:PT1S}")
+    public void poll() {
+        if (!properties.isEnabled() || !properties.isRelayEnabled()) {
+            return;
+        }
+        try {
+            lockService.runExclusively(LOCK_NAME, properties.getLockLease(), this::relay);
+        } catch (RuntimeException e) {
+            logger.error("Erro no relay da outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Publica lotes até a outbox esvaziar ou o limite por execução ser atingido, sem lock.
+     * Retorna quantos eventos foram confirmados.
+     */
+    public int relay() {
+        return relayTimer.record(() -> {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            int total = 0;
+
+            for (int run = 0; run < Math.max(1, properties.getMaxBatchesPerRun()); run++) {
+                List<OutboxEvent> batch = outboxService.findDispatchable(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                OrderEventPublisher.PublishResult result = publisher.publish(batch, properties.getConfirmTimeout());
+                outboxService.markPublished(result.confirmed());
+                result.failed().forEach(outboxService::markFailed);
+
+                published.increment(result.confirmed().size());
+                failed.increment(result.failed().size());
+                total += result.confirmed().size();
+
+                // Lote incompleto ou broker com problema: o restante fica para a próxima execução
+                if (batch.size() < batchSize || !result.failed().isEmpty()) {
+                    break;
+                }
+            }
+
+            pending.set(outboxService.countPending());
+            if (total > 0) {
+                logger.debug("{} eventos da outbox publicados", total);
+            }
+            return total;
+        });
+    }
+}
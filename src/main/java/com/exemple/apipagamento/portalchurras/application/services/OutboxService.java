@@ -0,0 +1,142 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.LoyaltyPointsEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.OrderStatusChangeEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.NewOrderEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.PaymentStatusChangeEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox transacional das mensagens do RabbitMQ. Os eventos de domínio viram linhas de outbox_events
+ * dentro da transação que alterou o pedido ou o pagamento: ou os dois são gravados, ou nenhum.
+ * A publicação fica com o {@link OutboxRelay}, fora da requisição.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxRepository,
+                         OutboxProperties properties,
+                         ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Order order = event.getOrder();
+        User customer = order.getCustomer();
+        enqueue(OutboxEventType.NEW_ORDER, order.getId(), new NewOrderEvent(order.getId(),
+                customer != null ? customer.getId() : null,
+                customer != null ? customer.getName() : null,
+                customer != null ? customer.getEmail() : null,
+                order.getTotal()));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!properties.isEnabled() || event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        Order order = event.getOrder();
+        User customer = order.getCustomer();
+        enqueue(OutboxEventType.ORDER_STATUS_CHANGED, order.getId(), new OrderStatusChangeEvent(order.getId(),
+                event.getPreviousStatus(), event.getNewStatus(),
+                customer != null ? customer.getEmail() : null,
+                customer != null ? customer.getName() : null,
+                order.getTotal()));
+
+        // Pontos de fidelidade só para clientes cadastrados; o crédito acontece no LoyaltyConsumer
+        if (event.getNewStatus() == OrderStatus.DELIVERED && customer != null) {
+            enqueue(OutboxEventType.LOYALTY_POINTS, order.getId(),
+                    new LoyaltyPointsEvent(order.getId(), customer.getId(), order.getTotal()));
+        }
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (!properties.isEnabled() || event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        Payment payment = event.getPayment();
+        enqueue(OutboxEventType.PAYMENT_STATUS_CHANGED, payment.getId(), new PaymentStatusChangeEvent(
+                payment.getId(), payment.getOrder() != null ? payment.getOrder().getId() : null,
+                payment.getMethod(), event.getPreviousStatus(), event.getNewStatus(), payment.getAmount()));
+    }
+
+    /**
+     * Próximos eventos a publicar, do mais antigo para o mais novo, no máximo um por agregado.
+     */
+    @Transactional(readOnly = true)
+    public List<OutboxEvent> findDispatchable(int limit) {
+        return outboxRepository.findDispatchable(LocalDateTime.now(), OutboxStatus.PENDING, PageRequest.of(0, limit));
+    }
+
+    // Confirmados pelo broker: não há mais o que guardar
+    @Transactional
+    public int markPublished(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return outboxRepository.deleteByIdIn(ids);
+    }
+
+    @Transactional
+    public void markFailed(Long id, String error) {
+        outboxRepository.findById(id).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= properties.getMaxAttempts()) {
+                event.markDead(error);
+                logger.error("Evento {} da outbox ({} {}) descartado após {} tentativas: {}", event.getId(),
+                        event.getEventType(), event.getAggregateId(), attempts, error);
+            } else {
+                event.scheduleRetry(error, LocalDateTime.now().plus(properties.backoffFor(attempts)));
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboxRepository.countByStatus(OutboxStatus.PENDING);
+    }
+
+    private void enqueue(OutboxEventType type, Long aggregateId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o evento " + type, e);
+        }
+        outboxRepository.save(new OutboxEvent(type, aggregateId, payload.getClass().getName(), json));
+    }
+}
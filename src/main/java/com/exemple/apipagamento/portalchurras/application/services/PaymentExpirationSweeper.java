@@ -0,0 +1,134 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.PaymentExpirationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Expira pagamentos pendentes ou em processamento que passaram da janela de pagamento.
+ * PIX tem janela própria, mais curta. A expiração é feita em lotes de ids com UPDATE em massa,
+ * cada lote na sua transação, e só um nó executa a varredura por vez. Cada pagamento expirado gera um
+ * {@link PaymentStatusChangedEvent} na transação do lote, como as demais mudanças de status.
+ */
+@Component
+public class PaymentExpirationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentExpirationSweeper.class);
+
+    static final String LOCK_NAME = "payment-expiration-sweeper";
+
+    private final PaymentRepository paymentRepository;
+    private final SchedulerLockService lockService;
+    private final PaymentExpirationProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer sweepTimer;
+    private final DistributionSummary expiredPerRun;
+
+    public PaymentExpirationSweeper(PaymentRepository paymentRepository,
+                                    SchedulerLockService lockService,
+                                    PaymentExpirationProperties properties,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.lockService = lockService;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sweepTimer = Timer.builder("payments.expiration.sweep")
+                .description("Duração de cada varredura de expiração de pagamentos")
+                .register(meterRegistry);
+        this.expiredPerRun = DistributionSummary.builder("payments.expiration.expired")
+                .description("Pagamentos expirados por varredura")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.expiration.sweep-interval:PT1M}",
+               initialDelayString = "${payments.expiration.sweep-interval:PT1M}")
+    public void scheduledSweep() {
+        if (!properties.isSweeperEnabled()) {
+            return;
+        }
+        try {
+            lockService.runExclusively(LOCK_NAME, properties.getLockLease(), this::sweep);
+        } catch (RuntimeException e) {
+            logger.error("Erro na varredura de expiração de pagamentos: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executa uma varredura completa sem lock. Retorna quantos pagamentos foram expirados.
+     */
+    public int sweep() {
+        return sweepTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+
+            // PIX primeiro: a janela curta pega pagamentos que a janela geral ainda não alcançou
+            int expired = expireInChunks(now.minus(properties.getPixWindow()),
+                    paymentRepository::findExpiredPixPaymentIds);
+            expired += expireInChunks(now.minus(properties.getWindow()),
+                    paymentRepository::findExpiredPaymentIds);
+
+            expiredPerRun.record(expired);
+            if (expired > 0) {
+                logger.info("{} pagamentos expirados", expired);
+            }
+            return expired;
+        });
+    }
+
+    private int expireInChunks(LocalDateTime createdBefore,
+                               BiFunction<LocalDateTime, Integer, List<Long>> findIds) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        int total = 0;
+
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<Long> ids = findIds.apply(createdBefore, chunkSize);
+                return ids.isEmpty() ? -1 : expireChunk(ids);
+            });
+            // Sem ids elegíveis: a varredura desta janela terminou
+            if (updated == null || updated < 0) {
+                return total;
+            }
+            total += updated;
+        }
+    }
+
+    // As linhas ficam travadas até o commit: o status anterior lido aqui é o que o UPDATE substitui
+    private int expireChunk(List<Long> ids) {
+        List<Payment> payments = paymentRepository.lockExpirableByIds(ids);
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        int updated = paymentRepository.expireByIds(payments.stream().map(Payment::getId).toList(),
+                LocalDateTime.now());
+
+        // Depois do UPDATE as entidades estão fora do contexto: expire() só acerta o estado publicado no evento
+        for (Payment payment : payments) {
+            PaymentStatus previousStatus = payment.getStatus();
+            payment.expire();
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(payment, previousStatus));
+        }
+        return updated;
+    }
+}
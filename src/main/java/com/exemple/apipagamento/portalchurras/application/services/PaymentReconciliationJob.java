@@ -0,0 +1,156 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGateway;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGatewayResponse;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.domain.usecases.PaymentUseCases;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.PaymentReconciliationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reconsulta no provedor os pagamentos parados em PROCESSING, para recuperar webhooks que nunca chegaram.
+ * As consultas saem em paralelo pelo gateway assíncrono, limitadas a max-concurrency em voo; cada resposta
+ * que muda o status é aplicada na sua própria transação curta. Só um nó executa por vez.
+ */
+@Component
+public class PaymentReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationJob.class);
+
+    static final String LOCK_NAME = "payment-reconciliation";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+    private final PaymentUseCases paymentUseCases;
+    private final SchedulerLockService lockService;
+    private final PaymentReconciliationProperties properties;
+    private final TransactionTemplate readTransaction;
+    private final Timer runTimer;
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter failed;
+
+    public PaymentReconciliationJob(PaymentRepository paymentRepository,
+                                    PaymentGateway paymentGateway,
+                                    PaymentUseCases paymentUseCases,
+                                    SchedulerLockService lockService,
+                                    PaymentReconciliationProperties properties,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.paymentGateway = paymentGateway;
+        this.paymentUseCases = paymentUseCases;
+        this.lockService = lockService;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.runTimer = Timer.builder("payments.reconciliation.run")
+                .description("Duração de cada reconciliação de pagamentos com o provedor")
+                .register(meterRegistry);
+        this.updated = checked(meterRegistry, "updated");
+        this.unchanged = checked(meterRegistry, "unchanged");
+        this.failed = checked(meterRegistry, "error");
+    }
+
+    @Scheduled(fixedDelayString = "${payments.reconciliation.interval:PT2M}",
+               initialDelayString = "${payments.reconciliation.interval:PT2M}")
+    public void scheduledRun() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            lockService.runExclusively(LOCK_NAME, properties.getLockLease(), this::reconcile);
+        } catch (RuntimeException e) {
+            logger.error("Erro na reconciliação de pagamentos: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executa uma reconciliação completa sem lock. Retorna quantos pagamentos mudaram de status.
+     */
+    public int reconcile() {
+        return runTimer.record(() -> {
+            LocalDateTime updatedBefore = LocalDateTime.now().minus(properties.getMinAge());
+            int batchSize = Math.max(1, properties.getBatchSize());
+            Semaphore inFlight = new Semaphore(Math.max(1, properties.getMaxConcurrency()));
+            AtomicInteger changed = new AtomicInteger();
+            String after = "";
+            int checked = 0;
+
+            while (checked < properties.getMaxPerRun()) {
+                int limit = Math.min(batchSize, properties.getMaxPerRun() - checked);
+                String cursor = after;
+                List<String> externalIds = readTransaction.execute(status ->
+                        paymentRepository.findProcessingExternalIds(updatedBefore, cursor, limit));
+                if (externalIds == null || externalIds.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<Void>> calls = new ArrayList<>(externalIds.size());
+                for (String externalId : externalIds) {
+                    inFlight.acquireUninterruptibly();
+                    calls.add(paymentGateway.getPaymentStatusAsync(externalId)
+                            .thenAccept(response -> {
+                                if (apply(externalId, response)) {
+                                    changed.incrementAndGet();
+                                }
+                            })
+                            .whenComplete((result, error) -> inFlight.release()));
+                }
+                CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+                checked += externalIds.size();
+                after = externalIds.get(externalIds.size() - 1);
+                if (externalIds.size() < limit) {
+                    break;
+                }
+            }
+
+            if (changed.get() > 0) {
+                logger.info("Reconciliação: {} de {} pagamentos mudaram de status", changed.get(), checked);
+            }
+            return changed.get();
+        });
+    }
+
+    // Roda na virtual thread que recebeu a resposta; erros ficam nesta consulta e não param as demais
+    private boolean apply(String externalId, PaymentGatewayResponse response) {
+        if (response == null || !response.isSuccess()) {
+            failed.increment();
+            logger.debug("Consulta do pagamento {} falhou: {}", externalId,
+                    response != null ? response.getErrorMessage() : "sem resposta");
+            return false;
+        }
+        try {
+            boolean changed = paymentUseCases.reconcilePaymentStatus(externalId, response.getStatus());
+            (changed ? updated : unchanged).increment();
+            return changed;
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Não foi possível reconciliar o pagamento {}: {}", externalId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Counter checked(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payments.reconciliation.checked")
+                .description("Pagamentos reconsultados no provedor, por resultado")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
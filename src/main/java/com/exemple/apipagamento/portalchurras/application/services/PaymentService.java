@@ -2,18 +2,28 @@ package com.exemple.apipagamento.portalchurras.application.services;
 
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.*;
 import com.exemple.apipagamento.portalchurras.domain.usecases.PaymentUseCases;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,16 +35,28 @@ public class PaymentService implements PaymentUseCases {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentGateway paymentGateway;
+    private final QrCodeStore qrCodeStore;
     private final ObjectMapper objectMapper;
+    private final PaymentExpirationSweeper expirationSweeper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     public PaymentService(PaymentRepository paymentRepository,
                           OrderRepository orderRepository,
                           PaymentGateway paymentGateway,
-                          ObjectMapper objectMapper) {
+                          QrCodeStore qrCodeStore,
+                          ObjectMapper objectMapper,
+                          PaymentExpirationSweeper expirationSweeper,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.paymentGateway = paymentGateway;
+        this.qrCodeStore = qrCodeStore;
         this.objectMapper = objectMapper;
+        this.expirationSweeper = expirationSweeper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -59,40 +81,44 @@ public class PaymentService implements PaymentUseCases {
         }
 
         Payment payment = new Payment(order, method, amount);
-        return paymentRepository.save(payment);
+        return saved(payment, null);
     }
 
+    /**
+     * A chamada ao provedor acontece fora de transação: a primeira transação só lê o pagamento e monta
+     * a requisição, a segunda grava o resultado. Nenhuma conexão do pool fica presa esperando o HTTP.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Payment processPayment(Long paymentId) {
         if (paymentId == null) {
             throw new IllegalArgumentException("ID do pagamento não pode ser nulo");
         }
 
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Pagamento não encontrado: " + paymentId));
-
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            throw new IllegalStateException("Pagamento deve estar pendente para ser processado");
-        }
+        PaymentGatewayRequest request = transactionTemplate.execute(status -> {
+            Payment payment = findPayment(paymentId);
+            if (payment.getStatus() != PaymentStatus.PENDING) {
+                throw new IllegalStateException("Pagamento deve estar pendente para ser processado");
+            }
+            return buildPaymentRequest(payment);
+        });
 
-        try {
-            PaymentGatewayRequest request = buildPaymentRequest(payment);
-            PaymentGatewayResponse response = paymentGateway.createPaymentPreference(request);
+        PaymentGatewayResponse response = await(paymentGateway.createPaymentPreferenceAsync(request), "Erro interno: ");
 
+        return afterGatewayCall(paymentId, response, status -> {
+            Payment payment = findPendingAfterGatewayCall(paymentId);
             if (response.isSuccess()) {
                 payment.markAsProcessing(response.getExternalPaymentId(), response.getExternalPreferenceId());
-                payment.updateExternalResponse(serializeResponse(response.getRawResponse()));
+                payment.updateExternalResponse(response.getRawResponse());
             } else {
                 payment.reject(response.getErrorMessage());
             }
-        } catch (Exception e) {
-            payment.reject("Erro interno: " + e.getMessage());
-        }
-
-        return paymentRepository.save(payment);
+            return saved(payment, PaymentStatus.PENDING);
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Payment createPixPayment(Long paymentId, String customerEmail) {
         if (paymentId == null) {
             throw new IllegalArgumentException("ID do pagamento não pode ser nulo");
@@ -101,80 +127,81 @@ public class PaymentService implements PaymentUseCases {
             throw new IllegalArgumentException("Email do cliente é obrigatório para PIX");
         }
 
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Pagamento não encontrado: " + paymentId));
-
-        if (payment.getMethod() != PaymentMethod.PIX) {
-            throw new IllegalArgumentException("Pagamento deve ser do tipo PIX");
-        }
-
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            throw new IllegalStateException("Pagamento deve estar pendente para criar PIX");
-        }
-
-        try {
-            PaymentGatewayRequest request = buildPaymentRequest(payment);
-            request.setCustomerEmail(customerEmail.trim());
+        PaymentGatewayRequest request = transactionTemplate.execute(status -> {
+            Payment payment = findPayment(paymentId);
+            if (payment.getMethod() != PaymentMethod.PIX) {
+                throw new IllegalArgumentException("Pagamento deve ser do tipo PIX");
+            }
+            if (payment.getStatus() != PaymentStatus.PENDING) {
+                throw new IllegalStateException("Pagamento deve estar pendente para criar PIX");
+            }
+            PaymentGatewayRequest pixRequest = buildPaymentRequest(payment);
+            pixRequest.setCustomerEmail(customerEmail.trim());
+            return pixRequest;
+        });
 
-            PaymentGatewayResponse response = paymentGateway.createPixPayment(request);
+        PaymentGatewayResponse response = await(paymentGateway.createPixPaymentAsync(request), "Erro ao criar PIX: ");
+        byte[] qrCodeImage = response.isSuccess() ? decodeQrCodeImage(response.getQrCodeBase64()) : null;
 
+        return afterGatewayCall(paymentId, response, status -> {
+            Payment payment = findPendingAfterGatewayCall(paymentId);
             if (response.isSuccess()) {
                 payment.markAsProcessing(response.getExternalPaymentId(), response.getExternalPreferenceId());
-                payment.setPixData(response.getQrCode(), response.getQrCodeBase64(), response.getTicketUrl());
-                payment.updateExternalResponse(serializeResponse(response.getRawResponse()));
+                payment.setPixData(response.getQrCode(), qrCodeImage != null ? qrCodeStore.save(qrCodeImage) : null,
+                        response.getTicketUrl());
+                payment.updateExternalResponse(response.getRawResponse());
             } else {
                 payment.reject(response.getErrorMessage());
             }
-        } catch (Exception e) {
-            payment.reject("Erro ao criar PIX: " + e.getMessage());
-        }
-
-        return paymentRepository.save(payment);
+            return saved(payment, PaymentStatus.PENDING);
+        });
     }
 
+    /**
+     * Reconciliação: só grava quando o status do provedor leva a uma transição. Status intermediários
+     * (pending, in_process) e o status atual não geram escrita nem evento.
+     */
     @Override
-    public Payment processWebhook(Map<String, Object> webhookData) {
-        if (webhookData == null || webhookData.isEmpty()) {
-            throw new IllegalArgumentException("Dados do webhook não podem ser nulos ou vazios");
+    public boolean reconcilePaymentStatus(String externalPaymentId, String providerStatus) {
+        PaymentStatus target = toPaymentStatus(providerStatus);
+        if (target == null) {
+            return false;
         }
+        Payment payment = paymentRepository.findByExternalPaymentId(externalPaymentId).orElse(null);
+        if (payment == null || payment.getStatus() == target) {
+            return false;
+        }
+        PaymentStatus previousStatus = payment.getStatus();
+        if (!applyTransition(payment, target)) {
+            return false;
+        }
+        saved(payment, previousStatus);
+        return true;
+    }
 
-        try {
-            PaymentWebhookResponse webhookResponse = paymentGateway.processWebhook(webhookData);
-
-            if (!webhookResponse.isValid()) {
-                throw new IllegalArgumentException("Webhook inválido");
-            }
+    /**
+     * Aplica o status consultado no provedor. É idempotente: reentregas com o status atual
+     * não fazem nada além de atualizar a resposta externa, e transições inválidas
+     * (ex.: rejeitar um pagamento já aprovado) são ignoradas em vez de falhar.
+     */
+    @Override
+    public Payment applyWebhookStatus(String externalPaymentId, String providerStatus,
+                                      Map<String, Object> webhookData) {
+        if (externalPaymentId == null || externalPaymentId.trim().isEmpty()) {
+            throw new IllegalArgumentException("ID externo do pagamento não pode ser nulo ou vazio");
+        }
 
-            Payment payment = paymentRepository.findByExternalPaymentId(webhookResponse.getExternalPaymentId())
-                    .orElseThrow(() -> new IllegalArgumentException("Pagamento não encontrado: " + webhookResponse.getExternalPaymentId()));
-
-            // Atualizar status baseado no webhook
-            String status = webhookResponse.getStatus();
-            if (status != null) {
-                switch (status.toLowerCase()) {
-                    case "approved":
-                        payment.approve();
-                        break;
-                    case "rejected":
-                        payment.reject("Rejeitado pelo provedor");
-                        break;
-                    case "cancelled":
-                        payment.cancel("Cancelado pelo provedor");
-                        break;
-                    case "expired":
-                        payment.expire();
-                        break;
-                    default:
-                        // Status desconhecido, apenas atualizar a resposta externa
-                        break;
-                }
-            }
+        Payment payment = paymentRepository.findByExternalPaymentId(externalPaymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Pagamento não encontrado: " + externalPaymentId));
 
-            payment.updateExternalResponse(serializeResponse(webhookData));
-            return paymentRepository.save(payment);
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao processar webhook: " + e.getMessage(), e);
+        PaymentStatus previousStatus = payment.getStatus();
+        PaymentStatus target = toPaymentStatus(providerStatus);
+        if (target != null && target != payment.getStatus()) {
+            applyTransition(payment, target);
         }
+
+        payment.updateExternalResponse(serializeResponse(webhookData));
+        return saved(payment, previousStatus);
     }
 
     @Override
@@ -189,30 +216,121 @@ public class PaymentService implements PaymentUseCases {
         return paymentRepository.findByOrderId(orderId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<byte[]> findPixQrCodeImage(String hash) {
+        return qrCodeStore.findByHash(hash);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Payment> findExpiredPayments() {
         return paymentRepository.findExpiredPayments();
     }
 
+    /**
+     * Expira em lote, via UPDATE em massa, sem carregar os pagamentos. Sem transação própria:
+     * cada lote da varredura é confirmado separadamente.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void expirePayments() {
         try {
-            List<Payment> expiredPayments = findExpiredPayments();
-            for (Payment payment : expiredPayments) {
-                try {
-                    payment.expire();
-                    paymentRepository.save(payment);
-                } catch (Exception e) {
-                    // Log do erro mas continua processando outros pagamentos
-                    logger.error("Erro ao expirar pagamento {}: {}", payment.getId(), e.getMessage(), e);
-                }
-            }
+            expirationSweeper.sweep();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao processar expiração de pagamentos: " + e.getMessage(), e);
         }
     }
 
+    private boolean applyTransition(Payment payment, PaymentStatus target) {
+        try {
+            switch (target) {
+                case APPROVED -> payment.approve();
+                case REJECTED -> payment.reject("Rejeitado pelo provedor");
+                case CANCELLED -> payment.cancel("Cancelado pelo provedor");
+                case EXPIRED -> payment.expire();
+                default -> { return false; }
+            }
+            return true;
+        } catch (IllegalStateException e) {
+            logger.warn("Transição de {} para {} ignorada no pagamento {}: {}",
+                    payment.getStatus(), target, payment.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private Payment findPayment(Long paymentId) {
+        return paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Pagamento não encontrado: " + paymentId));
+    }
+
+    // Outra requisição ou a expiração podem ter mudado o pagamento enquanto o provedor respondia
+    private Payment findPendingAfterGatewayCall(Long paymentId) {
+        Payment payment = findPayment(paymentId);
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            throw new PaymentChangedDuringGatewayCallException("Pagamento mudou para " + payment.getStatus()
+                    + " durante a chamada ao provedor");
+        }
+        return payment;
+    }
+
+    /**
+     * Grava o resultado do provedor na segunda transação. Se o pagamento mudou nesse meio tempo, a cobrança
+     * já criada no provedor ficaria órfã: ela é cancelada, fora da transação, antes de propagar o erro.
+     */
+    private Payment afterGatewayCall(Long paymentId, PaymentGatewayResponse response,
+                                     TransactionCallback<Payment> applyResponse) {
+        try {
+            return transactionTemplate.execute(applyResponse);
+        } catch (PaymentChangedDuringGatewayCallException e) {
+            if (response.isSuccess()) {
+                cancelOrphanedCharge(paymentId, response);
+            }
+            throw e;
+        }
+    }
+
+    // Melhor esforço: os ids externos ficam no log para conciliação manual se o cancelamento falhar
+    private void cancelOrphanedCharge(Long paymentId, PaymentGatewayResponse response) {
+        String externalPaymentId = response.getExternalPaymentId();
+        if (externalPaymentId == null) {
+            // Preferência de checkout ainda sem pagamento: não há cobrança a cancelar
+            logger.warn("Preferência {} do pagamento {} descartada: o pagamento mudou durante a chamada ao provedor",
+                    response.getExternalPreferenceId(), paymentId);
+            return;
+        }
+
+        try {
+            PaymentGatewayResponse cancellation = paymentGateway.cancelPayment(externalPaymentId);
+            if (cancellation != null && cancellation.isSuccess()) {
+                logger.warn("Cobrança {} do pagamento {} cancelada: o pagamento mudou durante a chamada ao provedor",
+                        externalPaymentId, paymentId);
+                return;
+            }
+            logger.error("Cobrança órfã {} do pagamento {} não foi cancelada: {}", externalPaymentId, paymentId,
+                    cancellation != null ? cancellation.getErrorMessage() : "sem resposta");
+        } catch (RuntimeException e) {
+            logger.error("Cobrança órfã {} do pagamento {} não foi cancelada: {}", externalPaymentId, paymentId,
+                    e.getMessage(), e);
+        }
+    }
+
+    private static class PaymentChangedDuringGatewayCallException extends IllegalStateException {
+        PaymentChangedDuringGatewayCallException(String message) {
+            super(message);
+        }
+    }
+
+    // O gateway devolve falhas como resposta de erro; exceções aqui são só da espera em si
+    private PaymentGatewayResponse await(CompletableFuture<PaymentGatewayResponse> call, String errorPrefix) {
+        try {
+            return call.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return PaymentGatewayResponse.error(errorPrefix + cause.getMessage());
+        }
+    }
+
     private PaymentGatewayRequest buildPaymentRequest(Payment payment) {
         PaymentGatewayRequest request = new PaymentGatewayRequest(
                 payment.getOrder().getId(),
@@ -237,6 +355,42 @@ public class PaymentService implements PaymentUseCases {
         return request;
     }
 
+    // Status desconhecidos (ex.: in_process) só atualizam a resposta externa
+    private PaymentStatus toPaymentStatus(String providerStatus) {
+        if (providerStatus == null) {
+            return null;
+        }
+        return switch (providerStatus.toLowerCase()) {
+            case "approved" -> PaymentStatus.APPROVED;
+            case "rejected" -> PaymentStatus.REJECTED;
+            case "cancelled" -> PaymentStatus.CANCELLED;
+            case "expired" -> PaymentStatus.EXPIRED;
+            default -> null;
+        };
+    }
+
+    // Publica só quando o status mudou; reentregas de webhook com o mesmo status não geram evento
+    private Payment saved(Payment payment, PaymentStatus previousStatus) {
+        Payment savedPayment = paymentRepository.save(payment);
+        if (payment.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(payment, previousStatus));
+        }
+        return savedPayment;
+    }
+
+    // Sem imagem ou com Base64 inválido o PIX segue valendo: o código copia-e-cola continua no pagamento
+    private byte[] decodeQrCodeImage(String qrCodeBase64) {
+        if (qrCodeBase64 == null || qrCodeBase64.isBlank()) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(qrCodeBase64);
+        } catch (IllegalArgumentException e) {
+            logger.warn("QR Code PIX com Base64 inválido descartado: {}", e.getMessage());
+            return null;
+        }
+    }
+
     private String serializeResponse(Object response) {
         try {
             return objectMapper.writeValueAsString(response);
@@ -2,10 +2,18 @@ package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
 import com.exemple.apipagamento.portalchurras.infrastructure.repositories.*;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -14,246 +22,251 @@ import java.util.stream.Collectors;
 @Service
 public class ReportService {
 
+    private static final int TOP_CUSTOMERS_LIMIT = 20;
+
+    // Faixas na mesma ordem das colunas de JpaOrderRepository.countRepeatPurchaseIntervals
+    private static final String[] REPEAT_INTERVAL_BUCKETS = {"ATE_1_DIA", "1_A_7_DIAS", "7_A_30_DIAS", "30_DIAS_OU_MAIS"};
+
     private final JpaOrderRepository orderRepository;
-    private final JpaPaymentRepository paymentRepository;
     private final JpaUserRepository userRepository;
+    private final HourlySalesRollupRepository salesRollupRepository;
+    private final HourlyProductSalesRollupRepository productSalesRollupRepository;
+    private final Cache<LocalDate, DashboardMetrics> dashboardCache;
+    private final Timer dashboardTimer;
+    private final SalesCounters salesCounters;
 
     public ReportService(JpaOrderRepository orderRepository,
-                        JpaPaymentRepository paymentRepository,
-                        JpaUserRepository userRepository) {
+                        JpaUserRepository userRepository,
+                        HourlySalesRollupRepository salesRollupRepository,
+                        HourlyProductSalesRollupRepository productSalesRollupRepository,
+                        SalesCounters salesCounters,
+                        MeterRegistry meterRegistry,
+                        @Value("${reports.dashboard.cache-ttl:PT5S}") Duration dashboardCacheTtl) {
         this.orderRepository = orderRepository;
-        this.paymentRepository = paymentRepository;
         this.userRepository = userRepository;
+        this.salesRollupRepository = salesRollupRepository;
+        this.productSalesRollupRepository = productSalesRollupRepository;
+        this.salesCounters = salesCounters;
+        // Chave pelo dia: na virada da meia-noite a entrada anterior simplesmente deixa de ser lida
+        this.dashboardCache = Caffeine.newBuilder()
+            .maximumSize(2)
+            .expireAfterWrite(dashboardCacheTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, dashboardCache, "reports.dashboard");
+        this.dashboardTimer = Timer.builder("reports.dashboard.compute")
+            .description("Tempo de cálculo das métricas do dashboard")
+            .register(meterRegistry);
     }
 
-    // Dashboard Metrics
+    // Dashboard Metrics: todas as abas de administração consultam a cada poucos segundos,
+    // então o resultado fica em cache por um TTL curto e chamadas concorrentes esperam o mesmo cálculo
     public DashboardMetrics getDashboardMetrics() {
-        LocalDateTime today = LocalDate.now().atStartOfDay();
-        LocalDateTime thisMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        DashboardMetrics metrics = dashboardCache.get(LocalDate.now(), this::computeDashboardMetrics);
+        return salesCounters.today()
+            .filter(today -> today.date().equals(LocalDate.now()))
+            .map(today -> withToday(metrics, today))
+            .orElse(metrics);
+    }
+
+    public void evictDashboardMetrics() {
+        dashboardCache.invalidateAll();
+    }
+
+    private DashboardMetrics computeDashboardMetrics(LocalDate date) {
+        return dashboardTimer.record(() -> {
+            LocalDateTime today = date.atStartOfDay();
+            LocalDateTime thisMonth = date.withDayOfMonth(1).atStartOfDay();
+
+            Object[] row = orderRepository.aggregateDashboardMetrics(today, thisMonth).get(0);
+
+            DashboardMetrics metrics = new DashboardMetrics();
+
+            // Métricas do dia
+            metrics.setTodayOrders(toLong(row[0]));
+            metrics.setTodayRevenue(toMoney(row[1]));
+
+            // Métricas do mês
+            metrics.setMonthOrders(toLong(row[2]));
+            metrics.setMonthRevenue(toMoney(row[3]));
+
+            // Pedidos ativos e status dos pedidos
+            metrics.setActiveOrders((int) toLong(row[4]));
+            metrics.setPendingOrders(toLong(row[5]));
+            metrics.setPreparingOrders(toLong(row[6]));
+            metrics.setReadyOrders(toLong(row[7]));
+
+            // Pagamentos
+            metrics.setApprovedPaymentsToday(toLong(row[8]));
+            metrics.setPaymentRevenueToday(toMoney(row[9]));
 
+            // Calcular ticket médio
+            if (metrics.getTodayOrders() > 0) {
+                metrics.setAverageTicket(
+                    metrics.getTodayRevenue().divide(
+                        BigDecimal.valueOf(metrics.getTodayOrders()),
+                        2, RoundingMode.HALF_UP
+                    )
+                );
+            } else {
+                metrics.setAverageTicket(BigDecimal.ZERO);
+            }
+
+            return metrics;
+        });
+    }
+
+    // Os números do dia vêm dos contadores em memória, sempre atuais; o restante vem do cache.
+    // Copia em vez de alterar a instância compartilhada pelo cache
+    private static DashboardMetrics withToday(DashboardMetrics cached, SalesCounters.TodayTotals today) {
         DashboardMetrics metrics = new DashboardMetrics();
-        
-        // Métricas do dia
-        metrics.setTodayOrders(orderRepository.countOrdersSinceDate(today));
-        metrics.setTodayRevenue(BigDecimal.valueOf(
-            orderRepository.sumTotalSinceDate(today)
-        ).setScale(2, RoundingMode.HALF_UP));
-        
-        // Métricas do mês
-        metrics.setMonthOrders(orderRepository.countOrdersSinceDate(thisMonth));
-        metrics.setMonthRevenue(BigDecimal.valueOf(
-            orderRepository.sumTotalSinceDate(thisMonth)
-        ).setScale(2, RoundingMode.HALF_UP));
-        
-        // Pedidos ativos
-        metrics.setActiveOrders(orderRepository.findActiveOrdersOrderByCreatedAt().size());
-        
-        // Status dos pedidos
-        metrics.setPendingOrders(orderRepository.countByStatus(OrderStatus.PENDING));
-        metrics.setPreparingOrders(orderRepository.countByStatus(OrderStatus.IN_PREPARATION));
-        metrics.setReadyOrders(orderRepository.countByStatus(OrderStatus.READY));
-        
-        // Pagamentos
-        metrics.setApprovedPaymentsToday(paymentRepository.countApprovedPaymentsSince(today));
-        metrics.setPaymentRevenueToday(BigDecimal.valueOf(
-            paymentRepository.sumApprovedAmountsSince(today)
-        ).setScale(2, RoundingMode.HALF_UP));
-        
-        // Calcular ticket médio
-        if (metrics.getTodayOrders() > 0) {
-            metrics.setAverageTicket(
-                metrics.getTodayRevenue().divide(
-                    BigDecimal.valueOf(metrics.getTodayOrders()), 
-                    2, RoundingMode.HALF_UP
-                )
-            );
-        } else {
-            metrics.setAverageTicket(BigDecimal.ZERO);
-        }
-        
+        metrics.setTodayOrders(today.orders());
+        metrics.setTodayRevenue(today.revenue().setScale(2, RoundingMode.HALF_UP));
+        metrics.setMonthOrders(cached.getMonthOrders());
+        metrics.setMonthRevenue(cached.getMonthRevenue());
+        metrics.setActiveOrders(cached.getActiveOrders());
+        metrics.setPendingOrders(cached.getPendingOrders());
+        metrics.setPreparingOrders(cached.getPreparingOrders());
+        metrics.setReadyOrders(cached.getReadyOrders());
+        metrics.setApprovedPaymentsToday(today.approvedPayments());
+        metrics.setPaymentRevenueToday(today.approvedAmount().setScale(2, RoundingMode.HALF_UP));
+        metrics.setAverageTicket(today.orders() > 0
+            ? metrics.getTodayRevenue().divide(BigDecimal.valueOf(today.orders()), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO);
         return metrics;
     }
 
-    // Relatório de Vendas
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static BigDecimal toMoney(Object value) {
+        BigDecimal amount = value instanceof BigDecimal decimal ? decimal
+            : value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Relatório de Vendas (lido dos rollups horários mantidos pelo SalesRollupService)
     public SalesReport getSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
+        }
+
         SalesReport report = new SalesReport();
         report.setStartDate(startDate);
         report.setEndDate(endDate);
-        
-        // Buscar pedidos no período
-        List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
-        
-        // Filtrar apenas pedidos completados
-        List<Order> completedOrders = orders.stream()
-            .filter(o -> o.getStatus() != OrderStatus.CANCELLED)
-            .collect(Collectors.toList());
-        
-        report.setTotalOrders(completedOrders.size());
-        report.setCancelledOrders(orders.size() - completedOrders.size());
-        
-        // Calcular receita total
-        BigDecimal totalRevenue = completedOrders.stream()
-            .map(Order::getTotal)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Granularidade horária: a hora da data inicial entra inteira no relatório
+        LocalDateTime from = SalesRollupService.bucketOf(startDate);
+
+        List<HourlySalesRollup> buckets =
+            salesRollupRepository.findByBucketStartBetweenOrderByBucketStart(from, endDate);
+
+        long deliveredOrders = 0;
+        long cancelledOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        Map<String, BigDecimal> salesByDayOfWeek = new HashMap<>();
+        Map<Integer, BigDecimal> salesByHour = new HashMap<>();
+
+        for (HourlySalesRollup bucket : buckets) {
+            deliveredOrders += bucket.getDeliveredOrders();
+            cancelledOrders += bucket.getCancelledOrders();
+            totalRevenue = totalRevenue.add(bucket.getRevenue());
+
+            if (bucket.getDeliveredOrders() > 0) {
+                salesByDayOfWeek.merge(bucket.getBucketStart().getDayOfWeek().toString(),
+                    bucket.getRevenue(), BigDecimal::add);
+                salesByHour.merge(bucket.getBucketStart().getHour(),
+                    bucket.getRevenue(), BigDecimal::add);
+            }
+        }
+
+        report.setTotalOrders((int) deliveredOrders);
+        report.setCancelledOrders((int) cancelledOrders);
         report.setTotalRevenue(totalRevenue);
-        
+
         // Ticket médio
-        if (!completedOrders.isEmpty()) {
+        if (deliveredOrders > 0) {
             report.setAverageTicket(
                 totalRevenue.divide(
-                    BigDecimal.valueOf(completedOrders.size()), 
+                    BigDecimal.valueOf(deliveredOrders),
                     2, RoundingMode.HALF_UP
                 )
             );
         }
-        
+
         // Vendas por categoria
         Map<MenuCategory, BigDecimal> salesByCategory = new HashMap<>();
         Map<MenuCategory, Integer> quantityByCategory = new HashMap<>();
-        
-        for (Order order : completedOrders) {
-            if (order.getItems() != null) {
-                for (OrderItem item : order.getItems()) {
-                    if (item.getMenuItem() != null) {
-                        MenuCategory category = item.getMenuItem().getCategory();
-                        salesByCategory.merge(category, 
-                            item.getTotalPrice(), 
-                            BigDecimal::add);
-                        quantityByCategory.merge(category, 
-                            item.getQuantity(), 
-                            Integer::sum);
-                    }
-                }
-            }
+
+        for (Object[] row : productSalesRollupRepository.sumByCategory(from, endDate)) {
+            MenuCategory category = (MenuCategory) row[0];
+            quantityByCategory.put(category, ((Number) row[1]).intValue());
+            salesByCategory.put(category, (BigDecimal) row[2]);
         }
-        
+
         report.setSalesByCategory(salesByCategory);
         report.setQuantityByCategory(quantityByCategory);
-        
+
         // Top 10 produtos mais vendidos
-        Map<String, Integer> productSales = new HashMap<>();
-        for (Order order : completedOrders) {
-            if (order.getItems() != null) {
-                for (OrderItem item : order.getItems()) {
-                    if (item.getMenuItem() != null) {
-                        productSales.merge(
-                            item.getMenuItem().getName(),
-                            item.getQuantity(),
-                            Integer::sum
-                        );
-                    }
-                }
-            }
-        }
-        
-        List<ProductSalesDTO> topProducts = productSales.entrySet().stream()
-            .map(e -> new ProductSalesDTO(e.getKey(), e.getValue()))
-            .sorted((a, b) -> b.getQuantity().compareTo(a.getQuantity()))
-            .limit(10)
+        List<ProductSalesDTO> topProducts = productSalesRollupRepository
+            .findTopProducts(from, endDate, PageRequest.of(0, 10)).stream()
+            .map(row -> new ProductSalesDTO((String) row[1], ((Number) row[2]).intValue()))
             .collect(Collectors.toList());
-        
+
         report.setTopProducts(topProducts);
-        
-        // Vendas por dia da semana
-        Map<String, BigDecimal> salesByDayOfWeek = completedOrders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getCreatedAt().getDayOfWeek().toString(),
-                Collectors.reducing(
-                    BigDecimal.ZERO,
-                    Order::getTotal,
-                    BigDecimal::add
-                )
-            ));
         report.setSalesByDayOfWeek(salesByDayOfWeek);
-        
-        // Vendas por hora do dia
-        Map<Integer, BigDecimal> salesByHour = completedOrders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getCreatedAt().getHour(),
-                Collectors.reducing(
-                    BigDecimal.ZERO,
-                    Order::getTotal,
-                    BigDecimal::add
-                )
-            ));
         report.setSalesByHour(salesByHour);
-        
+
         return report;
     }
 
     // Relatório de Clientes
     public CustomerReport getCustomerReport(LocalDateTime startDate, LocalDateTime endDate) {
-        CustomerReport report = new CustomerReport();
-        
-        // Total de clientes
-        report.setTotalCustomers(userRepository.countByRole(UserRole.CUSTOMER));
-        
-        // Novos clientes no período
-        List<User> newCustomers = userRepository.findAll().stream()
-            .filter(u -> u.getRole() == UserRole.CUSTOMER)
-            .filter(u -> u.getCreatedAt().isAfter(startDate) && 
-                        u.getCreatedAt().isBefore(endDate))
-            .collect(Collectors.toList());
-        report.setNewCustomers(newCustomers.size());
-        
-        // Clientes ativos (fizeram pedidos no período)
-        Set<String> activeCustomerEmails = new HashSet<>();
-        List<Order> orders = orderRepository.findByCreatedAtBetween(startDate, endDate);
-        
-        for (Order order : orders) {
-            if (order.getCustomerEmail() != null) {
-                activeCustomerEmails.add(order.getCustomerEmail());
-            }
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
         }
-        report.setActiveCustomers(activeCustomerEmails.size());
-        
+
+        // Agregações por período: o número de consultas não depende da quantidade de clientes
+        CustomerReport report = new CustomerReport();
+
+        // Total de clientes e novos clientes no período
+        Object[] customers = userRepository
+            .countByRoleWithCreatedBetween(UserRole.CUSTOMER, startDate, endDate).get(0);
+        report.setTotalCustomers(toLong(customers[0]));
+        report.setNewCustomers((int) toLong(customers[1]));
+
+        // Clientes ativos (fizeram pedidos no período) e os que voltaram a comprar
+        Object[] activity = orderRepository.countActiveAndReturningCustomers(startDate, endDate).get(0);
+        int activeCustomers = (int) toLong(activity[0]);
+        int returningCustomers = (int) toLong(activity[1]);
+        report.setActiveCustomers(activeCustomers);
+        report.setReturningCustomers(returningCustomers);
+
         // Top clientes por valor gasto
-        Map<String, BigDecimal> customerSpending = new HashMap<>();
-        Map<String, Integer> customerOrders = new HashMap<>();
-        
-        for (Order order : orders) {
-            if (order.getCustomerEmail() != null && 
-                order.getStatus() != OrderStatus.CANCELLED) {
-                customerSpending.merge(
-                    order.getCustomerEmail(),
-                    order.getTotal(),
-                    BigDecimal::add
-                );
-                customerOrders.merge(
-                    order.getCustomerEmail(),
-                    1,
-                    Integer::sum
-                );
-            }
-        }
-        
-        List<TopCustomerDTO> topCustomers = customerSpending.entrySet().stream()
-            .map(e -> new TopCustomerDTO(
-                e.getKey(),
-                e.getValue(),
-                customerOrders.get(e.getKey())
+        List<TopCustomerDTO> topCustomers = orderRepository
+            .findTopCustomersBySpending(startDate, endDate, PageRequest.of(0, TOP_CUSTOMERS_LIMIT)).stream()
+            .map(row -> new TopCustomerDTO(
+                (String) row[0],
+                (BigDecimal) row[1],
+                (int) toLong(row[2])
             ))
-            .sorted((a, b) -> b.getTotalSpent().compareTo(a.getTotalSpent()))
-            .limit(20)
             .collect(Collectors.toList());
-        
         report.setTopCustomers(topCustomers);
-        
+
         // Taxa de retenção
-        int returningCustomers = 0;
-        for (String email : activeCustomerEmails) {
-            List<Order> customerOrderList = orderRepository.findByCustomerEmail(email);
-            if (customerOrderList.size() > 1) {
-                returningCustomers++;
-            }
+        if (activeCustomers > 0) {
+            report.setRetentionRate((double) returningCustomers / activeCustomers * 100);
         }
-        
-        if (!activeCustomerEmails.isEmpty()) {
-            report.setRetentionRate(
-                (double) returningCustomers / activeCustomerEmails.size() * 100
-            );
+
+        // Distribuição do intervalo entre recompras
+        Object[] intervals = orderRepository.countRepeatPurchaseIntervals(startDate, endDate).get(0);
+        Map<String, Long> repeatPurchaseIntervals = new LinkedHashMap<>();
+        for (int i = 0; i < REPEAT_INTERVAL_BUCKETS.length; i++) {
+            repeatPurchaseIntervals.put(REPEAT_INTERVAL_BUCKETS[i], toLong(intervals[i]));
         }
-        
+        report.setRepeatPurchaseIntervals(repeatPurchaseIntervals);
+
         return report;
     }
 
@@ -370,8 +383,10 @@ public class ReportService {
         private Long totalCustomers;
         private Integer newCustomers;
         private Integer activeCustomers;
+        private Integer returningCustomers;
         private List<TopCustomerDTO> topCustomers;
         private Double retentionRate;
+        private Map<String, Long> repeatPurchaseIntervals;
 
         // Getters and Setters
         public Long getTotalCustomers() { return totalCustomers; }
@@ -383,11 +398,19 @@ public class ReportService {
         public Integer getActiveCustomers() { return activeCustomers; }
         public void setActiveCustomers(Integer activeCustomers) { this.activeCustomers = activeCustomers; }
         
+        public Integer getReturningCustomers() { return returningCustomers; }
+        public void setReturningCustomers(Integer returningCustomers) { this.returningCustomers = returningCustomers; }
+        
         public List<TopCustomerDTO> getTopCustomers() { return topCustomers; }
         public void setTopCustomers(List<TopCustomerDTO> topCustomers) { this.topCustomers = topCustomers; }
         
         public Double getRetentionRate() { return retentionRate; }
         public void setRetentionRate(Double retentionRate) { this.retentionRate = retentionRate; }
+        
+        public Map<String, Long> getRepeatPurchaseIntervals() { return repeatPurchaseIntervals; }
+        public void setRepeatPurchaseIntervals(Map<String, Long> repeatPurchaseIntervals) {
+            this.repeatPurchaseIntervals = repeatPurchaseIntervals;
+        }
     }
 
     public static class ProductSalesDTO {
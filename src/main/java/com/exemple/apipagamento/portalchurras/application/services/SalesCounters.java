@@ -0,0 +1,304 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderUpdatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaPaymentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de vendas em memória (LongAdder), atualizados pelos eventos de pedidos e pagamentos
+ * depois do commit. Os acumulados são exportados como métricas do Prometheus; os números do dia
+ * podem servir de caminho rápido para o dashboard, sem consulta ao banco.
+ * Cada instância só enxerga os próprios eventos, então o caminho rápido vem desligado e só deve ser
+ * ativado em implantações com uma única instância (sales.counters.today-fast-path=true).
+ */
+@Service
+public class SalesCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCounters.class);
+
+    public record TodayTotals(LocalDate date, long orders, BigDecimal revenue,
+                              long approvedPayments, BigDecimal approvedAmount) {}
+
+    // Dados do pedido copiados dentro da transação; o contador só é atualizado depois do commit
+    private record OrderChange(Long id, LocalDate createdOn, OrderStatus status, long totalCents) {
+        static OrderChange of(Order order) {
+            return new OrderChange(order.getId(),
+                    order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now(),
+                    order.getStatus(), toCents(order.getTotal()));
+        }
+    }
+
+    // Números do dia; os mapas por id tornam a contagem idempotente entre a carga inicial e os eventos
+    private static final class DailyTotals {
+        final LocalDate date;
+        final Set<Long> orders = ConcurrentHashMap.newKeySet();
+        final Map<Long, Long> openOrderCents = new ConcurrentHashMap<>();
+        final Map<Long, Long> approvedPaymentCents = new ConcurrentHashMap<>();
+        final LongAdder orderCount = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder approvedCount = new LongAdder();
+        final LongAdder approvedCents = new LongAdder();
+
+        DailyTotals(LocalDate date) {
+            this.date = date;
+        }
+    }
+
+    private final JpaOrderRepository orderRepository;
+    private final JpaPaymentRepository paymentRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean todayFastPath;
+
+    private final LongAdder ordersCreated = new LongAdder();
+    private final Map<String, LongAdder> orderTransitions = new ConcurrentHashMap<>();
+    private final Map<MenuCategory, LongAdder> deliveredRevenueCents = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> paymentTransitions = new ConcurrentHashMap<>();
+    private final AtomicReference<DailyTotals> today = new AtomicReference<>(new DailyTotals(LocalDate.now()));
+    private volatile boolean loaded;
+
+    public SalesCounters(JpaOrderRepository orderRepository,
+                         JpaPaymentRepository paymentRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${sales.counters.today-fast-path:false}") boolean todayFastPath) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.meterRegistry = meterRegistry;
+        this.todayFastPath = todayFastPath;
+
+        FunctionCounter.builder("sales.orders.created", ordersCreated, LongAdder::sum)
+                .description("Pedidos criados")
+                .register(meterRegistry);
+        Gauge.builder("sales.today.orders", this, counters -> counters.current().orderCount.sum())
+                .description("Pedidos criados hoje")
+                .register(meterRegistry);
+        Gauge.builder("sales.today.revenue", this,
+                        counters -> counters.current().revenueCents.sum() / 100.0)
+                .description("Receita dos pedidos de hoje não cancelados (R$)")
+                .register(meterRegistry);
+        Gauge.builder("sales.today.approved.payments", this, counters -> counters.current().approvedCount.sum())
+                .description("Pagamentos aprovados hoje")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega os números do dia a partir do banco; até lá o dashboard usa a consulta agregada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadToday() {
+        try {
+            DailyTotals totals = current();
+            LocalDateTime start = totals.date.atStartOfDay();
+
+            for (Object[] row : orderRepository.findTotalsCreatedSince(start)) {
+                Long id = (Long) row[0];
+                if (totals.orders.add(id)) {
+                    totals.orderCount.increment();
+                }
+                long cents = toCents((BigDecimal) row[2]);
+                if (row[1] != OrderStatus.CANCELLED && totals.openOrderCents.putIfAbsent(id, cents) == null) {
+                    totals.revenueCents.add(cents);
+                }
+            }
+            for (Object[] row : paymentRepository.findApprovedAmountsSince(start)) {
+                long cents = toCents((BigDecimal) row[1]);
+                if (totals.approvedPaymentCents.putIfAbsent((Long) row[0], cents) == null) {
+                    totals.approvedCount.increment();
+                    totals.approvedCents.add(cents);
+                }
+            }
+
+            loaded = true;
+            logger.info("Contadores de vendas carregados: {} pedidos hoje", totals.orderCount.sum());
+        } catch (RuntimeException e) {
+            logger.warn("Não foi possível carregar os contadores de vendas do dia: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Números do dia sem consulta ao banco; vazio enquanto a carga inicial não terminou
+     * ou quando o caminho rápido está desativado.
+     */
+    public Optional<TodayTotals> today() {
+        if (!todayFastPath || !loaded) {
+            return Optional.empty();
+        }
+        DailyTotals totals = current();
+        return Optional.of(new TodayTotals(totals.date,
+                totals.orderCount.sum(), fromCents(totals.revenueCents.sum()),
+                totals.approvedCount.sum(), fromCents(totals.approvedCents.sum())));
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        OrderChange change = OrderChange.of(event.getOrder());
+        afterCommit(() -> {
+            ordersCreated.increment();
+            track(change);
+        });
+    }
+
+    // Itens adicionados ou alterados mudam o total do pedido
+    @EventListener
+    public void onOrderUpdated(OrderUpdatedEvent event) {
+        OrderChange change = OrderChange.of(event.getOrder());
+        afterCommit(() -> track(change));
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        OrderChange change = OrderChange.of(event.getOrder());
+        Map<MenuCategory, Long> revenue = event.getNewStatus() == OrderStatus.DELIVERED
+                ? revenueByCategory(event.getOrder())
+                : Map.of();
+        String from = String.valueOf(event.getPreviousStatus());
+        String to = event.getNewStatus().name();
+
+        afterCommit(() -> {
+            counter(orderTransitions, from + ">" + to, "sales.orders.transitions",
+                    Tags.of("from", from, "to", to), "Transições de status de pedidos").increment();
+            revenue.forEach((category, cents) -> deliveredRevenueCents.computeIfAbsent(category, this::registerRevenue)
+                    .add(cents));
+            track(change);
+        });
+    }
+
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        Payment payment = event.getPayment();
+        Long id = payment.getId();
+        String method = payment.getMethod().name();
+        String status = event.getNewStatus().name();
+        long cents = toCents(payment.getAmount());
+        LocalDateTime paidAt = payment.getPaidAt();
+
+        afterCommit(() -> {
+            counter(paymentTransitions, method + ":" + status, "sales.payments",
+                    Tags.of("method", method, "status", status), "Pagamentos por método e status").increment();
+
+            if (event.getNewStatus() == PaymentStatus.APPROVED && paidAt != null) {
+                DailyTotals totals = current();
+                if (paidAt.toLocalDate().equals(totals.date)
+                        && totals.approvedPaymentCents.putIfAbsent(id, cents) == null) {
+                    totals.approvedCount.increment();
+                    totals.approvedCents.add(cents);
+                }
+            }
+        });
+    }
+
+    // Mesma regra do dashboard: pedidos criados hoje, receita só dos não cancelados
+    private void track(OrderChange change) {
+        DailyTotals totals = current();
+        if (change.id() == null || !change.createdOn().equals(totals.date)) {
+            return;
+        }
+        if (totals.orders.add(change.id())) {
+            totals.orderCount.increment();
+        }
+        if (change.status() == OrderStatus.CANCELLED) {
+            Long previous = totals.openOrderCents.remove(change.id());
+            if (previous != null) {
+                totals.revenueCents.add(-previous);
+            }
+        } else {
+            totals.openOrderCents.compute(change.id(), (id, previous) -> {
+                totals.revenueCents.add(change.totalCents() - (previous != null ? previous : 0L));
+                return change.totalCents();
+            });
+        }
+    }
+
+    // Na virada do dia os números recomeçam do zero
+    private DailyTotals current() {
+        LocalDate date = LocalDate.now();
+        DailyTotals totals = today.get();
+        if (!totals.date.equals(date)) {
+            DailyTotals next = new DailyTotals(date);
+            totals = today.compareAndSet(totals, next) ? next : today.get();
+        }
+        return totals;
+    }
+
+    private Map<MenuCategory, Long> revenueByCategory(Order order) {
+        Map<MenuCategory, Long> revenue = new EnumMap<>(MenuCategory.class);
+        for (OrderItem item : order.getItems()) {
+            if (item.getMenuItem() != null) {
+                revenue.merge(item.getMenuItem().getCategory(), toCents(item.getTotalPrice()), Long::sum);
+            }
+        }
+        return revenue;
+    }
+
+    private LongAdder registerRevenue(MenuCategory category) {
+        LongAdder adder = new LongAdder();
+        FunctionCounter.builder("sales.revenue", adder, cents -> cents.sum() / 100.0)
+                .tags("category", category.name())
+                .description("Receita de pedidos entregues por categoria (R$)")
+                .register(meterRegistry);
+        return adder;
+    }
+
+    private LongAdder counter(Map<String, LongAdder> counters, String key, String name, Tags tags,
+                              String description) {
+        return counters.computeIfAbsent(key, k -> {
+            LongAdder adder = new LongAdder();
+            FunctionCounter.builder(name, adder, LongAdder::sum)
+                    .tags(tags)
+                    .description(description)
+                    .register(meterRegistry);
+            return adder;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,212 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém os rollups horários de vendas usados pelo relatório de vendas.
+ * Os buckets são indexados pela hora de criação do pedido, igual ao filtro do relatório.
+ */
+@Service
+@Transactional
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final HourlySalesRollupRepository salesRollupRepository;
+    private final HourlyProductSalesRollupRepository productSalesRollupRepository;
+    private final SalesRollupBucketInitializer bucketInitializer;
+    private final JpaOrderRepository orderRepository;
+
+    public SalesRollupService(HourlySalesRollupRepository salesRollupRepository,
+                              HourlyProductSalesRollupRepository productSalesRollupRepository,
+                              SalesRollupBucketInitializer bucketInitializer,
+                              JpaOrderRepository orderRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.productSalesRollupRepository = productSalesRollupRepository;
+        this.bucketInitializer = bucketInitializer;
+        this.orderRepository = orderRepository;
+    }
+
+    // Executa na mesma transação que mudou o status, então pedido e rollup são gravados juntos
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getNewStatus()) {
+            return;
+        }
+        if (event.getNewStatus() == OrderStatus.DELIVERED) {
+            recordDelivered(event.getOrder());
+        } else if (event.getNewStatus() == OrderStatus.CANCELLED) {
+            recordCancelled(event.getOrder());
+        }
+    }
+
+    public void recordDelivered(Order order) {
+        LocalDateTime bucket = bucketOf(order.getCreatedAt());
+        incrementSales(bucket, 1, 0, order.getTotal());
+
+        // O mesmo item pode aparecer em mais de uma linha do pedido
+        Map<Long, ProductDelta> deltas = new LinkedHashMap<>();
+        for (OrderItem item : order.getItems()) {
+            MenuItem menuItem = item.getMenuItem();
+            if (menuItem == null) {
+                continue;
+            }
+            deltas.computeIfAbsent(menuItem.getId(), id -> new ProductDelta(menuItem))
+                  .add(item.getQuantity(), item.getTotalPrice());
+        }
+
+        for (ProductDelta delta : deltas.values()) {
+            incrementProduct(bucket, delta);
+        }
+    }
+
+    public void recordCancelled(Order order) {
+        incrementSales(bucketOf(order.getCreatedAt()), 0, 1, BigDecimal.ZERO);
+    }
+
+    /**
+     * Reconstrói os buckets do período a partir dos pedidos.
+     * O intervalo é ampliado para horas cheias. Deve ser executado fora do pico,
+     * pois pedidos finalizados durante a reconstrução podem exigir nova execução.
+     */
+    public RebuildResult rebuild(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Data de início não pode ser posterior à data de fim");
+        }
+
+        LocalDateTime from = bucketOf(start);
+        LocalDateTime to = bucketOf(end);
+        if (to.isBefore(end) || to.equals(from)) {
+            to = to.plusHours(1);
+        }
+
+        salesRollupRepository.deleteBuckets(from, to);
+        productSalesRollupRepository.deleteBuckets(from, to);
+
+        List<HourlySalesRollup> salesBuckets = new ArrayList<>();
+        for (Object[] row : orderRepository.aggregateHourlySales(from, to)) {
+            salesBuckets.add(new HourlySalesRollup(
+                    toBucket(row),
+                    ((Number) row[4]).longValue(),
+                    ((Number) row[5]).longValue(),
+                    toBigDecimal(row[6])));
+        }
+        salesRollupRepository.saveAll(salesBuckets);
+
+        List<HourlyProductSalesRollup> productBuckets = new ArrayList<>();
+        for (Object[] row : orderRepository.aggregateHourlyProductSales(from, to)) {
+            productBuckets.add(new HourlyProductSalesRollup(
+                    toBucket(row),
+                    ((Number) row[4]).longValue(),
+                    (String) row[5],
+                    (MenuCategory) row[6],
+                    ((Number) row[7]).longValue(),
+                    toBigDecimal(row[8])));
+        }
+        productSalesRollupRepository.saveAll(productBuckets);
+
+        logger.info("Rollups de vendas reconstruídos entre {} e {}: {} buckets de pedidos, {} buckets de produtos",
+                from, to, salesBuckets.size(), productBuckets.size());
+
+        return new RebuildResult(from, to, salesBuckets.size(), productBuckets.size());
+    }
+
+    public static LocalDateTime bucketOf(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private void incrementSales(LocalDateTime bucket, long delivered, long cancelled, BigDecimal revenue) {
+        LocalDateTime now = LocalDateTime.now();
+        if (salesRollupRepository.increment(bucket, delivered, cancelled, revenue, now) == 0) {
+            try {
+                bucketInitializer.createSalesBucket(bucket);
+            } catch (DataIntegrityViolationException e) {
+                // Outro pedido criou o bucket primeiro
+            }
+            salesRollupRepository.increment(bucket, delivered, cancelled, revenue, now);
+        }
+    }
+
+    private void incrementProduct(LocalDateTime bucket, ProductDelta delta) {
+        LocalDateTime now = LocalDateTime.now();
+        Long menuItemId = delta.menuItem.getId();
+        if (productSalesRollupRepository.increment(bucket, menuItemId, delta.quantity, delta.revenue, now) == 0) {
+            try {
+                bucketInitializer.createProductBucket(bucket, menuItemId,
+                        delta.menuItem.getName(), delta.menuItem.getCategory());
+            } catch (DataIntegrityViolationException e) {
+                // Outro pedido criou o bucket primeiro
+            }
+            productSalesRollupRepository.increment(bucket, menuItemId, delta.quantity, delta.revenue, now);
+        }
+    }
+
+    private LocalDateTime toBucket(Object[] row) {
+        return LocalDateTime.of(
+                ((Number) row[0]).intValue(),
+                ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue(),
+                ((Number) row[3]).intValue(),
+                0);
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static class ProductDelta {
+        private final MenuItem menuItem;
+        private long quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        ProductDelta(MenuItem menuItem) {
+            this.menuItem = menuItem;
+        }
+
+        void add(Integer quantity, BigDecimal totalPrice) {
+            this.quantity += quantity != null ? quantity : 0;
+            this.revenue = this.revenue.add(totalPrice != null ? totalPrice : BigDecimal.ZERO);
+        }
+    }
+
+    public static class RebuildResult {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final int salesBuckets;
+        private final int productBuckets;
+
+        public RebuildResult(LocalDateTime from, LocalDateTime to, int salesBuckets, int productBuckets) {
+            this.from = from;
+            this.to = to;
+            this.salesBuckets = salesBuckets;
+            this.productBuckets = productBuckets;
+        }
+
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getTo() { return to; }
+        public int getSalesBuckets() { return salesBuckets; }
+        public int getProductBuckets() { return productBuckets; }
+    }
+}
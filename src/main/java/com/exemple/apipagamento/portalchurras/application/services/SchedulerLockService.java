@@ -0,0 +1,94 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lock distribuído por lease na tabela scheduler_locks, para que tarefas agendadas
+ * rodem em um só nó mesmo com várias instâncias da aplicação.
+ * Cada operação usa transação própria e curta; a tarefa em si roda fora dela.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public SchedulerLockService(SchedulerLockRepository lockRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.lockRepository = lockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = resolveHostName() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Executa a tarefa se conseguir o lock. Retorna false quando outro nó já está com ele.
+     */
+    public boolean runExclusively(String lockName, Duration leaseTime, Runnable task) {
+        if (!tryAcquire(lockName, leaseTime)) {
+            logger.debug("Lock {} em uso por outra instância, execução ignorada", lockName);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            release(lockName);
+        }
+    }
+
+    public boolean tryAcquire(String lockName, Duration leaseTime) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(leaseTime);
+
+        Integer updated = transactionTemplate.execute(status -> lockRepository.acquire(lockName, owner, now, until));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+
+        // Primeira execução: a linha do lock ainda não existe
+        try {
+            transactionTemplate.executeWithoutResult(status -> lockRepository.insert(lockName, owner, now, until));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    public void release(String lockName) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    lockRepository.release(lockName, owner, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            // Sem liberar, o lock expira sozinho ao fim do lease
+            logger.warn("Não foi possível liberar o lock {}: {}", lockName, e.getMessage());
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown-host";
+        }
+    }
+}
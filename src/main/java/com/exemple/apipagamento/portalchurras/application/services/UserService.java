@@ -2,8 +2,10 @@ package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
 import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.events.UserAccessChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
 import com.exemple.apipagamento.portalchurras.domain.usecases.UserUseCases;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,10 +19,13 @@ public class UserService implements UserUseCases {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -105,11 +110,16 @@ public class UserService implements UserUseCases {
         }
 
         try {
+            String previousEmail = user.getEmail();
             user.updateProfile(
                 name != null ? name.trim() : user.getName(),
                 normalizedEmail != null ? normalizedEmail : user.getEmail(),
                 phone != null ? phone.trim() : user.getPhone()
             );
+            if (!previousEmail.equals(user.getEmail())) {
+                // Tokens emitidos para o email antigo deixam de valer
+                accessChanged(userId, previousEmail);
+            }
             return userRepository.save(user);
         } catch (Exception e) {
             throw new RuntimeException("Erro ao atualizar perfil do usuário: " + e.getMessage(), e);
@@ -153,6 +163,7 @@ public class UserService implements UserUseCases {
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + userId));
 
         user.updateRole(newRole);
+        accessChanged(user.getId(), user.getEmail());
         return userRepository.save(user);
     }
 
@@ -162,6 +173,7 @@ public class UserService implements UserUseCases {
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + userId));
 
         user.deactivate();
+        accessChanged(user.getId(), user.getEmail());
         return userRepository.save(user);
     }
 
@@ -171,6 +183,7 @@ public class UserService implements UserUseCases {
                 .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado: " + userId));
 
         user.activate();
+        accessChanged(user.getId(), user.getEmail());
         return userRepository.save(user);
     }
 
@@ -185,6 +198,7 @@ public class UserService implements UserUseCases {
         }
         
         try {
+            userRepository.findById(userId).ifPresent(user -> accessChanged(userId, user.getEmail()));
             userRepository.deleteById(userId);
         } catch (Exception e) {
             throw new RuntimeException("Erro ao deletar usuário: " + e.getMessage(), e);
@@ -265,5 +279,8 @@ public class UserService implements UserUseCases {
             throw new RuntimeException("Erro ao registrar login do usuário: " + e.getMessage(), e);
         }
     }
-}
 
+    private void accessChanged(Long userId, String email) {
+        eventPublisher.publishEvent(new UserAccessChangedEvent(userId, email));
+    }
+}
@@ -0,0 +1,206 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxStatus;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.WebhookInboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.WebhookInboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caixa de entrada dos webhooks de pagamento.
+ * O endpoint só grava a notificação bruta; a consulta ao provedor e a atualização do pagamento
+ * ficam com o {@link WebhookInboxWorker}, fora da requisição e fora de transação.
+ */
+@Service
+@Transactional
+public class WebhookInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookInboxService.class);
+
+    public enum IngestResult {
+        ACCEPTED,
+        DUPLICATE,
+        IGNORED
+    }
+
+    private final WebhookInboxRepository inboxRepository;
+    private final WebhookInboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public WebhookInboxService(WebhookInboxRepository inboxRepository,
+                               WebhookInboxProperties properties,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.inboxRepository = inboxRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Grava a notificação do Mercado Pago na caixa de entrada.
+     * Sem transação própria: uma violação da chave única (reenvio concorrente) não pode
+     * marcar a transação do chamador para rollback.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public IngestResult ingestMercadoPago(Map<String, Object> payload) {
+        if (payload == null || payload.isEmpty()) {
+            throw new IllegalArgumentException("Dados do webhook não podem ser nulos ou vazios");
+        }
+
+        String type = stringValue(payload.get("type"));
+        if (!"payment".equals(type)) {
+            logger.debug("Webhook do tipo {} ignorado", type);
+            count("ignored");
+            return IngestResult.IGNORED;
+        }
+
+        String resourceId = payload.get("data") instanceof Map<?, ?> data ? stringValue(data.get("id")) : null;
+        if (resourceId == null || resourceId.isBlank()) {
+            throw new IllegalArgumentException("ID do pagamento ausente no webhook");
+        }
+
+        String rawPayload = serialize(payload);
+        String eventId = payload.get("id") != null ? stringValue(payload.get("id")) : contentHash(rawPayload);
+        String provider = WebhookInboxEvent.PROVIDER_MERCADO_PAGO;
+
+        if (inboxRepository.existsByProviderAndEventId(provider, eventId)) {
+            count("duplicate");
+            return IngestResult.DUPLICATE;
+        }
+
+        try {
+            inboxRepository.saveAndFlush(new WebhookInboxEvent(provider, eventId, resourceId.trim(),
+                    type, stringValue(payload.get("action")), rawPayload));
+        } catch (DataIntegrityViolationException e) {
+            // Outra entrega do mesmo evento gravou primeiro
+            count("duplicate");
+            return IngestResult.DUPLICATE;
+        }
+
+        count("accepted");
+        return IngestResult.ACCEPTED;
+    }
+
+    /**
+     * Reserva até {@code limit} eventos prontos para processamento, no máximo um por pagamento.
+     */
+    public List<WebhookInboxEvent> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+
+        LocalDateTime staleBefore = now.minus(properties.getProcessingTimeout());
+        int dead = inboxRepository.markStaleDead(staleBefore, now, properties.getMaxAttempts(),
+                "Processamento interrompido após " + properties.getMaxAttempts() + " tentativas",
+                WebhookInboxStatus.PROCESSING, WebhookInboxStatus.DEAD);
+        if (dead > 0) {
+            meterRegistry.counter("webhooks.inbox", "result", "dead").increment(dead);
+            logger.error("{} webhooks presos em processamento descartados após esgotar as tentativas", dead);
+        }
+        int released = inboxRepository.releaseStale(staleBefore, now, properties.getMaxAttempts(),
+                WebhookInboxStatus.PENDING, WebhookInboxStatus.PROCESSING);
+        if (released > 0) {
+            logger.warn("{} webhooks presos em processamento voltaram para a fila", released);
+        }
+
+        List<Long> claimed = inboxRepository.findDispatchableIds(now, WebhookInboxStatus.PENDING,
+                        WebhookInboxStatus.PROCESSING, PageRequest.of(0, limit))
+                .stream()
+                .filter(id -> inboxRepository.claim(id, now,
+                        WebhookInboxStatus.PENDING, WebhookInboxStatus.PROCESSING) == 1)
+                .toList();
+
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        return inboxRepository.findAllById(claimed).stream()
+                .sorted(Comparator.comparing(WebhookInboxEvent::getId))
+                .toList();
+    }
+
+    /**
+     * Conclui o evento e descarta os eventos do mesmo pagamento que chegaram antes do início
+     * do processamento, já que a consulta ao provedor foi feita depois deles.
+     */
+    public void markProcessed(Long inboxEventId) {
+        WebhookInboxEvent event = findEvent(inboxEventId);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startedAt = event.getLockedAt() != null ? event.getLockedAt() : now;
+
+        event.markProcessed(now);
+        inboxRepository.save(event);
+
+        int coalesced = inboxRepository.coalesceSuperseded(event.getResourceId(), event.getId(), startedAt, now,
+                WebhookInboxStatus.PENDING, WebhookInboxStatus.PROCESSED);
+        count("processed");
+        if (coalesced > 0) {
+            meterRegistry.counter("webhooks.inbox", "result", "coalesced").increment(coalesced);
+        }
+    }
+
+    /**
+     * Registra a falha: reagenda com backoff exponencial ou, esgotadas as tentativas,
+     * move o evento para DEAD, onde ele fica parado até intervenção manual.
+     */
+    public WebhookInboxStatus markFailed(Long inboxEventId, String error) {
+        WebhookInboxEvent event = findEvent(inboxEventId);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (event.getAttempts() >= properties.getMaxAttempts()) {
+            event.markDead(error, now);
+            count("dead");
+            logger.error("Webhook {} do pagamento {} descartado após {} tentativas: {}",
+                    event.getEventId(), event.getResourceId(), event.getAttempts(), error);
+        } else {
+            event.scheduleRetry(error, now.plus(properties.backoffFor(event.getAttempts())));
+            count("retried");
+            logger.warn("Webhook {} do pagamento {} falhou (tentativa {}), nova tentativa em {}: {}",
+                    event.getEventId(), event.getResourceId(), event.getAttempts(), event.getNextAttemptAt(), error);
+        }
+
+        return inboxRepository.save(event).getStatus();
+    }
+
+    private WebhookInboxEvent findEvent(Long inboxEventId) {
+        return inboxRepository.findById(inboxEventId)
+                .orElseThrow(() -> new IllegalArgumentException("Evento de webhook não encontrado: " + inboxEventId));
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("webhooks.inbox", "result", result).increment();
+    }
+
+    private String stringValue(Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    private String serialize(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook com conteúdo inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    // Notificações sem id próprio são deduplicadas pelo conteúdo
+    private String contentHash(String rawPayload) {
+        return DigestUtils.md5DigestAsHex(rawPayload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGateway;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentWebhookResponse;
+import com.exemple.apipagamento.portalchurras.domain.usecases.PaymentUseCases;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.WebhookInboxProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drena a caixa de entrada de webhooks com até worker-threads eventos em paralelo, em virtual threads
+ * ou num pool fixo de threads de plataforma.
+ * Só são reservados tantos eventos quanto há vagas livres, então a fila em memória nunca cresce;
+ * o restante espera no banco.
+ */
+@Component
+public class WebhookInboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookInboxWorker.class);
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final WebhookInboxService inboxService;
+    private final PaymentGateway paymentGateway;
+    private final PaymentUseCases paymentUseCases;
+    private final WebhookInboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public WebhookInboxWorker(WebhookInboxService inboxService,
+                              PaymentGateway paymentGateway,
+                              PaymentUseCases paymentUseCases,
+                              WebhookInboxProperties properties,
+                              ObjectMapper objectMapper) {
+        this.inboxService = inboxService;
+        this.paymentGateway = paymentGateway;
+        this.paymentUseCases = paymentUseCases;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+
+        int threads = Math.max(1, properties.getWorkerThreads());
+        if (properties.isVirtualThreads()) {
+            // Uma virtual thread por evento; o semáforo continua limitando quantos rodam juntos
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("webhook-inbox-", 1).factory());
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "webhook-inbox-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.permits = new Semaphore(threads);
+    }
+
+    @Scheduled(fixedDelayString = "${webhooks.inbox.poll-interval:PT1S}")
+    public void poll() {
+        if (!properties.isWorkerEnabled()) {
+            return;
+        }
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            logger.error("Erro ao buscar webhooks pendentes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reserva eventos para as threads livres e os envia ao pool.
+     */
+    public List<CompletableFuture<Void>> dispatch() {
+        int available = permits.availablePermits();
+        if (available == 0) {
+            return List.of();
+        }
+
+        List<WebhookInboxEvent> batch = inboxService.claimBatch(Math.min(available, properties.getBatchSize()));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+        for (WebhookInboxEvent event : batch) {
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.runAsync(() -> process(event), executor)
+                    .whenComplete((result, error) -> permits.release()));
+        }
+        return futures;
+    }
+
+    // A consulta HTTP ao provedor acontece aqui, sem conexão de banco presa; só a aplicação do status é transacional
+    private void process(WebhookInboxEvent event) {
+        try {
+            Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+            PaymentWebhookResponse response = paymentGateway.processWebhook(payload);
+
+            if (!response.isValid()) {
+                throw new IllegalStateException("Não foi possível consultar o pagamento "
+                        + event.getResourceId() + " no provedor");
+            }
+
+            paymentUseCases.applyWebhookStatus(response.getExternalPaymentId(), response.getStatus(), payload);
+            inboxService.markProcessed(event.getId());
+        } catch (Exception e) {
+            fail(event, e);
+        }
+    }
+
+    private void fail(WebhookInboxEvent event, Exception cause) {
+        try {
+            inboxService.markFailed(event.getId(), cause.getMessage());
+        } catch (RuntimeException e) {
+            // O evento continua em PROCESSING e volta para a fila quando o tempo de processamento expirar
+            logger.error("Não foi possível registrar a falha do webhook {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado de vendas por hora e item do cardápio (somente pedidos entregues).
+ * Nome e categoria são copiados do item para que o relatório não precise de joins.
+ */
+@Entity
+@Table(name = "hourly_product_sales_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_hourly_product_sales_bucket",
+                                             columnNames = {"bucket_start", "menu_item_id"}))
+public class HourlyProductSalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    @Column(nullable = false)
+    private String menuItemName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MenuCategory category;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    private LocalDateTime updatedAt;
+
+    protected HourlyProductSalesRollup() {}
+
+    public HourlyProductSalesRollup(LocalDateTime bucketStart, Long menuItemId, String menuItemName,
+                                    MenuCategory category, Long quantity, BigDecimal revenue) {
+        this.bucketStart = bucketStart;
+        this.menuItemId = menuItemId;
+        this.menuItemName = menuItemName;
+        this.category = category;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public Long getMenuItemId() { return menuItemId; }
+    public String getMenuItemName() { return menuItemName; }
+    public MenuCategory getCategory() { return category; }
+    public Long getQuantity() { return quantity; }
+    public BigDecimal getRevenue() { return revenue; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,52 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado de vendas por hora (baseado na hora de criação do pedido).
+ * Mantido incrementalmente quando o pedido é entregue ou cancelado.
+ */
+@Entity
+@Table(name = "hourly_sales_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_hourly_sales_bucket", columnNames = "bucket_start"))
+public class HourlySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long deliveredOrders;
+
+    @Column(nullable = false)
+    private Long cancelledOrders;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    private LocalDateTime updatedAt;
+
+    protected HourlySalesRollup() {}
+
+    public HourlySalesRollup(LocalDateTime bucketStart, Long deliveredOrders,
+                             Long cancelledOrders, BigDecimal revenue) {
+        this.bucketStart = bucketStart;
+        this.deliveredOrders = deliveredOrders;
+        this.cancelledOrders = cancelledOrders;
+        this.revenue = revenue;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public Long getDeliveredOrders() { return deliveredOrders; }
+    public Long getCancelledOrders() { return cancelledOrders; }
+    public BigDecimal getRevenue() { return revenue; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -76,7 +76,8 @@ public class LoyaltyProgram {
         this.lastActivityAt = LocalDateTime.now();
     }
 
-    private void checkTierUpgrade() {
+    // Sobe de tier conforme os totais atuais; nunca rebaixa
+    public void checkTierUpgrade() {
         LoyaltyTier newTier = calculateTier();
         if (newTier != this.tier && newTier.ordinal() > this.tier.ordinal()) {
             this.tier = newTier;
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class LoyaltyTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loyalty_transactions_seq")
+    @SequenceGenerator(name = "loyalty_transactions_seq", sequenceName = "loyalty_transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -58,11 +59,17 @@ public class LoyaltyTransaction {
 
     public LoyaltyTransaction(LoyaltyProgram loyaltyProgram, Order order, 
                              TransactionType type, Integer points, String description) {
+        this(loyaltyProgram, order, type, points, description, loyaltyProgram.getAvailablePoints());
+    }
+
+    // Para quando o saldo já foi alterado no banco e o saldo anterior é conhecido
+    public LoyaltyTransaction(LoyaltyProgram loyaltyProgram, Order order,
+                             TransactionType type, Integer points, String description, Integer balanceBefore) {
         this.loyaltyProgram = loyaltyProgram;
         this.order = order;
         this.type = type;
         this.points = points;
-        this.balanceBefore = loyaltyProgram.getAvailablePoints();
+        this.balanceBefore = balanceBefore;
         this.balanceAfter = type == TransactionType.REDEEMED ? 
             balanceBefore - points : balanceBefore + points;
         this.description = description;
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
     public class MenuItem {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_items_seq")
+        @SequenceGenerator(name = "menu_items_seq", sequenceName = "menu_items_seq", allocationSize = 50)
         private Long id;
 
         @NotBlank(message = "Nome é obrigatório")
@@ -11,8 +11,10 @@ import java.util.List;
 @Table(name = "orders")
 public class Order {
 
+    // Ids reservados em blocos de 50 pela sequência: ao contrário de IDENTITY, permitem INSERTs em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     // ALTERAÇÃO: Substituir campos individuais por referência ao User
@@ -170,18 +172,19 @@ public class Order {
 
     // Métodos de conveniência para acessar dados do cliente
     public String getCustomerName() {
-        return customer != null ? customer.getName() : extractGuestName();
+        return customer != null ? customer.getName() : extractGuestName(notes);
     }
 
     public String getCustomerEmail() {
-        return customer != null ? customer.getEmail() : extractGuestEmail();
+        return customer != null ? customer.getEmail() : extractGuestEmail(notes);
     }
 
     public String getCustomerPhone() {
-        return customer != null ? customer.getPhone() : extractGuestPhone();
+        return customer != null ? customer.getPhone() : extractGuestPhone(notes);
     }
 
-    private String extractGuestName() {
+    // Pedidos de convidados guardam os dados nas observações: "Guest: nome (email) - telefone"
+    public static String extractGuestName(String notes) {
         if (notes != null && notes.contains("Guest: ")) {
             String guestPart = notes.substring(notes.indexOf("Guest: ") + 7);
             int endIndex = guestPart.indexOf(" (");
@@ -190,7 +193,7 @@ public class Order {
         return null;
     }
 
-    private String extractGuestEmail() {
+    public static String extractGuestEmail(String notes) {
         if (notes != null && notes.contains(" (") && notes.contains(")")) {
             int startIndex = notes.indexOf(" (") + 2;
             int endIndex = notes.indexOf(")", startIndex);
@@ -199,7 +202,7 @@ public class Order {
         return null;
     }
 
-    private String extractGuestPhone() {
+    public static String extractGuestPhone(String notes) {
         if (notes != null && notes.contains(" - ")) {
             String[] parts = notes.split(" - ");
             if (parts.length > 1) {
@@ -0,0 +1,100 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Mensagem a publicar no RabbitMQ, gravada na mesma transação que alterou o pedido ou o pagamento.
+ * O relay apaga a linha depois da confirmação do broker; as que esgotam as tentativas ficam como DEAD.
+ */
+@Entity
+@Table(name = "outbox_events",
+       indexes = @Index(name = "idx_outbox_events_aggregate", columnList = "aggregate_type, aggregate_id, id"))
+public class OutboxEvent {
+
+    // IDENTITY de propósito: os ids seguem a ordem das transações de um mesmo pedido,
+    // o que os blocos de sequência reservados por instância não garantem
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private OutboxEventType eventType;
+
+    @Column(name = "aggregate_type", nullable = false, length = 30)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // Classe do corpo JSON, enviada no cabeçalho de tipo para o conversor dos consumidores
+    @Column(name = "payload_type", nullable = false, length = 200)
+    private String payloadType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    protected OutboxEvent() {}
+
+    public OutboxEvent(OutboxEventType eventType, Long aggregateId, String payloadType, String payload) {
+        this.eventType = eventType;
+        this.aggregateType = eventType.getAggregateType();
+        this.aggregateId = aggregateId;
+        this.payloadType = payloadType;
+        this.payload = payload;
+        this.status = OutboxStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Métodos de negócio
+    public void scheduleRetry(String error, LocalDateTime nextAttemptAt) {
+        this.attempts++;
+        this.nextAttemptAt = nextAttemptAt;
+        this.lastError = truncate(error);
+    }
+
+    public void markDead(String error) {
+        this.attempts++;
+        this.status = OutboxStatus.DEAD;
+        this.lastError = truncate(error);
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public OutboxEventType getEventType() { return eventType; }
+    public String getAggregateType() { return aggregateType; }
+    public Long getAggregateId() { return aggregateId; }
+    public String getPayloadType() { return payloadType; }
+    public String getPayload() { return payload; }
+    public OutboxStatus getStatus() { return status; }
+    public Integer getAttempts() { return attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public String getLastError() { return lastError; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,19 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+public enum OutboxEventType {
+    NEW_ORDER("ORDER"),
+    ORDER_STATUS_CHANGED("ORDER"),
+    PAYMENT_STATUS_CHANGED("PAYMENT"),
+    LOYALTY_POINTS("ORDER");
+
+    // Eventos do mesmo agregado (pedido ou pagamento) são publicados na ordem em que foram gravados
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
@@ -0,0 +1,16 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+public enum OutboxStatus {
+    PENDING("Pendente"),
+    DEAD("Descartado");
+
+    private final String displayName;
+
+    OutboxStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
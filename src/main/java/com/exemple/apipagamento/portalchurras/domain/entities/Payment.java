@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Pedido é obrigatório")
@@ -40,14 +41,14 @@ public class Payment {
     @Column(columnDefinition = "TEXT")
     private String qrCode; // QR Code para PIX (pode ser longo)
     
-    @Column(columnDefinition = "TEXT")
-    private String qrCodeBase64; // QR Code em Base64 (pode ser muito longo)
+    @Column(length = 64)
+    private String qrCodeHash; // Imagem do QR Code em qr_code_images (SHA-256 do PNG)
     
     @Column(length = 500)
     private String ticketUrl; // URL do comprovante
 
     @Column(columnDefinition = "TEXT")
-    private String externalResponse; // Resposta completa da API externa
+    private String externalResponse; // Resumo da resposta da API externa
 
     private String failureReason; // Motivo da falha
 
@@ -83,13 +84,13 @@ public class Payment {
         this.updatedAt = LocalDateTime.now();
     }
 
-    public void setPixData(String qrCode, String qrCodeBase64, String ticketUrl) {
+    public void setPixData(String qrCode, String qrCodeHash, String ticketUrl) {
         if (this.method != PaymentMethod.PIX) {
             throw new IllegalStateException("Dados PIX só podem ser definidos para pagamentos PIX");
         }
 
         this.qrCode = qrCode;
-        this.qrCodeBase64 = qrCodeBase64;
+        this.qrCodeHash = qrCodeHash;
         this.ticketUrl = ticketUrl;
         this.updatedAt = LocalDateTime.now();
     }
@@ -178,7 +179,7 @@ public class Payment {
     public String getExternalPaymentId() { return externalPaymentId; }
     public String getExternalPreferenceId() { return externalPreferenceId; }
     public String getQrCode() { return qrCode; }
-    public String getQrCodeBase64() { return qrCodeBase64; }
+    public String getQrCodeHash() { return qrCodeHash; }
     public String getTicketUrl() { return ticketUrl; }
     public String getExternalResponse() { return externalResponse; }
     public String getFailureReason() { return failureReason; }
@@ -0,0 +1,36 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Imagem PNG de QR Code PIX, endereçada pelo SHA-256 do conteúdo. Fica fora da tabela de pagamentos
+ * para que consultas de pedidos e pagamentos não carreguem a imagem; o mesmo conteúdo é gravado uma vez só.
+ */
+@Entity
+@Table(name = "qr_code_images")
+public class QrCodeImage {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 1_048_576)
+    private byte[] content;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    protected QrCodeImage() {}
+
+    public QrCodeImage(String hash, byte[] content, LocalDateTime createdAt) {
+        this.hash = hash;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public String getHash() { return hash; }
+    public byte[] getContent() { return content; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
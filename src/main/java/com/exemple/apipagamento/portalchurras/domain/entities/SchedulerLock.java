@@ -0,0 +1,41 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lease de tarefas agendadas: enquanto {@code lockedUntil} não passar, só a instância
+ * dona do lock executa a tarefa. Um nó que cai libera o lock sozinho quando o lease expira.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(nullable = false)
+    private String lockedBy;
+
+    protected SchedulerLock() {}
+
+    public SchedulerLock(String name, LocalDateTime lockedUntil, LocalDateTime lockedAt, String lockedBy) {
+        this.name = name;
+        this.lockedUntil = lockedUntil;
+        this.lockedAt = lockedAt;
+        this.lockedBy = lockedBy;
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public LocalDateTime getLockedUntil() { return lockedUntil; }
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public String getLockedBy() { return lockedBy; }
+}
@@ -0,0 +1,124 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Notificação de webhook recebida e ainda não (ou já) aplicada ao pagamento.
+ * A chave (provider, event_id) garante que reenvios do provedor não geram trabalho repetido.
+ */
+@Entity
+@Table(name = "webhook_inbox",
+       uniqueConstraints = @UniqueConstraint(name = "uk_webhook_inbox_event", columnNames = {"provider", "event_id"}),
+       indexes = {
+           @Index(name = "idx_webhook_inbox_status_next", columnList = "status, next_attempt_at"),
+           @Index(name = "idx_webhook_inbox_resource_status", columnList = "resource_id, status")
+       })
+public class WebhookInboxEvent {
+
+    public static final String PROVIDER_MERCADO_PAGO = "MERCADO_PAGO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String provider;
+
+    @Column(name = "event_id", nullable = false, length = 100)
+    private String eventId;
+
+    // ID externo do pagamento: eventos do mesmo recurso são aplicados em ordem de chegada
+    @Column(name = "resource_id", nullable = false, length = 100)
+    private String resourceId;
+
+    @Column(length = 50)
+    private String type;
+
+    @Column(length = 50)
+    private String action;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WebhookInboxStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime lockedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+
+    private LocalDateTime processedAt;
+
+    protected WebhookInboxEvent() {}
+
+    public WebhookInboxEvent(String provider, String eventId, String resourceId,
+                             String type, String action, String payload) {
+        this.provider = provider;
+        this.eventId = eventId;
+        this.resourceId = resourceId;
+        this.type = type;
+        this.action = action;
+        this.payload = payload;
+        this.status = WebhookInboxStatus.PENDING;
+        this.attempts = 0;
+        this.receivedAt = LocalDateTime.now();
+        this.nextAttemptAt = this.receivedAt;
+    }
+
+    // Métodos de negócio
+    public void markProcessed(LocalDateTime now) {
+        this.status = WebhookInboxStatus.PROCESSED;
+        this.processedAt = now;
+        this.lockedAt = null;
+        this.lastError = null;
+    }
+
+    public void scheduleRetry(String error, LocalDateTime nextAttemptAt) {
+        this.status = WebhookInboxStatus.PENDING;
+        this.nextAttemptAt = nextAttemptAt;
+        this.lockedAt = null;
+        this.lastError = truncate(error);
+    }
+
+    public void markDead(String error, LocalDateTime now) {
+        this.status = WebhookInboxStatus.DEAD;
+        this.processedAt = now;
+        this.lockedAt = null;
+        this.lastError = truncate(error);
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getProvider() { return provider; }
+    public String getEventId() { return eventId; }
+    public String getResourceId() { return resourceId; }
+    public String getType() { return type; }
+    public String getAction() { return action; }
+    public String getPayload() { return payload; }
+    public WebhookInboxStatus getStatus() { return status; }
+    public Integer getAttempts() { return attempts; }
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public String getLastError() { return lastError; }
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+}
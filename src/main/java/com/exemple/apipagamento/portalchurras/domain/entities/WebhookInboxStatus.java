@@ -0,0 +1,18 @@
+package com.exemple.apipagamento.portalchurras.domain.entities;
+
+public enum WebhookInboxStatus {
+    PENDING("Pendente"),
+    PROCESSING("Processando"),
+    PROCESSED("Processado"),
+    DEAD("Descartado");
+
+    private final String displayName;
+
+    WebhookInboxStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
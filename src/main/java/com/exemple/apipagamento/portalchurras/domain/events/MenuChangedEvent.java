@@ -0,0 +1,16 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+/**
+ * Evento interno publicado quando qualquer item do cardápio é criado, alterado ou removido.
+ * É entregue de forma síncrona, dentro da mesma transação que alterou o cardápio.
+ */
+public class MenuChangedEvent {
+
+    private final Long menuItemId;
+
+    public MenuChangedEvent(Long menuItemId) {
+        this.menuItemId = menuItemId;
+    }
+
+    public Long getMenuItemId() { return menuItemId; }
+}
@@ -0,0 +1,18 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+
+/**
+ * Evento interno publicado quando um pedido é criado.
+ * É entregue de forma síncrona, dentro da mesma transação que criou o pedido.
+ */
+public class OrderCreatedEvent {
+
+    private final Order order;
+
+    public OrderCreatedEvent(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() { return order; }
+}
@@ -0,0 +1,25 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+
+/**
+ * Evento interno publicado quando um pedido muda de status.
+ * É entregue de forma síncrona, dentro da mesma transação que alterou o pedido.
+ */
+public class OrderStatusChangedEvent {
+
+    private final Order order;
+    private final OrderStatus previousStatus;
+    private final OrderStatus newStatus;
+
+    public OrderStatusChangedEvent(Order order, OrderStatus previousStatus) {
+        this.order = order;
+        this.previousStatus = previousStatus;
+        this.newStatus = order.getStatus();
+    }
+
+    public Order getOrder() { return order; }
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+    public OrderStatus getNewStatus() { return newStatus; }
+}
@@ -0,0 +1,18 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+
+/**
+ * Evento interno publicado quando itens ou observações de um pedido mudam sem troca de status.
+ * É entregue de forma síncrona, dentro da mesma transação que alterou o pedido.
+ */
+public class OrderUpdatedEvent {
+
+    private final Order order;
+
+    public OrderUpdatedEvent(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() { return order; }
+}
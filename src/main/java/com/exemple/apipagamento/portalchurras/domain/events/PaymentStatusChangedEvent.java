@@ -0,0 +1,26 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+
+/**
+ * Evento interno publicado quando um pagamento é criado ou muda de status.
+ * É entregue de forma síncrona, dentro da mesma transação que alterou o pagamento;
+ * na criação o status anterior é nulo.
+ */
+public class PaymentStatusChangedEvent {
+
+    private final Payment payment;
+    private final PaymentStatus previousStatus;
+    private final PaymentStatus newStatus;
+
+    public PaymentStatusChangedEvent(Payment payment, PaymentStatus previousStatus) {
+        this.payment = payment;
+        this.previousStatus = previousStatus;
+        this.newStatus = payment.getStatus();
+    }
+
+    public Payment getPayment() { return payment; }
+    public PaymentStatus getPreviousStatus() { return previousStatus; }
+    public PaymentStatus getNewStatus() { return newStatus; }
+}
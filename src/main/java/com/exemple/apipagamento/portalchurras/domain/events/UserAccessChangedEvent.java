@@ -0,0 +1,20 @@
+package com.exemple.apipagamento.portalchurras.domain.events;
+
+/**
+ * Evento interno publicado quando muda algo que decide o acesso do usuário:
+ * ativação, desativação, papel, email ou exclusão.
+ * É entregue de forma síncrona, dentro da mesma transação que alterou o usuário.
+ */
+public class UserAccessChangedEvent {
+
+    private final Long userId;
+    private final String email;
+
+    public UserAccessChangedEvent(Long userId, String email) {
+        this.userId = userId;
+        this.email = email;
+    }
+
+    public Long getUserId() { return userId; }
+    public String getEmail() { return email; }
+}
@@ -4,6 +4,7 @@ import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
 import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,10 +12,14 @@ import java.util.Optional;
 public interface MenuItemRepository {
     MenuItem save(MenuItem menuItem);
     Optional<MenuItem> findById(Long id);
+    List<MenuItem> findAllById(Collection<Long> ids);
     List<MenuItem> findAll();
     List<MenuItem> findByCategory(MenuCategory category);
     List<MenuItem> findByActiveTrue();
     List<MenuItem> findByCategoryAndActiveTrue(MenuCategory category);
     boolean existsByName(String name);
     void deleteById(Long id);
+
+    // Identificador que muda sempre que algum item do cardápio muda (usado como ETag)
+    String findCatalogVersion();
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.exemple.apipagamento.portalchurras.domain.ports;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+
+import java.util.List;
+
+/**
+ * Página de pedidos da paginação por chave. Não há contagem total: o custo é proporcional à página.
+ */
+public class OrderPage {
+
+    private final List<Order> content;
+    private final OrderCursor nextCursor;
+
+    private OrderPage(List<Order> content, OrderCursor nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code size + 1} linhas:
+     * a linha extra só indica que existe próxima página.
+     */
+    public static OrderPage fromLookahead(List<Order> fetched, int size) {
+        if (fetched.size() <= size) {
+            return new OrderPage(fetched, null);
+        }
+        List<Order> content = fetched.subList(0, size);
+        return new OrderPage(content, OrderCursor.after(content.get(size - 1)));
+    }
+
+    public List<Order> getContent() { return content; }
+    public OrderCursor getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
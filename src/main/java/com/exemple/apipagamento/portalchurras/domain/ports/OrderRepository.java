@@ -5,15 +5,24 @@ import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface OrderRepository {
 
     Order save(Order order);
 
+    // Grava um pedido novo e todos os seus itens de uma vez (itens em lote) e devolve o pedido
+    // com itens, produtos e cliente carregados
+    Order insertWithItems(Order order);
+
     Optional<Order> findById(Long id);
 
+    // Identificador que muda sempre que o pedido, seu pagamento ou seus itens mudam (usado como ETag)
+    Optional<String> findVersionById(Long id);
+
     List<Order> findAll();
 
     List<Order> findByStatus(OrderStatus status);
@@ -24,6 +33,24 @@ public interface OrderRepository {
 
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    // Paginação por chave (created_at, id) em ordem decrescente, retornando até "limit" pedidos após o cursor.
+    // Os pedidos retornados já vêm com itens, produtos, pagamento e cliente carregados
+    List<Order> findPage(OrderCursor after, int limit);
+
+    List<Order> findPageByStatus(OrderStatus status, OrderCursor after, int limit);
+
+    List<Order> findPageByCustomer(User customer, OrderCursor after, int limit);
+
+    List<Order> findPageByCustomerEmail(String customerEmail, OrderCursor after, int limit);
+
+    List<Order> findPageByCreatedAtBetween(LocalDateTime start, LocalDateTime end, OrderCursor after, int limit);
+
+    // Pedidos nos status informados, com itens e pagamento carregados, do mais antigo para o mais novo
+    List<Order> findByStatusIn(Collection<OrderStatus> statuses);
+
+    // Status atual de cada pedido informado, sem carregar o pedido; ids inexistentes ficam de fora
+    Map<Long, OrderStatus> findStatusesByIds(Collection<Long> ids);
+
     void deleteById(Long id);
     
     void deleteAll(); // ADICIONADO: Para limpeza de dados em testes
@@ -1,6 +1,7 @@
 package com.exemple.apipagamento.portalchurras.domain.ports;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public interface PaymentGateway {
@@ -15,4 +16,12 @@ public interface PaymentGateway {
     PaymentGatewayResponse cancelPayment(String externalPaymentId);
 
     PaymentWebhookResponse processWebhook(Map<String, Object> webhookData);
-}
\ No newline at end of file
+
+    // Variantes assíncronas: a chamada HTTP roda fora da thread de quem pede, e falhas voltam como resposta de erro
+
+    CompletableFuture<PaymentGatewayResponse> createPaymentPreferenceAsync(PaymentGatewayRequest request);
+
+    CompletableFuture<PaymentGatewayResponse> createPixPaymentAsync(PaymentGatewayRequest request);
+
+    CompletableFuture<PaymentGatewayResponse> getPaymentStatusAsync(String externalPaymentId);
+}
@@ -1,7 +1,5 @@
 package com.exemple.apipagamento.portalchurras.domain.ports;
 
-import java.util.Map;
-
 public class PaymentGatewayResponse {
     private boolean success;
     private String externalPaymentId;
@@ -12,7 +10,7 @@ public class PaymentGatewayResponse {
     private String ticketUrl;
     private String status;
     private String errorMessage;
-    private Map<String, Object> rawResponse;
+    private String rawResponse; // Resumo em JSON da resposta do provedor
 
     public PaymentGatewayResponse() {}
 
@@ -58,6 +56,6 @@ public class PaymentGatewayResponse {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
-    public Map<String, Object> getRawResponse() { return rawResponse; }
-    public void setRawResponse(Map<String, Object> rawResponse) { this.rawResponse = rawResponse; }
+    public String getRawResponse() { return rawResponse; }
+    public void setRawResponse(String rawResponse) { this.rawResponse = rawResponse; }
 }
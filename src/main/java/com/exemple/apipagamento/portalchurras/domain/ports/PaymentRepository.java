@@ -4,6 +4,8 @@ package com.exemple.apipagamento.portalchurras.domain.ports;
 import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
 import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +16,11 @@ public interface PaymentRepository {
     Optional<Payment> findByExternalPaymentId(String externalPaymentId);
     List<Payment> findByStatus(PaymentStatus status);
     List<Payment> findExpiredPayments();
+    List<Long> findExpiredPaymentIds(LocalDateTime createdBefore, int limit);
+    List<Long> findExpiredPixPaymentIds(LocalDateTime createdBefore, int limit);
+    List<String> findProcessingExternalIds(LocalDateTime updatedBefore, String afterExternalId, int limit);
+    List<Payment> lockExpirableByIds(Collection<Long> ids);
+    int expireByIds(Collection<Long> ids, LocalDateTime expiredAt);
 }
 
 
@@ -0,0 +1,15 @@
+package com.exemple.apipagamento.portalchurras.domain.ports;
+
+import java.util.Optional;
+
+/**
+ * Armazenamento de imagens de QR Code endereçado por conteúdo: a chave é o SHA-256 da imagem,
+ * então a mesma imagem nunca é gravada duas vezes e o conteúdo de uma chave nunca muda.
+ */
+public interface QrCodeStore {
+    /**
+     * @return o hash (SHA-256 em hexadecimal) que identifica a imagem
+     */
+    String save(byte[] png);
+    Optional<byte[]> findByHash(String hash);
+}
@@ -2,14 +2,22 @@ package com.exemple.apipagamento.portalchurras.domain.usecases;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.Order;
 import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderCursor;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderPage;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface OrderUseCases {
+
+    // Linha do carrinho enviada na criação do pedido com itens
+    record CartItem(Long menuItemId, Integer quantity, String observations) {}
+
     Order createOrder(String customerName, String customerEmail, String customerPhone,
                       BigDecimal total, String notes);
+    Order createOrderWithItems(Long customerId, String customerName, String customerEmail, String customerPhone,
+                               String notes, List<CartItem> items);
     Order addItemToOrder(Long orderId, Long menuItemId, Integer quantity, String observations);
     Order removeItemFromOrder(Long orderId, Long orderItemId);
     Order updateOrderItemQuantity(Long orderId, Long orderItemId, Integer newQuantity);
@@ -18,11 +26,18 @@ public interface OrderUseCases {
     Order cancelOrder(Long orderId, String reason);
 
     Optional<Order> findOrderById(Long id);
-    List<Order> findAllOrders();
+
+    // ETag do pedido, calculado sem carregar a entidade
+    Optional<String> findOrderVersion(Long id);
     List<Order> findOrdersByStatus(OrderStatus status);
     List<Order> findOrdersByCustomerEmail(String customerEmail);
     List<Order> findOrdersByDateRange(LocalDateTime start, LocalDateTime end);
     List<Order> findActiveOrders();
 
+    OrderPage findOrdersPage(OrderCursor after, int size);
+    OrderPage findOrdersPageByStatus(OrderStatus status, OrderCursor after, int size);
+    OrderPage findOrdersPageByCustomerEmail(String customerEmail, OrderCursor after, int size);
+    OrderPage findOrdersPageByDateRange(LocalDateTime start, LocalDateTime end, OrderCursor after, int size);
+
     BigDecimal calculateOrderTotal(Long orderId);
 }
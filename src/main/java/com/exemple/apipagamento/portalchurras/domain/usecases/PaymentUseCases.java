@@ -13,9 +13,11 @@ public interface PaymentUseCases {
     Payment createPayment(Long orderId, PaymentMethod method, BigDecimal amount);
     Payment processPayment(Long paymentId);
     Payment createPixPayment(Long paymentId, String customerEmail);
-    Payment processWebhook(Map<String, Object> webhookData);
+    Payment applyWebhookStatus(String externalPaymentId, String providerStatus, Map<String, Object> webhookData);
+    boolean reconcilePaymentStatus(String externalPaymentId, String providerStatus);
     Optional<Payment> findPaymentById(Long paymentId);
     Optional<Payment> findPaymentByOrderId(Long orderId);
+    Optional<byte[]> findPixQrCodeImage(String hash);
     List<Payment> findExpiredPayments();
     void expirePayments();
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confere na subida se o pool do Hikari comporta a configuração da aplicação.
+ * Com virtual threads o Tomcat deixa de limitar as requisições simultâneas e o pool passa a ser o limite
+ * real de concorrência no banco; por isso ele não pode passar da cota de conexões da instância, precisa
+ * sobrar espaço para as requisições depois das tarefas em segundo plano, e quem não consegue conexão
+ * deve falhar rápido em vez de ficar esperando na fila do pool.
+ */
+@Component
+public class DataSourcePoolGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePoolGuard.class);
+
+    private final DataSource dataSource;
+    private final DataSourcePoolProperties properties;
+    private final WebhookInboxProperties webhookProperties;
+    private final PaymentReconciliationProperties reconciliationProperties;
+    private final RabbitListenerProperties listenerProperties;
+    private final boolean virtualThreads;
+    private final boolean rabbitEnabled;
+
+    public DataSourcePoolGuard(DataSource dataSource,
+                               DataSourcePoolProperties properties,
+                               WebhookInboxProperties webhookProperties,
+                               PaymentReconciliationProperties reconciliationProperties,
+                               RabbitListenerProperties listenerProperties,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Value("${spring.rabbitmq.enabled:true}") boolean rabbitEnabled) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.webhookProperties = webhookProperties;
+        this.reconciliationProperties = reconciliationProperties;
+        this.listenerProperties = listenerProperties;
+        this.virtualThreads = virtualThreads;
+        this.rabbitEnabled = rabbitEnabled;
+    }
+
+    @PostConstruct
+    public void verify() {
+        HikariDataSource hikari = hikari();
+        if (hikari == null) {
+            return;
+        }
+
+        int poolSize = hikari.getMaximumPoolSize();
+        int background = backgroundConnections();
+        int required = background + properties.getReservedForRequests();
+        List<String> problems = new ArrayList<>();
+
+        if (poolSize > properties.getMaxConnections()) {
+            problems.add(String.format("maximum-pool-size=%d passa da cota de conexões da instância "
+                    + "(database.pool.max-connections=%d)", poolSize, properties.getMaxConnections()));
+        }
+        if (poolSize < required) {
+            problems.add(String.format("maximum-pool-size=%d não comporta as tarefas em segundo plano (%d conexões) "
+                    + "mais a reserva para requisições (%d); use pelo menos %d",
+                    poolSize, background, properties.getReservedForRequests(), required));
+        }
+        if (virtualThreads && hikari.getConnectionTimeout() > properties.getMaxConnectionTimeout().toMillis()) {
+            problems.add(String.format("connection-timeout=%dms com virtual threads deixa requisições empilhadas "
+                    + "esperando o pool; use no máximo %dms", hikari.getConnectionTimeout(),
+                    properties.getMaxConnectionTimeout().toMillis()));
+        }
+
+        if (problems.isEmpty()) {
+            logger.info("Pool do banco: {} conexões, {} para tarefas em segundo plano, virtual threads {}",
+                    poolSize, background, virtualThreads ? "ligadas" : "desligadas");
+            return;
+        }
+        String message = "Pool do banco mal dimensionado: " + String.join("; ", problems);
+        if (properties.isEnforce()) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    // Conexões que as tarefas em segundo plano podem segurar ao mesmo tempo no pior caso
+    private int backgroundConnections() {
+        int connections = 0;
+        if (webhookProperties.isWorkerEnabled()) {
+            connections += Math.max(1, webhookProperties.getWorkerThreads());
+        }
+        if (reconciliationProperties.isEnabled()) {
+            connections += Math.max(1, reconciliationProperties.getMaxConcurrency());
+        }
+        if (rabbitEnabled && listenerProperties.isAutoStartup()) {
+            for (RabbitListenerProperties.Listener listener : listenerProperties.getQueues().values()) {
+                connections += Math.max(listener.getConcurrency(), listener.getMaxConcurrency());
+            }
+        }
+        return connections;
+    }
+
+    private HikariDataSource hikari() {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari;
+        }
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
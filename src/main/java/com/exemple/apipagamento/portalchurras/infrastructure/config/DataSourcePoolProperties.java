@@ -0,0 +1,51 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limites verificados na subida para o pool do Hikari (spring.datasource.hikari.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "database.pool")
+public class DataSourcePoolProperties {
+
+    private boolean enforce = true;
+    private int maxConnections = 30;
+    private int reservedForRequests = 4;
+    private Duration maxConnectionTimeout = Duration.ofSeconds(5);
+
+    public boolean isEnforce() {
+        return enforce;
+    }
+
+    public void setEnforce(boolean enforce) {
+        this.enforce = enforce;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getReservedForRequests() {
+        return reservedForRequests;
+    }
+
+    public void setReservedForRequests(int reservedForRequests) {
+        this.reservedForRequests = reservedForRequests;
+    }
+
+    public Duration getMaxConnectionTimeout() {
+        return maxConnectionTimeout;
+    }
+
+    public void setMaxConnectionTimeout(Duration maxConnectionTimeout) {
+        this.maxConnectionTimeout = maxConnectionTimeout;
+    }
+}
@@ -3,6 +3,8 @@ package com.exemple.apipagamento.portalchurras.infrastructure.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @ConfigurationProperties(prefix = "mercado-pago")
 public class MercadoPagoProperties {
@@ -16,6 +18,7 @@ public class MercadoPagoProperties {
     private String successUrl = "https://seu-site.com/success";
     private String failureUrl = "https://seu-site.com/failure";
     private String pendingUrl = "https://seu-site.com/pending";
+    private Resilience resilience = new Resilience();
 
     public String getAccessToken() {
         return accessToken;
@@ -88,4 +91,85 @@ public class MercadoPagoProperties {
     public void setPendingUrl(String pendingUrl) {
         this.pendingUrl = pendingUrl;
     }
-}
\ No newline at end of file
+
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    public void setResilience(Resilience resilience) {
+        this.resilience = resilience;
+    }
+
+    /**
+     * Circuit breaker e bulkhead aplicados a cada operação do gateway (preferência, PIX, status, cancelamento).
+     */
+    public static class Resilience {
+
+        // Circuit breaker: abre quando a taxa de falhas das últimas chamadas passa do limite
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+
+        // Bulkhead: chamadas simultâneas por operação; acima disso a chamada é recusada na hora
+        private int maxConcurrentCalls = 10;
+        private Duration maxWait = Duration.ZERO;
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "payments.expiration")
+public class PaymentExpirationProperties {
+
+    private boolean sweeperEnabled = true;
+    private Duration window = Duration.ofMinutes(30);
+    private Duration pixWindow = Duration.ofMinutes(15);
+    private int chunkSize = 500;
+    private Duration lockLease = Duration.ofMinutes(5);
+
+    public boolean isSweeperEnabled() {
+        return sweeperEnabled;
+    }
+
+    public void setSweeperEnabled(boolean sweeperEnabled) {
+        this.sweeperEnabled = sweeperEnabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public Duration getPixWindow() {
+        return pixWindow;
+    }
+
+    public void setPixWindow(Duration pixWindow) {
+        this.pixWindow = pixWindow;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getLockLease() {
+        return lockLease;
+    }
+
+    public void setLockLease(Duration lockLease) {
+        this.lockLease = lockLease;
+    }
+}
@@ -0,0 +1,97 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Consumidores do RabbitMQ, configurados por fila (chave igual à de rabbitmq.queue.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "messaging.listeners")
+public class RabbitListenerProperties {
+
+    private boolean autoStartup = true;
+    private boolean virtualThreads = true;
+    private Map<String, Listener> queues = new LinkedHashMap<>();
+
+    public Listener forQueue(String queue) {
+        return queues.getOrDefault(queue, new Listener());
+    }
+
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    public void setAutoStartup(boolean autoStartup) {
+        this.autoStartup = autoStartup;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public Map<String, Listener> getQueues() {
+        return queues;
+    }
+
+    public void setQueues(Map<String, Listener> queues) {
+        this.queues = queues;
+    }
+
+    public static class Listener {
+
+        private int concurrency = 1;
+        private int maxConcurrency = 1;
+        private int prefetch = 250;
+        private int batchSize = 10;
+        private Duration receiveTimeout = Duration.ofSeconds(1);
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getReceiveTimeout() {
+            return receiveTimeout;
+        }
+
+        public void setReceiveTimeout(Duration receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+        }
+    }
+}
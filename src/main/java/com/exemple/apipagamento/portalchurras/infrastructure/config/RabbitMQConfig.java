@@ -1,7 +1,12 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.config;
 
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.DeadLetterRecoverer;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.DeadLetterTopology;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.ListenerMetrics;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
@@ -9,14 +14,27 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
 public class RabbitMQConfig {
 
+    // Chaves de messaging.listeners.queues.*
+    static final String NEW_ORDERS_LISTENER = "new-orders";
+    static final String ORDER_STATUS_LISTENER = "order-status";
+    static final String LOYALTY_POINTS_LISTENER = "loyalty-points";
+
     @Value("${rabbitmq.exchange.orders}")
     private String ordersExchange;
 
+    @Value("${rabbitmq.exchange.dead-letter}")
+    private String deadLetterExchange;
+
     @Value("${rabbitmq.queue.new-orders}")
     private String newOrdersQueue;
 
@@ -29,6 +47,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queue.loyalty-points}")
     private String loyaltyPointsQueue;
 
+    @Value("${rabbitmq.queue.payment-status}")
+    private String paymentStatusQueue;
+
     @Value("${rabbitmq.routing-key.new-order}")
     private String newOrderRoutingKey;
 
@@ -41,33 +62,78 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-key.loyalty}")
     private String loyaltyRoutingKey;
 
+    @Value("${rabbitmq.routing-key.payment-status}")
+    private String paymentStatusRoutingKey;
+
     // Exchange
     @Bean
     public TopicExchange ordersExchange() {
         return new TopicExchange(ordersExchange);
     }
 
-    // Queues
+    @Bean
+    public DirectExchange deadLetterExchange() {
+        return new DirectExchange(deadLetterExchange);
+    }
+
+    // Queues (rejeitadas ou expiradas vão para a DLQ de cada fila, nunca são descartadas)
     @Bean
     public Queue newOrdersQueue() {
-        return QueueBuilder.durable(newOrdersQueue)
-                .withArgument("x-message-ttl", 3600000) // 1 hour TTL
+        return withDeadLetter(QueueBuilder.durable(newOrdersQueue), newOrdersQueue)
+                .withArgument("x-message-ttl", 3600000) // 1 hour TTL, depois vai para a DLQ
                 .build();
     }
 
     @Bean
     public Queue orderStatusQueue() {
-        return QueueBuilder.durable(orderStatusQueue).build();
+        return withDeadLetter(QueueBuilder.durable(orderStatusQueue), orderStatusQueue).build();
     }
 
     @Bean
     public Queue notificationsQueue() {
-        return QueueBuilder.durable(notificationsQueue).build();
+        return withDeadLetter(QueueBuilder.durable(notificationsQueue), notificationsQueue).build();
     }
 
     @Bean
     public Queue loyaltyPointsQueue() {
-        return QueueBuilder.durable(loyaltyPointsQueue).build();
+        return withDeadLetter(QueueBuilder.durable(loyaltyPointsQueue), loyaltyPointsQueue).build();
+    }
+
+    @Bean
+    public Queue paymentStatusQueue() {
+        return withDeadLetter(QueueBuilder.durable(paymentStatusQueue), paymentStatusQueue).build();
+    }
+
+    private QueueBuilder withDeadLetter(QueueBuilder builder, String queue) {
+        return builder.deadLetterExchange(deadLetterExchange)
+                .deadLetterRoutingKey(DeadLetterTopology.deadLetterQueue(queue));
+    }
+
+    /**
+     * DLQ e filas de espera de cada fila. As filas de espera não têm consumidor: quando o TTL da
+     * faixa vence, o broker devolve a mensagem à fila original pela exchange padrão.
+     */
+    @Bean
+    public Declarables retryTopology(RabbitRetryProperties retryProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : List.of(newOrdersQueue, orderStatusQueue, notificationsQueue,
+                loyaltyPointsQueue, paymentStatusQueue)) {
+            Queue deadLetterQueue = QueueBuilder.durable(DeadLetterTopology.deadLetterQueue(queue)).build();
+            declarables.add(deadLetterQueue);
+            declarables.add(BindingBuilder.bind(deadLetterQueue)
+                    .to(deadLetterExchange())
+                    .with(deadLetterQueue.getName()));
+
+            List<Duration> tiers = retryProperties.getTiers();
+            for (int tier = 0; tier < tiers.size(); tier++) {
+                declarables.add(QueueBuilder.durable(DeadLetterTopology.retryQueue(queue, tier))
+                        .ttl((int) tiers.get(tier).toMillis())
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(queue)
+                        .build());
+            }
+        }
+        return new Declarables(declarables);
     }
 
     // Bindings
@@ -99,17 +165,87 @@ public class RabbitMQConfig {
                 .with(loyaltyRoutingKey);
     }
 
+    @Bean
+    public Binding paymentStatusBinding() {
+        return BindingBuilder.bind(paymentStatusQueue())
+                .to(ordersExchange())
+                .with(paymentStatusRoutingKey);
+    }
+
     // Message Converter
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
+    // Listener container factories (uma por fila, ajustadas pelo volume de cada uma)
+    @Bean
+    public SimpleRabbitListenerContainerFactory newOrdersListenerFactory(ConnectionFactory connectionFactory,
+                                                                         RabbitListenerProperties properties,
+                                                                         ListenerMetrics listenerMetrics,
+                                                                         DeadLetterRecoverer recoverer) {
+        return listenerFactory(connectionFactory, properties, NEW_ORDERS_LISTENER, listenerMetrics, recoverer);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderStatusListenerFactory(ConnectionFactory connectionFactory,
+                                                                           RabbitListenerProperties properties,
+                                                                           ListenerMetrics listenerMetrics,
+                                                                           DeadLetterRecoverer recoverer) {
+        return listenerFactory(connectionFactory, properties, ORDER_STATUS_LISTENER, listenerMetrics, recoverer);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory loyaltyPointsListenerFactory(ConnectionFactory connectionFactory,
+                                                                             RabbitListenerProperties properties,
+                                                                             ListenerMetrics listenerMetrics,
+                                                                             DeadLetterRecoverer recoverer) {
+        return listenerFactory(connectionFactory, properties, LOYALTY_POINTS_LISTENER, listenerMetrics, recoverer);
+    }
+
+    /**
+     * Consumo em lote: cada consumidor junta até batch-size mensagens (ou o que chegar em
+     * receive-timeout) e entrega a lista ao listener. O prefetch nunca fica abaixo do lote.
+     * Falhas não voltam para a fila na hora: o {@link DeadLetterRecoverer} agenda a nova tentativa.
+     */
+    private SimpleRabbitListenerContainerFactory listenerFactory(ConnectionFactory connectionFactory,
+                                                                 RabbitListenerProperties properties,
+                                                                 String queue,
+                                                                 ListenerMetrics listenerMetrics,
+                                                                 DeadLetterRecoverer recoverer) {
+        RabbitListenerProperties.Listener listener = properties.forQueue(queue);
+        int concurrency = Math.max(1, listener.getConcurrency());
+        int batchSize = Math.max(1, listener.getBatchSize());
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, listener.getMaxConcurrency()));
+        factory.setPrefetchCount(Math.max(batchSize, listener.getPrefetch()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(listener.getReceiveTimeout().toMillis());
+        factory.setAutoStartup(properties.isAutoStartup());
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(
+                RetryInterceptorBuilder.stateless().maxAttempts(1).recoverer(recoverer).build(),
+                listenerMetrics);
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("rabbit-" + queue + "-");
+        executor.setVirtualThreads(properties.isVirtualThreads());
+        factory.setTaskExecutor(executor);
+        return factory;
+    }
+
     // RabbitTemplate
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        // Mensagem sem fila de destino volta ao publicador em vez de sumir: o relay da outbox tenta de novo
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
 }
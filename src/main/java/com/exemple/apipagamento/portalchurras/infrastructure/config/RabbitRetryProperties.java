@@ -0,0 +1,40 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "messaging.retry")
+public class RabbitRetryProperties {
+
+    private int maxAttempts = 4;
+    private List<Duration> tiers = new ArrayList<>(List.of(
+            Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1)));
+
+    /**
+     * Faixa de espera após a falha de número {@code attempts}; a partir da última faixa, repete a maior.
+     */
+    public int tierFor(int attempts) {
+        return Math.max(0, Math.min(attempts, tiers.size()) - 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public List<Duration> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<Duration> tiers) {
+        this.tiers = tiers;
+    }
+}
@@ -1,7 +1,15 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.config;
 
+import com.exemple.apipagamento.portalchurras.application.dtos.MenuResponseDTO;
+import com.exemple.apipagamento.portalchurras.application.services.MenuCacheService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationListener;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,7 +19,11 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -24,6 +36,8 @@ import java.time.Duration;
 @EnableCaching
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
     @Value("${spring.data.redis.host:localhost}")
     private String redisHost;
 
@@ -65,7 +79,7 @@ public class RedisConfig {
      * Gerenciador de cache com configurações específicas por tipo de dado.
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
         // Configuração padrão: 60 minutos de TTL
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(60))
@@ -81,10 +95,12 @@ public class RedisConfig {
             RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30)));
                 
-        // Cache de menu: 1 hora (dados relativamente estáveis)
-        builder.withCacheConfiguration("menu", 
+        // Cache de menu: 1 hora (dados relativamente estáveis), guardado em JSON já agrupado por categoria
+        builder.withCacheConfiguration(MenuCacheService.CACHE_NAME,
             RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1)));
+                .entryTtl(Duration.ofHours(1))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                    new Jackson2JsonRedisSerializer<>(objectMapper, MenuResponseDTO.class))));
                 
         // Cache de pedidos: 10 minutos (dados voláteis)
         builder.withCacheConfiguration("orders", 
@@ -93,4 +109,41 @@ public class RedisConfig {
 
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Assinatura do canal de invalidação do cardápio: cada instância descarta o próprio near-cache
+     * quando outra altera o cardápio. A assinatura só começa com a aplicação pronta e uma falha
+     * não impede a subida; sem ela o near-cache depende apenas do TTL local.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "menu.cache.redis.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer menuCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                   RedisTemplate<String, Object> redisTemplate,
+                                                                   MenuCacheService menuCacheService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> menuCacheService.onRemoteInvalidation(
+                (String) redisTemplate.getValueSerializer().deserialize(message.getBody())),
+            new ChannelTopic(MenuCacheService.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "menu.cache.redis.enabled", havingValue = "true", matchIfMissing = true)
+    public ApplicationListener<ApplicationReadyEvent> menuCacheListenerStarter(
+            RedisMessageListenerContainer menuCacheListenerContainer) {
+        return event -> {
+            try {
+                menuCacheListenerContainer.start();
+            } catch (RuntimeException e) {
+                logger.warn("Não foi possível assinar o canal de invalidação do cardápio: {}", e.getMessage());
+            }
+        };
+    }
+}
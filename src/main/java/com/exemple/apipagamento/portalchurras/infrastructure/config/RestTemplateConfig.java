@@ -1,5 +1,15 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
@@ -8,7 +18,6 @@ import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
 import java.util.Collections;
 
 @Configuration
@@ -16,28 +25,58 @@ public class RestTemplateConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(RestTemplateConfig.class);
 
+    /**
+     * Cliente HTTP com pool de conexões reaproveitadas (keep-alive). Conexões ociosas ou vencidas são
+     * fechadas em segundo plano, e a espera por uma conexão livre tem limite próprio: quando o provedor
+     * fica lento, as requisições falham rápido em vez de se acumularem esperando o pool.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                        .build())
+                .build();
+
+        // Conexões em uso, ociosas e requisições esperando por conexão (httpcomponents.httpclient.pool.*)
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "http-client").bindTo(meterRegistry);
+
+        logger.info("Cliente HTTP configurado: pool={}/{} por rota, connect={}, response={}, keep-alive={}",
+                properties.getMaxTotal(), properties.getMaxPerRoute(), properties.getConnectTimeout(),
+                properties.getResponseTimeout(), properties.getKeepAlive());
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                        // Usado quando o servidor não informa o keep-alive na resposta
+                        .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
-        
-        // Timeouts configurados
-        factory.setConnectTimeout((int) Duration.ofSeconds(10).toMillis());
-        factory.setReadTimeout((int) Duration.ofSeconds(30).toMillis());
-        
-        RestTemplate restTemplate = new RestTemplate(factory);
-        
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
         // Adicionar interceptor para logging
         restTemplate.setInterceptors(Collections.singletonList(loggingInterceptor()));
-        
-        logger.info("RestTemplate configurado com timeouts: connect=10s, read=30s");
-        
+
         return restTemplate;
     }
-    
+
     private ClientHttpRequestInterceptor loggingInterceptor() {
         return (request, body, execution) -> {
             logger.debug("HTTP Request: {} {}", request.getMethod(), request.getURI());
             return execution.execute(request, body);
         };
     }
-}
\ No newline at end of file
+}
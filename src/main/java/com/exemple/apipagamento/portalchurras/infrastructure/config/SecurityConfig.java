@@ -3,6 +3,7 @@ package com.exemple.apipagamento.portalchurras.infrastructure.config;
 import java.util.Arrays;
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -85,6 +86,9 @@ public class SecurityConfig {
                 .headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()))
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Retomada de respostas assíncronas (exportações em streaming) já autorizadas no request original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints públicos
                         .requestMatchers(
                                 "/swagger-ui/**",
@@ -118,8 +122,12 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/payments").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/payments/*/process").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/payments/*/pix").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/payments/qr/*").permitAll()  // Endereço é o SHA-256 da imagem
                         .requestMatchers("/api/payments/**").hasAnyRole("EMPLOYEE", "ADMIN")
 
+                        // Exportações - apenas staff
+                        .requestMatchers("/api/exports/**").hasAnyRole("EMPLOYEE", "ADMIN")
+
                         // Users - próprio perfil vs gestão de outros
                         // IMPORTANTE: Regras específicas ANTES das genéricas
                         .requestMatchers(HttpMethod.POST, "/api/users/register").permitAll()  // Registro público
@@ -130,6 +138,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/users/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/users/**").hasRole("ADMIN")
 
+                        // Administração (DLQs, etc.) - apenas admin
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+
                         // Qualquer outra requisição precisa de autenticação
                         .anyRequest().authenticated()
                 )
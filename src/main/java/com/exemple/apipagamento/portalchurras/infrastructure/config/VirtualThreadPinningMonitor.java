@@ -0,0 +1,123 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Acompanha pelo JFR as virtual threads que bloqueiam presas à thread portadora (synchronized ou código
+ * nativo em volta de I/O, comum em drivers e pools antigos). Cada ocorrência acima de pinning-threshold
+ * vira o timer jvm.threads.virtual.pinned, com o primeiro frame da aplicação (ou da biblioteca) como tag,
+ * e um aviso com a pilha no log, no máximo um por local a cada pinning-log-interval.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String APPLICATION_PACKAGE = "com.exemple.apipagamento.";
+    private static final int LOGGED_FRAMES = 15;
+
+    private final VirtualThreadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Instant> lastLogged = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isPinningMonitorEnabled() || stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(properties.getPinningThreshold()).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            logger.info("Monitor de pinning de virtual threads ativo (limite de {} ms)",
+                    properties.getPinningThreshold().toMillis());
+        } catch (RuntimeException e) {
+            // JFR indisponível (JVM sem suporte ou desativado): a aplicação segue sem o monitor
+            logger.warn("Não foi possível iniciar o monitor de pinning: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = site(frames);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Tempo em que virtual threads ficaram bloqueadas presas à thread portadora")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        Instant now = Instant.now();
+        Instant previous = lastLogged.get(site);
+        if (previous == null || previous.plus(properties.getPinningLogInterval()).isBefore(now)) {
+            lastLogged.put(site, now);
+            logger.warn("Virtual thread presa à portadora por {} ms em {}:\n{}", event.getDuration().toMillis(), site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                            .collect(Collectors.joining("\n")));
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace == null ? List.of() : stackTrace.getFrames();
+    }
+
+    // Primeiro frame da aplicação; sem ele, o primeiro fora do JDK (driver, pool...)
+    static String site(List<RecordedFrame> frames) {
+        RecordedFrame library = null;
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APPLICATION_PACKAGE)) {
+                return shortName(frame);
+            }
+            if (library == null && !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                library = frame;
+            }
+        }
+        return library != null ? shortName(library) : "jdk";
+    }
+
+    private static String shortName(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(linha " + frame.getLineNumber() + ")";
+    }
+}
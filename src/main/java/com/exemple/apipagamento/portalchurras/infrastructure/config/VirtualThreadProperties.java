@@ -0,0 +1,43 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Monitoramento de virtual threads presas à thread portadora (pinning). A ativação das virtual threads
+ * em si fica em spring.threads.virtual.enabled.
+ */
+@Component
+@ConfigurationProperties(prefix = "virtual-threads")
+public class VirtualThreadProperties {
+
+    private boolean pinningMonitorEnabled = true;
+    private Duration pinningThreshold = Duration.ofMillis(20);
+    private Duration pinningLogInterval = Duration.ofMinutes(1);
+
+    public boolean isPinningMonitorEnabled() {
+        return pinningMonitorEnabled;
+    }
+
+    public void setPinningMonitorEnabled(boolean pinningMonitorEnabled) {
+        this.pinningMonitorEnabled = pinningMonitorEnabled;
+    }
+
+    public Duration getPinningThreshold() {
+        return pinningThreshold;
+    }
+
+    public void setPinningThreshold(Duration pinningThreshold) {
+        this.pinningThreshold = pinningThreshold;
+    }
+
+    public Duration getPinningLogInterval() {
+        return pinningLogInterval;
+    }
+
+    public void setPinningLogInterval(Duration pinningLogInterval) {
+        this.pinningLogInterval = pinningLogInterval;
+    }
+}
@@ -103,9 +103,10 @@ public class AuthController {
         try {
 
             String token = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
+            // Um único parse valida assinatura e expiração; token inválido cai no catch
+            String username = jwtUtil.parseClaims(token).getSubject();
 
-            if (username != null && jwtUtil.validateToken(token, username)) {
+            if (username != null) {
                 User user = userUseCases.findUserByEmail(username)
                         .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
@@ -143,9 +144,9 @@ public class AuthController {
 
         try {
             String token = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
+            String username = jwtUtil.parseClaims(token).getSubject();
 
-            if (username != null && jwtUtil.validateToken(token, username)) {
+            if (username != null) {
                 User user = userUseCases.findUserByEmail(username)
                         .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
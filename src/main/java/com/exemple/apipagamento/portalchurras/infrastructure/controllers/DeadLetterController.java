@@ -0,0 +1,90 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.amqp.AmqpException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Administração das DLQs do RabbitMQ: consulta e reprocessamento em lote.
+ */
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@PreAuthorize("hasRole('ADMIN')")
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+@Tag(name = "Dead letters", description = "API para consulta e reprocessamento de mensagens com falha")
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    public DeadLetterController(DeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Quantidade de mensagens em cada DLQ",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Resumo das DLQs")
+    @ApiResponse(responseCode = "503", description = "RabbitMQ indisponível")
+    public ResponseEntity<?> summary() {
+        try {
+            return ResponseEntity.ok(deadLetterService.summary());
+        } catch (AmqpException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "RabbitMQ indisponível"));
+        }
+    }
+
+    @GetMapping("/{queue}")
+    @Operation(summary = "Consultar mensagens da DLQ sem removê-las",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Primeiras mensagens da DLQ")
+    @ApiResponse(responseCode = "400", description = "Fila ou limite inválido")
+    @ApiResponse(responseCode = "503", description = "RabbitMQ indisponível")
+    public ResponseEntity<?> peek(
+            @Parameter(description = "Fila: new-orders, order-status, notifications, loyalty-points ou payment-status")
+            @PathVariable String queue,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(deadLetterService.peek(queue, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (AmqpException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "RabbitMQ indisponível"));
+        }
+    }
+
+    @PostMapping("/{queue}/replay")
+    @Operation(summary = "Devolver mensagens da DLQ para a fila original",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Quantidade de mensagens reprocessadas")
+    @ApiResponse(responseCode = "400", description = "Fila ou limite inválido")
+    @ApiResponse(responseCode = "503", description = "RabbitMQ indisponível ou sem confirmação")
+    public ResponseEntity<?> replay(
+            @Parameter(description = "Fila: new-orders, order-status, notifications, loyalty-points ou payment-status")
+            @PathVariable String queue,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            int replayed = deadLetterService.replay(queue, limit);
+            return ResponseEntity.ok(Map.of("queue", queue, "replayed", replayed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (AmqpException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Reprocessamento não confirmado pelo RabbitMQ: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.application.services.ExportService;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exportações em streaming (CSV ou NDJSON).
+ * Erros de validação acontecem antes do streaming começar e são tratados pelo GlobalExceptionHandler.
+ */
+@RestController
+@RequestMapping("/api/exports")
+@PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
+@Tag(name = "Exports", description = "API para exportação de dados contábeis")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/orders")
+    @Operation(summary = "Exportar pedidos do período",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Arquivo gerado em streaming")
+    @ApiResponse(responseCode = "400", description = "Período, status ou formato inválido")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Status do pedido") @RequestParam(required = false) String status,
+            @Parameter(description = "csv (padrão) ou ndjson") @RequestParam(required = false) String format) {
+
+        ExportService.Format exportFormat = ExportService.Format.from(format);
+        OrderStatus orderStatus = parseOrderStatus(status);
+        exportService.validatePeriod(start, end);
+
+        return stream("pedidos", exportFormat,
+                out -> exportService.exportOrders(start, end, orderStatus, exportFormat, out));
+    }
+
+    @GetMapping("/order-items")
+    @Operation(summary = "Exportar itens de pedidos do período",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Arquivo gerado em streaming")
+    @ApiResponse(responseCode = "400", description = "Período, status ou formato inválido")
+    public ResponseEntity<StreamingResponseBody> exportOrderItems(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Status do pedido") @RequestParam(required = false) String status,
+            @Parameter(description = "csv (padrão) ou ndjson") @RequestParam(required = false) String format) {
+
+        ExportService.Format exportFormat = ExportService.Format.from(format);
+        OrderStatus orderStatus = parseOrderStatus(status);
+        exportService.validatePeriod(start, end);
+
+        return stream("itens-pedidos", exportFormat,
+                out -> exportService.exportOrderItems(start, end, orderStatus, exportFormat, out));
+    }
+
+    @GetMapping("/payments")
+    @Operation(summary = "Exportar pagamentos do período",
+            security = @SecurityRequirement(name = "Bearer"))
+    @ApiResponse(responseCode = "200", description = "Arquivo gerado em streaming")
+    @ApiResponse(responseCode = "400", description = "Período, status ou formato inválido")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Status do pagamento") @RequestParam(required = false) String status,
+            @Parameter(description = "csv (padrão) ou ndjson") @RequestParam(required = false) String format) {
+
+        ExportService.Format exportFormat = ExportService.Format.from(format);
+        PaymentStatus paymentStatus = status != null && !status.isBlank()
+                ? parseEnum(PaymentStatus.class, status, "Status de pagamento inválido: ")
+                : null;
+        exportService.validatePeriod(start, end);
+
+        return stream("pagamentos", exportFormat,
+                out -> exportService.exportPayments(start, end, paymentStatus, exportFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format,
+                                                        StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    private OrderStatus parseOrderStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        return parseEnum(OrderStatus.class, status, "Status de pedido inválido: ");
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String errorMessage) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(errorMessage + value);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.application.dtos.KitchenBoardMessage;
+import com.exemple.apipagamento.portalchurras.application.services.KitchenBoardService;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Painel da cozinha via STOMP.
+ * O cliente se inscreve em /topic/kitchen (deltas) e em seguida em /app/kitchen,
+ * que responde uma única vez, só para ele, com o snapshot atual do painel.
+ */
+@Controller
+public class KitchenBoardController {
+
+    private final KitchenBoardService kitchenBoardService;
+
+    public KitchenBoardController(KitchenBoardService kitchenBoardService) {
+        this.kitchenBoardService = kitchenBoardService;
+    }
+
+    @SubscribeMapping("/kitchen")
+    public KitchenBoardMessage snapshot() {
+        return kitchenBoardService.snapshot();
+    }
+}
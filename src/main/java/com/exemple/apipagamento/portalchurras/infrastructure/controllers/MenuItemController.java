@@ -3,6 +3,7 @@ package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
 import com.exemple.apipagamento.portalchurras.application.dtos.MenuItemDTO;
 import com.exemple.apipagamento.portalchurras.application.dtos.MenuResponseDTO;
 import com.exemple.apipagamento.portalchurras.application.mappers.MenuItemMapper;
+import com.exemple.apipagamento.portalchurras.application.services.MenuCacheService;
 import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
 import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
 import com.exemple.apipagamento.portalchurras.domain.usecases.MenuItemUseCases;
@@ -12,13 +13,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/menu-items")
@@ -27,26 +29,31 @@ public class MenuItemController {
 
     private final MenuItemUseCases menuItemUseCases;
     private final MenuItemMapper menuItemMapper;
+    private final MenuCacheService menuCacheService;
 
-    public MenuItemController(MenuItemUseCases menuItemUseCases, MenuItemMapper menuItemMapper) {
+    public MenuItemController(MenuItemUseCases menuItemUseCases, MenuItemMapper menuItemMapper,
+                              MenuCacheService menuCacheService) {
         this.menuItemUseCases = menuItemUseCases;
         this.menuItemMapper = menuItemMapper;
+        this.menuCacheService = menuCacheService;
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os itens ativos do cardápio",
             description = "Retorna todos os itens ativos organizados por categoria")
     @ApiResponse(responseCode = "200", description = "Lista de itens recuperada com sucesso")
-    public ResponseEntity<MenuResponseDTO> getAllActiveMenuItems() {
+    @ApiResponse(responseCode = "304", description = "Cardápio não mudou desde o ETag informado em If-None-Match")
+    public ResponseEntity<MenuResponseDTO> getAllActiveMenuItems(WebRequest webRequest) {
         try {
-            List<MenuItem> menuItems = menuItemUseCases.findAllActiveMenuItems();
-            List<MenuItemDTO> menuItemDTOs = menuItemMapper.toDTOList(menuItems);
-
-            // Organizar por categoria
-            Map<String, List<MenuItemDTO>> menuByCategory = menuItemDTOs.stream()
-                    .collect(Collectors.groupingBy(item -> item.getCategory().name().toLowerCase()));
+            // checkNotModified já responde 304 com o ETag; nada é carregado nem serializado
+            if (webRequest.checkNotModified(menuCacheService.getMenuVersion())) {
+                return null;
+            }
 
-            return ResponseEntity.ok(new MenuResponseDTO(menuByCategory));
+            // Já agrupado por categoria e servido pelo cache em dois níveis
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(menuCacheService.getActiveMenu());
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -58,22 +65,35 @@ public class MenuItemController {
     @ApiResponse(responseCode = "200", description = "Item encontrado")
     @ApiResponse(responseCode = "404", description = "Item não encontrado")
     public ResponseEntity<MenuItemDTO> getMenuItemById(
-            @Parameter(description = "ID do item") @PathVariable Long id) {
+            @Parameter(description = "ID do item") @PathVariable Long id, WebRequest webRequest) {
+
+        if (webRequest.checkNotModified(menuCacheService.getMenuVersion() + "-" + id)) {
+            return null;
+        }
 
         return menuItemUseCases.findMenuItemById(id)
-                .map(menuItem -> ResponseEntity.ok(menuItemMapper.toDTO(menuItem)))
+                .map(menuItem -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .body(menuItemMapper.toDTO(menuItem)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/category/{category}")
     @Operation(summary = "Buscar itens por categoria")
     public ResponseEntity<List<MenuItemDTO>> getMenuItemsByCategory(
-            @Parameter(description = "Categoria do item") @PathVariable MenuCategory category) {
+            @Parameter(description = "Categoria do item") @PathVariable MenuCategory category,
+            WebRequest webRequest) {
 
         try {
+            if (webRequest.checkNotModified(menuCacheService.getMenuVersion() + "-" + category.name())) {
+                return null;
+            }
+
             List<MenuItem> menuItems = menuItemUseCases.findMenuItemsByCategory(category);
             List<MenuItemDTO> menuItemDTOs = menuItemMapper.toDTOList(menuItems);
-            return ResponseEntity.ok(menuItemDTOs);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(menuItemDTOs);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -3,23 +3,34 @@ package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
 import com.exemple.apipagamento.portalchurras.application.dtos.*;
 import com.exemple.apipagamento.portalchurras.application.mappers.OrderMapper;
 import com.exemple.apipagamento.portalchurras.application.services.ReportService;
+import com.exemple.apipagamento.portalchurras.application.services.SalesRollupService;
 import com.exemple.apipagamento.portalchurras.domain.entities.Order;
 import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderCursor;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderPage;
 import com.exemple.apipagamento.portalchurras.domain.usecases.OrderUseCases;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OrderPaginationProperties;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -29,11 +40,16 @@ public class OrderController {
     private final OrderUseCases orderUseCases;
     private final OrderMapper orderMapper;
     private final ReportService reportService;
+    private final SalesRollupService salesRollupService;
+    private final OrderPaginationProperties paginationProperties;
 
-    public OrderController(OrderUseCases orderUseCases, OrderMapper orderMapper, ReportService reportService) {
+    public OrderController(OrderUseCases orderUseCases, OrderMapper orderMapper, ReportService reportService,
+                           SalesRollupService salesRollupService, OrderPaginationProperties paginationProperties) {
         this.orderUseCases = orderUseCases;
         this.orderMapper = orderMapper;
         this.reportService = reportService;
+        this.salesRollupService = salesRollupService;
+        this.paginationProperties = paginationProperties;
     }
 
     @PostMapping
@@ -62,6 +78,37 @@ public class OrderController {
         }
     }
 
+    @PostMapping("/with-items")
+    @Operation(summary = "Criar pedido com itens", description = "Cria o pedido e todos os itens do carrinho em uma única transação; o total é calculado pelos preços do cardápio")
+    @ApiResponse(responseCode = "201", description = "Pedido criado com sucesso")
+    @ApiResponse(responseCode = "400", description = "Dados inválidos ou item do cardápio indisponível")
+    public ResponseEntity<?> createOrderWithItems(@Valid @RequestBody CreateOrderWithItemsRequest request) {
+        try {
+            List<OrderUseCases.CartItem> items = request.getItems() == null ? List.of() : request.getItems().stream()
+                    .map(item -> item == null ? null
+                            : new OrderUseCases.CartItem(item.getMenuItemId(), item.getQuantity(), item.getObservations()))
+                    .toList();
+
+            Order order = orderUseCases.createOrderWithItems(
+                    request.getCustomerId(),
+                    request.getCustomerName(),
+                    request.getCustomerEmail(),
+                    request.getCustomerPhone(),
+                    request.getNotes(),
+                    items
+            );
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderMapper.toDTO(order));
+
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Erro interno do servidor"));
+        }
+    }
+
     @PostMapping("/{orderId}/items")
     @Operation(summary = "Adicionar item ao pedido")
     @ApiResponse(responseCode = "200", description = "Item adicionado com sucesso")
@@ -230,11 +277,23 @@ public class OrderController {
     @GetMapping("/{orderId}")
     @Operation(summary = "Buscar pedido por ID")
     @ApiResponse(responseCode = "200", description = "Pedido encontrado")
+    @ApiResponse(responseCode = "304", description = "Pedido não mudou desde o ETag informado em If-None-Match")
     @ApiResponse(responseCode = "404", description = "Pedido não encontrado")
-    public ResponseEntity<?> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<?> getOrderById(@PathVariable Long orderId, WebRequest webRequest) {
         try {
+            // Consulta só a versão; o pedido é carregado apenas se o cliente não tiver a versão atual
+            Optional<String> version = orderUseCases.findOrderVersion(orderId);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(version.get())) {
+                return null;
+            }
+
             return orderUseCases.findOrderById(orderId)
-                    .map(order -> ResponseEntity.ok(orderMapper.toDTO(order)))
+                    .map(order -> ResponseEntity.ok()
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .body(orderMapper.toDTO(order)))
                     .orElse(ResponseEntity.notFound().build());
 
         } catch (Exception e) {
@@ -246,25 +305,20 @@ public class OrderController {
     @GetMapping
     // Removido @PreAuthorize - qualquer usuário autenticado pode ver seus próprios pedidos
     // O SecurityConfig já controla o acesso com .authenticated()
-    @Operation(summary = "Listar todos os pedidos (com paginação sugerida para implementação futura)",
+    @Operation(summary = "Listar pedidos com paginação por cursor",
             security = @SecurityRequirement(name = "Bearer"),
-            description = "Retorna todos os pedidos. Para grandes volumes, considere adicionar Pageable como parâmetro.")
-    public ResponseEntity<?> getAllOrders() {
+            description = "Retorna os pedidos mais recentes primeiro. Use o nextCursor da resposta como cursor da próxima página.")
+    public ResponseEntity<?> getAllOrders(
+            @Parameter(description = "Cursor retornado pela página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamanho da página (limitado ao máximo configurado)") @RequestParam(required = false) Integer size) {
         try {
-            List<Order> orders = orderUseCases.findAllOrders();
-            
-            // TODO: Implementar paginação quando necessário
-            // Exemplo: Page<Order> orders = orderUseCases.findAllOrders(pageable);
-            // return ResponseEntity.ok(orders.map(orderMapper::toDTO));
-            
-            List<OrderDTO> orderDTOs = orderMapper.toDTOList(orders);
-            
-            return ResponseEntity.ok(Map.of(
-                "content", orderDTOs,
-                "totalElements", orderDTOs.size(),
-                "note", "Paginação pode ser adicionada se necessário"
-            ));
+            OrderPage page = orderUseCases.findOrdersPage(
+                    OrderCursor.decode(cursor), paginationProperties.resolvePageSize(size));
+            return ResponseEntity.ok(toPageDTO(page));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Erro interno do servidor"));
@@ -291,12 +345,18 @@ public class OrderController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('EMPLOYEE')")
     @Operation(summary = "Listar pedidos por status",
             security = @SecurityRequirement(name = "Bearer"))
-    public ResponseEntity<?> getOrdersByStatus(@PathVariable OrderStatus status) {
+    public ResponseEntity<?> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Order> orders = orderUseCases.findOrdersByStatus(status);
-            List<OrderDTO> orderDTOs = orderMapper.toDTOList(orders);
-            return ResponseEntity.ok(orderDTOs);
+            OrderPage page = orderUseCases.findOrdersPageByStatus(
+                    status, OrderCursor.decode(cursor), paginationProperties.resolvePageSize(size));
+            return ResponseEntity.ok(toPageDTO(page));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Erro interno do servidor"));
@@ -305,11 +365,14 @@ public class OrderController {
 
     @GetMapping("/customer/{email}")
     @Operation(summary = "Listar pedidos de um cliente por email")
-    public ResponseEntity<?> getOrdersByCustomerEmail(@PathVariable String email) {
+    public ResponseEntity<?> getOrdersByCustomerEmail(
+            @PathVariable String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Order> orders = orderUseCases.findOrdersByCustomerEmail(email);
-            List<OrderDTO> orderDTOs = orderMapper.toDTOList(orders);
-            return ResponseEntity.ok(orderDTOs);
+            OrderPage page = orderUseCases.findOrdersPageByCustomerEmail(
+                    email, OrderCursor.decode(cursor), paginationProperties.resolvePageSize(size));
+            return ResponseEntity.ok(toPageDTO(page));
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -326,12 +389,14 @@ public class OrderController {
             security = @SecurityRequirement(name = "Bearer"))
     public ResponseEntity<?> getOrdersByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
 
         try {
-            List<Order> orders = orderUseCases.findOrdersByDateRange(start, end);
-            List<OrderDTO> orderDTOs = orderMapper.toDTOList(orders);
-            return ResponseEntity.ok(orderDTOs);
+            OrderPage page = orderUseCases.findOrdersPageByDateRange(
+                    start, end, OrderCursor.decode(cursor), paginationProperties.resolvePageSize(size));
+            return ResponseEntity.ok(toPageDTO(page));
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -372,4 +437,44 @@ public class OrderController {
                     .body(Map.of("error", "Erro interno do servidor: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/stats/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconstruir rollups de vendas do período",
+            security = @SecurityRequirement(name = "Bearer"),
+            description = "Recalcula os agregados horários usados pelo relatório de vendas a partir dos pedidos")
+    @ApiResponse(responseCode = "200", description = "Rollups reconstruídos com sucesso")
+    public ResponseEntity<?> rebuildSalesRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        try {
+            SalesRollupService.RebuildResult result = salesRollupService.rebuild(startDate, endDate);
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Erro interno do servidor"));
+        }
+    }
+
+    // Erros de validação do corpo no mesmo formato dos demais 400 deste controller
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<?> handleValidationErrors(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .distinct()
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", message.isEmpty() ? "Dados inválidos" : message));
+    }
+
+    private OrderPageDTO toPageDTO(OrderPage page) {
+        return new OrderPageDTO(
+                orderMapper.toDTOList(page.getContent()),
+                page.hasNext() ? page.getNextCursor().encode() : null);
+    }
+}
@@ -13,18 +13,26 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/payments")
 @Tag(name = "Payments", description = "API para processamento de pagamentos")
 public class PaymentController {
 
+    private static final CacheControl QR_CODE_CACHE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final Pattern QR_CODE_HASH = Pattern.compile("[0-9a-f]{64}");
+
     private final PaymentUseCases paymentUseCases;
     private final OrderMapper orderMapper;
 
@@ -102,7 +110,7 @@ public class PaymentController {
             Map<String, Object> response = Map.of(
                     "payment", paymentDTO,
                     "qr_code", payment.getQrCode() != null ? payment.getQrCode() : "",
-                    "qr_code_base64", payment.getQrCodeBase64() != null ? payment.getQrCodeBase64() : "",
+                    "qr_code_url", paymentDTO.getQrCodeUrl() != null ? paymentDTO.getQrCodeUrl() : "",
                     "ticket_url", payment.getTicketUrl() != null ? payment.getTicketUrl() : ""
             );
 
@@ -136,6 +144,42 @@ public class PaymentController {
         }
     }
 
+    /**
+     * A imagem é endereçada pelo SHA-256 do PNG, não pelo id do pagamento: o endereço não pode ser
+     * adivinhado percorrendo ids e só chega a quem recebeu o pagamento. Como o conteúdo de um hash nunca
+     * muda, a imagem pode ficar em cache por um ano; o ETag é o próprio hash e revalidações voltam 304.
+     */
+    @GetMapping("/qr/{hash}.png")
+    @Operation(summary = "Imagem do QR Code PIX pelo hash")
+    @ApiResponse(responseCode = "200", description = "Imagem PNG do QR Code")
+    @ApiResponse(responseCode = "304", description = "Imagem em cache ainda válida")
+    @ApiResponse(responseCode = "404", description = "Imagem não encontrada")
+    public ResponseEntity<?> getPixQrCode(@PathVariable String hash, WebRequest webRequest) {
+        try {
+            if (!QR_CODE_HASH.matcher(hash).matches()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // checkNotModified compara ETags fracos e listas de ETags e já responde 304 com o ETag
+            String etag = "\"" + hash + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
+            return paymentUseCases.findPixQrCodeImage(hash)
+                    .<ResponseEntity<?>>map(png -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_PNG)
+                            .eTag(etag)
+                            .cacheControl(QR_CODE_CACHE)
+                            .body(png))
+                    .orElse(ResponseEntity.notFound().build());
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Erro interno do servidor"));
+        }
+    }
+
     @GetMapping("/order/{orderId}")
     @Operation(summary = "Buscar pagamento por ID do pedido")
     @ApiResponse(responseCode = "200", description = "Pagamento encontrado")
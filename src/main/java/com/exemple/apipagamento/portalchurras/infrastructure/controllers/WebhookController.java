@@ -1,6 +1,6 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
 
-import com.exemple.apipagamento.portalchurras.domain.usecases.PaymentUseCases;
+import com.exemple.apipagamento.portalchurras.application.services.WebhookInboxService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -17,20 +17,20 @@ public class WebhookController {
 
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
     
-    private final PaymentUseCases paymentUseCases;
+    private final WebhookInboxService webhookInboxService;
 
-    public WebhookController(PaymentUseCases paymentUseCases) {
-        this.paymentUseCases = paymentUseCases;
+    public WebhookController(WebhookInboxService webhookInboxService) {
+        this.webhookInboxService = webhookInboxService;
     }
 
     @PostMapping("/mercadopago")
-    @Operation(summary = "Receber webhook do Mercado Pago")
+    @Operation(summary = "Receber webhook do Mercado Pago",
+            description = "Grava a notificação na caixa de entrada e responde imediatamente; " +
+                    "o pagamento é atualizado de forma assíncrona. Reenvios do mesmo evento são ignorados.")
     public ResponseEntity<?> receiveMercadoPagoWebhook(@RequestBody Map<String, Object> payload) {
         try {
-            logger.info("Webhook Mercado Pago recebido: {}", payload);
-
-            // Processar webhook
-            paymentUseCases.processWebhook(payload);
+            WebhookInboxService.IngestResult result = webhookInboxService.ingestMercadoPago(payload);
+            logger.info("Webhook Mercado Pago recebido ({}): {}", result, payload);
 
             return ResponseEntity.ok().build();
 
@@ -0,0 +1,111 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.config.MercadoPagoProperties;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Circuit breaker por contagem: guarda o resultado das últimas chamadas e abre quando a taxa de falhas
+ * passa do limite. Aberto, recusa tudo até open-duration; depois libera half-open-calls chamadas de teste,
+ * que fecham o circuito se todas derem certo ou o reabrem na primeira falha.
+ */
+public class GatewayCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MercadoPagoProperties.Resilience config;
+    private final Clock clock;
+
+    // Janela circular com os resultados das últimas chamadas (true = falha)
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public GatewayCircuitBreaker(MercadoPagoProperties.Resilience config, Clock clock) {
+        this.config = config;
+        this.clock = clock;
+        this.window = new boolean[Math.max(1, config.getSlidingWindowSize())];
+    }
+
+    /**
+     * @return se a chamada pode seguir; cada permissão concedida precisa de um onSuccess ou onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(config.getOpenDuration()))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = config.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= config.getHalfOpenCalls()) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+
+        if (recorded >= config.getMinimumCalls()
+                && failures * 100 >= config.getFailureRateThreshold() * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
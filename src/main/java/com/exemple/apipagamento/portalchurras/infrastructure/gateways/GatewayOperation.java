@@ -0,0 +1,123 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.config.MercadoPagoProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Uma operação do gateway (preferência, PIX, status, cancelamento) protegida por bulkhead e circuit breaker.
+ * A latência de cada chamada vai para payment.gateway.requests, com histograma, por operação e resultado.
+ * Só falhas do provedor contam para o circuito: timeout, erro de conexão, 5xx e 429.
+ */
+public class GatewayOperation {
+
+    /**
+     * Chamada recusada sem chegar ao provedor.
+     */
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final MercadoPagoProperties.Resilience config;
+    private final MeterRegistry meterRegistry;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+
+    public GatewayOperation(String name, MercadoPagoProperties.Resilience config,
+                            MeterRegistry meterRegistry, Clock clock) {
+        this.name = name;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new GatewayCircuitBreaker(config, clock);
+        this.bulkhead = new Semaphore(config.getMaxConcurrentCalls());
+
+        Tags tags = Tags.of("operation", name);
+        meterRegistry.gauge("payment.gateway.circuit.state", tags, circuitBreaker, cb -> cb.getState().ordinal());
+        meterRegistry.gauge("payment.gateway.bulkhead.available", tags, bulkhead, Semaphore::availablePermits);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!acquireBulkhead()) {
+            rejected("bulkhead_full");
+            throw new RejectedException("Limite de chamadas simultâneas ao Mercado Pago atingido (" + name + ")");
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected("circuit_open");
+                throw new RejectedException("Mercado Pago indisponível: circuito aberto após falhas seguidas (" + name + ")");
+            }
+
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (HttpStatusCodeException e) {
+                int status = e.getStatusCode().value();
+                if (e.getStatusCode().is5xxServerError() || status == 429) {
+                    outcome = "server_error";
+                    circuitBreaker.onFailure();
+                } else {
+                    // O provedor respondeu: erro da requisição, não indisponibilidade
+                    outcome = "client_error";
+                    circuitBreaker.onSuccess();
+                }
+                throw e;
+            } catch (ResourceAccessException e) {
+                outcome = "io_error";
+                circuitBreaker.onFailure();
+                throw e;
+            } catch (RuntimeException e) {
+                outcome = "error";
+                circuitBreaker.onSuccess();
+                throw e;
+            } finally {
+                Timer.builder("payment.gateway.requests")
+                        .tag("operation", name)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public GatewayCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private boolean acquireBulkhead() {
+        if (config.getMaxWait().isZero()) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(config.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void rejected(String reason) {
+        Counter.builder("payment.gateway.rejected")
+                .tag("operation", name)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -2,24 +2,67 @@ package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
 
 import com.exemple.apipagamento.portalchurras.infrastructure.config.MercadoPagoProperties;
 import com.exemple.apipagamento.portalchurras.domain.ports.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Cada operação tem seu próprio circuit breaker e bulkhead ({@link GatewayOperation}): uma lentidão na
+ * criação de PIX não derruba a consulta de status, e chamadas recusadas voltam como erro na hora.
+ * As respostas são lidas do stream para records ({@link MercadoPagoResponseParser}), sem passar por Map.
+ * As variantes assíncronas rodam em virtual threads (spring.threads.virtual.enabled): uma thread barata por
+ * chamada, bloqueada só no I/O, com o limite de concorrência real dado pelo bulkhead de cada operação.
+ */
 @Component
 public class MercadoPagoGateway implements PaymentGateway {
 
     private final RestTemplate restTemplate;
     private final MercadoPagoProperties properties;
-
-    public MercadoPagoGateway(RestTemplate restTemplate, MercadoPagoProperties properties) {
+    private final MercadoPagoResponseParser parser = new MercadoPagoResponseParser();
+    private final GatewayOperation preferenceOperation;
+    private final GatewayOperation pixOperation;
+    private final GatewayOperation statusOperation;
+    private final GatewayOperation cancelOperation;
+    private final ExecutorService asyncExecutor;
+
+    public MercadoPagoGateway(RestTemplate restTemplate, MercadoPagoProperties properties, MeterRegistry meterRegistry,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.restTemplate = restTemplate;
         this.properties = properties;
+        MercadoPagoProperties.Resilience resilience = properties.getResilience();
+        Clock clock = Clock.systemUTC();
+        this.preferenceOperation = new GatewayOperation("preference", resilience, meterRegistry, clock);
+        this.pixOperation = new GatewayOperation("pix", resilience, meterRegistry, clock);
+        this.statusOperation = new GatewayOperation("status", resilience, meterRegistry, clock);
+        this.cancelOperation = new GatewayOperation("cancel", resilience, meterRegistry, clock);
+
+        if (virtualThreads) {
+            this.asyncExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mercado-pago-", 0).factory());
+        } else {
+            // Sem limite de threads aqui: o bulkhead de cada operação já recusa o excedente
+            AtomicInteger threadCount = new AtomicInteger();
+            this.asyncExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "mercado-pago-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
     }
 
     @Override
@@ -63,13 +106,12 @@ public class MercadoPagoGateway implements PaymentGateway {
             }
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            @SuppressWarnings("rawtypes")
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            MercadoPagoPreference preference = preferenceOperation.execute(
+                    () -> restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                            response -> parser.readPreference(response.getBody())));
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> responseBody = response.getBody();
-                return buildSuccessResponse(responseBody);
+            if (preference != null) {
+                return buildSuccessResponse(preference);
             } else {
                 return PaymentGatewayResponse.error("Resposta inválida do Mercado Pago");
             }
@@ -116,13 +158,12 @@ public class MercadoPagoGateway implements PaymentGateway {
             }
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            @SuppressWarnings("rawtypes")
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            MercadoPagoPayment payment = pixOperation.execute(
+                    () -> restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                            response -> parser.readPayment(response.getBody())));
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> responseBody = response.getBody();
-                return buildPixResponse(responseBody);
+            if (payment != null) {
+                return buildPixResponse(payment);
             } else {
                 return PaymentGatewayResponse.error("Resposta inválida do Mercado Pago para PIX");
             }
@@ -133,7 +174,6 @@ public class MercadoPagoGateway implements PaymentGateway {
     }
 
     @Override
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public PaymentGatewayResponse getPaymentStatus(String externalPaymentId) {
         if (externalPaymentId == null || externalPaymentId.trim().isEmpty()) {
             return PaymentGatewayResponse.error("ID do pagamento não pode ser nulo ou vazio");
@@ -148,20 +188,20 @@ public class MercadoPagoGateway implements PaymentGateway {
             HttpHeaders headers = createHeaders();
             HttpEntity<Void> entity = new HttpEntity<>(headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                Map<String, Object> body = response.getBody();
-                if (body != null) {
-                    PaymentGatewayResponse result = new PaymentGatewayResponse();
-                    result.setSuccess(true);
-                    result.setExternalPaymentId(externalPaymentId);
-                    result.setStatus((String) body.get("status"));
-                    result.setRawResponse(body);
-                    return result;
-                }
+            MercadoPagoPayment payment = statusOperation.execute(
+                    () -> restTemplate.execute(url, HttpMethod.GET, restTemplate.httpEntityCallback(entity),
+                            response -> parser.readPayment(response.getBody())));
+
+            if (payment != null) {
+                PaymentGatewayResponse result = new PaymentGatewayResponse();
+                result.setSuccess(true);
+                result.setExternalPaymentId(externalPaymentId);
+                result.setStatus(payment.status());
+                result.setRawResponse(parser.summarize(payment));
+                return result;
             }
-            
+
+
             return PaymentGatewayResponse.error("Resposta inválida do Mercado Pago ao consultar status");
 
         } catch (Exception e) {
@@ -170,22 +210,25 @@ public class MercadoPagoGateway implements PaymentGateway {
     }
 
     @Override
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public PaymentGatewayResponse cancelPayment(String externalPaymentId) {
         try {
-            String url = "https://api.mercadopago.com/v1/payments/" + externalPaymentId;
+            String url = properties.getBaseUrl() + "/v1/payments/" + externalPaymentId;
 
             HttpHeaders headers = createHeaders();
             Map<String, Object> body = Map.of("status", "cancelled");
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
+            MercadoPagoPayment payment = cancelOperation.execute(
+                    () -> restTemplate.execute(url, HttpMethod.PUT, restTemplate.httpEntityCallback(entity),
+                            response -> parser.readPayment(response.getBody())));
 
             PaymentGatewayResponse result = new PaymentGatewayResponse();
             result.setSuccess(true);
             result.setExternalPaymentId(externalPaymentId);
             result.setStatus("cancelled");
-            result.setRawResponse(response.getBody());
+            if (payment != null) {
+                result.setRawResponse(parser.summarize(payment));
+            }
 
             return result;
 
@@ -194,6 +237,26 @@ public class MercadoPagoGateway implements PaymentGateway {
         }
     }
 
+    @Override
+    public CompletableFuture<PaymentGatewayResponse> createPaymentPreferenceAsync(PaymentGatewayRequest request) {
+        return supplyAsync(() -> createPaymentPreference(request), "Erro ao criar preferência: ");
+    }
+
+    @Override
+    public CompletableFuture<PaymentGatewayResponse> createPixPaymentAsync(PaymentGatewayRequest request) {
+        return supplyAsync(() -> createPixPayment(request), "Erro ao criar pagamento PIX: ");
+    }
+
+    @Override
+    public CompletableFuture<PaymentGatewayResponse> getPaymentStatusAsync(String externalPaymentId) {
+        return supplyAsync(() -> getPaymentStatus(externalPaymentId), "Erro ao consultar status: ");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdown();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public PaymentWebhookResponse processWebhook(Map<String, Object> webhookData) {
@@ -206,7 +269,8 @@ public class MercadoPagoGateway implements PaymentGateway {
             }
 
             Map<String, Object> data = (Map<String, Object>) webhookData.get("data");
-            String paymentId = (String) data.get("id");
+            // O Mercado Pago envia data.id como texto ou número, dependendo da versão da notificação
+            String paymentId = String.valueOf(data.get("id"));
 
             // Consultar o status atual do pagamento
             PaymentGatewayResponse statusResponse = getPaymentStatus(paymentId);
@@ -229,9 +293,22 @@ public class MercadoPagoGateway implements PaymentGateway {
         }
     }
 
+    // As operações síncronas já convertem falhas em resposta de erro; aqui sobra só a recusa do executor
+    private CompletableFuture<PaymentGatewayResponse> supplyAsync(Supplier<PaymentGatewayResponse> call,
+                                                                  String errorPrefix) {
+        try {
+            return CompletableFuture.supplyAsync(call, asyncExecutor)
+                    .exceptionally(e -> PaymentGatewayResponse.error(errorPrefix + e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    PaymentGatewayResponse.error(errorPrefix + "gateway encerrando"));
+        }
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         
         String accessToken = properties.getAccessToken();
         if (accessToken != null && !accessToken.trim().isEmpty()) {
@@ -241,52 +318,24 @@ public class MercadoPagoGateway implements PaymentGateway {
         return headers;
     }
 
-    private PaymentGatewayResponse buildSuccessResponse(Map<String, Object> responseBody) {
+    private PaymentGatewayResponse buildSuccessResponse(MercadoPagoPreference preference) {
         PaymentGatewayResponse result = new PaymentGatewayResponse();
         result.setSuccess(true);
-        result.setExternalPreferenceId((String) responseBody.get("id"));
-        result.setInitPoint((String) responseBody.get("init_point"));
-        result.setRawResponse(responseBody);
+        result.setExternalPreferenceId(preference.id());
+        result.setInitPoint(preference.initPoint());
+        result.setRawResponse(parser.summarize(preference));
         return result;
     }
 
-    @SuppressWarnings("unchecked")
-    private PaymentGatewayResponse buildPixResponse(Map<String, Object> responseBody) {
+    private PaymentGatewayResponse buildPixResponse(MercadoPagoPayment payment) {
         PaymentGatewayResponse result = new PaymentGatewayResponse();
-        
-        if (responseBody == null) {
-            result.setSuccess(false);
-            result.setErrorMessage("Resposta vazia do Mercado Pago");
-            return result;
-        }
-        
         result.setSuccess(true);
-        
-        // ID do pagamento
-        Object idObj = responseBody.get("id");
-        if (idObj != null) {
-            result.setExternalPaymentId(idObj.toString());
-        }
-        
-        // Status do pagamento
-        result.setStatus((String) responseBody.get("status"));
-
-        // Extrair dados do PIX com verificações de null
-        Map<String, Object> pointOfInteraction = (Map<String, Object>) responseBody.get("point_of_interaction");
-        if (pointOfInteraction != null) {
-            Map<String, Object> transactionData = (Map<String, Object>) pointOfInteraction.get("transaction_data");
-            if (transactionData != null) {
-                result.setQrCode((String) transactionData.get("qr_code"));
-                result.setQrCodeBase64((String) transactionData.get("qr_code_base64"));
-            }
-        }
-
-        Map<String, Object> transactionDetails = (Map<String, Object>) responseBody.get("transaction_details");
-        if (transactionDetails != null) {
-            result.setTicketUrl((String) transactionDetails.get("external_resource_url"));
-        }
-
-        result.setRawResponse(responseBody);
+        result.setExternalPaymentId(payment.id());
+        result.setStatus(payment.status());
+        result.setQrCode(payment.qrCode());
+        result.setQrCodeBase64(payment.qrCodeBase64());
+        result.setTicketUrl(payment.ticketUrl());
+        result.setRawResponse(parser.summarize(payment));
         return result;
     }
     
@@ -314,12 +363,8 @@ public class MercadoPagoGateway implements PaymentGateway {
         
         response.setTicketUrl("https://portalchurras.demo/pix/" + response.getExternalPaymentId());
         
-        Map<String, Object> rawResponse = new HashMap<>();
-        rawResponse.put("id", response.getExternalPaymentId());
-        rawResponse.put("status", "pending");
-        rawResponse.put("demo_mode", true);
-        rawResponse.put("message", "Modo demonstração - PIX simulado");
-        response.setRawResponse(rawResponse);
+        response.setRawResponse("{\"id\":\"" + response.getExternalPaymentId() + "\",\"status\":\"pending\","
+                + "\"demo_mode\":true,\"message\":\"Modo demonstração - PIX simulado\"}");
         
         return response;
     }
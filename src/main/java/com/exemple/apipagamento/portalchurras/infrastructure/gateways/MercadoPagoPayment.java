@@ -0,0 +1,19 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import java.math.BigDecimal;
+
+/**
+ * Campos de um pagamento do Mercado Pago (/v1/payments) que o sistema usa. O restante da resposta
+ * é descartado durante a leitura, sem ser materializado.
+ */
+public record MercadoPagoPayment(
+        String id,
+        String status,
+        String statusDetail,
+        String externalReference,
+        BigDecimal transactionAmount,
+        String dateOfExpiration,
+        String qrCode,
+        String qrCodeBase64,
+        String ticketUrl) {
+}
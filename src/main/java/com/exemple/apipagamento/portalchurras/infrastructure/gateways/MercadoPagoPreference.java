@@ -0,0 +1,10 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+/**
+ * Campos de uma preferência de checkout do Mercado Pago (/checkout/preferences) que o sistema usa.
+ */
+public record MercadoPagoPreference(
+        String id,
+        String initPoint,
+        String externalReference) {
+}
@@ -0,0 +1,179 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * Lê as respostas do Mercado Pago direto do stream, sem montar a árvore inteira em Map. Só os campos
+ * dos records são materializados; objetos e listas que não interessam (payer, fee_details,
+ * charges_details...) são pulados token a token.
+ */
+public class MercadoPagoResponseParser {
+
+    // Thread-safe e caro de criar: um por gateway
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @FunctionalInterface
+    private interface FieldReader {
+        void read(String field, JsonParser parser) throws IOException;
+    }
+
+    /**
+     * @return o pagamento, ou null se o corpo estiver vazio
+     */
+    public MercadoPagoPayment readPayment(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            PaymentFields fields = new PaymentFields();
+            readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "id" -> fields.id = p.getValueAsString();
+                    case "status" -> fields.status = p.getValueAsString();
+                    case "status_detail" -> fields.statusDetail = p.getValueAsString();
+                    case "external_reference" -> fields.externalReference = p.getValueAsString();
+                    case "transaction_amount" -> fields.transactionAmount = decimal(p);
+                    case "date_of_expiration" -> fields.dateOfExpiration = p.getValueAsString();
+                    case "point_of_interaction" -> readObject(p, (poiField, poi) -> {
+                        if ("transaction_data".equals(poiField)) {
+                            readObject(poi, (dataField, data) -> {
+                                switch (dataField) {
+                                    case "qr_code" -> fields.qrCode = data.getValueAsString();
+                                    case "qr_code_base64" -> fields.qrCodeBase64 = data.getValueAsString();
+                                    default -> data.skipChildren();
+                                }
+                            });
+                        } else {
+                            poi.skipChildren();
+                        }
+                    });
+                    case "transaction_details" -> readObject(p, (detailField, detail) -> {
+                        if ("external_resource_url".equals(detailField)) {
+                            fields.ticketUrl = detail.getValueAsString();
+                        } else {
+                            detail.skipChildren();
+                        }
+                    });
+                    default -> p.skipChildren();
+                }
+            });
+            return new MercadoPagoPayment(fields.id, fields.status, fields.statusDetail, fields.externalReference,
+                    fields.transactionAmount, fields.dateOfExpiration, fields.qrCode, fields.qrCodeBase64,
+                    fields.ticketUrl);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Resposta do Mercado Pago não é um JSON válido", e);
+        }
+    }
+
+    /**
+     * @return a preferência, ou null se o corpo estiver vazio
+     */
+    public MercadoPagoPreference readPreference(InputStream body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String[] fields = new String[3];
+            readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "id" -> fields[0] = p.getValueAsString();
+                    case "init_point" -> fields[1] = p.getValueAsString();
+                    case "external_reference" -> fields[2] = p.getValueAsString();
+                    default -> p.skipChildren();
+                }
+            });
+            return new MercadoPagoPreference(fields[0], fields[1], fields[2]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Resposta do Mercado Pago não é um JSON válido", e);
+        }
+    }
+
+    /**
+     * Resumo guardado em Payment.externalResponse. Fica de fora o QR Code, que já tem colunas próprias
+     * e é a maior parte da resposta.
+     */
+    public String summarize(MercadoPagoPayment payment) {
+        return write(generator -> {
+            writeField(generator, "id", payment.id());
+            writeField(generator, "status", payment.status());
+            writeField(generator, "status_detail", payment.statusDetail());
+            writeField(generator, "external_reference", payment.externalReference());
+            if (payment.transactionAmount() != null) {
+                generator.writeNumberField("transaction_amount", payment.transactionAmount());
+            }
+            writeField(generator, "date_of_expiration", payment.dateOfExpiration());
+            writeField(generator, "ticket_url", payment.ticketUrl());
+        });
+    }
+
+    public String summarize(MercadoPagoPreference preference) {
+        return write(generator -> {
+            writeField(generator, "id", preference.id());
+            writeField(generator, "init_point", preference.initPoint());
+            writeField(generator, "external_reference", preference.externalReference());
+        });
+    }
+
+    // Percorre os campos do objeto atual; quem lê o campo consome o valor ou chama skipChildren
+    private void readObject(JsonParser parser, FieldReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            reader.read(field, parser);
+            // Campo conhecido com valor inesperado (objeto no lugar de texto): descarta o valor
+            parser.skipChildren();
+        }
+    }
+
+    private BigDecimal decimal(JsonParser parser) throws IOException {
+        return parser.currentToken().isNumeric() ? parser.getDecimalValue() : null;
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private String write(FieldWriter fields) {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.writeStartObject();
+            fields.write(generator);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private void writeField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private static class PaymentFields {
+        String id;
+        String status;
+        String statusDetail;
+        String externalReference;
+        BigDecimal transactionAmount;
+        String dateOfExpiration;
+        String qrCode;
+        String qrCodeBase64;
+        String ticketUrl;
+    }
+}
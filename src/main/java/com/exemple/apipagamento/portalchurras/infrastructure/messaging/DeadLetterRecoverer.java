@@ -0,0 +1,105 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RabbitRetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.ConditionalRejectingErrorHandler;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Política de falha dos consumidores: a mensagem que falhou vai para a fila de espera da próxima
+ * faixa de backoff, com o contador de tentativas no cabeçalho {@value DeadLetterTopology#ATTEMPTS_HEADER}.
+ * Esgotado messaging.retry.max-attempts, ou em erro que não se resolve sozinho (conversão), vai para a DLQ.
+ * Nada é reenfileirado na hora, então uma mensagem envenenada não prende o consumidor em loop.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadLetterRecoverer implements MessageBatchRecoverer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterRecoverer.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitRetryProperties retryProperties;
+    private final MeterRegistry meterRegistry;
+    private final String deadLetterExchange;
+    private final ConditionalRejectingErrorHandler.DefaultExceptionStrategy fatalExceptions =
+            new ConditionalRejectingErrorHandler.DefaultExceptionStrategy();
+
+    public DeadLetterRecoverer(RabbitTemplate rabbitTemplate,
+                               RabbitRetryProperties retryProperties,
+                               MeterRegistry meterRegistry,
+                               @Value("${rabbitmq.exchange.dead-letter}") String deadLetterExchange) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryProperties = retryProperties;
+        this.meterRegistry = meterRegistry;
+        this.deadLetterExchange = deadLetterExchange;
+    }
+
+    // Em lote a falha é do lote inteiro: todas as mensagens seguem a política, cada uma com seu contador
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        for (Message message : messages) {
+            recover(message, cause);
+        }
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        if (queue == null) {
+            // Sem fila de origem não há para onde devolver: o broker manda para a DLX da fila
+            throw new AmqpRejectAndDontRequeueException("Mensagem sem fila de origem", cause);
+        }
+
+        boolean fatal = fatalExceptions.isFatal(cause);
+        int attempts = attemptsOf(properties) + 1;
+        properties.setHeader(DeadLetterTopology.ATTEMPTS_HEADER, attempts);
+        properties.setHeader(DeadLetterTopology.ERROR_HEADER, describe(cause));
+
+        if (!fatal && attempts < retryProperties.getMaxAttempts()) {
+            int tier = retryProperties.tierFor(attempts);
+            rabbitTemplate.send("", DeadLetterTopology.retryQueue(queue, tier), message);
+            counter("messaging.consumer.retried", queue).increment();
+            logger.warn("Mensagem {} da fila {} falhou (tentativa {}), nova tentativa em {}",
+                    properties.getMessageId(), queue, attempts, retryProperties.getTiers().get(tier));
+            return;
+        }
+
+        properties.setHeader(DeadLetterTopology.FAILED_AT_HEADER, Instant.now().toString());
+        rabbitTemplate.send(deadLetterExchange, DeadLetterTopology.deadLetterQueue(queue), message);
+        counter("messaging.consumer.dead_lettered", queue).increment();
+        logger.error("Mensagem {} da fila {} enviada para a DLQ após {} tentativa(s): {}",
+                properties.getMessageId(), queue, attempts, describe(cause));
+    }
+
+    private Counter counter(String name, String queue) {
+        return Counter.builder(name).tag("queue", queue).register(meterRegistry);
+    }
+
+    private static int attemptsOf(MessageProperties properties) {
+        Object value = properties.getHeader(DeadLetterTopology.ATTEMPTS_HEADER);
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static String describe(Throwable cause) {
+        Throwable root = NestedExceptionUtils.getMostSpecificCause(cause);
+        String description = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+}
@@ -0,0 +1,187 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Consulta e reprocessamento das DLQs. As filas são identificadas pela mesma chave de rabbitmq.queue.*
+ * (new-orders, order-status, ...).
+ */
+@Service
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadLetterService {
+
+    static final int MAX_LIMIT = 500;
+    private static final int MAX_PAYLOAD_LENGTH = 2000;
+    private static final long CONFIRM_TIMEOUT_MS = 5000;
+
+    public record QueueSummary(String queue, String deadLetterQueue, long messages) {}
+
+    public record DeadLetterMessage(String messageId, String type, Integer attempts, String lastError,
+                                    String failedAt, String payload) {}
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Map<String, String> queues = new LinkedHashMap<>();
+
+    public DeadLetterService(RabbitTemplate rabbitTemplate,
+                             @Value("${rabbitmq.queue.new-orders}") String newOrdersQueue,
+                             @Value("${rabbitmq.queue.order-status}") String orderStatusQueue,
+                             @Value("${rabbitmq.queue.notifications}") String notificationsQueue,
+                             @Value("${rabbitmq.queue.loyalty-points}") String loyaltyPointsQueue,
+                             @Value("${rabbitmq.queue.payment-status}") String paymentStatusQueue) {
+        this.rabbitTemplate = rabbitTemplate;
+        queues.put("new-orders", newOrdersQueue);
+        queues.put("order-status", orderStatusQueue);
+        queues.put("notifications", notificationsQueue);
+        queues.put("loyalty-points", loyaltyPointsQueue);
+        queues.put("payment-status", paymentStatusQueue);
+    }
+
+    public List<QueueSummary> summary() {
+        return rabbitTemplate.execute(channel -> {
+            List<QueueSummary> summary = new ArrayList<>();
+            for (Map.Entry<String, String> entry : queues.entrySet()) {
+                String deadLetterQueue = DeadLetterTopology.deadLetterQueue(entry.getValue());
+                summary.add(new QueueSummary(entry.getKey(), deadLetterQueue, channel.messageCount(deadLetterQueue)));
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Lê as primeiras mensagens da DLQ sem removê-las: nada é confirmado e, no fim, todas voltam
+     * para a fila na posição original.
+     */
+    public List<DeadLetterMessage> peek(String queue, int limit) {
+        String deadLetterQueue = DeadLetterTopology.deadLetterQueue(resolve(queue));
+        int max = validateLimit(limit);
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetterMessage> messages = new ArrayList<>();
+            long lastTag = -1;
+            try {
+                for (int i = 0; i < max; i++) {
+                    GetResponse response = channel.basicGet(deadLetterQueue, false);
+                    if (response == null) {
+                        break;
+                    }
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    messages.add(toView(response));
+                }
+            } finally {
+                if (lastTag >= 0) {
+                    channel.basicNack(lastTag, true, true);
+                }
+            }
+            return messages;
+        });
+    }
+
+    /**
+     * Devolve até {@code limit} mensagens da DLQ para a fila original, com o contador de tentativas
+     * zerado. Cada mensagem só sai da DLQ depois que o broker confirma a republicação.
+     */
+    public int replay(String queue, int limit) {
+        String targetQueue = resolve(queue);
+        String deadLetterQueue = DeadLetterTopology.deadLetterQueue(targetQueue);
+        int max = validateLimit(limit);
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            long lastTag = -1;
+            try {
+                for (int i = 0; i < max; i++) {
+                    GetResponse response = channel.basicGet(deadLetterQueue, false);
+                    if (response == null) {
+                        break;
+                    }
+                    channel.basicPublish("", targetQueue, resetAttempts(response.getProps()), response.getBody());
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    count++;
+                }
+                if (lastTag >= 0) {
+                    awaitConfirms(channel);
+                    channel.basicAck(lastTag, true);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Sem confirmação, as mensagens continuam na DLQ (podem ter sido republicadas em duplicidade)
+                if (lastTag >= 0 && channel.isOpen()) {
+                    channel.basicNack(lastTag, true, true);
+                }
+                throw e;
+            }
+            return count;
+        });
+        return replayed != null ? replayed : 0;
+    }
+
+    private String resolve(String queue) {
+        String name = queues.get(queue);
+        if (name == null) {
+            throw new IllegalArgumentException("Fila desconhecida: " + queue + ". Use uma de " + queues.keySet());
+        }
+        return name;
+    }
+
+    private static int validateLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    // Com publisher confirms ligados, só confirma a DLQ depois do broker aceitar as republicações
+    private static void awaitConfirms(Channel channel) throws IOException {
+        if (channel.getNextPublishSeqNo() == 0) {
+            return;
+        }
+        try {
+            channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Republicação interrompida", e);
+        } catch (TimeoutException e) {
+            throw new IOException("Broker não confirmou a republicação em " + CONFIRM_TIMEOUT_MS + " ms", e);
+        }
+    }
+
+    private static AMQP.BasicProperties resetAttempts(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = properties.getHeaders() != null
+                ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+        headers.remove(DeadLetterTopology.ATTEMPTS_HEADER);
+        headers.remove(DeadLetterTopology.ERROR_HEADER);
+        headers.remove(DeadLetterTopology.FAILED_AT_HEADER);
+        headers.remove("x-death");
+        return properties.builder().headers(headers).build();
+    }
+
+    private static DeadLetterMessage toView(GetResponse response) {
+        AMQP.BasicProperties properties = response.getProps();
+        Map<String, Object> headers = properties.getHeaders() != null ? properties.getHeaders() : Map.of();
+        String payload = new String(response.getBody(), StandardCharsets.UTF_8);
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            payload = payload.substring(0, MAX_PAYLOAD_LENGTH);
+        }
+        Object attempts = headers.get(DeadLetterTopology.ATTEMPTS_HEADER);
+        return new DeadLetterMessage(
+                properties.getMessageId(),
+                asString(headers.get("__TypeId__")),
+                attempts instanceof Number number ? number.intValue() : null,
+                asString(headers.get(DeadLetterTopology.ERROR_HEADER)),
+                asString(headers.get(DeadLetterTopology.FAILED_AT_HEADER)),
+                payload);
+    }
+
+    // Cabeçalhos string chegam do broker como LongString
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
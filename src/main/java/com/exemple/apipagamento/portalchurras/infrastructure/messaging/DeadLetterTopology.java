@@ -0,0 +1,26 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+/**
+ * Nomes e cabeçalhos da topologia de retentativas: cada fila tem uma DLQ ligada à exchange de
+ * dead letter e uma fila de espera por faixa de backoff, que devolve a mensagem à fila original
+ * quando o TTL vence.
+ */
+public final class DeadLetterTopology {
+
+    /** Quantas vezes o consumidor já falhou com a mensagem. */
+    public static final String ATTEMPTS_HEADER = "x-retry-attempts";
+    public static final String ERROR_HEADER = "x-last-error";
+    public static final String FAILED_AT_HEADER = "x-failed-at";
+
+    private DeadLetterTopology() {
+    }
+
+    public static String deadLetterQueue(String queue) {
+        return queue + ".dlq";
+    }
+
+    // Faixas numeradas a partir de 1: new-orders.queue.retry.1, .retry.2, ...
+    public static String retryQueue(String queue, int tier) {
+        return queue + ".retry." + (tier + 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.core.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Métricas por fila dos consumidores, aplicadas na cadeia de advices do container:
+ * mensagens recebidas, atraso desde a publicação (timestamp da mensagem) e duração de cada lote.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
+public class ListenerMetrics implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public ListenerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        List<Message> messages = messagesOf(invocation.getArguments());
+        if (messages.isEmpty()) {
+            return invocation.proceed();
+        }
+
+        String queue = queueOf(messages.get(0));
+        long now = System.currentTimeMillis();
+        Timer lag = Timer.builder("messaging.consumer.lag")
+                .description("Tempo entre a publicação e o início do processamento da mensagem")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        for (Message message : messages) {
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            if (timestamp != null) {
+                lag.record(Duration.ofMillis(Math.max(0, now - timestamp.getTime())));
+            }
+        }
+        Counter.builder("messaging.consumer.received")
+                .description("Mensagens entregues ao consumidor")
+                .tag("queue", queue)
+                .register(meterRegistry)
+                .increment(messages.size());
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("messaging.consumer.batch")
+                    .description("Duração do processamento de cada entrega (mensagem ou lote)")
+                    .tag("queue", queue)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // invokeListener(Channel, Object): a carga é uma Message ou, no modo em lote, List<Message>
+    @SuppressWarnings("unchecked")
+    private static List<Message> messagesOf(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof Message message) {
+                return List.of(message);
+            }
+            if (argument instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Message) {
+                return (List<Message>) list;
+            }
+        }
+        return List.of();
+    }
+
+    private static String queueOf(Message message) {
+        String queue = message.getMessageProperties().getConsumerQueue();
+        return queue != null ? queue : "unknown";
+    }
+}
@@ -1,5 +1,50 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
 
-public class LoyaltyPointsEvent {
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+/**
+ * Pedido entregue a um cliente cadastrado, publicado na routing key de fidelidade.
+ * O consumidor credita os pontos fora do fluxo do pedido, uma única vez por pedido.
+ */
+public class LoyaltyPointsEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long orderId;
+    private Long customerId;
+    private BigDecimal orderTotal;
+    private LocalDateTime deliveredAt;
+
+    /**
+     * Construtor padrão necessário para serialização.
+     */
+    public LoyaltyPointsEvent() {
+    }
+
+    public LoyaltyPointsEvent(Long orderId, Long customerId, BigDecimal orderTotal) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.orderTotal = orderTotal;
+        this.deliveredAt = LocalDateTime.now();
+    }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public BigDecimal getOrderTotal() { return orderTotal; }
+    public void setOrderTotal(BigDecimal orderTotal) { this.orderTotal = orderTotal; }
+
+    public LocalDateTime getDeliveredAt() { return deliveredAt; }
+    public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
+
+    @Override
+    public String toString() {
+        return "LoyaltyPointsEvent{orderId=" + orderId + ", customerId=" + customerId
+                + ", orderTotal=" + orderTotal + '}';
+    }
 }
@@ -1,15 +1,42 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
 
-import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.*;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEventType;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica no RabbitMQ os eventos gravados na outbox, aguardando a confirmação do broker
+ * (publisher confirms). Não deve ser chamado de dentro de transações de negócio: quem publica
+ * é o {@link com.exemple.apipagamento.portalchurras.application.services.OutboxRelay}.
+ */
 @Service
 @ConditionalOnProperty(name = "spring.rabbitmq.enabled", havingValue = "true", matchIfMissing = true)
 public class OrderEventPublisher {
 
+    /**
+     * Resultado de um lote: ids confirmados pelo broker e, para os demais, o motivo da falha.
+     */
+    public record PublishResult(List<Long> confirmed, Map<Long, String> failed) {}
+
     private final RabbitTemplate rabbitTemplate;
 
     @Value("${rabbitmq.exchange.orders}")
@@ -21,8 +48,8 @@ public class OrderEventPublisher {
     @Value("${rabbitmq.routing-key.order-status}")
     private String orderStatusRoutingKey;
 
-    @Value("${rabbitmq.routing-key.notification}")
-    private String notificationRoutingKey;
+    @Value("${rabbitmq.routing-key.payment-status}")
+    private String paymentStatusRoutingKey;
 
     @Value("${rabbitmq.routing-key.loyalty}")
     private String loyaltyRoutingKey;
@@ -31,19 +58,81 @@ public class OrderEventPublisher {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void publishNewOrder(NewOrderEvent event) {
-        rabbitTemplate.convertAndSend(ordersExchange, newOrderRoutingKey, event);
+    /**
+     * Envia o lote inteiro e só depois espera as confirmações, todas dentro do mesmo prazo.
+     */
+    public PublishResult publish(List<OutboxEvent> events, Duration confirmTimeout) {
+        Map<Long, CorrelationData> sent = new LinkedHashMap<>();
+        Map<Long, String> failed = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            CorrelationData correlation = new CorrelationData(messageId(event));
+            try {
+                rabbitTemplate.send(ordersExchange, routingKeyFor(event.getEventType()), toMessage(event), correlation);
+                sent.put(event.getId(), correlation);
+            } catch (AmqpException e) {
+                failed.put(event.getId(), "Falha ao enviar: " + e.getMessage());
+            }
+        }
+
+        List<Long> confirmed = new ArrayList<>(sent.size());
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        for (Map.Entry<Long, CorrelationData> entry : sent.entrySet()) {
+            String error = awaitConfirm(entry.getValue(), deadline, confirmTimeout);
+            if (error == null) {
+                confirmed.add(entry.getKey());
+            } else {
+                failed.put(entry.getKey(), error);
+            }
+        }
+        return new PublishResult(confirmed, failed);
+    }
+
+    // Nulo quando o broker confirmou e a mensagem chegou a alguma fila
+    private String awaitConfirm(CorrelationData correlation, long deadline, Duration confirmTimeout) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                return "Broker recusou a mensagem: " + confirm.getReason();
+            }
+            ReturnedMessage returned = correlation.getReturned();
+            if (returned != null) {
+                return "Mensagem sem fila de destino: " + returned.getReplyText();
+            }
+            return null;
+        } catch (TimeoutException e) {
+            return "Confirmação do broker não recebida em " + confirmTimeout;
+        } catch (ExecutionException e) {
+            return "Falha na confirmação: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Publicação interrompida";
+        }
     }
 
-    public void publishOrderStatusChange(OrderStatusChangeEvent event) {
-        rabbitTemplate.convertAndSend(ordersExchange, orderStatusRoutingKey, event);
+    private Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType())
+                // Consumidores podem descartar reentregas pelo messageId: a entrega é "pelo menos uma vez"
+                .setMessageId(messageId(event))
+                .setTimestamp(Timestamp.valueOf(event.getCreatedAt()))
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
     }
 
-    public void publishNotification(NotificationEvent event) {
-        rabbitTemplate.convertAndSend(ordersExchange, notificationRoutingKey, event);
+    private String routingKeyFor(OutboxEventType type) {
+        return switch (type) {
+            case NEW_ORDER -> newOrderRoutingKey;
+            case ORDER_STATUS_CHANGED -> orderStatusRoutingKey;
+            case PAYMENT_STATUS_CHANGED -> paymentStatusRoutingKey;
+            case LOYALTY_POINTS -> loyaltyRoutingKey;
+        };
     }
 
-    public void publishLoyaltyPoints(LoyaltyPointsEvent event) {
-        rabbitTemplate.convertAndSend(ordersExchange, loyaltyRoutingKey, event);
+    private static String messageId(OutboxEvent event) {
+        return "outbox-" + event.getId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging.consumers;
+
+import com.exemple.apipagamento.portalchurras.application.services.LoyaltyService;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.LoyaltyPointsEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Crédito de pontos de fidelidade dos pedidos entregues. Roda fora do fluxo do pedido:
+ * cada lote é gravado numa transação, e reentregas do mesmo pedido são ignoradas pelo LoyaltyService.
+ */
+@Component
+public class LoyaltyConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoyaltyConsumer.class);
+
+    private final LoyaltyService loyaltyService;
+
+    public LoyaltyConsumer(LoyaltyService loyaltyService) {
+        this.loyaltyService = loyaltyService;
+    }
+
+    @RabbitListener(id = "loyaltyPoints", queues = "${rabbitmq.queue.loyalty-points}",
+                    containerFactory = "loyaltyPointsListenerFactory")
+    public void handleLoyaltyPoints(List<LoyaltyPointsEvent> events) {
+        List<LoyaltyService.DeliveredOrder> orders = events.stream()
+                .map(event -> new LoyaltyService.DeliveredOrder(
+                        event.getOrderId(), event.getCustomerId(), event.getOrderTotal()))
+                .toList();
+
+        int credited = loyaltyService.accrueDeliveredOrders(orders);
+        logger.info("Pontos de fidelidade creditados para {} de {} pedidos", credited, events.size());
+    }
+}
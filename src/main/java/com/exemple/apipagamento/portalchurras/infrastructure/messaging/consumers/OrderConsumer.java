@@ -1,5 +1,7 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.messaging.consumers;
 
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
 import com.exemple.apipagamento.portalchurras.infrastructure.messaging.OrderStatusChangeEvent;
 import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.NewOrderEvent;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -7,28 +9,67 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumidores em lote: concorrência, prefetch e tamanho do lote vêm de messaging.listeners.queues.*.
+ * Com consumidores concorrentes as mudanças de status de um pedido podem chegar fora de ordem; só a que
+ * ainda corresponde ao status atual do pedido é processada, as superadas são descartadas.
+ */
 @Component
 public class OrderConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderConsumer.class);
 
-    @RabbitListener(queues = "${rabbitmq.queue.new-orders}")
-    public void handleNewOrder(NewOrderEvent event) {
-        logger.info("Novo pedido recebido: {}", event.getOrderId());
-        
-        // Processar novo pedido
-        // - Enviar notificação para cozinha
-        // - Atualizar dashboard
-        // - Registrar métricas
+    private final OrderRepository orderRepository;
+
+    public OrderConsumer(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @RabbitListener(id = "newOrders", queues = "${rabbitmq.queue.new-orders}",
+                    containerFactory = "newOrdersListenerFactory")
+    public void handleNewOrders(List<NewOrderEvent> events) {
+        logger.info("{} novos pedidos recebidos", events.size());
+
+        for (NewOrderEvent event : events) {
+            logger.debug("Novo pedido recebido: {}", event.getOrderId());
+
+            // Processar novo pedido
+            // - Enviar notificação para cozinha
+            // - Atualizar dashboard
+            // - Registrar métricas
+        }
     }
 
-    @RabbitListener(queues = "${rabbitmq.queue.order-status}")
-    public void handleOrderStatusChange(OrderStatusChangeEvent event) {
-        logger.info("Status do pedido {} alterado para: {}", 
-                   event.getOrderId(), event.getNewStatus());
-        
-        // Processar mudança de status
-        // - Notificar cliente
-        // - Atualizar dashboard
+    @RabbitListener(id = "orderStatus", queues = "${rabbitmq.queue.order-status}",
+                    containerFactory = "orderStatusListenerFactory")
+    public void handleOrderStatusChanges(List<OrderStatusChangeEvent> events) {
+        for (OrderStatusChangeEvent event : currentChanges(events)) {
+            logger.info("Status do pedido {} alterado para: {}",
+                       event.getOrderId(), event.getNewStatus());
+
+            // Processar mudança de status
+            // - Notificar cliente
+            // - Atualizar dashboard
+        }
+    }
+
+    // Uma consulta por lote: o evento vale se o pedido continua no status que ele anuncia
+    List<OrderStatusChangeEvent> currentChanges(List<OrderStatusChangeEvent> events) {
+        Map<Long, OrderStatus> statuses = orderRepository.findStatusesByIds(
+                events.stream().map(OrderStatusChangeEvent::getOrderId).distinct().toList());
+
+        return events.stream()
+                .filter(event -> {
+                    boolean current = event.getNewStatus() == statuses.get(event.getOrderId());
+                    if (!current) {
+                        logger.debug("Mudança do pedido {} para {} ignorada: status atual é {}",
+                                event.getOrderId(), event.getNewStatus(), statuses.get(event.getOrderId()));
+                    }
+                    return current;
+                })
+                .toList();
     }
-}
\ No newline at end of file
+}
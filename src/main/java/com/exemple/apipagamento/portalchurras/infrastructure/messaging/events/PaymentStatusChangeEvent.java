@@ -0,0 +1,54 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging.events;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentMethod;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class PaymentStatusChangeEvent implements Serializable {
+    private Long paymentId;
+    private Long orderId;
+    private PaymentMethod method;
+    private PaymentStatus oldStatus;
+    private PaymentStatus newStatus;
+    private BigDecimal amount;
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public PaymentStatusChangeEvent() {}
+
+    public PaymentStatusChangeEvent(Long paymentId, Long orderId, PaymentMethod method,
+                                    PaymentStatus oldStatus, PaymentStatus newStatus, BigDecimal amount) {
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.method = method;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.amount = amount;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public PaymentMethod getMethod() { return method; }
+    public void setMethod(PaymentMethod method) { this.method = method; }
+
+    public PaymentStatus getOldStatus() { return oldStatus; }
+    public void setOldStatus(PaymentStatus oldStatus) { this.oldStatus = oldStatus; }
+
+    public PaymentStatus getNewStatus() { return newStatus; }
+    public void setNewStatus(PaymentStatus newStatus) { this.newStatus = newStatus; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+}
@@ -0,0 +1,45 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.HourlyProductSalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HourlyProductSalesRollupRepository extends JpaRepository<HourlyProductSalesRollup, Long> {
+
+    boolean existsByBucketStartAndMenuItemId(LocalDateTime bucketStart, Long menuItemId);
+
+    @Modifying
+    @Query("UPDATE HourlyProductSalesRollup r SET r.quantity = r.quantity + :quantity, " +
+           "r.revenue = r.revenue + :revenue, r.updatedAt = :now " +
+           "WHERE r.bucketStart = :bucketStart AND r.menuItemId = :menuItemId")
+    int increment(@Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("menuItemId") Long menuItemId,
+                  @Param("quantity") long quantity,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("now") LocalDateTime now);
+
+    // [categoria, quantidade, receita]
+    @Query("SELECT r.category, SUM(r.quantity), SUM(r.revenue) FROM HourlyProductSalesRollup r " +
+           "WHERE r.bucketStart BETWEEN :start AND :end GROUP BY r.category")
+    List<Object[]> sumByCategory(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // [menuItemId, nome, quantidade] ordenado pela quantidade vendida
+    @Query("SELECT r.menuItemId, MAX(r.menuItemName), SUM(r.quantity) FROM HourlyProductSalesRollup r " +
+           "WHERE r.bucketStart BETWEEN :start AND :end GROUP BY r.menuItemId ORDER BY SUM(r.quantity) DESC")
+    List<Object[]> findTopProducts(@Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end,
+                                   Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM HourlyProductSalesRollup r WHERE r.bucketStart >= :start AND r.bucketStart < :end")
+    int deleteBuckets(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,35 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.HourlySalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HourlySalesRollupRepository extends JpaRepository<HourlySalesRollup, Long> {
+
+    boolean existsByBucketStart(LocalDateTime bucketStart);
+
+    List<HourlySalesRollup> findByBucketStartBetweenOrderByBucketStart(LocalDateTime start, LocalDateTime end);
+
+    // Incremento atômico: evita perda de atualização quando vários pedidos caem na mesma hora
+    @Modifying
+    @Query("UPDATE HourlySalesRollup r SET r.deliveredOrders = r.deliveredOrders + :delivered, " +
+           "r.cancelledOrders = r.cancelledOrders + :cancelled, r.revenue = r.revenue + :revenue, " +
+           "r.updatedAt = :now WHERE r.bucketStart = :bucketStart")
+    int increment(@Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("delivered") long delivered,
+                  @Param("cancelled") long cancelled,
+                  @Param("revenue") BigDecimal revenue,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM HourlySalesRollup r WHERE r.bucketStart >= :start AND r.bucketStart < :end")
+    int deleteBuckets(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
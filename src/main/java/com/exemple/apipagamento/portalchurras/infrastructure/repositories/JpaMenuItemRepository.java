@@ -18,6 +18,10 @@ public interface JpaMenuItemRepository extends JpaRepository<MenuItem, Long> {
 
     @Query("SELECT m FROM MenuItem m WHERE m.active = true ORDER BY m.category, m.name")
     List<MenuItem> findAllActiveOrderedByCategoryAndName();
+
+    // Versão do cardápio: muda em qualquer criação, alteração ou exclusão de item
+    @Query("SELECT COUNT(m), MAX(COALESCE(m.updatedAt, m.createdAt)), COALESCE(SUM(m.id), 0) FROM MenuItem m")
+    List<Object[]> findCatalogVersion();
 }
 
 
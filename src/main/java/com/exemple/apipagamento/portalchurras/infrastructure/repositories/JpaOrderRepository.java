@@ -3,17 +3,26 @@ package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
 import com.exemple.apipagamento.portalchurras.domain.entities.Order;
 import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface JpaOrderRepository extends JpaRepository<Order, Long> {
 
+    // Linhas lidas do cursor JDBC por vez nas exportações (precisa de transação aberta no PostgreSQL)
+    String EXPORT_FETCH_SIZE = "500";
+
     List<Order> findByStatus(OrderStatus status);
 
     @Query("SELECT o FROM Order o WHERE o.customer.email = :email ORDER BY o.createdAt DESC")
@@ -30,6 +39,63 @@ public interface JpaOrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.status IN ('PENDING', 'CONFIRMED', 'IN_PREPARATION', 'READY') ORDER BY o.createdAt ASC")
     List<Order> findActiveOrdersOrderByCreatedAt();
 
+    // Paginação por chave: "createdAt <= :createdAt" delimita a faixa do índice e o OR desempata pelo id.
+    // As páginas selecionam só os ids; o grafo de cada pedido é carregado depois em findWithDetailsByIdIn
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIds(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByStatus(@Param("status") OrderStatus status,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.customer = :customer AND o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByCustomer(@Param("customer") User customer,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.customer.email = :email AND o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByCustomerEmail(@Param("email") String customerEmail,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt BETWEEN :start AND :end AND o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByCreatedAtBetween(@Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    // Carrega pedidos com itens, produtos, pagamento e cliente em uma única consulta (evita N+1 no OrderMapper).
+    // Só há uma coleção no fetch (items), então não ocorre produto cartesiano entre coleções
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.menuItem " +
+           "LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.customer WHERE o.id IN :ids")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.menuItem " +
+           "LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.customer " +
+           "WHERE o.status IN :statuses ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findWithDetailsByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("SELECT o.id, o.status FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Versão do pedido como exibido no OrderDTO: pedido, pagamento, cliente e produtos dos itens
+    @Query("SELECT o.createdAt, o.updatedAt, p.id, COALESCE(p.updatedAt, p.createdAt), c.updatedAt, " +
+           "COUNT(i), MAX(COALESCE(m.updatedAt, m.createdAt)) " +
+           "FROM Order o LEFT JOIN o.payment p LEFT JOIN o.customer c LEFT JOIN o.items i LEFT JOIN i.menuItem m " +
+           "WHERE o.id = :id " +
+           "GROUP BY o.createdAt, o.updatedAt, p.id, p.updatedAt, p.createdAt, c.updatedAt")
+    List<Object[]> findVersionById(@Param("id") Long id);
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") OrderStatus status);
 
@@ -39,6 +105,114 @@ public interface JpaOrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.total), 0) FROM Order o WHERE o.status != 'CANCELLED' AND o.createdAt >= :startDate")
     Double sumTotalSinceDate(@Param("startDate") LocalDateTime startDate);
 
+    // Métricas do dashboard em uma única ida ao banco, por agregação condicional:
+    // [pedidos hoje, receita hoje, pedidos mês, receita mês, ativos, pendentes, em preparo, prontos,
+    //  pagamentos aprovados hoje, valor aprovado hoje]. Só lê pedidos do mês ou ainda abertos.
+    @Query(value = "SELECT o.today_orders, o.today_revenue, o.month_orders, o.month_revenue, " +
+            "o.active_orders, o.pending_orders, o.preparing_orders, o.ready_orders, " +
+            "p.approved_payments, p.approved_amount " +
+            "FROM (SELECT COUNT(*) FILTER (WHERE created_at >= :todayStart) AS today_orders, " +
+            "COALESCE(SUM(total) FILTER (WHERE created_at >= :todayStart AND status <> 'CANCELLED'), 0) AS today_revenue, " +
+            "COUNT(*) FILTER (WHERE created_at >= :monthStart) AS month_orders, " +
+            "COALESCE(SUM(total) FILTER (WHERE created_at >= :monthStart AND status <> 'CANCELLED'), 0) AS month_revenue, " +
+            "COUNT(*) FILTER (WHERE status IN ('PENDING', 'CONFIRMED', 'IN_PREPARATION', 'READY')) AS active_orders, " +
+            "COUNT(*) FILTER (WHERE status = 'PENDING') AS pending_orders, " +
+            "COUNT(*) FILTER (WHERE status = 'IN_PREPARATION') AS preparing_orders, " +
+            "COUNT(*) FILTER (WHERE status = 'READY') AS ready_orders " +
+            "FROM orders " +
+            "WHERE created_at >= :monthStart OR status IN ('PENDING', 'CONFIRMED', 'IN_PREPARATION', 'READY')) o " +
+            "CROSS JOIN (SELECT COUNT(*) AS approved_payments, COALESCE(SUM(amount), 0) AS approved_amount " +
+            "FROM payments WHERE status = 'APPROVED' AND paid_at >= :todayStart) p",
+            nativeQuery = true)
+    List<Object[]> aggregateDashboardMetrics(@Param("todayStart") LocalDateTime todayStart,
+                                             @Param("monthStart") LocalDateTime monthStart);
+
+    // Carga inicial dos contadores do dia: [id, status, total]
+    @Query("SELECT o.id, o.status, o.total FROM Order o WHERE o.createdAt >= :start")
+    List<Object[]> findTotalsCreatedSince(@Param("start") LocalDateTime start);
+
+    // Relatório de clientes (apenas clientes cadastrados; pedidos de convidados não têm identidade estável).
+    // [clientes com pedido no período, desses os que já tinham ou fizeram outro pedido]
+    @Query(value = "SELECT COUNT(*), " +
+            "COUNT(*) FILTER (WHERE a.period_orders > 1 OR EXISTS (SELECT 1 FROM orders p " +
+            "WHERE p.customer_id = a.customer_id AND (p.created_at < :start OR p.created_at > :end))) " +
+            "FROM (SELECT customer_id, COUNT(*) AS period_orders FROM orders " +
+            "WHERE customer_id IS NOT NULL AND created_at BETWEEN :start AND :end GROUP BY customer_id) a",
+            nativeQuery = true)
+    List<Object[]> countActiveAndReturningCustomers(@Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
+
+    // [email, total gasto, pedidos] dos clientes que mais gastaram no período
+    @Query("SELECT c.email, SUM(o.total), COUNT(o) FROM Order o JOIN o.customer c " +
+           "WHERE o.status != 'CANCELLED' AND o.createdAt BETWEEN :start AND :end " +
+           "GROUP BY c.id, c.email ORDER BY SUM(o.total) DESC, c.id")
+    List<Object[]> findTopCustomersBySpending(@Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end,
+                                              Pageable pageable);
+
+    // Intervalo entre cada recompra do período e a compra anterior do mesmo cliente (mesmo antes do período):
+    // [até 1 dia, 1 a 7 dias, 7 a 30 dias, 30 dias ou mais]
+    @Query(value = "SELECT " +
+            "COUNT(*) FILTER (WHERE created_at < previous_at + INTERVAL '1' DAY), " +
+            "COUNT(*) FILTER (WHERE created_at >= previous_at + INTERVAL '1' DAY AND created_at < previous_at + INTERVAL '7' DAY), " +
+            "COUNT(*) FILTER (WHERE created_at >= previous_at + INTERVAL '7' DAY AND created_at < previous_at + INTERVAL '30' DAY), " +
+            "COUNT(*) FILTER (WHERE created_at >= previous_at + INTERVAL '30' DAY) " +
+            "FROM (SELECT created_at, LAG(created_at) OVER (PARTITION BY customer_id ORDER BY created_at, id) AS previous_at " +
+            "FROM orders WHERE status <> 'CANCELLED' AND created_at <= :end AND customer_id IN " +
+            "(SELECT customer_id FROM orders WHERE customer_id IS NOT NULL AND created_at BETWEEN :start AND :end)) t " +
+            "WHERE previous_at IS NOT NULL AND created_at >= :start",
+            nativeQuery = true)
+    List<Object[]> countRepeatPurchaseIntervals(@Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+
+    // Agregações usadas pela reconstrução dos rollups de vendas: [ano, mês, dia, hora, entregues, cancelados, receita]
+    @Query("SELECT extract(year from o.createdAt), extract(month from o.createdAt), " +
+           "extract(day from o.createdAt), extract(hour from o.createdAt), " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.status = 'DELIVERED' THEN o.total ELSE 0 END) " +
+           "FROM Order o WHERE o.status IN ('DELIVERED', 'CANCELLED') " +
+           "AND o.createdAt >= :start AND o.createdAt < :end " +
+           "GROUP BY extract(year from o.createdAt), extract(month from o.createdAt), " +
+           "extract(day from o.createdAt), extract(hour from o.createdAt)")
+    List<Object[]> aggregateHourlySales(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // [ano, mês, dia, hora, menuItemId, nome, categoria, quantidade, receita]
+    @Query("SELECT extract(year from o.createdAt), extract(month from o.createdAt), " +
+           "extract(day from o.createdAt), extract(hour from o.createdAt), " +
+           "m.id, m.name, m.category, SUM(i.quantity), SUM(i.totalPrice) " +
+           "FROM OrderItem i JOIN i.order o JOIN i.menuItem m " +
+           "WHERE o.status = 'DELIVERED' AND o.createdAt >= :start AND o.createdAt < :end " +
+           "GROUP BY extract(year from o.createdAt), extract(month from o.createdAt), " +
+           "extract(day from o.createdAt), extract(hour from o.createdAt), m.id, m.name, m.category")
+    List<Object[]> aggregateHourlyProductSales(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     @Query("SELECT CASE WHEN COUNT(o) > 0 THEN true ELSE false END FROM Order o WHERE o.customer.email = :email AND o.status = :status")
     boolean existsByCustomerEmailAndStatus(@Param("email") String customerEmail, @Param("status") OrderStatus status);
+
+    // Exportação: projeções escalares não entram no contexto de persistência, então a memória fica constante
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.id, o.createdAt, o.updatedAt, o.status, o.total, c.id, c.name, c.email, c.phone, o.notes " +
+           "FROM Order o LEFT JOIN o.customer c " +
+           "WHERE o.createdAt >= :start AND o.createdAt < :end AND (:status IS NULL OR o.status = :status) " +
+           "ORDER BY o.createdAt, o.id")
+    Stream<Object[]> streamOrdersForExport(@Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end,
+                                           @Param("status") OrderStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i.id, o.id, o.createdAt, o.status, m.id, m.name, m.category, " +
+           "i.quantity, i.unitPrice, i.totalPrice, i.observations " +
+           "FROM OrderItem i JOIN i.order o JOIN i.menuItem m " +
+           "WHERE o.createdAt >= :start AND o.createdAt < :end AND (:status IS NULL OR o.status = :status) " +
+           "ORDER BY o.createdAt, o.id, i.id")
+    Stream<Object[]> streamOrderItemsForExport(@Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end,
+                                               @Param("status") OrderStatus status);
 }
@@ -2,14 +2,23 @@ package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
 import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
 import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JpaPaymentRepository extends JpaRepository<Payment, Long> {
@@ -18,16 +27,46 @@ public interface JpaPaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByExternalPaymentId(String externalPaymentId);
 
+    // Paginação por chave (external_payment_id) para a reconciliação com o provedor
+    @Query("SELECT p.externalPaymentId FROM Payment p WHERE p.status = 'PROCESSING' " +
+           "AND p.externalPaymentId IS NOT NULL AND p.externalPaymentId > :after AND p.updatedAt < :before " +
+           "ORDER BY p.externalPaymentId")
+    List<String> findProcessingExternalIds(@Param("before") LocalDateTime updatedBefore,
+                                           @Param("after") String afterExternalId,
+                                           Pageable pageable);
+
     List<Payment> findByStatus(PaymentStatus status);
 
     @Query("SELECT p FROM Payment p WHERE p.status IN ('PENDING', 'PROCESSING') " +
             "AND p.createdAt < :expirationTime")
     List<Payment> findExpiredPayments(@Param("expirationTime") LocalDateTime expirationTime);
 
-    @Query("SELECT p FROM Payment p WHERE p.method = 'PIX' AND p.status = 'PENDING' " +
+    // PIX com QR Code gerado fica PROCESSING até o pagamento, então também expira
+    @Query("SELECT p FROM Payment p WHERE p.method = 'PIX' AND p.status IN ('PENDING', 'PROCESSING') " +
             "AND p.createdAt < :expirationTime")
     List<Payment> findExpiredPixPayments(@Param("expirationTime") LocalDateTime expirationTime);
 
+    // Varredura de expiração: só os ids, em lotes, para o UPDATE em massa
+    @Query("SELECT p.id FROM Payment p WHERE p.status IN ('PENDING', 'PROCESSING') " +
+            "AND p.createdAt < :expirationTime ORDER BY p.id")
+    List<Long> findExpiredPaymentIds(@Param("expirationTime") LocalDateTime expirationTime, Pageable pageable);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.method = 'PIX' AND p.status IN ('PENDING', 'PROCESSING') " +
+            "AND p.createdAt < :expirationTime ORDER BY p.id")
+    List<Long> findExpiredPixPaymentIds(@Param("expirationTime") LocalDateTime expirationTime, Pageable pageable);
+
+    // Trava as linhas do lote antes do UPDATE para publicar os eventos com o status anterior de cada pagamento
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.status IN ('PENDING', 'PROCESSING') ORDER BY p.id")
+    List<Payment> findExpirableByIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    // O status é conferido de novo no UPDATE: um pagamento aprovado entre a busca e a expiração não é tocado.
+    // O contexto é limpo para as entidades carregadas no lote não voltarem ao banco com o status antigo
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = 'EXPIRED', p.expiredAt = :now, p.updatedAt = :now " +
+            "WHERE p.id IN :ids AND p.status IN ('PENDING', 'PROCESSING')")
+    int expireByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     Long countByStatus(@Param("status") PaymentStatus status);
 
@@ -37,6 +76,10 @@ public interface JpaPaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = 'APPROVED' AND p.paidAt >= :startDate")
     Double sumApprovedAmountsSince(@Param("startDate") LocalDateTime startDate);
 
+    // Carga inicial dos contadores do dia: [id, valor]
+    @Query("SELECT p.id, p.amount FROM Payment p WHERE p.status = 'APPROVED' AND p.paidAt >= :startDate")
+    List<Object[]> findApprovedAmountsSince(@Param("startDate") LocalDateTime startDate);
+
     boolean existsByExternalPaymentId(String externalPaymentId);
 
     boolean existsByOrderId(Long orderId);
@@ -61,4 +104,17 @@ public interface JpaPaymentRepository extends JpaRepository<Payment, Long> {
             "ORDER BY p.createdAt DESC")
     List<Payment> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                   @Param("endDate") LocalDateTime endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = JpaOrderRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, o.id, p.createdAt, p.method, p.status, p.amount, p.externalPaymentId, " +
+           "p.paidAt, p.expiredAt, p.failureReason " +
+           "FROM Payment p JOIN p.order o " +
+           "WHERE p.createdAt >= :start AND p.createdAt < :end AND (:status IS NULL OR p.status = :status) " +
+           "ORDER BY p.createdAt, p.id")
+    Stream<Object[]> streamPaymentsForExport(@Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end,
+                                             @Param("status") PaymentStatus status);
 }
@@ -0,0 +1,25 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.QrCodeImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JpaQrCodeImageRepository extends JpaRepository<QrCodeImage, String> {
+
+    // INSERT condicional: um save() com id atribuído faria SELECT + merge; imagem já gravada não faz nada
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO qr_code_images (hash, content, created_at) " +
+                   "SELECT :hash, :content, :now WHERE NOT EXISTS (SELECT 1 FROM qr_code_images WHERE hash = :hash)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("hash") String hash,
+                       @Param("content") byte[] content,
+                       @Param("now") LocalDateTime now);
+}
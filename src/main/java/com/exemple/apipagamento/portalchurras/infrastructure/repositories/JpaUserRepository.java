@@ -25,6 +25,13 @@ public interface JpaUserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") UserRole role);
 
+    // [total de usuários do papel, criados dentro do período (exclusivo nas pontas)]
+    @Query("SELECT COUNT(u), COALESCE(SUM(CASE WHEN u.createdAt > :start AND u.createdAt < :end THEN 1 ELSE 0 END), 0) " +
+           "FROM User u WHERE u.role = :role")
+    List<Object[]> countByRoleWithCreatedBetween(@Param("role") UserRole role,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
     @Query("SELECT u FROM User u WHERE u.active = true AND u.role = :role ORDER BY u.name")
     List<User> findActiveUsersByRoleOrderByName(@Param("role") UserRole role);
 
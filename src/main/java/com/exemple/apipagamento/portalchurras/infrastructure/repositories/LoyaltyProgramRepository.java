@@ -3,9 +3,13 @@ package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
 import com.exemple.apipagamento.portalchurras.domain.entities.LoyaltyProgram;
 import com.exemple.apipagamento.portalchurras.domain.entities.LoyaltyTier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +25,25 @@ public interface LoyaltyProgramRepository extends JpaRepository<LoyaltyProgram,
     
     @Query("SELECT COUNT(lp) FROM LoyaltyProgram lp WHERE lp.tier = :tier")
     Long countByTier(LoyaltyTier tier);
+
+    // Saldo alterado direto no banco, sem ler-modificar-gravar em memória: duas atualizações simultâneas
+    // do mesmo programa esperam uma pela outra na linha em vez de uma sobrescrever a outra.
+    // O contexto de persistência é limpo depois para que a próxima leitura traga o saldo gravado.
+
+    // Só debita se houver saldo; 0 linhas alteradas = pontos insuficientes
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LoyaltyProgram lp SET lp.availablePoints = lp.availablePoints - :points, " +
+           "lp.usedPoints = lp.usedPoints + :points, lp.lastActivityAt = :now " +
+           "WHERE lp.id = :id AND lp.availablePoints >= :points")
+    int debitPoints(@Param("id") Long id, @Param("points") int points, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LoyaltyProgram lp SET lp.totalPoints = lp.totalPoints + :points, " +
+           "lp.availablePoints = lp.availablePoints + :points, lp.totalSpent = lp.totalSpent + :spent, " +
+           "lp.totalOrders = lp.totalOrders + :orders, lp.lastActivityAt = :now WHERE lp.id = :id")
+    int creditPoints(@Param("id") Long id,
+                     @Param("points") int points,
+                     @Param("spent") BigDecimal spent,
+                     @Param("orders") int orders,
+                     @Param("now") LocalDateTime now);
 }
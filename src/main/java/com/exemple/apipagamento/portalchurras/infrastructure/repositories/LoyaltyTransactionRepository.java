@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +16,11 @@ public interface LoyaltyTransactionRepository extends JpaRepository<LoyaltyTrans
     List<LoyaltyTransaction> findByLoyaltyProgramIdOrderByCreatedAtDesc(Long loyaltyProgramId);
     
     List<LoyaltyTransaction> findByOrderId(Long orderId);
+
+    // Versão em lote de findByOrderId: quais destes pedidos já têm transação do tipo informado
+    @Query("SELECT lt.order.id FROM LoyaltyTransaction lt WHERE lt.order.id IN :orderIds AND lt.type = :type")
+    List<Long> findOrderIdsByType(@Param("orderIds") Collection<Long> orderIds,
+                                  @Param("type") LoyaltyTransaction.TransactionType type);
     
     @Query("SELECT lt FROM LoyaltyTransaction lt WHERE lt.loyaltyProgram.id = :programId " +
            "AND lt.createdAt BETWEEN :startDate AND :endDate")
@@ -6,6 +6,7 @@ import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
 import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,11 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
         return jpaRepository.findById(id);
     }
 
+    @Override
+    public List<MenuItem> findAllById(Collection<Long> ids) {
+        return jpaRepository.findAllById(ids);
+    }
+
     @Override
     public List<MenuItem> findAll() {
         return jpaRepository.findAll();
@@ -57,4 +63,10 @@ public class MenuItemRepositoryImpl implements MenuItemRepository {
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
     }
+
+    @Override
+    public String findCatalogVersion() {
+        Object[] row = jpaRepository.findCatalogVersion().get(0);
+        return row[0] + "|" + row[1] + "|" + row[2];
+    }
 }
@@ -3,12 +3,20 @@ package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
 import com.exemple.apipagamento.portalchurras.domain.entities.Order;
 import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderCursor;
 import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class OrderRepositoryImpl implements OrderRepository {
@@ -27,6 +35,18 @@ public class OrderRepositoryImpl implements OrderRepository {
         return jpaRepository.save(order);
     }
 
+    // Com ids de sequência (pooled) o Hibernate grava os itens em lote (hibernate.jdbc.batch_size)
+    @Override
+    public Order insertWithItems(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order não pode ser nulo");
+        }
+        if (order.getId() != null) {
+            throw new IllegalArgumentException("Order já foi gravado: " + order.getId());
+        }
+        return jpaRepository.save(order);
+    }
+
     @Override
     public Optional<Order> findById(Long id) {
         if (id == null) {
@@ -35,6 +55,16 @@ public class OrderRepositoryImpl implements OrderRepository {
         return jpaRepository.findById(id);
     }
 
+    @Override
+    public Optional<String> findVersionById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return jpaRepository.findVersionById(id).stream()
+                .findFirst()
+                .map(row -> Arrays.stream(row).map(String::valueOf).collect(Collectors.joining("|")));
+    }
+
     @Override
     public List<Order> findAll() {
         return jpaRepository.findAll();
@@ -75,6 +105,80 @@ public class OrderRepositoryImpl implements OrderRepository {
         return jpaRepository.findByCreatedAtBetween(start, end);
     }
 
+    @Override
+    public List<Order> findPage(OrderCursor after, int limit) {
+        return withDetails(jpaRepository.findPageIds(after.getCreatedAt(), after.getId(), PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<Order> findPageByStatus(OrderStatus status, OrderCursor after, int limit) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status não pode ser nulo");
+        }
+        return withDetails(jpaRepository.findPageIdsByStatus(status, after.getCreatedAt(), after.getId(),
+                PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<Order> findPageByCustomer(User customer, OrderCursor after, int limit) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer não pode ser nulo");
+        }
+        return withDetails(jpaRepository.findPageIdsByCustomer(customer, after.getCreatedAt(), after.getId(),
+                PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<Order> findPageByCustomerEmail(String customerEmail, OrderCursor after, int limit) {
+        if (customerEmail == null || customerEmail.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer email não pode estar vazio");
+        }
+        return withDetails(jpaRepository.findPageIdsByCustomerEmail(customerEmail.trim(), after.getCreatedAt(), after.getId(),
+                PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<Order> findPageByCreatedAtBetween(LocalDateTime start, LocalDateTime end, OrderCursor after, int limit) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Datas de início e fim são obrigatórias");
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Data de início não pode ser posterior à data de fim");
+        }
+        return withDetails(jpaRepository.findPageIdsByCreatedAtBetween(start, end, after.getCreatedAt(), after.getId(),
+                PageRequest.of(0, limit)));
+    }
+
+    @Override
+    public List<Order> findByStatusIn(Collection<OrderStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            throw new IllegalArgumentException("Lista de status não pode estar vazia");
+        }
+        return jpaRepository.findWithDetailsByStatusIn(statuses);
+    }
+
+    @Override
+    public Map<Long, OrderStatus> findStatusesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        return jpaRepository.findStatusesByIdIn(ids).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (OrderStatus) row[1]));
+    }
+
+    // Segunda consulta da paginação: carrega o grafo dos pedidos da página e devolve na ordem dos ids
+    private List<Order> withDetails(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> byId = jpaRepository.findWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public void deleteById(Long id) {
         if (id == null) {
@@ -0,0 +1,33 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    long countByStatus(OutboxStatus status);
+
+    // Só o evento pendente mais antigo de cada pedido/pagamento é elegível: garante a ordem por agregado
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :pending AND e.nextAttemptAt <= :now " +
+           "AND NOT EXISTS (SELECT 1 FROM OutboxEvent o WHERE o.aggregateType = e.aggregateType " +
+           "AND o.aggregateId = e.aggregateId AND o.id < e.id AND o.status = :pending) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findDispatchable(@Param("now") LocalDateTime now,
+                                       @Param("pending") OutboxStatus pending,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
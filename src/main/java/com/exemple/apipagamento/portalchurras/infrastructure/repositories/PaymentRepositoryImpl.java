@@ -4,10 +4,12 @@ import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
 import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
 import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,6 +71,38 @@ public class PaymentRepositoryImpl implements PaymentRepository {
         return jpaRepository.findExpiredPayments(expirationTime);
     }
 
+    @Override
+    public List<Long> findExpiredPaymentIds(LocalDateTime createdBefore, int limit) {
+        return jpaRepository.findExpiredPaymentIds(createdBefore, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findExpiredPixPaymentIds(LocalDateTime createdBefore, int limit) {
+        return jpaRepository.findExpiredPixPaymentIds(createdBefore, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<String> findProcessingExternalIds(LocalDateTime updatedBefore, String afterExternalId, int limit) {
+        return jpaRepository.findProcessingExternalIds(updatedBefore, afterExternalId != null ? afterExternalId : "",
+                PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Payment> lockExpirableByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return jpaRepository.findExpirableByIdsForUpdate(ids);
+    }
+
+    @Override
+    public int expireByIds(Collection<Long> ids, LocalDateTime expiredAt) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return jpaRepository.expireByIds(ids, expiredAt);
+    }
+
     // Métodos adicionais úteis
 
     public List<Payment> findExpiredPixPayments() {
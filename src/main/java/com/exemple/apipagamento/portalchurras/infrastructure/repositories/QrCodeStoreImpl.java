@@ -0,0 +1,47 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.QrCodeImage;
+import com.exemple.apipagamento.portalchurras.domain.ports.QrCodeStore;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+@Component
+public class QrCodeStoreImpl implements QrCodeStore {
+
+    private final JpaQrCodeImageRepository jpaRepository;
+
+    public QrCodeStoreImpl(JpaQrCodeImageRepository jpaRepository) {
+        this.jpaRepository = jpaRepository;
+    }
+
+    @Override
+    public String save(byte[] png) {
+        if (png == null || png.length == 0) {
+            throw new IllegalArgumentException("Imagem do QR Code não pode ser vazia");
+        }
+        String hash = sha256(png);
+        jpaRepository.insertIfAbsent(hash, png, LocalDateTime.now());
+        return hash;
+    }
+
+    @Override
+    public Optional<byte[]> findByHash(String hash) {
+        if (hash == null || hash.isBlank()) {
+            return Optional.empty();
+        }
+        return jpaRepository.findById(hash).map(QrCodeImage::getContent);
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
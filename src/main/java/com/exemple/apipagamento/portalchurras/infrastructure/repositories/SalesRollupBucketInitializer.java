@@ -0,0 +1,45 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.HourlyProductSalesRollup;
+import com.exemple.apipagamento.portalchurras.domain.entities.HourlySalesRollup;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cria linhas zeradas de rollup em uma transação própria.
+ * Se dois pedidos da mesma hora criarem o bucket ao mesmo tempo, apenas um insert vence e
+ * o outro recebe DataIntegrityViolationException sem derrubar a transação do pedido.
+ */
+@Component
+public class SalesRollupBucketInitializer {
+
+    private final HourlySalesRollupRepository salesRollupRepository;
+    private final HourlyProductSalesRollupRepository productSalesRollupRepository;
+
+    public SalesRollupBucketInitializer(HourlySalesRollupRepository salesRollupRepository,
+                                        HourlyProductSalesRollupRepository productSalesRollupRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.productSalesRollupRepository = productSalesRollupRepository;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createSalesBucket(LocalDateTime bucketStart) {
+        if (!salesRollupRepository.existsByBucketStart(bucketStart)) {
+            salesRollupRepository.saveAndFlush(new HourlySalesRollup(bucketStart, 0L, 0L, BigDecimal.ZERO));
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createProductBucket(LocalDateTime bucketStart, Long menuItemId,
+                                    String menuItemName, MenuCategory category) {
+        if (!productSalesRollupRepository.existsByBucketStartAndMenuItemId(bucketStart, menuItemId)) {
+            productSalesRollupRepository.saveAndFlush(new HourlyProductSalesRollup(
+                    bucketStart, menuItemId, menuItemName, category, 0L, BigDecimal.ZERO));
+        }
+    }
+}
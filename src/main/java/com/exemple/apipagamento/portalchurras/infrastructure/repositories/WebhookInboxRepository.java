@@ -0,0 +1,74 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.repositories;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEvent, Long> {
+
+    boolean existsByProviderAndEventId(String provider, String eventId);
+
+    long countByStatus(WebhookInboxStatus status);
+
+    // Só o evento mais antigo ainda aberto de cada pagamento é elegível: garante a ordem por recurso
+    @Query("SELECT e.id FROM WebhookInboxEvent e WHERE e.status = :pending AND e.nextAttemptAt <= :now " +
+           "AND NOT EXISTS (SELECT 1 FROM WebhookInboxEvent o WHERE o.resourceId = e.resourceId " +
+           "AND o.id < e.id AND o.status IN (:pending, :processing)) " +
+           "ORDER BY e.id")
+    List<Long> findDispatchableIds(@Param("now") LocalDateTime now,
+                                   @Param("pending") WebhookInboxStatus pending,
+                                   @Param("processing") WebhookInboxStatus processing,
+                                   Pageable pageable);
+
+    // Reserva condicional: com várias instâncias, só uma consegue mover o evento para PROCESSING
+    @Modifying
+    @Query("UPDATE WebhookInboxEvent e SET e.status = :processing, e.lockedAt = :now, " +
+           "e.attempts = e.attempts + 1 WHERE e.id = :id AND e.status = :pending")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("pending") WebhookInboxStatus pending,
+              @Param("processing") WebhookInboxStatus processing);
+
+    // Eventos presos em PROCESSING (instância que caiu no meio do processamento) voltam para a fila
+    @Modifying
+    @Query("UPDATE WebhookInboxEvent e SET e.status = :pending, e.lockedAt = NULL, e.nextAttemptAt = :now " +
+           "WHERE e.status = :processing AND e.lockedAt < :staleBefore AND e.attempts < :maxAttempts")
+    int releaseStale(@Param("staleBefore") LocalDateTime staleBefore,
+                     @Param("now") LocalDateTime now,
+                     @Param("maxAttempts") int maxAttempts,
+                     @Param("pending") WebhookInboxStatus pending,
+                     @Param("processing") WebhookInboxStatus processing);
+
+    // Presos que já gastaram todas as tentativas: um evento que derruba ou trava o worker não volta à fila
+    @Modifying
+    @Query("UPDATE WebhookInboxEvent e SET e.status = :dead, e.lockedAt = NULL, e.processedAt = :now, " +
+           "e.lastError = :error " +
+           "WHERE e.status = :processing AND e.lockedAt < :staleBefore AND e.attempts >= :maxAttempts")
+    int markStaleDead(@Param("staleBefore") LocalDateTime staleBefore,
+                      @Param("now") LocalDateTime now,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("error") String error,
+                      @Param("processing") WebhookInboxStatus processing,
+                      @Param("dead") WebhookInboxStatus dead);
+
+    // A consulta ao provedor feita depois da chegada desses eventos já reflete o estado que eles notificam
+    @Modifying
+    @Query("UPDATE WebhookInboxEvent e SET e.status = :processed, e.processedAt = :now " +
+           "WHERE e.resourceId = :resourceId AND e.status = :pending AND e.id > :id " +
+           "AND e.receivedAt <= :startedAt")
+    int coalesceSuperseded(@Param("resourceId") String resourceId,
+                           @Param("id") Long id,
+                           @Param("startedAt") LocalDateTime startedAt,
+                           @Param("now") LocalDateTime now,
+                           @Param("pending") WebhookInboxStatus pending,
+                           @Param("processed") WebhookInboxStatus processed);
+}
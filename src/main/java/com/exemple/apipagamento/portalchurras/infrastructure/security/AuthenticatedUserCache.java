@@ -0,0 +1,84 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.security;
+
+import com.exemple.apipagamento.portalchurras.domain.events.UserAccessChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Situação de acesso dos usuários (ativo, papel) em cache local, usada para validar as claims do JWT
+ * sem consultar o banco a cada requisição. Alterações de acesso invalidam a entrada na hora;
+ * o TTL curto limita o atraso em outras instâncias, que não recebem o evento.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    record AccessState(Long userId, String role, boolean active) {}
+
+    private final UserRepository userRepository;
+    private final Cache<String, Optional<AccessState>> cache;
+
+    public AuthenticatedUserCache(UserRepository userRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.jwt.principal-cache.ttl:PT30S}") Duration ttl,
+                                  @Value("${security.jwt.principal-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+    }
+
+    /**
+     * Monta o principal a partir de claims já verificadas. Vazio quando o usuário não existe,
+     * está inativo ou o papel do token não é mais o papel atual (token emitido antes da troca).
+     */
+    public Optional<JwtPrincipal> resolve(Claims claims) {
+        String email = claims.getSubject();
+        if (email == null) {
+            return Optional.empty();
+        }
+
+        AccessState state = cache.get(email, this::load).orElse(null);
+        if (state == null || !state.active()) {
+            return Optional.empty();
+        }
+
+        String role = claims.get("role", String.class);
+        Number userId = claims.get("userId", Number.class);
+        if ((role != null && !role.equals(state.role()))
+                || (userId != null && userId.longValue() != state.userId())) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new JwtPrincipal(state.userId(), email, state.role()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccessChanged(UserAccessChangedEvent event) {
+        if (event.getEmail() != null) {
+            cache.invalidate(event.getEmail());
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private Optional<AccessState> load(String email) {
+        return userRepository.findByEmail(email)
+                .map(user -> new AccessState(user.getId(), user.getRole().name(), Boolean.TRUE.equals(user.getActive())));
+    }
+}
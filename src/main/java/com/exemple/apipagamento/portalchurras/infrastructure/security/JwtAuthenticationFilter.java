@@ -1,28 +1,32 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Autentica pelo header Authorization com um único parse do token (uma verificação HMAC).
+ * O principal vem das claims; a situação do usuário (ativo, papel) vem do {@link AuthenticatedUserCache}.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, @Lazy CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, AuthenticatedUserCache authenticatedUserCache) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
     @Override
@@ -31,31 +35,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        // Extrair JWT do header Authorization
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                logger.warn("Erro ao extrair username do JWT: " + e.getMessage());
-            }
-        }
-
-        // Validar e autenticar
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                Claims claims = jwtUtil.parseClaims(jwt);
 
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
+                authenticatedUserCache.resolve(claims).ifPresent(principal -> {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                });
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("Token JWT inválido: " + e.getMessage());
             } catch (Exception e) {
                 logger.warn("Erro na autenticação JWT: " + e.getMessage());
             }
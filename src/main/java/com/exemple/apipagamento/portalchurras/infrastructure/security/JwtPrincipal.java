@@ -0,0 +1,50 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuário autenticado por JWT, montado a partir das claims do token.
+ * Não carrega a entidade User nem a senha: quem precisar do usuário completo busca pelo email.
+ */
+public class JwtPrincipal implements UserDetails {
+
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtPrincipal(Long userId, String email, String role) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserRole() {
+        return role;
+    }
+}
@@ -1,6 +1,7 @@
 package com.exemple.apipagamento.portalchurras.infrastructure.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,6 +25,10 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 24 horas em ms
     private long jwtExpiration;
 
+    // Chave e parser montados uma vez: o secret não muda depois da inicialização
+    private SecretKey signingKey;
+    private JwtParser parser;
+
     /**
      * Valida que o JWT secret foi configurado obrigatoriamente.
      * Segurança: Previne uso da aplicação com secret padrão.
@@ -41,10 +47,18 @@ public class JwtUtil {
                 "SECURITY ERROR: jwt.secret must be at least 32 characters long for HS256 algorithm!"
             );
         }
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    /**
+     * Verifica assinatura e expiração com um único parse e devolve as claims.
+     * Lança {@link io.jsonwebtoken.JwtException} se o token for inválido ou estiver expirado.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String extractUsername(String token) {
@@ -56,23 +70,10 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        // ALTERAÇÃO: Na versão 0.12.3, usar parser() em vez de parserBuilder()
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, username);
@@ -92,22 +93,23 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        // O parse já rejeita tokens expirados; a data é conferida de novo só por clareza
+        final Claims claims = parseClaims(token);
+        return claims.getSubject().equals(username) && claims.getExpiration().after(new Date());
     }
 
     public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
+        Claims claims = parseClaims(token);
         return claims.get("role", String.class);
     }
 
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
+        Claims claims = parseClaims(token);
         Number userIdNumber = claims.get("userId", Number.class);
         return userIdNumber != null ? userIdNumber.longValue() : null;
     }
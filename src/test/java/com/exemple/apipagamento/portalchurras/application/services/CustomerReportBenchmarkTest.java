@@ -0,0 +1,110 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tempo do relatório de clientes conforme a base cresce. Fora do build padrão:
+ * mvn test -Pbenchmark -Dtest=CustomerReportBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerReportBenchmarkTest {
+
+    private static final int[] CUSTOMERS = {100, 1_000, 5_000, 20_000};
+    private static final int ORDERS_PER_CUSTOMER = 3;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'bench-%'");
+    }
+
+    @Test
+    void deveManterNumeroDeConsultasConstanteConformeClientesCrescem() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDateTime now = LocalDateTime.now();
+        int seeded = 0;
+
+        System.out.printf("%n%10s %10s %12s %10s%n", "clientes", "pedidos", "mediana_ms", "consultas");
+        for (int customers : CUSTOMERS) {
+            seed(seeded, customers, now);
+            seeded = customers;
+
+            // Aquecimento
+            reportService.getCustomerReport(now.minusDays(30), now);
+
+            long[] elapsed = new long[RUNS];
+            long statements = 0;
+            for (int run = 0; run < RUNS; run++) {
+                statistics.clear();
+                long start = System.nanoTime();
+                ReportService.CustomerReport report = reportService.getCustomerReport(now.minusDays(30), now);
+                elapsed[run] = System.nanoTime() - start;
+                statements = statistics.getPrepareStatementCount();
+                assertEquals(customers, report.getActiveCustomers());
+            }
+            Arrays.sort(elapsed);
+
+            System.out.printf("%10d %10d %12.2f %10d%n", customers, customers * ORDERS_PER_CUSTOMER,
+                    elapsed[RUNS / 2] / 1_000_000.0, statements);
+            assertEquals(4, statements);
+        }
+    }
+
+    // Insere clientes [from, to) com pedidos espaçados para cair em faixas diferentes de recompra
+    private void seed(int from, int to, LocalDateTime now) {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            users.add(new Object[]{"Cliente " + i, "bench-" + i + "@test.com", "password", "CUSTOMER", true,
+                    Timestamp.valueOf(now.minusDays(i % 60))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, password, role, active, created_at) " +
+                "VALUES (NEXT VALUE FOR users_seq, ?, ?, ?, ?, ?, ?)", users);
+
+        List<Object[]> orders = new ArrayList<>();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE 'bench-%' ORDER BY id OFFSET ? ROWS", Long.class, from);
+        for (int i = 0; i < ids.size(); i++) {
+            for (int n = 0; n < ORDERS_PER_CUSTOMER; n++) {
+                LocalDateTime createdAt = now.minusHours(1).minusDays((long) n * (1 + i % 20));
+                orders.add(new Object[]{ids.get(i), new BigDecimal("25.00").add(BigDecimal.valueOf(i % 50)),
+                        n == 2 ? "CANCELLED" : "DELIVERED", Timestamp.valueOf(createdAt)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, customer_id, total, status, created_at) " +
+                "VALUES (NEXT VALUE FOR orders_seq, ?, ?, ?, ?)", orders);
+    }
+}
@@ -0,0 +1,124 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.application.dtos.KitchenBoardMessage;
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderUpdatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KitchenBoardServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks
+    private KitchenBoardService kitchenBoardService;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        MenuItem burger = new MenuItem("X-Burger", "Hambúrguer artesanal",
+                new BigDecimal("25.00"), MenuCategory.HAMBURGUERES, "15 min");
+        ReflectionTestUtils.setField(burger, "id", 1L);
+
+        order = new Order("Cliente", "cliente@test.com", "11999999999", BigDecimal.ZERO, null);
+        ReflectionTestUtils.setField(order, "id", 10L);
+        order.addItem(burger, 2, "sem cebola");
+    }
+
+    @Test
+    void deveCarregarPedidosAtivosNaInicializacao() {
+        // Given
+        when(orderRepository.findByStatusIn(anyCollection())).thenReturn(List.of(order));
+
+        // When
+        kitchenBoardService.seed();
+        KitchenBoardMessage snapshot = kitchenBoardService.snapshot();
+
+        // Then
+        assertEquals(KitchenBoardMessage.Type.SNAPSHOT, snapshot.getType());
+        assertEquals(1, snapshot.getOrders().size());
+        assertEquals("X-Burger", snapshot.getOrders().get(0).getItems().get(0).getName());
+        assertEquals("sem cebola", snapshot.getOrders().get(0).getItems().get(0).getObservations());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void devePublicarDeltaAoCriarEAtualizarPedido() {
+        // When
+        kitchenBoardService.onOrderCreated(new OrderCreatedEvent(order));
+        order.setNotes("mesa 4");
+        kitchenBoardService.onOrderUpdated(new OrderUpdatedEvent(order));
+
+        // Then
+        ArgumentCaptor<KitchenBoardMessage> messages = ArgumentCaptor.forClass(KitchenBoardMessage.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(KitchenBoardService.TOPIC), messages.capture());
+
+        KitchenBoardMessage added = messages.getAllValues().get(0);
+        KitchenBoardMessage updated = messages.getAllValues().get(1);
+        assertEquals(KitchenBoardMessage.Type.ADDED, added.getType());
+        assertEquals(KitchenBoardMessage.Type.UPDATED, updated.getType());
+        assertEquals("mesa 4", updated.getOrder().getNotes());
+        assertTrue(updated.getVersion() > added.getVersion());
+        assertEquals(updated.getVersion(), kitchenBoardService.snapshot().getVersion());
+    }
+
+    @Test
+    void deveRemoverPedidoEntregueDoPainel() {
+        // Given
+        kitchenBoardService.onOrderCreated(new OrderCreatedEvent(order));
+        order.updateStatus(OrderStatus.CONFIRMED);
+        order.updateStatus(OrderStatus.IN_PREPARATION);
+        order.updateStatus(OrderStatus.READY);
+        order.updateStatus(OrderStatus.DELIVERED);
+
+        // When
+        kitchenBoardService.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.READY));
+
+        // Then
+        ArgumentCaptor<KitchenBoardMessage> messages = ArgumentCaptor.forClass(KitchenBoardMessage.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(KitchenBoardService.TOPIC), messages.capture());
+
+        KitchenBoardMessage removed = messages.getAllValues().get(1);
+        assertEquals(KitchenBoardMessage.Type.REMOVED, removed.getType());
+        assertEquals(10L, removed.getOrderId());
+        assertNull(removed.getOrder());
+        assertTrue(kitchenBoardService.snapshot().getOrders().isEmpty());
+    }
+
+    @Test
+    void deveIgnorarPedidoInativoQueNaoEstaNoPainel() {
+        // Given
+        order.cancel("Desistiu");
+
+        // When
+        kitchenBoardService.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING));
+
+        // Then
+        verify(messagingTemplate, never()).convertAndSend(any(String.class), any(Object.class));
+    }
+}
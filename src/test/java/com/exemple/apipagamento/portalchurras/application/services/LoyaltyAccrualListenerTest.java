@@ -0,0 +1,108 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyAccrualListenerTest {
+
+    @Mock
+    private LoyaltyService loyaltyService;
+
+    private OutboxProperties outboxProperties;
+    private LoyaltyAccrualListener listener;
+
+    @BeforeEach
+    void setUp() {
+        outboxProperties = new OutboxProperties();
+        listener = new LoyaltyAccrualListener(loyaltyService, outboxProperties, true, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.shutdown();
+    }
+
+    private Order order(User customer, OrderStatus status) {
+        Order order = new Order(customer, new BigDecimal("45.00"), null);
+        ReflectionTestUtils.setField(order, "id", 10L);
+        ReflectionTestUtils.setField(order, "status", status);
+        return order;
+    }
+
+    private User customer() {
+        User customer = new User("Cliente Fiel", "fiel@test.com", "password123", UserRole.CUSTOMER);
+        ReflectionTestUtils.setField(customer, "id", 7L);
+        return customer;
+    }
+
+    @Test
+    void deveCreditarPontosDoPedidoEntregueSemOutbox() {
+        // Given
+        OrderStatusChangedEvent event = new OrderStatusChangedEvent(order(customer(), OrderStatus.DELIVERED),
+                OrderStatus.READY);
+
+        // When
+        listener.onOrderStatusChanged(event);
+
+        // Then - o crédito roda fora da thread do commit
+        verify(loyaltyService, timeout(2_000)).accrueDeliveredOrders(
+                List.of(new LoyaltyService.DeliveredOrder(10L, 7L, new BigDecimal("45.00"))));
+    }
+
+    @Test
+    void naoDeveCreditarQuandoOutboxEntregaOsPontosPelaFila() {
+        // Given
+        outboxProperties.setEnabled(true);
+
+        // When
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order(customer(), OrderStatus.DELIVERED),
+                OrderStatus.READY));
+
+        // Then
+        verify(loyaltyService, after(200).never()).accrueDeliveredOrders(any());
+    }
+
+    @Test
+    void naoDeveCreditarPedidoNaoEntregueOuDeConvidado() {
+        // When
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order(customer(), OrderStatus.READY),
+                OrderStatus.IN_PREPARATION));
+        listener.onOrderStatusChanged(new OrderStatusChangedEvent(order(null, OrderStatus.DELIVERED),
+                OrderStatus.READY));
+
+        // Then
+        verify(loyaltyService, after(200).never()).accrueDeliveredOrders(any());
+    }
+
+    @Test
+    void naoDeveCreditarQuandoDesabilitado() {
+        // Given
+        LoyaltyAccrualListener disabled = new LoyaltyAccrualListener(loyaltyService, outboxProperties, false, false);
+
+        // When
+        disabled.onOrderStatusChanged(new OrderStatusChangedEvent(order(customer(), OrderStatus.DELIVERED),
+                OrderStatus.READY));
+        disabled.shutdown();
+
+        // Then
+        verify(loyaltyService, after(200).never()).accrueDeliveredOrders(any());
+    }
+}
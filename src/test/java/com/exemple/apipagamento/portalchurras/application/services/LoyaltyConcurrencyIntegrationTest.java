@@ -0,0 +1,169 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.LoyaltyProgram;
+import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Várias threads creditando e resgatando pontos do mesmo programa ao mesmo tempo, cada operação
+ * na sua transação: o saldo final tem que bater com a soma das operações que deram certo.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.exemple.apipagamento.portalchurras=WARN"
+})
+@ActiveProfiles("test")
+class LoyaltyConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int INITIAL_POINTS = 1_000;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("Cliente Concorrente", "concorrente@email.com", "senha123", UserRole.CUSTOMER));
+        userId = user.getId();
+        loyaltyService.createLoyaltyProgram(userId);
+        loyaltyService.addBonusPoints(userId, INITIAL_POINTS, "Saldo inicial");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM loyalty_transactions");
+        jdbcTemplate.update("DELETE FROM loyalty_programs");
+        jdbcTemplate.update("DELETE FROM users WHERE email = 'concorrente@email.com'");
+    }
+
+    @Test
+    void naoDeveResgatarAlemDoSaldoComResgatesSimultaneos() throws Exception {
+        // Given - 200 resgates de 10 pontos disputando um saldo de 1000
+        AtomicInteger redeemed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When
+        runConcurrently(200, i -> {
+            try {
+                loyaltyService.redeemPoints(userId, 10, "Resgate " + i);
+                redeemed.incrementAndGet();
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        // Then - exatamente o saldo foi gasto, e cada resgate partiu de um saldo diferente
+        assertEquals(100, redeemed.get());
+        assertEquals(100, rejected.get());
+        LoyaltyProgram program = loyaltyService.findByUserId(userId).orElseThrow();
+        assertEquals(0, program.getAvailablePoints());
+        assertEquals(INITIAL_POINTS, program.getUsedPoints());
+        List<Integer> balances = jdbcTemplate.queryForList(
+                "SELECT balance_after FROM loyalty_transactions WHERE type = 'REDEEMED'", Integer.class);
+        assertEquals(100, balances.size());
+        assertEquals(100, new HashSet<>(balances).size());
+        assertTrue(balances.stream().allMatch(balance -> balance >= 0));
+    }
+
+    @Test
+    void naoDevePerderAtualizacoesComCreditosEResgatesSimultaneos() throws Exception {
+        // Given - créditos de 5 e resgates de 3 intercalados; o saldo nunca chega perto de zero
+        int operations = 400;
+
+        // When
+        runConcurrently(operations, i -> {
+            if (i % 2 == 0) {
+                loyaltyService.addBonusPoints(userId, 5, "Bônus " + i);
+            } else {
+                loyaltyService.redeemPoints(userId, 3, "Resgate " + i);
+            }
+        });
+
+        // Then
+        LoyaltyProgram program = loyaltyService.findByUserId(userId).orElseThrow();
+        int credits = operations / 2;
+        int debits = operations / 2;
+        assertEquals(INITIAL_POINTS + credits * 5 - debits * 3, program.getAvailablePoints());
+        assertEquals(INITIAL_POINTS + credits * 5, program.getTotalPoints());
+        assertEquals(debits * 3, program.getUsedPoints());
+        assertEquals(operations + 1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM loyalty_transactions", Integer.class));
+    }
+
+    /**
+     * Vazão de resgates no mesmo programa, todos disputando a mesma linha. Fora do build padrão:
+     * mvn test -Pbenchmark -Dtest=LoyaltyConcurrencyIntegrationTest
+     */
+    @Test
+    @Tag("benchmark")
+    void deveMedirResgatesPorSegundoNoMesmoPrograma() throws Exception {
+        int operations = 5_000;
+        loyaltyService.addBonusPoints(userId, operations, "Saldo do benchmark");
+
+        // Aquecimento
+        runConcurrently(200, i -> loyaltyService.redeemPoints(userId, 1, "Aquecimento"));
+
+        long start = System.nanoTime();
+        runConcurrently(operations, i -> loyaltyService.redeemPoints(userId, 1, "Benchmark"));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%n%10s %10s %14s%n", "threads", "resgates", "resgates_por_s");
+        System.out.printf("%10d %10d %14.0f%n", THREADS, operations, operations / seconds);
+        assertEquals(INITIAL_POINTS - 200, loyaltyService.findByUserId(userId).orElseThrow().getAvailablePoints());
+    }
+
+    // Dispara todas as operações juntas em THREADS threads e propaga a primeira falha inesperada
+    private void runConcurrently(int operations, IntConsumerWithException operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    operation.accept(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerWithException {
+        void accept(int index) throws Exception;
+    }
+}
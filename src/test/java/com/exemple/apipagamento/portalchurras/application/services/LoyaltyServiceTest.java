@@ -1,25 +1,32 @@
 package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.LoyaltyProgram;
+import com.exemple.apipagamento.portalchurras.domain.entities.LoyaltyTransaction;
 import com.exemple.apipagamento.portalchurras.domain.entities.User;
 import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
 import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
 import com.exemple.apipagamento.portalchurras.infrastructure.repositories.LoyaltyProgramRepository;
 import com.exemple.apipagamento.portalchurras.infrastructure.repositories.LoyaltyTransactionRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +41,9 @@ class LoyaltyServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private JpaOrderRepository orderRepository;
+
     @InjectMocks
     private LoyaltyService loyaltyService;
 
@@ -86,6 +96,7 @@ class LoyaltyServiceTest {
         
         when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.of(testLoyaltyProgram));
         when(loyaltyProgramRepository.save(any(LoyaltyProgram.class))).thenReturn(testLoyaltyProgram);
+        creditAppliedTo(testLoyaltyProgram);
 
         // When
         LoyaltyProgram result = loyaltyService.earnPoints(1L, testOrder);
@@ -103,12 +114,15 @@ class LoyaltyServiceTest {
         
         when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.of(testLoyaltyProgram));
         when(loyaltyProgramRepository.save(any(LoyaltyProgram.class))).thenReturn(testLoyaltyProgram);
+        creditAppliedTo(testLoyaltyProgram);
 
         // When - cada R$ 1 = 10 pontos
         LoyaltyProgram result = loyaltyService.earnPoints(1L, testOrder);
 
-        // Then
+        // Then - crédito feito no banco, de uma vez
         assertNotNull(result);
+        assertEquals(1000, result.getAvailablePoints());
+        verify(loyaltyProgramRepository).creditPoints(eq(1L), eq(1000), eq(new BigDecimal("100.00")), eq(1), any());
         verify(loyaltyProgramRepository, times(1)).save(any(LoyaltyProgram.class));
     }
 
@@ -117,14 +131,22 @@ class LoyaltyServiceTest {
         // Given
         testLoyaltyProgram.addPoints(500, new BigDecimal("50.00"));
         when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.of(testLoyaltyProgram));
-        when(loyaltyProgramRepository.save(any(LoyaltyProgram.class))).thenReturn(testLoyaltyProgram);
+        when(loyaltyProgramRepository.debitPoints(eq(1L), eq(200), any())).thenAnswer(invocation -> {
+            ReflectionTestUtils.setField(testLoyaltyProgram, "availablePoints", 300);
+            return 1;
+        });
+        when(loyaltyProgramRepository.findById(1L)).thenReturn(Optional.of(testLoyaltyProgram));
 
         // When
         LoyaltyProgram result = loyaltyService.redeemPoints(1L, 200, "Desconto em pedido");
 
-        // Then
+        // Then - débito condicional no banco, transação com o saldo de antes e de depois
         assertNotNull(result);
-        verify(loyaltyProgramRepository, times(1)).save(any(LoyaltyProgram.class));
+        assertEquals(300, result.getAvailablePoints());
+        ArgumentCaptor<LoyaltyTransaction> captor = ArgumentCaptor.forClass(LoyaltyTransaction.class);
+        verify(loyaltyTransactionRepository).save(captor.capture());
+        assertEquals(500, captor.getValue().getBalanceBefore());
+        assertEquals(300, captor.getValue().getBalanceAfter());
     }
 
     @Test
@@ -136,6 +158,15 @@ class LoyaltyServiceTest {
         assertThrows(IllegalStateException.class, () -> {
             loyaltyService.redeemPoints(1L, 200, "Tentativa de desconto");
         });
+        verify(loyaltyTransactionRepository, never()).save(any());
+    }
+
+    @Test
+    void deveRejeitarResgateDePontosNaoPositivos() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> loyaltyService.redeemPoints(1L, 0, "Zero"));
+        assertThrows(IllegalArgumentException.class, () -> loyaltyService.redeemPoints(1L, -50, "Negativo"));
+        verifyNoInteractions(loyaltyProgramRepository);
     }
 
     @Test
@@ -176,4 +207,114 @@ class LoyaltyServiceTest {
         // Then
         assertEquals(BigDecimal.ZERO, discount);
     }
+
+    // Simula o UPDATE atômico: o crédito aparece no programa devolvido pela próxima leitura
+    private void creditAppliedTo(LoyaltyProgram program) {
+        when(loyaltyProgramRepository.creditPoints(eq(program.getId()), anyInt(), any(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    int points = invocation.getArgument(1);
+                    ReflectionTestUtils.setField(program, "availablePoints", program.getAvailablePoints() + points);
+                    ReflectionTestUtils.setField(program, "totalPoints", program.getTotalPoints() + points);
+                    return 1;
+                });
+        when(loyaltyProgramRepository.findById(program.getId())).thenReturn(Optional.of(program));
+    }
+
+    private Order orderReference(Long id) {
+        Order order = new Order(testUser, BigDecimal.ZERO, null);
+        ReflectionTestUtils.setField(order, "id", id);
+        return order;
+    }
+
+    @Test
+    void naoDeveCreditarDuasVezesOMesmoPedido() {
+        // Given - o pedido já rendeu pontos
+        Order testOrder = orderReference(1L);
+        LoyaltyTransaction earned = new LoyaltyTransaction(testLoyaltyProgram, testOrder,
+                LoyaltyTransaction.TransactionType.EARNED, 1000, "Pedido #1");
+        when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.of(testLoyaltyProgram));
+        when(loyaltyTransactionRepository.findByOrderId(1L)).thenReturn(List.of(earned));
+
+        // When
+        loyaltyService.earnPoints(1L, testOrder);
+
+        // Then
+        assertEquals(0, testLoyaltyProgram.getAvailablePoints());
+        verify(loyaltyTransactionRepository, never()).save(any());
+        verify(loyaltyProgramRepository, never()).save(any());
+    }
+
+    @Test
+    void deveCreditarLoteAgrupandoPedidosDoMesmoCliente() {
+        // Given - dois pedidos do mesmo cliente, um repetido (reentrega) e um já creditado
+        when(loyaltyTransactionRepository.findOrderIdsByType(anyCollection(), eq(LoyaltyTransaction.TransactionType.EARNED)))
+                .thenReturn(List.of(3L));
+        when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.of(testLoyaltyProgram));
+        when(loyaltyProgramRepository.save(testLoyaltyProgram)).thenReturn(testLoyaltyProgram);
+        creditAppliedTo(testLoyaltyProgram);
+        when(orderRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> orderReference(invocation.getArgument(0)));
+
+        // When
+        int credited = loyaltyService.accrueDeliveredOrders(List.of(
+                new LoyaltyService.DeliveredOrder(1L, 1L, new BigDecimal("10.00")),
+                new LoyaltyService.DeliveredOrder(2L, 1L, new BigDecimal("5.00")),
+                new LoyaltyService.DeliveredOrder(1L, 1L, new BigDecimal("10.00")),
+                new LoyaltyService.DeliveredOrder(3L, 1L, new BigDecimal("50.00"))));
+
+        // Then - 100 + 50 pontos, uma leitura e uma única atualização do programa
+        assertEquals(2, credited);
+        assertEquals(150, testLoyaltyProgram.getAvailablePoints());
+        verify(loyaltyProgramRepository, times(1)).findByUserId(1L);
+        verify(loyaltyProgramRepository, times(1))
+                .creditPoints(eq(1L), eq(150), eq(new BigDecimal("15.00")), eq(2), any());
+        verify(loyaltyProgramRepository, times(1)).save(testLoyaltyProgram);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LoyaltyTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loyaltyTransactionRepository).saveAll(captor.capture());
+        List<LoyaltyTransaction> transactions = captor.getValue();
+        assertEquals(2, transactions.size());
+        assertEquals(100, transactions.get(0).getBalanceAfter());
+        assertEquals(100, transactions.get(1).getBalanceBefore());
+        assertEquals(150, transactions.get(1).getBalanceAfter());
+    }
+
+    @Test
+    void deveCriarProgramaEIgnorarConvidadosNoLote() {
+        // Given - cliente sem programa, e um pedido de convidado
+        when(loyaltyTransactionRepository.findOrderIdsByType(anyCollection(), any())).thenReturn(List.of());
+        when(loyaltyProgramRepository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        LoyaltyProgram[] created = new LoyaltyProgram[1];
+        when(loyaltyProgramRepository.save(any(LoyaltyProgram.class))).thenAnswer(invocation -> {
+            created[0] = invocation.getArgument(0);
+            ReflectionTestUtils.setField(created[0], "id", 2L);
+            return created[0];
+        });
+        when(loyaltyProgramRepository.findById(2L)).thenAnswer(invocation -> Optional.of(created[0]));
+        when(orderRepository.getReferenceById(5L)).thenReturn(orderReference(5L));
+
+        // When
+        int credited = loyaltyService.accrueDeliveredOrders(List.of(
+                new LoyaltyService.DeliveredOrder(5L, 1L, new BigDecimal("20.00")),
+                new LoyaltyService.DeliveredOrder(6L, null, new BigDecimal("20.00"))));
+
+        // Then
+        assertEquals(1, credited);
+        assertEquals(testUser, created[0].getUser());
+        verify(loyaltyProgramRepository).creditPoints(eq(2L), eq(200), any(), eq(1), any());
+        verify(orderRepository, never()).getReferenceById(6L);
+    }
+
+    @Test
+    void naoDeveConsultarNadaQuandoLoteSoTemConvidados() {
+        // When
+        int credited = loyaltyService.accrueDeliveredOrders(List.of(
+                new LoyaltyService.DeliveredOrder(6L, null, new BigDecimal("20.00"))));
+
+        // Then
+        assertEquals(0, credited);
+        verifyNoInteractions(loyaltyTransactionRepository, loyaltyProgramRepository);
+    }
 }
@@ -0,0 +1,135 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.application.dtos.MenuResponseDTO;
+import com.exemple.apipagamento.portalchurras.application.mappers.MenuItemMapper;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
+import com.exemple.apipagamento.portalchurras.domain.events.MenuChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuCacheServiceTest {
+
+    @Mock
+    private MenuItemRepository menuItemRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache redisCache;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MenuCacheService menuCacheService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        menuCacheService = new MenuCacheService(menuItemRepository, new MenuItemMapper(), cacheManager,
+                redisTemplate, meterRegistry, true, Duration.ofMinutes(5));
+
+        MenuItem burger = new MenuItem("X-Burger", "Hambúrguer artesanal",
+                new BigDecimal("25.00"), MenuCategory.HAMBURGUERES, "15 min");
+        ReflectionTestUtils.setField(burger, "id", 1L);
+        lenient().when(menuItemRepository.findByActiveTrue()).thenReturn(List.of(burger));
+        lenient().when(cacheManager.getCache(MenuCacheService.CACHE_NAME)).thenReturn(redisCache);
+    }
+
+    @Test
+    void deveServirSegundaLeituraDoNearCache() {
+        // When
+        MenuResponseDTO first = menuCacheService.getActiveMenu();
+        MenuResponseDTO second = menuCacheService.getActiveMenu();
+
+        // Then
+        assertSame(first, second);
+        assertEquals("X-Burger", first.getMenu().get("hamburgueres").get(0).getName());
+        verify(menuItemRepository, times(1)).findByActiveTrue();
+        verify(redisCache).put(eq("active"), any(MenuResponseDTO.class));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "menu.near").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("menu.cache.redis").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void deveUsarRedisAntesDoBanco() {
+        // Given
+        MenuResponseDTO cached = new MenuResponseDTO(Map.of());
+        when(redisCache.get("active", MenuResponseDTO.class)).thenReturn(cached);
+
+        // When
+        MenuResponseDTO result = menuCacheService.getActiveMenu();
+
+        // Then
+        assertSame(cached, result);
+        verifyNoInteractions(menuItemRepository);
+        assertEquals(1.0, meterRegistry.get("menu.cache.redis").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void deveInvalidarCacheEAvisarOutrasInstanciasAoAlterarCardapio() {
+        // Given
+        menuCacheService.getActiveMenu();
+
+        // When
+        menuCacheService.onMenuChanged(new MenuChangedEvent(1L));
+        menuCacheService.getActiveMenu();
+
+        // Then
+        verify(menuItemRepository, times(2)).findByActiveTrue();
+        verify(redisCache, atLeastOnce()).evict("active");
+        verify(redisTemplate).convertAndSend(eq(MenuCacheService.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void deveLimparNearCacheAoReceberInvalidacaoDeOutraInstancia() {
+        // Given
+        menuCacheService.getActiveMenu();
+
+        // When
+        menuCacheService.onRemoteInvalidation("outra-instancia");
+        menuCacheService.getActiveMenu();
+
+        // Then
+        verify(menuItemRepository, times(2)).findByActiveTrue();
+    }
+
+    @Test
+    void deveConsultarBancoQuandoRedisEstaIndisponivel() {
+        // Given
+        when(redisCache.get("active", MenuResponseDTO.class))
+                .thenThrow(new RedisConnectionFailureException("Redis fora"));
+        doThrow(new RedisConnectionFailureException("Redis fora")).when(redisCache).put(any(), any());
+
+        // When
+        MenuResponseDTO result = menuCacheService.getActiveMenu();
+
+        // Then
+        assertEquals(1, result.getMenu().get("hamburgueres").size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.MenuChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
@@ -25,6 +27,9 @@ class MenuItemServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MenuItemService menuItemService;
 
@@ -83,6 +88,7 @@ class MenuItemServiceTest {
         // Then
         assertNotNull(result);
         verify(menuItemRepository, times(1)).save(any(MenuItem.class));
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
 
     @Test
@@ -113,6 +119,7 @@ class MenuItemServiceTest {
         // Then - Verificar que foi desativado usando método de negócio
         assertFalse(testMenuItem.getActive());
         verify(menuItemRepository, times(1)).save(any(MenuItem.class));
+        verify(eventPublisher).publishEvent(any(MenuChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,104 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vazão de gravação de pedidos com 5 a 10 itens, um pedido por transação, com o lote
+ * de INSERTs configurado como em produção. Fora do build padrão:
+ * mvn test -Pbenchmark -Dtest=OrderInsertBenchmarkTest
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.exemple.apipagamento.portalchurras=WARN"
+})
+@ActiveProfiles("test")
+class OrderInsertBenchmarkTest {
+
+    private static final int WARMUP_ORDERS = 300;
+    private static final int ORDERS = 3_000;
+    private static final int MENU_ITEMS = 10;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM menu_items WHERE name LIKE 'Bench %'");
+    }
+
+    @Test
+    void deveMedirPedidosGravadosPorSegundo() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<MenuItem> menu = new ArrayList<>();
+        for (int i = 0; i < MENU_ITEMS; i++) {
+            menu.add(menuItemRepository.save(new MenuItem("Bench " + i, "Item de benchmark",
+                    new BigDecimal("10.00").add(BigDecimal.valueOf(i)), MenuCategory.ESPETINHOS, "10 min")));
+        }
+
+        // Aquecimento
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            orderRepository.save(order(menu, i));
+        }
+
+        statistics.clear();
+        long items = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = order(menu, i);
+            items += order.getItems().size();
+            orderRepository.save(order);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long statements = statistics.getPrepareStatementCount();
+
+        System.out.printf("%n%10s %10s %14s %14s %16s%n",
+                "pedidos", "itens", "pedidos_por_s", "itens_por_s", "comandos_pedido");
+        System.out.printf("%10d %10d %14.0f %14.0f %16.2f%n", ORDERS, items,
+                ORDERS / seconds, items / seconds, (double) statements / ORDERS);
+        assertEquals(ORDERS + WARMUP_ORDERS, orderRepository.count());
+    }
+
+    // Entre 5 e 10 itens distintos por pedido
+    private Order order(List<MenuItem> menu, int index) {
+        Order order = new Order(null, BigDecimal.ZERO, "Benchmark " + index);
+        int size = 5 + index % 6;
+        for (int i = 0; i < size; i++) {
+            order.addItem(menu.get((index + i) % menu.size()), 1 + i % 3, null);
+        }
+        return order;
+    }
+}
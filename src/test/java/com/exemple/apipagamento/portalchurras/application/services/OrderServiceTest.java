@@ -1,15 +1,20 @@
 package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
+import com.exemple.apipagamento.portalchurras.domain.usecases.OrderUseCases.CartItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
@@ -32,6 +37,9 @@ class OrderServiceTest {
     @Mock
     private MenuItemRepository menuItemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -137,6 +145,11 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(OrderStatus.CONFIRMED, result.getStatus());
         verify(orderRepository, times(1)).save(any(Order.class));
+
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(OrderStatus.PENDING, event.getValue().getPreviousStatus());
+        assertEquals(OrderStatus.CONFIRMED, event.getValue().getNewStatus());
     }
 
     @Test
@@ -152,6 +165,7 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(OrderStatus.CANCELLED, result.getStatus());
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(eventPublisher).publishEvent(any(OrderStatusChangedEvent.class));
     }
 
     @Test
@@ -171,10 +185,8 @@ class OrderServiceTest {
     void deveBuscarPedidosAtivos() {
         // Given
         List<Order> activeOrders = List.of(testOrder);
-        when(orderRepository.findByStatus(OrderStatus.PENDING)).thenReturn(activeOrders);
-        when(orderRepository.findByStatus(OrderStatus.CONFIRMED)).thenReturn(List.of());
-        when(orderRepository.findByStatus(OrderStatus.IN_PREPARATION)).thenReturn(List.of());
-        when(orderRepository.findByStatus(OrderStatus.READY)).thenReturn(List.of());
+        when(orderRepository.findByStatusIn(List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                OrderStatus.IN_PREPARATION, OrderStatus.READY))).thenReturn(activeOrders);
 
         // When
         List<Order> result = orderService.findActiveOrders();
@@ -214,4 +226,55 @@ class OrderServiceTest {
         assertEquals(1, result.size());
         assertEquals(testCustomer, result.get(0).getCustomer());
     }
+
+    @Test
+    void deveCriarPedidoComItensBuscandoProdutosEmUmaConsulta() {
+        // Given
+        MenuItem suco = new MenuItem("Suco", "Laranja", new BigDecimal("8.00"), MenuCategory.BEBIDAS, "2 min");
+        ReflectionTestUtils.setField(suco, "id", 2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(menuItemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(testMenuItem, suco));
+        when(orderRepository.insertWithItems(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Order result = orderService.createOrderWithItems(1L, null, null, null, "Sem cebola",
+                List.of(new CartItem(1L, 2, null), new CartItem(2L, 1, "Sem gelo"), new CartItem(1L, 1, null)));
+
+        // Then - itens repetidos são somados e o total vem dos preços do cardápio
+        assertEquals(testCustomer, result.getCustomer());
+        assertEquals(2, result.getItems().size());
+        assertEquals(new BigDecimal("83.00"), result.getTotal());
+        verify(menuItemRepository, times(1)).findAllById(any());
+        verify(menuItemRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(eventPublisher).publishEvent(any(OrderCreatedEvent.class));
+    }
+
+    @Test
+    void naoDeveGravarPedidoComItemIndisponivel() {
+        // Given
+        MenuItem esgotado = new MenuItem("Costela", "Costela assada", new BigDecimal("45.00"),
+                MenuCategory.ESPETINHOS, "40 min");
+        ReflectionTestUtils.setField(esgotado, "id", 3L);
+        esgotado.deactivate();
+        when(menuItemRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(testMenuItem, esgotado));
+        when(menuItemRepository.findAllById(List.of(1L, 3L, 4L))).thenReturn(List.of(testMenuItem, esgotado));
+
+        List<CartItem> inativo = List.of(new CartItem(1L, 1, null), new CartItem(3L, 1, null));
+        List<CartItem> inexistente = List.of(new CartItem(1L, 1, null), new CartItem(3L, 1, null),
+                new CartItem(4L, 1, null));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrderWithItems(null, "Convidado", null, null, null, List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrderWithItems(null, "Convidado", null, null, null,
+                        List.of(new CartItem(1L, 0, null))));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrderWithItems(null, "Convidado", null, null, null, inativo));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.createOrderWithItems(null, "Convidado", null, null, null, inexistente));
+        verify(orderRepository, never()).insertWithItems(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 }
@@ -0,0 +1,84 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEventType;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.usecases.OrderUseCases;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "messaging.outbox.enabled=true")
+@ActiveProfiles("test")
+class OutboxIntegrationTest {
+
+    @Autowired
+    private OrderUseCases orderUseCases;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void deveGravarEventosNaMesmaTransacaoDoPedidoNaOrdem() {
+        // When
+        Order order = orderUseCases.createOrder("Cliente Outbox", "outbox@email.com", "11999999999",
+                new BigDecimal("30.00"), null);
+        orderUseCases.updateOrderStatus(order.getId(), OrderStatus.CONFIRMED);
+
+        // Then - dois eventos do mesmo pedido, mas só o mais antigo pode ser publicado agora
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(e -> e.getAggregateId().equals(order.getId())));
+        List<OutboxEvent> dispatchable = outboxService.findDispatchable(10);
+        assertEquals(1, dispatchable.size());
+        assertEquals(OutboxEventType.NEW_ORDER, dispatchable.get(0).getEventType());
+
+        // When - o primeiro é confirmado pelo broker
+        outboxService.markPublished(List.of(dispatchable.get(0).getId()));
+
+        // Then
+        assertEquals(OutboxEventType.ORDER_STATUS_CHANGED,
+                outboxService.findDispatchable(10).get(0).getEventType());
+    }
+
+    @Test
+    void naoDeveGravarEventoQuandoATransacaoEDesfeita() {
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderUseCases.createOrder("Cliente Rollback", "rollback@email.com", "11999999999",
+                    new BigDecimal("30.00"), null);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, orderRepository.count());
+    }
+}
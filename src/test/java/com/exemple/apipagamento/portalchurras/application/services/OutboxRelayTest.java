@@ -0,0 +1,110 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEventType;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.OrderEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OrderEventPublisher publisher;
+
+    @Mock
+    private SchedulerLockService lockService;
+
+    private OutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxService, publisher, lockService, properties, meterRegistry);
+    }
+
+    private OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent(OutboxEventType.NEW_ORDER, id, "NewOrderEvent", "{}");
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+
+    @Test
+    void devePublicarEmLotesEApagarSomenteOsConfirmados() {
+        // Given - um lote cheio e um lote incompleto
+        List<OutboxEvent> first = List.of(event(1L), event(2L));
+        List<OutboxEvent> second = List.of(event(3L));
+        when(outboxService.findDispatchable(2)).thenReturn(first).thenReturn(second);
+        when(publisher.publish(eq(first), any(Duration.class)))
+                .thenReturn(new OrderEventPublisher.PublishResult(List.of(1L, 2L), Map.of()));
+        when(publisher.publish(eq(second), any(Duration.class)))
+                .thenReturn(new OrderEventPublisher.PublishResult(List.of(3L), Map.of()));
+        when(outboxService.countPending()).thenReturn(0L);
+
+        // When
+        int published = relay.relay();
+
+        // Then - o lote incompleto encerra a execução sem nova consulta
+        assertEquals(3, published);
+        verify(outboxService, times(2)).findDispatchable(2);
+        verify(outboxService).markPublished(List.of(1L, 2L));
+        verify(outboxService).markPublished(List.of(3L));
+        verify(outboxService, never()).markFailed(anyLong(), anyString());
+        assertEquals(3.0, meterRegistry.get("messaging.outbox.published").counter().count());
+    }
+
+    @Test
+    void deveReagendarFalhasEInterromperAExecucao() {
+        // Given
+        List<OutboxEvent> batch = List.of(event(1L), event(2L));
+        when(outboxService.findDispatchable(2)).thenReturn(batch);
+        when(publisher.publish(eq(batch), any(Duration.class)))
+                .thenReturn(new OrderEventPublisher.PublishResult(List.of(1L), Map.of(2L, "Broker recusou a mensagem")));
+        when(outboxService.countPending()).thenReturn(1L);
+
+        // When
+        int published = relay.relay();
+
+        // Then
+        assertEquals(1, published);
+        verify(outboxService, times(1)).findDispatchable(2);
+        verify(outboxService).markPublished(List.of(1L));
+        verify(outboxService).markFailed(2L, "Broker recusou a mensagem");
+        assertEquals(1.0, meterRegistry.get("messaging.outbox.failed").counter().count());
+        assertEquals(1.0, meterRegistry.get("messaging.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void naoDeveAgendarQuandoOutboxDesabilitada() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        relay.poll();
+
+        // Then
+        verifyNoInteractions(lockService, outboxService, publisher);
+    }
+}
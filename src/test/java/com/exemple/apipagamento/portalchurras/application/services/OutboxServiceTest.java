@@ -0,0 +1,155 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.OutboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.LoyaltyPointsEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.NewOrderEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OutboxProperties properties;
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        properties.setEnabled(true);
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofSeconds(10));
+        outboxService = new OutboxService(outboxRepository, properties, objectMapper);
+    }
+
+    private Order order(Long id) {
+        User customer = new User("Maria", "maria@email.com", "11999999999");
+        Order order = new Order(customer, new BigDecimal("45.00"), null);
+        ReflectionTestUtils.setField(order, "id", id);
+        return order;
+    }
+
+    @Test
+    void deveGravarPedidoCriadoNaOutboxComoJson() throws Exception {
+        // When
+        outboxService.onOrderCreated(new OrderCreatedEvent(order(7L)));
+
+        // Then
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        OutboxEvent saved = captor.getValue();
+        assertEquals(OutboxEventType.NEW_ORDER, saved.getEventType());
+        assertEquals("ORDER", saved.getAggregateType());
+        assertEquals(7L, saved.getAggregateId());
+        assertEquals(OutboxStatus.PENDING, saved.getStatus());
+        assertEquals(NewOrderEvent.class.getName(), saved.getPayloadType());
+        JsonNode payload = objectMapper.readTree(saved.getPayload());
+        assertEquals(7L, payload.get("orderId").asLong());
+        assertEquals("maria@email.com", payload.get("customerEmail").asText());
+    }
+
+    @Test
+    void deveGravarEventoDeFidelidadeQuandoPedidoDeClienteEEntregue() throws Exception {
+        // Given
+        Order order = order(9L);
+        ReflectionTestUtils.setField(order.getCustomer(), "id", 4L);
+        ReflectionTestUtils.setField(order, "status", OrderStatus.DELIVERED);
+
+        // When
+        outboxService.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.READY));
+
+        // Then - mudança de status e crédito de pontos, na ordem do pedido
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository, times(2)).save(captor.capture());
+        List<OutboxEvent> saved = captor.getAllValues();
+        assertEquals(OutboxEventType.ORDER_STATUS_CHANGED, saved.get(0).getEventType());
+        OutboxEvent loyalty = saved.get(1);
+        assertEquals(OutboxEventType.LOYALTY_POINTS, loyalty.getEventType());
+        assertEquals(9L, loyalty.getAggregateId());
+        assertEquals(LoyaltyPointsEvent.class.getName(), loyalty.getPayloadType());
+        JsonNode payload = objectMapper.readTree(loyalty.getPayload());
+        assertEquals(4L, payload.get("customerId").asLong());
+        assertEquals(0, new BigDecimal("45.00").compareTo(payload.get("orderTotal").decimalValue()));
+    }
+
+    @Test
+    void naoDeveGravarEventoDeFidelidadeParaConvidado() {
+        // Given - pedido sem cliente cadastrado
+        Order order = new Order("Convidado", "convidado@email.com", "11988887777", new BigDecimal("30.00"), null);
+        ReflectionTestUtils.setField(order, "id", 10L);
+        ReflectionTestUtils.setField(order, "status", OrderStatus.DELIVERED);
+
+        // When
+        outboxService.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.READY));
+
+        // Then
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        assertEquals(OutboxEventType.ORDER_STATUS_CHANGED, captor.getValue().getEventType());
+    }
+
+    @Test
+    void naoDeveGravarQuandoDesabilitadaOuSemMudancaDeStatus() {
+        // Given
+        Payment payment = new Payment(order(8L), PaymentMethod.PIX, new BigDecimal("45.00"));
+        ReflectionTestUtils.setField(payment, "id", 3L);
+
+        // When - status igual ao anterior, depois outbox desligada
+        outboxService.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment, PaymentStatus.PENDING));
+        properties.setEnabled(false);
+        outboxService.onOrderCreated(new OrderCreatedEvent(order(8L)));
+
+        // Then
+        verify(outboxRepository, never()).save(any());
+    }
+
+    @Test
+    void deveReagendarComBackoffEDescartarAoEsgotarTentativas() {
+        // Given
+        OutboxEvent event = new OutboxEvent(OutboxEventType.NEW_ORDER, 1L, NewOrderEvent.class.getName(), "{}");
+        ReflectionTestUtils.setField(event, "id", 11L);
+        when(outboxRepository.findById(11L)).thenReturn(Optional.of(event));
+
+        // When
+        outboxService.markFailed(11L, "Broker fora do ar");
+
+        // Then
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(8)));
+
+        // When - terceira falha
+        outboxService.markFailed(11L, "Broker fora do ar");
+        outboxService.markFailed(11L, "Broker fora do ar");
+
+        // Then
+        assertEquals(OutboxStatus.DEAD, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertEquals("Broker fora do ar", event.getLastError());
+    }
+}
@@ -0,0 +1,113 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.SchedulerLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class PaymentExpirationSweeperIntegrationTest {
+
+    @Autowired
+    private PaymentExpirationSweeper sweeper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private SchedulerLockService lockService;
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        lockRepository.deleteAll();
+    }
+
+    @Test
+    void deveExpirarPagamentosForaDaJanela() {
+        // Given
+        Payment pixVencido = payment(PaymentMethod.PIX, 20, true);
+        Payment cartaoDentroDaJanela = payment(PaymentMethod.CREDIT_CARD, 20, false);
+        Payment cartaoVencido = payment(PaymentMethod.CREDIT_CARD, 40, false);
+        Payment aprovado = payment(PaymentMethod.PIX, 60, false);
+        aprovado.approve();
+        paymentRepository.save(aprovado);
+
+        // When
+        int expired = sweeper.sweep();
+
+        // Then
+        assertEquals(2, expired);
+        assertEquals(PaymentStatus.EXPIRED, statusOf(pixVencido));
+        assertNotNull(paymentRepository.findById(pixVencido.getId()).orElseThrow().getExpiredAt());
+        assertEquals(PaymentStatus.PENDING, statusOf(cartaoDentroDaJanela));
+        assertEquals(PaymentStatus.EXPIRED, statusOf(cartaoVencido));
+        assertEquals(PaymentStatus.APPROVED, statusOf(aprovado));
+        assertEquals(List.of(pixVencido.getId(), cartaoVencido.getId()), events.stream(PaymentStatusChangedEvent.class)
+                .filter(event -> event.getNewStatus() == PaymentStatus.EXPIRED)
+                .map(event -> event.getPayment().getId())
+                .toList());
+    }
+
+    @Test
+    void devePermitirApenasUmDonoDoLock() {
+        // Given - outra instância da aplicação
+        SchedulerLockService outroNo = new SchedulerLockService(lockRepository, transactionManager);
+
+        // When & Then
+        assertTrue(lockService.tryAcquire("teste", Duration.ofMinutes(1)));
+        assertFalse(outroNo.tryAcquire("teste", Duration.ofMinutes(1)));
+        assertFalse(outroNo.runExclusively("teste", Duration.ofMinutes(1), () -> fail("não deveria executar")));
+
+        lockService.release("teste");
+        assertTrue(outroNo.tryAcquire("teste", Duration.ofMinutes(1)));
+    }
+
+    private Payment payment(PaymentMethod method, int minutesAgo, boolean processing) {
+        Order order = orderRepository.save(new Order("Convidado Expiração", "expira@test.com", "11966665555",
+                new BigDecimal("30.00"), null));
+        Payment payment = new Payment(order, method, new BigDecimal("30.00"));
+        if (processing) {
+            payment.markAsProcessing("MP-" + order.getId(), null);
+        }
+        // createdAt é preenchido no @PrePersist, então a data antiga só entra no UPDATE
+        payment = paymentRepository.save(payment);
+        ReflectionTestUtils.setField(payment, "createdAt", LocalDateTime.now().minusMinutes(minutesAgo));
+        return paymentRepository.save(payment);
+    }
+
+    private PaymentStatus statusOf(Payment payment) {
+        return paymentRepository.findById(payment.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,190 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.Order;
+import com.exemple.apipagamento.portalchurras.domain.entities.Payment;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentMethod;
+import com.exemple.apipagamento.portalchurras.domain.entities.PaymentStatus;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.PaymentExpirationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentExpirationSweeperTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private SchedulerLockService lockService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentExpirationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentExpirationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentExpirationProperties();
+        properties.setChunkSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new PaymentExpirationSweeper(paymentRepository, lockService, properties, eventPublisher,
+                transactionManager, meterRegistry);
+    }
+
+    private Payment payment(Long id) {
+        Order order = new Order("Convidado Expiração", "expira@test.com", "11966665555",
+                new BigDecimal("30.00"), null);
+        Payment payment = new Payment(order, PaymentMethod.PIX, new BigDecimal("30.00"));
+        ReflectionTestUtils.setField(payment, "id", id);
+        return payment;
+    }
+
+    // Todos os ids do lote continuam pendentes quando as linhas são travadas
+    private void lockAllAsPending() {
+        when(paymentRepository.lockExpirableByIds(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).stream().map(id -> payment((Long) id)).toList());
+    }
+
+    @Test
+    void deveExpirarEmLotesAteNaoRestarPagamentos() {
+        // Given - 3 PIX vencidos em dois lotes e 1 pagamento comum
+        when(paymentRepository.findExpiredPixPaymentIds(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(1L, 2L)).thenReturn(List.of(3L)).thenReturn(List.of());
+        when(paymentRepository.findExpiredPaymentIds(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(4L)).thenReturn(List.of());
+        lockAllAsPending();
+        when(paymentRepository.expireByIds(anyCollection(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+
+        // When
+        int expired = sweeper.sweep();
+
+        // Then
+        assertEquals(4, expired);
+        verify(paymentRepository).expireByIds(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(paymentRepository).expireByIds(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(paymentRepository).expireByIds(eq(List.of(4L)), any(LocalDateTime.class));
+        verify(eventPublisher, times(4)).publishEvent(any(PaymentStatusChangedEvent.class));
+    }
+
+    @Test
+    void devePublicarEventoComStatusAnteriorDeCadaPagamentoExpirado() {
+        // Given - um pendente e um PIX com QR Code já gerado
+        Payment processing = payment(2L);
+        processing.markAsProcessing("MP-2", null);
+        when(paymentRepository.findExpiredPixPaymentIds(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(1L, 2L)).thenReturn(List.of());
+        when(paymentRepository.findExpiredPaymentIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+        when(paymentRepository.lockExpirableByIds(List.of(1L, 2L))).thenReturn(List.of(payment(1L), processing));
+        when(paymentRepository.expireByIds(anyCollection(), any(LocalDateTime.class))).thenReturn(2);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        ArgumentCaptor<PaymentStatusChangedEvent> events = ArgumentCaptor.forClass(PaymentStatusChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING),
+                events.getAllValues().stream().map(PaymentStatusChangedEvent::getPreviousStatus).toList());
+        assertTrue(events.getAllValues().stream().allMatch(e -> e.getNewStatus() == PaymentStatus.EXPIRED));
+    }
+
+    @Test
+    void naoDeveExpirarNemPublicarQuandoLoteMudouAntesDaTrava() {
+        // Given - os pagamentos foram aprovados entre a busca dos ids e a trava das linhas
+        when(paymentRepository.findExpiredPixPaymentIds(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(1L)).thenReturn(List.of());
+        when(paymentRepository.findExpiredPaymentIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+        when(paymentRepository.lockExpirableByIds(anyCollection())).thenReturn(List.of());
+
+        // When
+        int expired = sweeper.sweep();
+
+        // Then
+        assertEquals(0, expired);
+        verify(paymentRepository, never()).expireByIds(anyCollection(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deveUsarJanelaMaisCurtaParaPix() {
+        // Given
+        when(paymentRepository.findExpiredPixPaymentIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+        when(paymentRepository.findExpiredPaymentIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        LocalDateTime now = LocalDateTime.now();
+        verify(paymentRepository).findExpiredPixPaymentIds(
+                argThat(cutoff -> cutoff.isAfter(now.minusMinutes(16)) && cutoff.isBefore(now.minusMinutes(14))),
+                eq(2));
+        verify(paymentRepository).findExpiredPaymentIds(
+                argThat(cutoff -> cutoff.isAfter(now.minusMinutes(31)) && cutoff.isBefore(now.minusMinutes(29))),
+                eq(2));
+    }
+
+    @Test
+    void deveRegistrarMetricasDaVarredura() {
+        // Given
+        when(paymentRepository.findExpiredPixPaymentIds(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(1L)).thenReturn(List.of());
+        when(paymentRepository.findExpiredPaymentIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+        lockAllAsPending();
+        when(paymentRepository.expireByIds(anyCollection(), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        assertEquals(1, meterRegistry.get("payments.expiration.sweep").timer().count());
+        assertEquals(1.0, meterRegistry.get("payments.expiration.expired").summary().totalAmount());
+    }
+
+    @Test
+    void naoDeveVarrerQuandoDesabilitado() {
+        // Given
+        properties.setSweeperEnabled(false);
+
+        // When
+        sweeper.scheduledSweep();
+
+        // Then
+        verifyNoInteractions(lockService, paymentRepository);
+    }
+
+    @Test
+    void deveVarrerSomenteComLockDistribuido() {
+        // When
+        sweeper.scheduledSweep();
+
+        // Then - o lock está com outro nó (mock não executa a tarefa)
+        verify(lockService).runExclusively(eq("payment-expiration-sweeper"), eq(properties.getLockLease()), any());
+        verifyNoInteractions(paymentRepository);
+    }
+}
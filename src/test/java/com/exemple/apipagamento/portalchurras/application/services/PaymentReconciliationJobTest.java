@@ -0,0 +1,167 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGateway;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGatewayResponse;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.domain.usecases.PaymentUseCases;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.PaymentReconciliationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReconciliationJobTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private PaymentUseCases paymentUseCases;
+
+    @Mock
+    private SchedulerLockService lockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentReconciliationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService provider;
+    private PaymentReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentReconciliationProperties();
+        properties.setBatchSize(3);
+        properties.setMaxConcurrency(2);
+        meterRegistry = new SimpleMeterRegistry();
+        provider = Executors.newFixedThreadPool(8);
+        job = new PaymentReconciliationJob(paymentRepository, paymentGateway, paymentUseCases, lockService,
+                properties, transactionManager, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.shutdownNow();
+    }
+
+    private double checked(String outcome) {
+        return meterRegistry.get("payments.reconciliation.checked").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void devePaginarPeloUltimoIdExternoEAplicarSoRespostasComSucesso() {
+        // Given - dois lotes: um cheio e um incompleto
+        when(paymentRepository.findProcessingExternalIds(any(LocalDateTime.class), eq(""), eq(3)))
+                .thenReturn(List.of("MP-1", "MP-2", "MP-3"));
+        when(paymentRepository.findProcessingExternalIds(any(LocalDateTime.class), eq("MP-3"), eq(3)))
+                .thenReturn(List.of("MP-4"));
+        when(paymentGateway.getPaymentStatusAsync(anyString())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            PaymentGatewayResponse response = "MP-2".equals(id)
+                    ? PaymentGatewayResponse.error("timeout")
+                    : PaymentGatewayResponse.success(id);
+            response.setStatus("MP-4".equals(id) ? "in_process" : "approved");
+            return CompletableFuture.completedFuture(response);
+        });
+        when(paymentUseCases.reconcilePaymentStatus("MP-1", "approved")).thenReturn(true);
+        when(paymentUseCases.reconcilePaymentStatus("MP-3", "approved")).thenReturn(true);
+        when(paymentUseCases.reconcilePaymentStatus("MP-4", "in_process")).thenReturn(false);
+
+        // When
+        int updated = job.reconcile();
+
+        // Then - a falha de consulta não chega a aplicar status
+        assertEquals(2, updated);
+        verify(paymentUseCases, never()).reconcilePaymentStatus(eq("MP-2"), any());
+        verify(paymentRepository, times(2)).findProcessingExternalIds(any(LocalDateTime.class), anyString(), anyInt());
+        assertEquals(2.0, checked("updated"));
+        assertEquals(1.0, checked("unchanged"));
+        assertEquals(1.0, checked("error"));
+    }
+
+    @Test
+    void deveLimitarConsultasSimultaneasAoProvedor() {
+        // Given - 9 pagamentos e respostas lentas vindas de outras threads
+        List<String> ids = IntStream.rangeClosed(1, 9).mapToObj(i -> "MP-" + i).toList();
+        when(paymentRepository.findProcessingExternalIds(any(LocalDateTime.class), anyString(), anyInt()))
+                .thenReturn(ids.subList(0, 3)).thenReturn(ids.subList(3, 6)).thenReturn(ids.subList(6, 9))
+                .thenReturn(List.of());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Executor delayed = CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS, provider);
+        when(paymentGateway.getPaymentStatusAsync(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            String id = invocation.getArgument(0);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                PaymentGatewayResponse response = PaymentGatewayResponse.success(id);
+                response.setStatus("approved");
+                return response;
+            }, delayed);
+        });
+        when(paymentUseCases.reconcilePaymentStatus(anyString(), eq("approved"))).thenReturn(true);
+
+        // When
+        int updated = job.reconcile();
+
+        // Then
+        assertEquals(9, updated);
+        assertTrue(maxInFlight.get() <= 2, "em voo: " + maxInFlight.get());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void deveRespeitarMaximoPorExecucao() {
+        // Given
+        properties.setMaxPerRun(4);
+        when(paymentRepository.findProcessingExternalIds(any(LocalDateTime.class), eq(""), eq(3)))
+                .thenReturn(List.of("MP-1", "MP-2", "MP-3"));
+        when(paymentRepository.findProcessingExternalIds(any(LocalDateTime.class), eq("MP-3"), eq(1)))
+                .thenReturn(List.of("MP-4"));
+        when(paymentGateway.getPaymentStatusAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(PaymentGatewayResponse.error("indisponível")));
+
+        // When
+        job.reconcile();
+
+        // Then - o segundo lote pede só o que falta para o limite e não há terceira consulta
+        verify(paymentGateway, times(4)).getPaymentStatusAsync(anyString());
+        verify(paymentRepository, times(2)).findProcessingExternalIds(any(LocalDateTime.class), anyString(), anyInt());
+        assertEquals(4.0, checked("error"));
+    }
+
+    @Test
+    void naoDeveExecutarQuandoDesabilitado() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        job.scheduledRun();
+
+        // Then
+        verifyNoInteractions(lockService, paymentRepository, paymentGateway);
+    }
+}
@@ -1,22 +1,30 @@
 package com.exemple.apipagamento.portalchurras.application.services;
 
 import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
 import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGateway;
 import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGatewayResponse;
+import com.exemple.apipagamento.portalchurras.domain.ports.QrCodeStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,9 +42,18 @@ class PaymentServiceTest {
     @Mock
     private PaymentGateway paymentGateway;
 
+    @Mock
+    private QrCodeStore qrCodeStore;
+
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -113,7 +130,7 @@ class PaymentServiceTest {
         
         PaymentGatewayResponse response = PaymentGatewayResponse.success("PAY_123");
         response.setExternalPreferenceId("PREF_123");
-        when(paymentGateway.createPaymentPreference(any())).thenReturn(response);
+        when(paymentGateway.createPaymentPreferenceAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
 
         // When
         Payment result = paymentService.processPayment(1L);
@@ -194,4 +211,174 @@ class PaymentServiceTest {
         assertEquals(1, result.size());
         assertEquals(PaymentStatus.PENDING, result.get(0).getStatus());
     }
+
+    @Test
+    void deveAplicarStatusDoWebhookDeFormaIdempotente() {
+        // Given - pagamento já aprovado por uma entrega anterior
+        testPayment.approve();
+        when(paymentRepository.findByExternalPaymentId("MP-1")).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        Payment result = paymentService.applyWebhookStatus("MP-1", "approved", Map.of("id", 1));
+
+        // Then
+        assertEquals(PaymentStatus.APPROVED, result.getStatus());
+        verify(paymentRepository).save(testPayment);
+        verify(eventPublisher, never()).publishEvent(any(PaymentStatusChangedEvent.class));
+    }
+
+    @Test
+    void devePublicarEventoQuandoWebhookMudaStatus() {
+        // Given
+        when(paymentRepository.findByExternalPaymentId("MP-1")).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        paymentService.applyWebhookStatus("MP-1", "approved", Map.of("id", 1));
+
+        // Then
+        ArgumentCaptor<PaymentStatusChangedEvent> event = ArgumentCaptor.forClass(PaymentStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(PaymentStatus.PENDING, event.getValue().getPreviousStatus());
+        assertEquals(PaymentStatus.APPROVED, event.getValue().getNewStatus());
+    }
+
+    @Test
+    void deveIgnorarTransicaoInvalidaVindaDoWebhook() {
+        // Given
+        testPayment.approve();
+        when(paymentRepository.findByExternalPaymentId("MP-1")).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        Payment result = paymentService.applyWebhookStatus("MP-1", "rejected", Map.of("id", 1));
+
+        // Then - pagamento aprovado não volta a ser rejeitado
+        assertEquals(PaymentStatus.APPROVED, result.getStatus());
+    }
+
+    @Test
+    void deveGuardarImagemDoQrCodeForaDoPagamento() {
+        // Given
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+        PaymentGatewayResponse response = PaymentGatewayResponse.success("MP-1");
+        response.setQrCode("00020126pix");
+        response.setQrCodeBase64(Base64.getEncoder().encodeToString(png));
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentGateway.createPixPaymentAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(qrCodeStore.save(png)).thenReturn("abc123");
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        Payment result = paymentService.createPixPayment(1L, "cliente@test.com");
+
+        // Then - o pagamento guarda o código copia-e-cola e só o hash da imagem
+        assertEquals(PaymentStatus.PROCESSING, result.getStatus());
+        assertEquals("00020126pix", result.getQrCode());
+        assertEquals("abc123", result.getQrCodeHash());
+    }
+
+    @Test
+    void deveSeguirComPixQuandoImagemDoQrCodeForInvalida() {
+        // Given
+        PaymentGatewayResponse response = PaymentGatewayResponse.success("MP-1");
+        response.setQrCode("00020126pix");
+        response.setQrCodeBase64("não é base64!");
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentGateway.createPixPaymentAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When
+        Payment result = paymentService.createPixPayment(1L, "cliente@test.com");
+
+        // Then
+        assertEquals(PaymentStatus.PROCESSING, result.getStatus());
+        assertNull(result.getQrCodeHash());
+        verify(qrCodeStore, never()).save(any());
+    }
+
+    @Test
+    void naoDeveGravarResultadoQuandoPagamentoMudouDuranteChamadaAoProvedor() {
+        // Given - o pagamento expira enquanto o provedor responde
+        Payment expired = new Payment(testOrder, PaymentMethod.PIX, new BigDecimal("50.00"));
+        expired.expire();
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment)).thenReturn(Optional.of(expired));
+        when(paymentGateway.createPixPaymentAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(PaymentGatewayResponse.success("MP-1")));
+        when(paymentGateway.cancelPayment("MP-1")).thenReturn(PaymentGatewayResponse.success("MP-1"));
+
+        // When & Then - o PIX já criado no provedor é cancelado para não ficar órfão
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> paymentService.createPixPayment(1L, "cliente@test.com"));
+        assertTrue(error.getMessage().contains("EXPIRED"));
+        verify(paymentRepository, never()).save(any());
+        verify(paymentGateway).cancelPayment("MP-1");
+    }
+
+    @Test
+    void deveManterErroOriginalQuandoCancelamentoDaCobrancaOrfaFalhar() {
+        // Given
+        Payment expired = new Payment(testOrder, PaymentMethod.PIX, new BigDecimal("50.00"));
+        expired.expire();
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment)).thenReturn(Optional.of(expired));
+        when(paymentGateway.createPixPaymentAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(PaymentGatewayResponse.success("MP-1")));
+        when(paymentGateway.cancelPayment("MP-1")).thenThrow(new IllegalStateException("provedor indisponível"));
+
+        // When & Then
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> paymentService.createPixPayment(1L, "cliente@test.com"));
+        assertTrue(error.getMessage().contains("EXPIRED"));
+    }
+
+    @Test
+    void naoDeveCancelarNoProvedorQuandoChamadaFalhouEPagamentoMudou() {
+        // Given
+        Payment expired = new Payment(testOrder, PaymentMethod.PIX, new BigDecimal("50.00"));
+        expired.expire();
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment)).thenReturn(Optional.of(expired));
+        when(paymentGateway.createPaymentPreferenceAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(PaymentGatewayResponse.error("timeout")));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(1L));
+        verify(paymentGateway, never()).cancelPayment(any());
+    }
+
+    @Test
+    void deveRejeitarPagamentoQuandoChamadaAssincronaFalhar() {
+        // Given
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+        when(paymentGateway.createPaymentPreferenceAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("conexão recusada")));
+
+        // When
+        Payment result = paymentService.processPayment(1L);
+
+        // Then
+        assertEquals(PaymentStatus.REJECTED, result.getStatus());
+    }
+
+    @Test
+    void deveReconciliarSoQuandoStatusDoProvedorMudaOPagamento() {
+        // Given
+        testPayment.markAsProcessing("MP-1", null);
+        when(paymentRepository.findByExternalPaymentId("MP-1")).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(testPayment)).thenReturn(testPayment);
+
+        // When - status intermediário não grava; aprovado grava e publica evento
+        boolean pending = paymentService.reconcilePaymentStatus("MP-1", "in_process");
+        boolean approved = paymentService.reconcilePaymentStatus("MP-1", "approved");
+        boolean repeated = paymentService.reconcilePaymentStatus("MP-1", "approved");
+
+        // Then
+        assertFalse(pending);
+        assertTrue(approved);
+        assertFalse(repeated);
+        assertEquals(PaymentStatus.APPROVED, testPayment.getStatus());
+        verify(paymentRepository, times(1)).save(testPayment);
+        verify(eventPublisher, times(1)).publishEvent(any(PaymentStatusChangedEvent.class));
+    }
 }
@@ -0,0 +1,107 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportServiceIntegrationTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void deveCalcularRelatorioDeClientesComConsultasAgregadas() {
+        // Given
+        User ana = customer("ana.relatorio@test.com");
+        User bruno = customer("bruno.relatorio@test.com");
+        User carla = customer("carla.relatorio@test.com");
+
+        order(ana, "50.00", now.minusDays(40));
+        order(ana, "50.00", now.minusDays(2));
+        order(bruno, "30.00", now.minusDays(3));
+        order(bruno, "40.00", now.minusDays(3).plusHours(2));
+        order(carla, "100.00", now.minusDays(1));
+        orderRepository.save(new Order("Convidado", "convidado@test.com", "11999990000",
+                new BigDecimal("500.00"), null));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        ReportService.CustomerReport report = reportService.getCustomerReport(now.minusDays(10), now.plusDays(1));
+
+        // Then
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(3, report.getActiveCustomers());
+        assertEquals(2, report.getReturningCustomers());
+        assertEquals(200.0 / 3, report.getRetentionRate(), 0.001);
+        assertTrue(report.getNewCustomers() >= 3);
+        assertTrue(report.getTotalCustomers() >= report.getNewCustomers());
+
+        assertEquals(3, report.getTopCustomers().size());
+        assertEquals("carla.relatorio@test.com", report.getTopCustomers().get(0).getEmail());
+        assertEquals(0, new BigDecimal("70.00").compareTo(report.getTopCustomers().get(1).getTotalSpent()));
+        assertEquals(2, report.getTopCustomers().get(1).getTotalOrders());
+
+        assertEquals(1L, report.getRepeatPurchaseIntervals().get("ATE_1_DIA"));
+        assertEquals(0L, report.getRepeatPurchaseIntervals().get("1_A_7_DIAS"));
+        assertEquals(0L, report.getRepeatPurchaseIntervals().get("7_A_30_DIAS"));
+        assertEquals(1L, report.getRepeatPurchaseIntervals().get("30_DIAS_OU_MAIS"));
+    }
+
+    @Test
+    void deveRetornarRelatorioVazioSemPedidosNoPeriodo() {
+        // When
+        ReportService.CustomerReport report = reportService.getCustomerReport(now.minusDays(10), now.plusDays(1));
+
+        // Then
+        assertEquals(0, report.getActiveCustomers());
+        assertNull(report.getRetentionRate());
+        assertTrue(report.getTopCustomers().isEmpty());
+        assertEquals(0L, report.getRepeatPurchaseIntervals().get("ATE_1_DIA"));
+    }
+
+    private User customer(String email) {
+        return userRepository.findByEmail(email)
+                .orElseGet(() -> userRepository.save(new User("Cliente", email, "password", UserRole.CUSTOMER)));
+    }
+
+    private void order(User customer, String total, LocalDateTime createdAt) {
+        Order order = orderRepository.save(new Order(customer, new BigDecimal(total), null));
+        ReflectionTestUtils.setField(order, "createdAt", createdAt);
+        orderRepository.save(order);
+    }
+}
@@ -0,0 +1,184 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.HourlyProductSalesRollupRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.HourlySalesRollupRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private JpaOrderRepository orderRepository;
+
+    @Mock
+    private JpaUserRepository userRepository;
+
+    @Mock
+    private HourlySalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private HourlyProductSalesRollupRepository productSalesRollupRepository;
+
+    @Mock
+    private SalesCounters salesCounters;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reportService = new ReportService(orderRepository, userRepository, salesRollupRepository,
+                productSalesRollupRepository, salesCounters, meterRegistry, Duration.ofMinutes(1));
+    }
+
+    private static List<Object[]> row(Object... values) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(values);
+        return rows;
+    }
+
+    @Test
+    void deveMontarMetricasDaLinhaAgregada() {
+        // Given
+        when(orderRepository.aggregateDashboardMetrics(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(row(4L, new BigDecimal("100.5"), 30L, new BigDecimal("900"),
+                        6L, 2L, 3L, 1L, 3L, new BigDecimal("80")));
+
+        // When
+        ReportService.DashboardMetrics metrics = reportService.getDashboardMetrics();
+
+        // Then
+        assertEquals(4L, metrics.getTodayOrders());
+        assertEquals(new BigDecimal("100.50"), metrics.getTodayRevenue());
+        assertEquals(30L, metrics.getMonthOrders());
+        assertEquals(new BigDecimal("900.00"), metrics.getMonthRevenue());
+        assertEquals(6, metrics.getActiveOrders());
+        assertEquals(2L, metrics.getPendingOrders());
+        assertEquals(3L, metrics.getPreparingOrders());
+        assertEquals(1L, metrics.getReadyOrders());
+        assertEquals(3L, metrics.getApprovedPaymentsToday());
+        assertEquals(new BigDecimal("80.00"), metrics.getPaymentRevenueToday());
+        assertEquals(new BigDecimal("25.13"), metrics.getAverageTicket());
+        assertEquals(1, meterRegistry.get("reports.dashboard.compute").timer().count());
+    }
+
+    @Test
+    void deveReaproveitarMetricasDentroDoTtl() {
+        // Given
+        when(orderRepository.aggregateDashboardMetrics(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(row(0L, BigDecimal.ZERO, 0L, BigDecimal.ZERO, 0L, 0L, 0L, 0L, 0L, BigDecimal.ZERO));
+
+        // When
+        ReportService.DashboardMetrics first = reportService.getDashboardMetrics();
+        ReportService.DashboardMetrics second = reportService.getDashboardMetrics();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(BigDecimal.ZERO, first.getAverageTicket());
+        verify(orderRepository, times(1)).aggregateDashboardMetrics(any(), any());
+    }
+
+    @Test
+    void deveCompartilharUmCalculoEntreChamadasConcorrentes() throws Exception {
+        // Given - a consulta só termina depois que todas as chamadas estão em andamento
+        int callers = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderRepository.aggregateDashboardMetrics(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return row(1L, BigDecimal.TEN, 1L, BigDecimal.TEN, 1L, 1L, 0L, 0L, 0L, BigDecimal.ZERO);
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ReportService.DashboardMetrics>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(reportService::getDashboardMetrics));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            // When
+            ReportService.DashboardMetrics expected = results.get(0).get(5, TimeUnit.SECONDS);
+
+            // Then
+            for (Future<ReportService.DashboardMetrics> result : results) {
+                assertSame(expected, result.get(5, TimeUnit.SECONDS));
+            }
+            verify(orderRepository, times(1)).aggregateDashboardMetrics(any(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deveRecalcularAposInvalidacao() {
+        // Given
+        when(orderRepository.aggregateDashboardMetrics(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(row(0L, BigDecimal.ZERO, 0L, BigDecimal.ZERO, 0L, 0L, 0L, 0L, 0L, BigDecimal.ZERO));
+        reportService.getDashboardMetrics();
+
+        // When
+        reportService.evictDashboardMetrics();
+        reportService.getDashboardMetrics();
+
+        // Then
+        verify(orderRepository, times(2)).aggregateDashboardMetrics(any(), any());
+    }
+
+    @Test
+    void deveExigirPeriodoNoRelatorioDeClientes() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> reportService.getCustomerReport(null, LocalDateTime.now()));
+        verifyNoInteractions(orderRepository, userRepository);
+    }
+
+    @Test
+    void deveUsarContadoresEmMemoriaParaNumerosDoDia() {
+        // Given - o cache ainda guarda o cálculo anterior, os contadores já viram dois pedidos novos
+        when(orderRepository.aggregateDashboardMetrics(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(row(1L, BigDecimal.TEN, 20L, new BigDecimal("500"), 3L, 1L, 1L, 1L, 0L, BigDecimal.ZERO));
+        ReportService.DashboardMetrics cached = reportService.getDashboardMetrics();
+        when(salesCounters.today()).thenReturn(Optional.of(new SalesCounters.TodayTotals(
+                LocalDate.now(), 3L, new BigDecimal("45"), 1L, new BigDecimal("20"))));
+
+        // When
+        ReportService.DashboardMetrics metrics = reportService.getDashboardMetrics();
+
+        // Then
+        assertEquals(3L, metrics.getTodayOrders());
+        assertEquals(new BigDecimal("45.00"), metrics.getTodayRevenue());
+        assertEquals(new BigDecimal("15.00"), metrics.getAverageTicket());
+        assertEquals(1L, metrics.getApprovedPaymentsToday());
+        assertEquals(new BigDecimal("20.00"), metrics.getPaymentRevenueToday());
+        assertEquals(20L, metrics.getMonthOrders());
+        assertEquals(3, metrics.getActiveOrders());
+        assertEquals(1L, cached.getTodayOrders());
+        verify(orderRepository, times(1)).aggregateDashboardMetrics(any(), any());
+    }
+}
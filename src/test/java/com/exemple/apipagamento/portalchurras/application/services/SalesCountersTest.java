@@ -0,0 +1,188 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderCreatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderUpdatedEvent;
+import com.exemple.apipagamento.portalchurras.domain.events.PaymentStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaPaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesCountersTest {
+
+    @Mock
+    private JpaOrderRepository orderRepository;
+
+    @Mock
+    private JpaPaymentRepository paymentRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SalesCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new SalesCounters(orderRepository, paymentRepository, meterRegistry, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void loadEmpty() {
+        when(orderRepository.findTotalsCreatedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        when(paymentRepository.findApprovedAmountsSince(any(LocalDateTime.class))).thenReturn(List.of());
+        counters.loadToday();
+    }
+
+    private Order order(Long id, String total) {
+        Order order = new Order(null, new BigDecimal(total), null);
+        ReflectionTestUtils.setField(order, "id", id);
+        return order;
+    }
+
+    @Test
+    void deveAcompanharPedidosEReceitaDoDia() {
+        // Given
+        loadEmpty();
+        Order order = order(1L, "30.00");
+
+        // When - criado, depois com itens a mais, depois cancelado
+        counters.onOrderCreated(new OrderCreatedEvent(order));
+        order.setTotal(new BigDecimal("50.00"));
+        counters.onOrderUpdated(new OrderUpdatedEvent(order));
+        SalesCounters.TodayTotals beforeCancel = counters.today().orElseThrow();
+        order.cancel("Cliente desistiu");
+        counters.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING));
+
+        // Then
+        assertEquals(1, beforeCancel.orders());
+        assertEquals(new BigDecimal("50.00"), beforeCancel.revenue());
+        SalesCounters.TodayTotals today = counters.today().orElseThrow();
+        assertEquals(1, today.orders());
+        assertEquals(0, BigDecimal.ZERO.compareTo(today.revenue()));
+        assertEquals(1.0, meterRegistry.get("sales.orders.created").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("sales.orders.transitions")
+                .tag("from", "PENDING").tag("to", "CANCELLED").functionCounter().count());
+    }
+
+    @Test
+    void deveSomarReceitaEntreguePorCategoria() {
+        // Given
+        MenuItem espetinho = new MenuItem("Espetinho", "Carne", new BigDecimal("12.50"),
+                MenuCategory.ESPETINHOS, "10 min");
+        MenuItem suco = new MenuItem("Suco", "Laranja", new BigDecimal("8.00"), MenuCategory.BEBIDAS, "2 min");
+        ReflectionTestUtils.setField(espetinho, "id", 1L);
+        ReflectionTestUtils.setField(suco, "id", 2L);
+        Order order = order(2L, "0.01");
+        order.addItem(espetinho, 2, null);
+        order.addItem(suco, 1, null);
+        ReflectionTestUtils.setField(order, "status", OrderStatus.DELIVERED);
+
+        // When
+        counters.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.READY));
+
+        // Then
+        assertEquals(25.0, meterRegistry.get("sales.revenue").tag("category", "ESPETINHOS")
+                .functionCounter().count(), 0.001);
+        assertEquals(8.0, meterRegistry.get("sales.revenue").tag("category", "BEBIDAS")
+                .functionCounter().count(), 0.001);
+    }
+
+    @Test
+    void deveContarPagamentoAprovadoUmaVezPorDia() {
+        // Given
+        loadEmpty();
+        Payment payment = new Payment(order(3L, "40.00"), PaymentMethod.PIX, new BigDecimal("40.00"));
+        ReflectionTestUtils.setField(payment, "id", 10L);
+        payment.approve();
+
+        // When - reentrega do mesmo evento
+        counters.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment, PaymentStatus.PENDING));
+        counters.onPaymentStatusChanged(new PaymentStatusChangedEvent(payment, PaymentStatus.PENDING));
+
+        // Then
+        SalesCounters.TodayTotals today = counters.today().orElseThrow();
+        assertEquals(1, today.approvedPayments());
+        assertEquals(new BigDecimal("40.00"), today.approvedAmount());
+        assertEquals(2.0, meterRegistry.get("sales.payments")
+                .tag("method", "PIX").tag("status", "APPROVED").functionCounter().count());
+    }
+
+    @Test
+    void deveCarregarNumerosDoDiaSemContarDeNovoOsEventos() {
+        // Given
+        List<Object[]> orders = new ArrayList<>();
+        orders.add(new Object[]{1L, OrderStatus.PENDING, new BigDecimal("20.00")});
+        orders.add(new Object[]{2L, OrderStatus.CANCELLED, new BigDecimal("15.00")});
+        List<Object[]> payments = new ArrayList<>();
+        payments.add(new Object[]{7L, new BigDecimal("20.00")});
+        when(orderRepository.findTotalsCreatedSince(any(LocalDateTime.class))).thenReturn(orders);
+        when(paymentRepository.findApprovedAmountsSince(any(LocalDateTime.class))).thenReturn(payments);
+
+        // When
+        counters.loadToday();
+        counters.onOrderUpdated(new OrderUpdatedEvent(order(1L, "20.00")));
+
+        // Then
+        SalesCounters.TodayTotals today = counters.today().orElseThrow();
+        assertEquals(2, today.orders());
+        assertEquals(new BigDecimal("20.00"), today.revenue());
+        assertEquals(1, today.approvedPayments());
+        assertEquals(2.0, meterRegistry.get("sales.today.orders").gauge().value());
+    }
+
+    @Test
+    void naoDeveOferecerCaminhoRapidoAntesDaCargaOuDesativado() {
+        // Given
+        SalesCounters disabled = new SalesCounters(orderRepository, paymentRepository,
+                new SimpleMeterRegistry(), false);
+        when(orderRepository.findTotalsCreatedSince(any(LocalDateTime.class))).thenReturn(List.of());
+        when(paymentRepository.findApprovedAmountsSince(any(LocalDateTime.class))).thenReturn(List.of());
+
+        // When
+        disabled.loadToday();
+
+        // Then
+        assertTrue(counters.today().isEmpty());
+        assertTrue(disabled.today().isEmpty());
+    }
+
+    @Test
+    void deveAtualizarSomenteDepoisDoCommit() {
+        // Given
+        loadEmpty();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        counters.onOrderCreated(new OrderCreatedEvent(order(5L, "10.00")));
+
+        // Then
+        assertEquals(0, counters.today().orElseThrow().orders());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, counters.today().orElseThrow().orders());
+    }
+}
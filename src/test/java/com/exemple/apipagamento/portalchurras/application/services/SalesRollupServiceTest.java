@@ -0,0 +1,151 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.events.OrderStatusChangedEvent;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.HourlyProductSalesRollupRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.HourlySalesRollupRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaOrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.SalesRollupBucketInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    @Mock
+    private HourlySalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private HourlyProductSalesRollupRepository productSalesRollupRepository;
+
+    @Mock
+    private SalesRollupBucketInitializer bucketInitializer;
+
+    @Mock
+    private JpaOrderRepository orderRepository;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    private MenuItem burger;
+    private MenuItem refrigerante;
+    private Order order;
+    private LocalDateTime bucket;
+
+    @BeforeEach
+    void setUp() {
+        burger = new MenuItem("X-Burger", "Hambúrguer artesanal",
+                new BigDecimal("25.00"), MenuCategory.HAMBURGUERES, "15 min");
+        ReflectionTestUtils.setField(burger, "id", 1L);
+
+        refrigerante = new MenuItem("Refrigerante", "Lata 350ml",
+                new BigDecimal("6.00"), MenuCategory.BEBIDAS, "1 min");
+        ReflectionTestUtils.setField(refrigerante, "id", 2L);
+
+        order = new Order("Cliente", "cliente@test.com", "11999999999", BigDecimal.ZERO, null);
+        ReflectionTestUtils.setField(order, "id", 10L);
+        order.addItem(burger, 2, null);
+        order.addItem(refrigerante, 1, null);
+
+        bucket = SalesRollupService.bucketOf(order.getCreatedAt());
+    }
+
+    @Test
+    void deveIncrementarRollupsAoEntregarPedido() {
+        // Given
+        when(salesRollupRepository.increment(any(), anyLong(), anyLong(), any(), any())).thenReturn(1);
+        when(productSalesRollupRepository.increment(any(), any(), anyLong(), any(), any())).thenReturn(1);
+
+        // When
+        salesRollupService.recordDelivered(order);
+
+        // Then
+        verify(salesRollupRepository).increment(eq(bucket), eq(1L), eq(0L), eq(new BigDecimal("56.00")), any());
+        verify(productSalesRollupRepository).increment(eq(bucket), eq(1L), eq(2L), eq(new BigDecimal("50.00")), any());
+        verify(productSalesRollupRepository).increment(eq(bucket), eq(2L), eq(1L), eq(new BigDecimal("6.00")), any());
+        verifyNoInteractions(bucketInitializer);
+    }
+
+    @Test
+    void deveCriarBucketQuandoAindaNaoExiste() {
+        // Given - primeiro incremento não encontra linha, o segundo encontra
+        when(salesRollupRepository.increment(any(), anyLong(), anyLong(), any(), any())).thenReturn(0, 1);
+
+        // When
+        salesRollupService.recordCancelled(order);
+
+        // Then
+        verify(bucketInitializer).createSalesBucket(bucket);
+        verify(salesRollupRepository, times(2)).increment(eq(bucket), eq(0L), eq(1L), eq(BigDecimal.ZERO), any());
+        verifyNoInteractions(productSalesRollupRepository);
+    }
+
+    @Test
+    void deveIgnorarMudancasDeStatusIntermediarias() {
+        // Given
+        order.updateStatus(OrderStatus.CONFIRMED);
+
+        // When
+        salesRollupService.onOrderStatusChanged(new OrderStatusChangedEvent(order, OrderStatus.PENDING));
+
+        // Then
+        verifyNoInteractions(salesRollupRepository, productSalesRollupRepository, bucketInitializer);
+    }
+
+    @Test
+    void deveReconstruirBucketsDoPeriodo() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 18, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 10, 20, 15);
+        LocalDateTime from = LocalDateTime.of(2025, 3, 10, 18, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 10, 21, 0);
+
+        when(orderRepository.aggregateHourlySales(from, to)).thenReturn(List.<Object[]>of(
+                new Object[]{2025, 3, 10, 19, 3L, 1L, new BigDecimal("120.00")}));
+        when(orderRepository.aggregateHourlyProductSales(from, to)).thenReturn(List.<Object[]>of(
+                new Object[]{2025, 3, 10, 19, 1L, "X-Burger", MenuCategory.HAMBURGUERES, 4L, new BigDecimal("100.00")}));
+
+        // When
+        SalesRollupService.RebuildResult result = salesRollupService.rebuild(start, end);
+
+        // Then
+        verify(salesRollupRepository).deleteBuckets(from, to);
+        verify(productSalesRollupRepository).deleteBuckets(from, to);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<HourlySalesRollup>> saved = ArgumentCaptor.forClass(List.class);
+        verify(salesRollupRepository).saveAll(saved.capture());
+        HourlySalesRollup rollup = saved.getValue().get(0);
+        assertEquals(LocalDateTime.of(2025, 3, 10, 19, 0), rollup.getBucketStart());
+        assertEquals(3L, rollup.getDeliveredOrders());
+        assertEquals(1L, rollup.getCancelledOrders());
+        assertEquals(new BigDecimal("120.00"), rollup.getRevenue());
+
+        assertEquals(1, result.getSalesBuckets());
+        assertEquals(1, result.getProductBuckets());
+    }
+
+    @Test
+    void deveLancarExcecaoAoReconstruirComPeriodoInvalido() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> salesRollupService.rebuild(now, now.minusDays(1)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.exemple.apipagamento.portalchurras.application.services;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.WebhookInboxStatus;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.WebhookInboxProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.WebhookInboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookInboxServiceTest {
+
+    @Mock
+    private WebhookInboxRepository inboxRepository;
+
+    private WebhookInboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookInboxService inboxService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookInboxProperties();
+        properties.setMaxAttempts(3);
+        meterRegistry = new SimpleMeterRegistry();
+        inboxService = new WebhookInboxService(inboxRepository, properties, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void deveGravarWebhookDePagamentoNaCaixaDeEntrada() {
+        // Given
+        Map<String, Object> payload = Map.of("id", 1001, "type", "payment",
+                "action", "payment.updated", "data", Map.of("id", 555));
+        when(inboxRepository.existsByProviderAndEventId(WebhookInboxEvent.PROVIDER_MERCADO_PAGO, "1001"))
+                .thenReturn(false);
+
+        // When
+        WebhookInboxService.IngestResult result = inboxService.ingestMercadoPago(payload);
+
+        // Then
+        assertEquals(WebhookInboxService.IngestResult.ACCEPTED, result);
+        ArgumentCaptor<WebhookInboxEvent> captor = ArgumentCaptor.forClass(WebhookInboxEvent.class);
+        verify(inboxRepository).saveAndFlush(captor.capture());
+        assertEquals("555", captor.getValue().getResourceId());
+        assertEquals(WebhookInboxStatus.PENDING, captor.getValue().getStatus());
+    }
+
+    @Test
+    void deveIgnorarReenvioDoMesmoEvento() {
+        // Given
+        Map<String, Object> payload = Map.of("id", "1001", "type", "payment", "data", Map.of("id", "555"));
+        when(inboxRepository.existsByProviderAndEventId(anyString(), eq("1001"))).thenReturn(false);
+        when(inboxRepository.saveAndFlush(any(WebhookInboxEvent.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_webhook_inbox_event"));
+
+        // When
+        WebhookInboxService.IngestResult result = inboxService.ingestMercadoPago(payload);
+
+        // Then
+        assertEquals(WebhookInboxService.IngestResult.DUPLICATE, result);
+        assertEquals(1.0, meterRegistry.counter("webhooks.inbox", "result", "duplicate").count());
+    }
+
+    @Test
+    void deveIgnorarWebhookQueNaoEDePagamento() {
+        // When
+        WebhookInboxService.IngestResult result = inboxService.ingestMercadoPago(
+                Map.of("type", "merchant_order", "data", Map.of("id", "1")));
+
+        // Then
+        assertEquals(WebhookInboxService.IngestResult.IGNORED, result);
+        verifyNoInteractions(inboxRepository);
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoWebhookNaoTemIdDoPagamento() {
+        assertThrows(IllegalArgumentException.class,
+                () -> inboxService.ingestMercadoPago(Map.of("type", "payment", "data", Map.of())));
+    }
+
+    @Test
+    void deveReagendarComBackoffExponencial() {
+        // Given - segunda tentativa falhou
+        WebhookInboxEvent event = eventWithAttempts(2);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(inboxRepository.save(event)).thenReturn(event);
+
+        // When
+        WebhookInboxStatus status = inboxService.markFailed(1L, "timeout");
+
+        // Then - 5s * 2^(2-1) = 10s
+        assertEquals(WebhookInboxStatus.PENDING, status);
+        assertEquals("timeout", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(9)));
+        assertTrue(event.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(11)));
+    }
+
+    @Test
+    void deveMoverParaDeadAposEsgotarTentativas() {
+        // Given
+        WebhookInboxEvent event = eventWithAttempts(3);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(inboxRepository.save(event)).thenReturn(event);
+
+        // When
+        WebhookInboxStatus status = inboxService.markFailed(1L, "Pagamento não encontrado: 555");
+
+        // Then
+        assertEquals(WebhookInboxStatus.DEAD, status);
+        assertNotNull(event.getProcessedAt());
+        assertEquals(1.0, meterRegistry.counter("webhooks.inbox", "result", "dead").count());
+    }
+
+    @Test
+    void deveLimitarBackoffAoMaximoConfigurado() {
+        // Given
+        properties.setMaxBackoff(Duration.ofMinutes(1));
+
+        // When & Then
+        assertEquals(Duration.ofSeconds(5), properties.backoffFor(1));
+        assertEquals(Duration.ofSeconds(40), properties.backoffFor(4));
+        assertEquals(Duration.ofMinutes(1), properties.backoffFor(30));
+    }
+
+    private WebhookInboxEvent eventWithAttempts(int attempts) {
+        WebhookInboxEvent event = new WebhookInboxEvent(WebhookInboxEvent.PROVIDER_MERCADO_PAGO,
+                "1001", "555", "payment", "payment.updated", "{}");
+        ReflectionTestUtils.setField(event, "id", 1L);
+        ReflectionTestUtils.setField(event, "attempts", attempts);
+        ReflectionTestUtils.setField(event, "status", WebhookInboxStatus.PROCESSING);
+        return event;
+    }
+}
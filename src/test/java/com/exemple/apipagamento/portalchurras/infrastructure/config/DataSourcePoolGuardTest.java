@@ -0,0 +1,91 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourcePoolGuardTest {
+
+    private HikariDataSource dataSource;
+    private DataSourcePoolProperties properties;
+    private WebhookInboxProperties webhookProperties;
+    private PaymentReconciliationProperties reconciliationProperties;
+    private RabbitListenerProperties listenerProperties;
+
+    @BeforeEach
+    void setUp() {
+        // Pool só configurado: nenhuma conexão é aberta sem getConnection
+        dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(20);
+        dataSource.setConnectionTimeout(3_000);
+        properties = new DataSourcePoolProperties();
+        webhookProperties = new WebhookInboxProperties();
+        webhookProperties.setWorkerThreads(4);
+        reconciliationProperties = new PaymentReconciliationProperties();
+        reconciliationProperties.setMaxConcurrency(8);
+        listenerProperties = new RabbitListenerProperties();
+        RabbitListenerProperties.Listener listener = new RabbitListenerProperties.Listener();
+        listener.setConcurrency(2);
+        listener.setMaxConcurrency(8);
+        listenerProperties.getQueues().put("new-orders", listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    private DataSourcePoolGuard guard(boolean virtualThreads, boolean rabbitEnabled) {
+        return new DataSourcePoolGuard(dataSource, properties, webhookProperties, reconciliationProperties,
+                listenerProperties, virtualThreads, rabbitEnabled);
+    }
+
+    @Test
+    void deveAceitarPoolQueComportaTarefasEReservaParaRequisicoes() {
+        // 4 do webhook + 8 da reconciliação + 4 reservadas = 16 <= 20
+        assertDoesNotThrow(() -> guard(true, false).verify());
+    }
+
+    @Test
+    void deveRecusarPoolMenorQueTarefasEmSegundoPlano() {
+        // Given - com o RabbitMQ ligado os consumidores somam mais 8
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> guard(true, true).verify());
+
+        // Then
+        assertTrue(error.getMessage().contains("use pelo menos 24"), error.getMessage());
+    }
+
+    @Test
+    void deveRecusarPoolAcimaDaCotaDaInstancia() {
+        // Given
+        properties.setMaxConnections(10);
+
+        // When & Then
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> guard(false, false).verify());
+        assertTrue(error.getMessage().contains("database.pool.max-connections=10"));
+    }
+
+    @Test
+    void deveExigirTimeoutCurtoSoComVirtualThreads() {
+        // Given
+        dataSource.setConnectionTimeout(30_000);
+
+        // When & Then
+        assertDoesNotThrow(() -> guard(false, false).verify());
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> guard(true, false).verify());
+        assertTrue(error.getMessage().contains("connection-timeout=30000ms"));
+    }
+
+    @Test
+    void deveSoAvisarQuandoNaoForObrigatorio() {
+        // Given
+        properties.setEnforce(false);
+        properties.setMaxConnections(10);
+
+        // When & Then
+        assertDoesNotThrow(() -> guard(true, true).verify());
+    }
+}
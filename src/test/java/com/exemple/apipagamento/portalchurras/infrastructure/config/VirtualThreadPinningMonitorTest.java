@@ -0,0 +1,100 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor pinningMonitor;
+
+    @BeforeEach
+    void setUp() {
+        VirtualThreadProperties properties = new VirtualThreadProperties();
+        properties.setPinningThreshold(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        pinningMonitor = new VirtualThreadPinningMonitor(properties, meterRegistry);
+        pinningMonitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pinningMonitor.stop();
+    }
+
+    private void sleepHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Timer pinned() {
+        return meterRegistry.find("jvm.threads.virtual.pinned").timer();
+    }
+
+    // O JFR entrega os eventos em lotes, cerca de uma vez por segundo
+    private Timer awaitPinned() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pinned() == null && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        return pinned();
+    }
+
+    @Test
+    void deveRegistrarVirtualThreadBloqueadaDentroDeSynchronized() throws Exception {
+        // When
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+
+        // Then
+        Timer timer = awaitPinned();
+        assertNotNull(timer, "nenhum pinning registrado");
+        assertEquals("VirtualThreadPinningMonitorTest.sleepHoldingMonitor", timer.getId().getTag("site"));
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 40);
+    }
+
+    @Test
+    void naoDeveRegistrarBloqueioComReentrantLock() throws Exception {
+        // Given
+        ReentrantLock lock = new ReentrantLock();
+
+        // When - a virtual thread se desmonta da portadora durante a espera
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                sleep(50);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+        // Marcador: um pinning posterior; quando ele chega, qualquer evento anterior já foi entregue
+        Thread.ofVirtual().start(this::sleepHoldingMonitor).join();
+
+        // Then - só o marcador foi registrado
+        assertNotNull(awaitPinned(), "marcador não registrado");
+        assertEquals(1, meterRegistry.find("jvm.threads.virtual.pinned").timers().size());
+        assertEquals("VirtualThreadPinningMonitorTest.sleepHoldingMonitor", pinned().getId().getTag("site"));
+    }
+}
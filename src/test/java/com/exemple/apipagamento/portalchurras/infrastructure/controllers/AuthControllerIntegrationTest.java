@@ -2,6 +2,7 @@ package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
 
 import com.exemple.apipagamento.portalchurras.application.dtos.CreateUserRequest;
 import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.usecases.UserUseCases;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -26,6 +27,9 @@ class AuthControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserUseCases userUseCases;
+
     @Test
     void deveRegistrarNovoUsuarioComSucesso() throws Exception {
         // Given
@@ -145,4 +149,42 @@ class AuthControllerIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());  // 403 é retornado pelo Spring Security quando não há autenticação
     }
+
+    @Test
+    void deveRejeitarTokenDeUsuarioDesativado() throws Exception {
+        // Given - usuário autenticado com sucesso uma vez (situação em cache)
+        CreateUserRequest registerRequest = new CreateUserRequest();
+        String uniqueEmail = "inativo" + System.currentTimeMillis() + "@test.com";
+        registerRequest.setName("Inativo Test");
+        registerRequest.setEmail(uniqueEmail);
+        registerRequest.setPassword("Password123!");
+        registerRequest.setPhone("11999999999");
+        registerRequest.setRole(UserRole.CUSTOMER);
+
+        mockMvc.perform(post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)));
+
+        String loginJson = String.format("{\"email\":\"%s\",\"password\":\"Password123!\"}", uniqueEmail);
+        String response = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(loginJson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String token = objectMapper.readTree(response).get("token").asText();
+        Long userId = objectMapper.readTree(response).get("user").get("id").asLong();
+
+        mockMvc.perform(get("/api/users/me")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // When
+        userUseCases.deactivateUser(userId);
+
+        // Then - o mesmo token deixa de autenticar sem esperar o TTL do cache
+        mockMvc.perform(get("/api/users/me")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+    }
 }
@@ -0,0 +1,158 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaMenuItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JpaMenuItemRepository menuItemRepository;
+
+    private String start;
+    private String end;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        MenuItem menuItem = menuItemRepository.save(new MenuItem("Espetinho de Carne", "Espetinho, com farofa",
+                new BigDecimal("12.50"), MenuCategory.ESPETINHOS, "10 min"));
+
+        Order order = new Order("Convidado Export", "export@test.com", "11988887777",
+                BigDecimal.ZERO, null);
+        order.addItem(menuItem, 2, "sem \"sal\"");
+        order = orderRepository.save(order);
+
+        paymentRepository.save(new Payment(order, PaymentMethod.PIX, order.getTotal()));
+
+        start = LocalDateTime.now().minusDays(1).toString();
+        end = LocalDateTime.now().plusDays(1).toString();
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveExportarPedidosEmCsv() throws Exception {
+        // Given
+        MvcResult result = mockMvc.perform(get("/api/exports/orders")
+                        .param("start", start)
+                        .param("end", end))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When & Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("pedidos.csv")))
+                .andExpect(content().string(containsString("order_id,created_at,updated_at,status,total")))
+                .andExpect(content().string(containsString("PENDING,25.00")))
+                .andExpect(content().string(containsString("Convidado Export,export@test.com,11988887777")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveNeutralizarFormulasNoCsv() throws Exception {
+        // Given
+        orderRepository.save(new Order("-Convidado", "formula@test.com", "11977776666",
+                BigDecimal.ZERO, "=HYPERLINK(\"http://evil.test\",\"clique\")"));
+
+        MvcResult result = mockMvc.perform(get("/api/exports/orders")
+                        .param("start", start)
+                        .param("end", end))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When & Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"'-Convidado\",formula@test.com")))
+                .andExpect(content().string(containsString("\"'=HYPERLINK(\"\"http://evil.test\"\",\"\"clique\"\")")))
+                .andExpect(content().string(not(containsString(",=HYPERLINK("))));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveExportarItensEmNdjsonEscapandoCampos() throws Exception {
+        // Given
+        MvcResult result = mockMvc.perform(get("/api/exports/order-items")
+                        .param("start", start)
+                        .param("end", end)
+                        .param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When & Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"menu_item_name\":\"Espetinho de Carne\"")))
+                .andExpect(content().string(containsString("\"quantity\":2")))
+                .andExpect(content().string(containsString("\"observations\":\"sem \\\"sal\\\"\"")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveFiltrarPagamentosPorStatus() throws Exception {
+        // Given
+        MvcResult result = mockMvc.perform(get("/api/exports/payments")
+                        .param("start", start)
+                        .param("end", end)
+                        .param("status", "APPROVED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When & Then - o pagamento criado está PENDING, então só o cabeçalho é exportado
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("payment_id,order_id")))
+                .andExpect(content().string(not(containsString("PIX"))));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveRetornar400ComFormatoInvalido() throws Exception {
+        mockMvc.perform(get("/api/exports/orders")
+                        .param("start", start)
+                        .param("end", end)
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cliente@test.com", roles = "CUSTOMER")
+    void deveNegarExportacaoParaCliente() throws Exception {
+        mockMvc.perform(get("/api/exports/orders")
+                        .param("start", start)
+                        .param("end", end))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -216,4 +217,76 @@ class MenuItemControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.active").value(false));
     }
+
+    @Test
+    void deveInvalidarCacheDoCardapioAoAlterarItem() throws Exception {
+        // Given - cardápio já em cache antes da criação
+        mockMvc.perform(get("/api/menu-items")).andExpect(status().isOk());
+
+        String name = "Cache Test " + System.currentTimeMillis();
+        MenuItemDTO dto = new MenuItemDTO();
+        dto.setName(name);
+        dto.setDescription("Item para testar o cache");
+        dto.setPrice(new BigDecimal("18.00"));
+        dto.setCategory(MenuCategory.BEBIDAS);
+        dto.setPreparationTime("5 min");
+
+        String createResponse = mockMvc.perform(post("/api/menu-items")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long createdId = objectMapper.readTree(createResponse).get("id").asLong();
+
+        // When & Then - o item novo aparece no cardápio
+        mockMvc.perform(get("/api/menu-items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.menu.bebidas[?(@.name == '" + name + "')]").exists());
+
+        // When & Then - e some depois de desativado
+        mockMvc.perform(patch("/api/menu-items/" + createdId + "/deactivate")
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/menu-items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.menu.bebidas[?(@.name == '" + name + "')]").doesNotExist());
+    }
+
+    @Test
+    void deveResponder304QuandoCardapioNaoMudou() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/api/menu-items"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - mesma versão
+        mockMvc.perform(get("/api/menu-items").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // When & Then - qualquer alteração no cardápio gera outra versão
+        MenuItemDTO dto = new MenuItemDTO();
+        dto.setName("ETag Test " + System.currentTimeMillis());
+        dto.setDescription("Item para testar ETag");
+        dto.setPrice(new BigDecimal("9.00"));
+        dto.setCategory(MenuCategory.BEBIDAS);
+        dto.setPreparationTime("2 min");
+
+        mockMvc.perform(post("/api/menu-items")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/menu-items").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
 }
@@ -5,6 +5,7 @@ import com.exemple.apipagamento.portalchurras.domain.entities.*;
 import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
 import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
 import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaMenuItemRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -96,12 +101,12 @@ class OrderControllerIntegrationTest {
     @Test
     @WithMockUser(username = "admin@test.com", roles = "ADMIN")
     void deveListarTodosPedidos() throws Exception {
-        // When & Then - O endpoint retorna um objeto com 'content' (array), não um array direto
+        // When & Then - O endpoint retorna uma página com 'content' (array) e o cursor da próxima página
         mockMvc.perform(get("/api/orders")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.totalElements").exists());
+                .andExpect(jsonPath("$.hasNext").exists());
     }
 
     @Test
@@ -139,7 +144,8 @@ class OrderControllerIntegrationTest {
         mockMvc.perform(get("/api/orders/customer/" + testCustomer.getEmail())
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content.length()").value(1));
     }
 
     @Test
@@ -156,4 +162,116 @@ class OrderControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("CONFIRMED"));
     }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveAtualizarRollupsDeVendasAoEntregarPedido() throws Exception {
+        // Given - pedido com itens percorrendo o fluxo até a entrega
+        Order order = new Order(testCustomer, new BigDecimal("0.01"), "Teste rollup");
+        order.addItem(testMenuItem, 2, null);
+        order = orderRepository.save(order);
+
+        for (String status : new String[]{"CONFIRMED", "IN_PREPARATION", "READY", "DELIVERED"}) {
+            mockMvc.perform(patch("/api/orders/" + order.getId() + "/status")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"status\": \"" + status + "\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        String start = LocalDateTime.now().minusHours(1).toString();
+        String end = LocalDateTime.now().plusHours(1).toString();
+
+        // When - reconstrução do período a partir dos pedidos
+        mockMvc.perform(post("/api/orders/stats/rollups/rebuild")
+                .param("startDate", start)
+                .param("endDate", end))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.salesBuckets").value(1))
+                .andExpect(jsonPath("$.productBuckets").value(1));
+
+        // Then - relatório lido dos rollups
+        mockMvc.perform(get("/api/orders/stats")
+                .param("startDate", start)
+                .param("endDate", end))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalOrders").value(1))
+                .andExpect(jsonPath("$.totalRevenue").value(50.00))
+                .andExpect(jsonPath("$.topProducts[0].productName").value("Test Burger"))
+                .andExpect(jsonPath("$.topProducts[0].quantity").value(2))
+                .andExpect(jsonPath("$.quantityByCategory.HAMBURGUERES").value(2));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void devePaginarPedidosPorCursorSemRepetirRegistros() throws Exception {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            orderRepository.save(new Order(testCustomer, new BigDecimal("0.01"), "Pedido " + i));
+        }
+
+        // When - percorre as páginas seguindo o nextCursor
+        Set<Long> ids = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/orders").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode page = objectMapper.readTree(body);
+            page.get("content").forEach(order -> assertTrue(ids.add(order.get("id").asLong())));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(5, ids.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveRetornar400ComCursorInvalido() throws Exception {
+        mockMvc.perform(get("/api/orders").param("cursor", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Cursor de paginação inválido"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveResponder304QuandoPedidoNaoMudou() throws Exception {
+        // Given
+        Order order = orderRepository.save(new Order(testCustomer, new BigDecimal("0.01"), "ETag"));
+
+        String etag = mockMvc.perform(get("/api/orders/" + order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - mesma versão
+        mockMvc.perform(get("/api/orders/" + order.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // When & Then - depois de mudar o status a versão muda
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\": \"CONFIRMED\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders/" + order.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveRetornar404ParaPedidoInexistente() throws Exception {
+        mockMvc.perform(get("/api/orders/999999"))
+                .andExpect(status().isNotFound());
+    }
 }
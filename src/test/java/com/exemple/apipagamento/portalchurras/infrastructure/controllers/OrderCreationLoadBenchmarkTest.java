@@ -0,0 +1,230 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.PortalChurrasApplication;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuCategory;
+import com.exemple.apipagamento.portalchurras.domain.entities.MenuItem;
+import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.ports.MenuItemRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga de criação de pedidos (POST /api/orders/with-items) com o Tomcat em threads de plataforma e em
+ * virtual threads. A aplicação sobe uma vez por modo, com o mesmo limite de threads do Tomcat e uma espera
+ * por requisição no lugar da latência de rede do Postgres/Mercado Pago; mede vazão, p50/p99 e pinning.
+ * Fora do build padrão:
+ * mvn test -Pbenchmark -Dtest=OrderCreationLoadBenchmarkTest
+ * Ajustes: -Dload.clients=200 -Dload.duration=PT10S -Dload.io-wait=PT0.05S -Dload.tomcat-threads=50
+ * e, contra um Postgres de verdade, -Dload.db-url=jdbc:postgresql://... -Dload.db-user=... -Dload.db-password=...
+ */
+@Tag("benchmark")
+class OrderCreationLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final int TOMCAT_THREADS = Integer.getInteger("load.tomcat-threads", 50);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT3S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT10S"));
+    private static final Duration IO_WAIT = Duration.parse(System.getProperty("load.io-wait", "PT0.05S"));
+    private static final String DB_URL = System.getProperty("load.db-url");
+
+    @Test
+    void deveCompararVazaoEP99ComESemVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%d clientes, %d threads no Tomcat, espera de E/S de %d ms, %s%n", CLIENTS,
+                TOMCAT_THREADS, IO_WAIT.toMillis(), DB_URL != null ? DB_URL : "H2 em memória");
+        System.out.printf("%-10s %10s %10s %10s %8s %8s%n", "modo", "pedidos/s", "p50_ms", "p99_ms", "erros", "pinning");
+        print("plataforma", platform);
+        print("virtual", virtual);
+
+        // Sem comparação fixa entre os modos: numa máquina com CPU saturada os dois empatam. Com CPU sobrando e
+        // mais clientes que threads no Tomcat, o modo virtual atende todos durante a espera de E/S. Os poucos
+        // erros tolerados são requisições recusadas pelo connection-timeout curto do pool, de propósito
+        assertTrue(platform.errors() * 100 <= platform.requests(), "erros: " + platform.errors());
+        assertTrue(virtual.errors() * 100 <= virtual.requests(), "erros: " + virtual.errors());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "spring.datasource.hikari.connection-timeout=3000",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "logging.level.com.exemple.apipagamento.portalchurras=WARN",
+                "virtual-threads.pinning-monitor-enabled=true",
+                "virtual-threads.pinning-threshold=PT0.01S"));
+        if (DB_URL != null) {
+            properties.add("spring.datasource.url=" + DB_URL);
+            properties.add("spring.datasource.driverClassName=org.postgresql.Driver");
+            properties.add("spring.datasource.username=" + System.getProperty("load.db-user", "postgres"));
+            properties.add("spring.datasource.password=" + System.getProperty("load.db-password", ""));
+            properties.add("spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect");
+        } else {
+            properties.add("spring.datasource.url=jdbc:h2:mem:load-" + (virtualThreads ? "virtual" : "platform"));
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PortalChurrasApplication.class)
+                .profiles("test")
+                .properties(properties.toArray(String[]::new))
+                .initializers(applicationContext -> {
+                    applicationContext.getBeanFactory().registerSingleton("excludeTestConfigurations",
+                            new ExcludeTestConfigurations());
+                    applicationContext.getBeanFactory().registerSingleton("ioWaitFilter", ioWaitFilter());
+                })
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            MenuItem menuItem = context.getBean(MenuItemRepository.class).save(new MenuItem("Carga", "Item de carga",
+                    new BigDecimal("12.00"), MenuCategory.ESPETINHOS, "10 min"));
+            User customer = context.getBean(UserRepository.class).save(
+                    new User("Carga", "carga@test.com", "password123", UserRole.CUSTOMER));
+            String token = context.getBean(JwtUtil.class).generateTokenWithClaims(customer.getEmail(),
+                    customer.getRole().name(), customer.getId());
+            String body = "{\"customerName\":\"Carga\",\"customerEmail\":\"carga@test.com\",\"items\":"
+                    + "[{\"menuItemId\":" + menuItem.getId() + ",\"quantity\":2}]}";
+
+            Result result = drive(URI.create("http://localhost:" + port + "/api/orders/with-items"), token, body);
+            // O JFR entrega os eventos de pinning em lotes
+            Thread.sleep(1_500);
+            long pinned = context.getBean(MeterRegistry.class).find("jvm.threads.virtual.pinned").timers().stream()
+                    .mapToLong(Timer::count).sum();
+            return new Result(result.requests(), result.throughput(), result.p50Millis(), result.p99Millis(),
+                    result.errors(), pinned);
+        }
+    }
+
+    // Cada cliente é uma virtual thread que envia um pedido atrás do outro
+    private Result drive(URI uri, String token, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long end = measureFrom + DURATION.toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<long[]> latencies;
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    long[] samples = new long[1_024];
+                    int count = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - now;
+                        if (now < measureFrom) {
+                            continue;
+                        }
+                        if (response.statusCode() != 201) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = elapsed;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            latencies = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        assertTrue(all.length > 0, "nenhuma requisição concluída na janela de medição");
+        double throughput = all.length / (DURATION.toNanos() / 1e9);
+        return new Result(all.length, throughput, percentile(all, 50), percentile(all, 99), errors.get(), 0);
+    }
+
+    // Espera dentro da thread da requisição, como numa chamada de rede bloqueante
+    private static FilterRegistrationBean<Filter> ioWaitFilter() {
+        Filter filter = (request, response, chain) -> {
+            try {
+                Thread.sleep(IO_WAIT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chain.doFilter(request, response);
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/orders/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private void print(String mode, Result result) {
+        System.out.printf("%-10s %10.0f %10.1f %10.1f %8d %8d%n", mode, result.throughput(), result.p50Millis(),
+                result.p99Millis(), result.errors(), result.pinned());
+    }
+
+    private record Result(long requests, double throughput, double p50Millis, double p99Millis, long errors,
+                          long pinned) {
+    }
+
+    // Fora do @SpringBootTest ninguém filtra as configurações aninhadas nas classes de teste
+    private static class ExcludeTestConfigurations extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            String enclosing = metadataReader.getClassMetadata().getEnclosingClassName();
+            return enclosing != null && enclosing.endsWith("Test");
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj != null && getClass() == obj.getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+}
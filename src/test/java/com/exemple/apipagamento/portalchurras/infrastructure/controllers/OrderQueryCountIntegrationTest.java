@@ -0,0 +1,231 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.application.services.ReportService;
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaMenuItemRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Garante que as listagens de pedidos carregam itens, produtos, pagamento e cliente
+ * em um número fixo de consultas, independente da quantidade de pedidos na página,
+ * e que a criação de pedido com itens não faz uma consulta por item do carrinho.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderQueryCountIntegrationTest {
+
+    private static final int ORDERS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JpaMenuItemRepository menuItemRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<MenuItem> menuItems = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        User customer = userRepository.findByEmail("querycount@test.com")
+                .orElseGet(() -> userRepository.save(
+                        new User("Query Count", "querycount@test.com", "password", UserRole.CUSTOMER)));
+
+        for (int i = 0; i < ORDERS; i++) {
+            MenuItem burger = menuItemRepository.save(new MenuItem("Burger " + i, "Hambúrguer",
+                    new BigDecimal("20.00"), MenuCategory.HAMBURGUERES, "15 min"));
+            MenuItem drink = menuItemRepository.save(new MenuItem("Suco " + i, "Suco natural",
+                    new BigDecimal("8.00"), MenuCategory.BEBIDAS, "2 min"));
+            menuItems.add(burger);
+            menuItems.add(drink);
+
+            Order order = new Order(customer, BigDecimal.ZERO, null);
+            order.addItem(burger, 1, null);
+            order.addItem(drink, 2, null);
+            order = orderRepository.save(order);
+            paymentRepository.save(new Payment(order, PaymentMethod.PIX, order.getTotal()));
+        }
+
+        reportService.evictDashboardMetrics();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveListarPaginaDePedidosComNumeroFixoDeConsultas() throws Exception {
+        // When
+        mockMvc.perform(get("/api/orders").param("size", String.valueOf(ORDERS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ORDERS))
+                .andExpect(jsonPath("$.content[0].items.length()").value(2))
+                .andExpect(jsonPath("$.content[0].items[0].menuItemName").exists())
+                .andExpect(jsonPath("$.content[0].payment.method").value("PIX"))
+                .andExpect(jsonPath("$.content[0].customerEmail").value("querycount@test.com"));
+
+        // Then - ids da página + grafo dos pedidos
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveListarPedidosDoClienteComNumeroFixoDeConsultas() throws Exception {
+        // When
+        mockMvc.perform(get("/api/orders/customer/querycount@test.com").param("size", String.valueOf(ORDERS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ORDERS));
+
+        // Then - usuário + ids da página + grafo dos pedidos
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveListarPedidosAtivosEmUmaConsulta() throws Exception {
+        // When
+        mockMvc.perform(get("/api/orders/active"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ORDERS))
+                .andExpect(jsonPath("$[0].payment").exists());
+
+        // Then
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveCalcularMetricasDoDashboardEmUmaConsulta() throws Exception {
+        // When
+        mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.todayOrders").value(ORDERS))
+                .andExpect(jsonPath("$.todayRevenue").value(432.00))
+                .andExpect(jsonPath("$.activeOrders").value(ORDERS))
+                .andExpect(jsonPath("$.pendingOrders").value(ORDERS))
+                .andExpect(jsonPath("$.preparingOrders").value(0))
+                .andExpect(jsonPath("$.approvedPaymentsToday").value(0))
+                .andExpect(jsonPath("$.averageTicket").value(36.00));
+        mockMvc.perform(get("/api/orders/stats"))
+                .andExpect(status().isOk());
+
+        // Then - a segunda chamada é servida pelo cache
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @WithMockUser(username = "cliente@test.com", roles = "CUSTOMER")
+    void deveCriarPedidoComItensSemConsultaPorItem() throws Exception {
+        // Given
+        MenuItem burger = menuItems.get(0);
+        MenuItem drink = menuItems.get(1);
+        MenuItem otherBurger = menuItems.get(2);
+        String body = """
+                {"customerName": "Convidado", "notes": "Mesa 4", "items": [
+                  {"menuItemId": %d, "quantity": 2},
+                  {"menuItemId": %d, "quantity": 3, "observations": "Sem gelo"},
+                  {"menuItemId": %d, "quantity": 1}
+                ]}
+                """.formatted(burger.getId(), drink.getId(), otherBurger.getId());
+
+        // When
+        mockMvc.perform(post("/api/orders/with-items").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").exists())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.total").value(84.00))
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].menuItemName").exists());
+
+        // Then - produtos do carrinho, INSERT do pedido e um único lote com os itens,
+        // mais no máximo uma reserva de bloco de ids por sequência
+        assertEquals(4, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 5);
+        assertEquals(ORDERS + 1, orderRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "cliente@test.com", roles = "CUSTOMER")
+    void naoDeveCriarPedidoComItemDesconhecido() throws Exception {
+        // Given
+        MenuItem burger = menuItems.get(0);
+        String body = """
+                {"customerName": "Convidado", "items": [
+                  {"menuItemId": %d, "quantity": 1},
+                  {"menuItemId": 999999, "quantity": 1}
+                ]}
+                """.formatted(burger.getId());
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/with-items").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Item do menu não encontrado: 999999"));
+        assertEquals(ORDERS, orderRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "cliente@test.com", roles = "CUSTOMER")
+    void deveRetornar400ComCorpoInvalidoSemConsultarCardapio() throws Exception {
+        // Given - quantidade acima do limite do item
+        String body = """
+                {"customerName": "Convidado", "items": [{"menuItemId": %d, "quantity": 101}]}
+                """.formatted(menuItems.get(0).getId());
+
+        // When & Then
+        mockMvc.perform(post("/api/orders/with-items").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Quantidade não pode exceder 100"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(ORDERS, orderRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "cliente@test.com", roles = "CUSTOMER")
+    void deveRetornar400ComCarrinhoVazio() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/orders/with-items").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\": \"Convidado\", \"items\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("O pedido deve ter ao menos um item"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.QrCodeStore;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaQrCodeImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentControllerIntegrationTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private QrCodeStore qrCodeStore;
+
+    @Autowired
+    private JpaQrCodeImageRepository qrCodeImageRepository;
+
+    private Payment payment;
+    private String hash;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        qrCodeImageRepository.deleteAll();
+
+        Order order = orderRepository.save(new Order("Convidado PIX", "pix@test.com", "11977776666",
+                new BigDecimal("40.00"), null));
+        hash = qrCodeStore.save(PNG);
+        payment = new Payment(order, PaymentMethod.PIX, new BigDecimal("40.00"));
+        payment.markAsProcessing("MP-QR-1", null);
+        payment.setPixData("00020126pix", hash, null);
+        payment = paymentRepository.save(payment);
+    }
+
+    @Test
+    void deveGravarMesmaImagemUmaVezSo() {
+        // When
+        String again = qrCodeStore.save(PNG.clone());
+
+        // Then
+        assertEquals(hash, again);
+        assertEquals(64, hash.length());
+        assertEquals(1, qrCodeImageRepository.count());
+    }
+
+    @Test
+    void deveServirQrCodeSemAutenticacaoComCacheLongo() throws Exception {
+        mockMvc.perform(get("/api/payments/qr/{hash}.png", hash))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(PNG))
+                .andExpect(header().string("ETag", "\"" + hash + "\""))
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+    }
+
+    @Test
+    void deveResponderNaoModificadoQuandoEtagConfere() throws Exception {
+        mockMvc.perform(get("/api/payments/qr/{hash}.png", hash)
+                        .header("If-None-Match", "\"" + hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void deveResponderNaoModificadoParaEtagFracoOuListaDeEtags() throws Exception {
+        mockMvc.perform(get("/api/payments/qr/{hash}.png", hash)
+                        .header("If-None-Match", "W/\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/payments/qr/{hash}.png", hash)
+                        .header("If-None-Match", "\"outra\", \"" + hash + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void deveResponderNaoEncontradoParaHashDesconhecido() throws Exception {
+        mockMvc.perform(get("/api/payments/qr/{hash}.png", "0".repeat(64)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void naoDeveServirQrCodePeloIdSequencialDoPagamento() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}/qr.png", payment.getId()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+    void deveLevarSoEnderecoDaImagemNoPagamento() throws Exception {
+        mockMvc.perform(get("/api/payments/{id}", payment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.qrCodeUrl").value("/api/payments/qr/" + hash + ".png"))
+                .andExpect(jsonPath("$.qrCode").value("00020126pix"))
+                .andExpect(jsonPath("$.qrCodeBase64").doesNotExist());
+    }
+}
@@ -0,0 +1,203 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.controllers;
+
+import com.exemple.apipagamento.portalchurras.application.services.WebhookInboxWorker;
+import com.exemple.apipagamento.portalchurras.domain.entities.*;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGateway;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentRepository;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentWebhookResponse;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.JpaMenuItemRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.repositories.WebhookInboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WebhookControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JpaMenuItemRepository menuItemRepository;
+
+    @Autowired
+    private WebhookInboxRepository inboxRepository;
+
+    @Autowired
+    private WebhookInboxWorker inboxWorker;
+
+    @MockitoBean
+    private PaymentGateway paymentGateway;
+
+    private String externalPaymentId;
+    private Long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        inboxRepository.deleteAll();
+
+        MenuItem menuItem = menuItemRepository.save(new MenuItem("Espetinho de Frango", "Frango marinado",
+                new BigDecimal("10.00"), MenuCategory.ESPETINHOS, "10 min"));
+
+        Order order = new Order("Convidado Webhook", "webhook@test.com", "11977776666",
+                BigDecimal.ZERO, null);
+        order.addItem(menuItem, 1, null);
+        order = orderRepository.save(order);
+
+        externalPaymentId = UUID.randomUUID().toString();
+        Payment payment = new Payment(order, PaymentMethod.PIX, order.getTotal());
+        payment.markAsProcessing(externalPaymentId, null);
+        paymentId = paymentRepository.save(payment).getId();
+    }
+
+    @Test
+    void deveGravarWebhookSemConsultarProvedorNaRequisicao() throws Exception {
+        // When
+        postWebhook("9001", "payment.updated");
+
+        // Then
+        assertEquals(1, inboxRepository.count());
+        verifyNoInteractions(paymentGateway);
+        assertEquals(PaymentStatus.PROCESSING, paymentRepository.findById(paymentId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void deveDeduplicarReenviosDoMesmoEvento() throws Exception {
+        // When
+        postWebhook("9001", "payment.updated");
+        postWebhook("9001", "payment.updated");
+
+        // Then
+        assertEquals(1, inboxRepository.count());
+    }
+
+    @Test
+    void deveAplicarStatusUmaVezParaEventosDoMesmoPagamento() throws Exception {
+        // Given - duas notificações diferentes para o mesmo pagamento
+        when(paymentGateway.processWebhook(anyMap()))
+                .thenReturn(new PaymentWebhookResponse(true, externalPaymentId, "approved"));
+        postWebhook("9001", "payment.created");
+        postWebhook("9002", "payment.updated");
+
+        // When
+        drain();
+
+        // Then - a consulta feita para o primeiro evento já cobre o segundo
+        verify(paymentGateway, times(1)).processWebhook(anyMap());
+        assertEquals(PaymentStatus.APPROVED, paymentRepository.findById(paymentId).orElseThrow().getStatus());
+        assertTrue(inboxRepository.findAll().stream()
+                .allMatch(event -> event.getStatus() == WebhookInboxStatus.PROCESSED));
+    }
+
+    @Test
+    void deveReagendarQuandoProvedorFalha() throws Exception {
+        // Given
+        when(paymentGateway.processWebhook(anyMap()))
+                .thenReturn(new PaymentWebhookResponse(false, externalPaymentId, null));
+        postWebhook("9001", "payment.updated");
+
+        // When
+        drain();
+
+        // Then - fica pendente com backoff, então uma nova varredura não o pega de imediato
+        WebhookInboxEvent event = inboxRepository.findAll().get(0);
+        assertEquals(WebhookInboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertNotNull(event.getLastError());
+        assertTrue(inboxWorker.dispatch().isEmpty());
+        assertEquals(PaymentStatus.PROCESSING, paymentRepository.findById(paymentId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void deveMoverParaDeadEventoPresoQueEsgotouAsTentativas() throws Exception {
+        // Given - evento que travou o worker em todas as tentativas e ficou em PROCESSING
+        postWebhook("9001", "payment.updated");
+        WebhookInboxEvent event = inboxRepository.findAll().get(0);
+        ReflectionTestUtils.setField(event, "status", WebhookInboxStatus.PROCESSING);
+        ReflectionTestUtils.setField(event, "attempts", 8);
+        ReflectionTestUtils.setField(event, "lockedAt", LocalDateTime.now().minusHours(1));
+        inboxRepository.save(event);
+
+        // When
+        drain();
+
+        // Then - não volta para a fila nem é reprocessado
+        WebhookInboxEvent dead = inboxRepository.findById(event.getId()).orElseThrow();
+        assertEquals(WebhookInboxStatus.DEAD, dead.getStatus());
+        assertNull(dead.getLockedAt());
+        assertNotNull(dead.getLastError());
+        verifyNoInteractions(paymentGateway);
+    }
+
+    @Test
+    void deveDevolverAFilaEventoPresoComTentativasRestantes() throws Exception {
+        // Given
+        when(paymentGateway.processWebhook(anyMap()))
+                .thenReturn(new PaymentWebhookResponse(true, externalPaymentId, "approved"));
+        postWebhook("9001", "payment.updated");
+        WebhookInboxEvent event = inboxRepository.findAll().get(0);
+        ReflectionTestUtils.setField(event, "status", WebhookInboxStatus.PROCESSING);
+        ReflectionTestUtils.setField(event, "attempts", 2);
+        ReflectionTestUtils.setField(event, "lockedAt", LocalDateTime.now().minusHours(1));
+        inboxRepository.save(event);
+
+        // When - volta para a fila e é reservado de novo na mesma varredura ou na seguinte
+        drain();
+        drain();
+
+        // Then - processado numa nova tentativa, sem ir para DEAD
+        WebhookInboxEvent processed = inboxRepository.findById(event.getId()).orElseThrow();
+        assertEquals(WebhookInboxStatus.PROCESSED, processed.getStatus());
+        assertEquals(3, processed.getAttempts());
+        assertEquals(PaymentStatus.APPROVED, paymentRepository.findById(paymentId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void deveRetornar400QuandoWebhookNaoTemIdDoPagamento() throws Exception {
+        mockMvc.perform(post("/api/webhooks/mercadopago")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": 1, \"type\": \"payment\", \"data\": {}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void postWebhook(String eventId, String action) throws Exception {
+        mockMvc.perform(post("/api/webhooks/mercadopago")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": " + eventId + ", \"type\": \"payment\", \"action\": \"" + action +
+                                "\", \"data\": {\"id\": \"" + externalPaymentId + "\"}}"))
+                .andExpect(status().isOk());
+    }
+
+    private void drain() {
+        List<CompletableFuture<Void>> futures = inboxWorker.dispatch();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+}
@@ -0,0 +1,136 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.config.MercadoPagoProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayCircuitBreakerTest {
+
+    private MutableClock clock;
+    private GatewayCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        MercadoPagoProperties.Resilience config = new MercadoPagoProperties.Resilience();
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDuration(Duration.ofSeconds(30));
+        config.setHalfOpenCalls(2);
+        clock = new MutableClock(Instant.parse("2026-01-10T12:00:00Z"));
+        circuitBreaker = new GatewayCircuitBreaker(config, clock);
+    }
+
+    private void call(boolean failure) {
+        assertTrue(circuitBreaker.tryAcquire());
+        if (failure) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    @Test
+    void deveAbrirSoDepoisDoMinimoDeChamadasEComTaxaNoLimite() {
+        // When - três falhas ainda não bastam: mínimo de 4 chamadas
+        call(true);
+        call(true);
+        call(true);
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        call(false);
+
+        // Then - 3 de 4 falharam (75% >= 50%)
+        assertEquals(GatewayCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void deveConsiderarSoAsUltimasChamadasDaJanela() {
+        // Given - uma falha antiga seguida de sucessos
+        call(true);
+        call(false);
+        call(false);
+        call(false);
+
+        // When - a falha sai da janela e entra outra: 1 de 4 (25%)
+        call(true);
+
+        // Then
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void deveLiberarChamadasDeTesteDepoisDoTempoAbertoEFecharComSucesso() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        // When - só duas chamadas de teste passam
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(GatewayCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+
+        // Then
+        assertEquals(GatewayCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void deveReabrirNaPrimeiraFalhaDaChamadaDeTeste() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        // When
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+
+        // Then - aberto de novo por mais 30s
+        assertEquals(GatewayCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        clock.advance(Duration.ofSeconds(10));
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
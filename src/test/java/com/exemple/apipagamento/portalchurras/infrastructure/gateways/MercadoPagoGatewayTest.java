@@ -0,0 +1,260 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGatewayRequest;
+import com.exemple.apipagamento.portalchurras.domain.ports.PaymentGatewayResponse;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.HttpClientProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.MercadoPagoProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RestTemplateConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gateway com o cliente HTTP de produção (pool, timeouts, circuit breaker e bulkhead) contra um
+ * servidor local que simula o Mercado Pago, com latência e falhas controladas pelo teste.
+ */
+class MercadoPagoGatewayTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private PrometheusMeterRegistry meterRegistry;
+    private MercadoPagoGateway gateway;
+
+    // Comportamento atual do servidor simulado
+    private volatile int responseStatus = 200;
+    private volatile long responseDelayMillis = 0;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/payments", this::handle);
+        server.start();
+
+        HttpClientProperties httpProperties = new HttpClientProperties();
+        httpProperties.setResponseTimeout(Duration.ofSeconds(1));
+
+        MercadoPagoProperties properties = new MercadoPagoProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setAccessToken("TEST-token");
+        MercadoPagoProperties.Resilience resilience = properties.getResilience();
+        resilience.setSlidingWindowSize(4);
+        resilience.setMinimumCalls(4);
+        resilience.setFailureRateThreshold(50);
+        resilience.setOpenDuration(Duration.ofMillis(300));
+        resilience.setHalfOpenCalls(1);
+        resilience.setMaxConcurrentCalls(2);
+
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        RestTemplateConfig config = new RestTemplateConfig();
+        httpClient = config.httpClient(httpProperties, meterRegistry);
+        gateway = new MercadoPagoGateway(config.restTemplate(httpClient), properties, meterRegistry, true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        hits.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try {
+            if (responseDelayMillis > 0) {
+                Thread.sleep(responseDelayMillis);
+            }
+            byte[] body = "{\"id\":123,\"status\":\"approved\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException | IOException e) {
+            // Cliente desistiu por timeout
+            exchange.close();
+        }
+    }
+
+    private double circuitState(String operation) {
+        return meterRegistry.get("payment.gateway.circuit.state").tag("operation", operation).gauge().value();
+    }
+
+    private PaymentGatewayRequest pixRequest() {
+        PaymentGatewayRequest request = new PaymentGatewayRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        return request;
+    }
+
+    @Test
+    void deveReaproveitarConexaoDoPoolEMedirLatenciaPorOperacao() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertTrue(gateway.getPaymentStatus("123").isSuccess());
+        }
+
+        // Then - uma única conexão TCP para as três chamadas
+        assertEquals(3, hits.get());
+        assertEquals(1, clientPorts.size());
+        Timer timer = meterRegistry.get("payment.gateway.requests")
+                .tag("operation", "status").tag("outcome", "success").timer();
+        assertEquals(3, timer.count());
+        assertTrue(meterRegistry.scrape().contains(
+                "payment_gateway_requests_seconds_bucket{operation=\"status\",outcome=\"success\""));
+        assertEquals(50.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+    }
+
+    @Test
+    void deveAbrirCircuitoComFalhasDoProvedorSemAfetarOutrasOperacoes() {
+        // Given - provedor devolvendo 500
+        responseStatus = 500;
+        for (int i = 0; i < 4; i++) {
+            assertFalse(gateway.getPaymentStatus("123").isSuccess());
+        }
+
+        // When - próxima consulta é recusada sem chegar ao servidor
+        PaymentGatewayResponse rejected = gateway.getPaymentStatus("123");
+
+        // Then
+        assertFalse(rejected.isSuccess());
+        assertTrue(rejected.getErrorMessage().contains("circuito aberto"));
+        assertEquals(4, hits.get());
+        assertEquals(GatewayCircuitBreaker.State.OPEN.ordinal(), circuitState("status"));
+        assertEquals(1.0, meterRegistry.get("payment.gateway.rejected")
+                .tag("operation", "status").tag("reason", "circuit_open").counter().count());
+
+        // Then - o PIX tem circuito próprio e continua passando
+        responseStatus = 201;
+        assertTrue(gateway.createPixPayment(pixRequest()).isSuccess());
+        assertEquals(GatewayCircuitBreaker.State.CLOSED.ordinal(), circuitState("pix"));
+    }
+
+    @Test
+    void deveFecharCircuitoQuandoChamadaDeTesteDaCerto() throws Exception {
+        // Given
+        responseStatus = 503;
+        for (int i = 0; i < 4; i++) {
+            gateway.getPaymentStatus("123");
+        }
+        assertEquals(GatewayCircuitBreaker.State.OPEN.ordinal(), circuitState("status"));
+
+        // When - provedor volta e o tempo de circuito aberto passa
+        responseStatus = 200;
+        Thread.sleep(350);
+
+        // Then
+        assertTrue(gateway.getPaymentStatus("123").isSuccess());
+        assertEquals(GatewayCircuitBreaker.State.CLOSED.ordinal(), circuitState("status"));
+    }
+
+    @Test
+    void naoDeveAbrirCircuitoComErrosDaRequisicao() {
+        // Given - 404 é erro do pedido, não indisponibilidade do provedor
+        responseStatus = 404;
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            assertFalse(gateway.getPaymentStatus("999").isSuccess());
+        }
+
+        // Then
+        assertEquals(6, hits.get());
+        assertEquals(GatewayCircuitBreaker.State.CLOSED.ordinal(), circuitState("status"));
+        assertEquals(6, meterRegistry.get("payment.gateway.requests")
+                .tag("operation", "status").tag("outcome", "client_error").timer().count());
+    }
+
+    @Test
+    void deveDesistirNoTimeoutDeRespostaEContarComoFalha() {
+        // Given - provedor leva 3s, o timeout de resposta é 1s
+        responseDelayMillis = 3_000;
+
+        // When
+        long start = System.nanoTime();
+        PaymentGatewayResponse response = gateway.getPaymentStatus("123");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertFalse(response.isSuccess());
+        assertTrue(elapsedMillis < 2_500, "levou " + elapsedMillis + "ms");
+        assertEquals(1, meterRegistry.get("payment.gateway.requests")
+                .tag("operation", "status").tag("outcome", "io_error").timer().count());
+    }
+
+    @Test
+    void deveRecusarNaHoraChamadasAcimaDoBulkhead() throws Exception {
+        // Given - respostas lentas e no máximo 2 chamadas simultâneas por operação
+        responseDelayMillis = 300;
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<PaymentGatewayResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return gateway.getPaymentStatus("123");
+            }));
+        }
+        start.countDown();
+        List<PaymentGatewayResponse> responses = new ArrayList<>();
+        for (Future<PaymentGatewayResponse> future : futures) {
+            responses.add(future.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+
+        // Then
+        assertEquals(2, responses.stream().filter(PaymentGatewayResponse::isSuccess).count());
+        assertTrue(responses.stream().filter(r -> !r.isSuccess())
+                .allMatch(r -> r.getErrorMessage().contains("simultâneas")));
+        assertEquals(2, hits.get());
+        assertEquals(2.0, meterRegistry.get("payment.gateway.rejected")
+                .tag("operation", "status").tag("reason", "bulkhead_full").counter().count());
+    }
+
+    @Test
+    void deveConsultarEmParaleloPorVirtualThreadsRespeitandoOBulkhead() {
+        // Given - respostas lentas; o bulkhead deixa 2 chamadas de status por vez
+        responseDelayMillis = 200;
+
+        // When
+        long start = System.nanoTime();
+        CompletableFuture<PaymentGatewayResponse> first = gateway.getPaymentStatusAsync("1");
+        CompletableFuture<PaymentGatewayResponse> second = gateway.getPaymentStatusAsync("2");
+        PaymentGatewayResponse a = first.join();
+        PaymentGatewayResponse b = second.join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then - as duas respostas chegam juntas, não em sequência
+        assertTrue(a.isSuccess());
+        assertTrue(b.isSuccess());
+        assertTrue(elapsedMillis < 390, "levou " + elapsedMillis + "ms");
+        assertEquals(2, hits.get());
+    }
+}
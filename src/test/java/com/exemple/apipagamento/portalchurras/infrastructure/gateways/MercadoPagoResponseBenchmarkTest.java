@@ -0,0 +1,109 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Memória alocada e tempo por resposta de criação de PIX: leitura em Map + reserialização da resposta
+ * inteira (como era) contra leitura em stream para o record + resumo. Fora do build padrão:
+ * mvn test -Pbenchmark -Dtest=MercadoPagoResponseBenchmarkTest
+ */
+@Tag("benchmark")
+class MercadoPagoResponseBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 20_000;
+    private static final int RUNS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MercadoPagoResponseParser parser = new MercadoPagoResponseParser();
+
+    // Consome os campos lidos para a JIT não eliminar o trabalho
+    private long blackhole;
+
+    @Test
+    void deveAlocarMenosPorPixLendoEmStream() throws IOException {
+        byte[] body;
+        try (InputStream in = MercadoPagoResponseParserTest.pixPaymentJson()) {
+            body = in.readAllBytes();
+        }
+
+        System.out.printf("%nresposta PIX: %d bytes%n", body.length);
+        System.out.printf("%-8s %14s %12s %16s%n", "leitura", "bytes_por_pix", "us_por_pix", "bytes_guardados");
+        Result map = measure(body, this::viaMap);
+        Result stream = measure(body, this::viaStream);
+        print("map", map);
+        print("stream", stream);
+
+        assertTrue(stream.storedBytes * 10 < map.storedBytes);
+        assertTrue(stream.allocatedPerCall < map.allocatedPerCall);
+    }
+
+    // Como era: Map genérico, casts nos objetos aninhados e a resposta inteira reserializada
+    @SuppressWarnings("unchecked")
+    private String viaMap(byte[] body) {
+        try {
+            Map<String, Object> response = objectMapper.readValue(new ByteArrayInputStream(body), Map.class);
+            Map<String, Object> poi = (Map<String, Object>) response.get("point_of_interaction");
+            Map<String, Object> data = (Map<String, Object>) poi.get("transaction_data");
+            String qrCode = (String) data.get("qr_code");
+            String qrCodeBase64 = (String) data.get("qr_code_base64");
+            blackhole += qrCode.length() + qrCodeBase64.length();
+            return objectMapper.writeValueAsString(response);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String viaStream(byte[] body) {
+        MercadoPagoPayment payment = parser.readPayment(new ByteArrayInputStream(body));
+        blackhole += payment.qrCode().length() + payment.qrCodeBase64().length();
+        return parser.summarize(payment);
+    }
+
+    private Result measure(byte[] body, Function<byte[], String> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; i++) {
+            blackhole += call.apply(body).length();
+        }
+
+        long[] allocated = new long[RUNS];
+        long[] elapsed = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                blackhole += call.apply(body).length();
+            }
+            elapsed[run] = System.nanoTime() - start;
+            allocated[run] = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        }
+        assertTrue(blackhole > 0);
+        Arrays.sort(allocated);
+        Arrays.sort(elapsed);
+
+        int stored = call.apply(body).getBytes(StandardCharsets.UTF_8).length;
+        return new Result(allocated[RUNS / 2] / ITERATIONS, elapsed[RUNS / 2] / 1_000.0 / ITERATIONS, stored);
+    }
+
+    private void print(String name, Result result) {
+        System.out.printf("%-8s %14d %12.2f %16d%n", name, result.allocatedPerCall, result.microsPerCall,
+                result.storedBytes);
+    }
+
+    private record Result(long allocatedPerCall, double microsPerCall, int storedBytes) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.gateways;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MercadoPagoResponseParserTest {
+
+    private final MercadoPagoResponseParser parser = new MercadoPagoResponseParser();
+
+    static InputStream pixPaymentJson() {
+        return MercadoPagoResponseParserTest.class.getResourceAsStream("/mercadopago/pix-payment.json");
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deveLerCamposDoPixEPularORestoDaResposta() {
+        // When
+        MercadoPagoPayment payment = parser.readPayment(pixPaymentJson());
+
+        // Then
+        assertEquals("1325698374", payment.id());
+        assertEquals("pending", payment.status());
+        assertEquals("pending_waiting_transfer", payment.statusDetail());
+        assertEquals("42", payment.externalReference());
+        assertEquals(0, new BigDecimal("125.50").compareTo(payment.transactionAmount()));
+        assertEquals("2026-01-11T12:00:00.000-04:00", payment.dateOfExpiration());
+        assertTrue(payment.qrCode().startsWith("00020126580014br.gov.bcb.pix"));
+        assertTrue(payment.qrCodeBase64().length() > 6_000);
+        assertEquals("https://www.mercadopago.com.br/payments/1325698374/ticket", payment.ticketUrl());
+    }
+
+    @Test
+    void deveIgnorarValoresNulosOuComTipoInesperado() {
+        // Given - status como objeto, QR Code nulo e id textual
+        String body = "{\"id\":\"abc\",\"status\":{\"code\":\"x\"},\"extra\":[1,{\"a\":[]}],"
+                + "\"point_of_interaction\":{\"transaction_data\":{\"qr_code\":null}},"
+                + "\"transaction_details\":null,\"external_reference\":\"7\"}";
+
+        // When
+        MercadoPagoPayment payment = parser.readPayment(json(body));
+
+        // Then - o que vem depois dos valores inesperados continua sendo lido
+        assertEquals("abc", payment.id());
+        assertNull(payment.status());
+        assertNull(payment.qrCode());
+        assertNull(payment.ticketUrl());
+        assertEquals("7", payment.externalReference());
+    }
+
+    @Test
+    void deveRetornarNuloParaCorpoVazio() {
+        assertNull(parser.readPayment(json("")));
+        assertNull(parser.readPreference(json("")));
+    }
+
+    @Test
+    void deveFalharComJsonInvalido() {
+        assertThrows(UncheckedIOException.class, () -> parser.readPayment(json("{\"id\":")));
+    }
+
+    @Test
+    void deveResumirPagamentoSemOQrCode() throws IOException {
+        // Given
+        MercadoPagoPayment payment = parser.readPayment(pixPaymentJson());
+
+        // When
+        String summary = parser.summarize(payment);
+
+        // Then
+        JsonNode node = new ObjectMapper().readTree(summary);
+        assertEquals("1325698374", node.get("id").asText());
+        assertEquals("pending", node.get("status").asText());
+        assertEquals(125.50, node.get("transaction_amount").asDouble());
+        assertFalse(node.has("qr_code"));
+        assertFalse(node.has("qr_code_base64"));
+        assertTrue(summary.length() < 400);
+    }
+
+    @Test
+    void deveLerPreferencia() {
+        // Given
+        String body = "{\"id\":\"123-abc\",\"items\":[{\"title\":\"Picanha\"}],\"collector_id\":1,"
+                + "\"init_point\":\"https://www.mercadopago.com.br/checkout/v1/redirect?pref_id=123-abc\","
+                + "\"external_reference\":\"42\"}";
+
+        // When
+        MercadoPagoPreference preference = parser.readPreference(json(body));
+
+        // Then
+        assertEquals("123-abc", preference.id());
+        assertEquals("https://www.mercadopago.com.br/checkout/v1/redirect?pref_id=123-abc", preference.initPoint());
+        assertEquals("{\"id\":\"123-abc\",\"init_point\":\"https://www.mercadopago.com.br/checkout/v1/redirect?pref_id=123-abc\","
+                + "\"external_reference\":\"42\"}", parser.summarize(preference));
+    }
+}
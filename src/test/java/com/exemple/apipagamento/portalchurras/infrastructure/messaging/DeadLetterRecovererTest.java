@@ -0,0 +1,112 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RabbitRetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterRecovererTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeadLetterRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RabbitRetryProperties properties = new RabbitRetryProperties();
+        properties.setMaxAttempts(4);
+        recoverer = new DeadLetterRecoverer(rabbitTemplate, properties, meterRegistry, "orders.dlx");
+    }
+
+    private Message message(Integer attempts) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("new-orders.queue");
+        properties.setMessageId("outbox-1");
+        if (attempts != null) {
+            properties.setHeader(DeadLetterTopology.ATTEMPTS_HEADER, attempts);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+
+    private ListenerExecutionFailedException failure(Throwable cause, Message message) {
+        return new ListenerExecutionFailedException("Listener falhou", cause, message);
+    }
+
+    @Test
+    void deveAgendarNovaTentativaNaFaixaSeguinteSemReenfileirarNaHora() {
+        // Given - lote em que uma mensagem já falhou uma vez
+        Message first = message(null);
+        Message second = message(1);
+
+        // When
+        recoverer.recover(List.of(first, second), failure(new IllegalStateException("Banco fora do ar"), first));
+
+        // Then
+        verify(rabbitTemplate).send("", "new-orders.queue.retry.1", first);
+        verify(rabbitTemplate).send("", "new-orders.queue.retry.2", second);
+        assertEquals(1, (Integer) first.getMessageProperties().getHeader(DeadLetterTopology.ATTEMPTS_HEADER));
+        assertEquals(2, (Integer) second.getMessageProperties().getHeader(DeadLetterTopology.ATTEMPTS_HEADER));
+        assertEquals("IllegalStateException: Banco fora do ar",
+                first.getMessageProperties().getHeader(DeadLetterTopology.ERROR_HEADER));
+        assertEquals(2.0, meterRegistry.get("messaging.consumer.retried")
+                .tag("queue", "new-orders.queue").counter().count());
+    }
+
+    @Test
+    void deveEnviarParaDlqAoEsgotarTentativas() {
+        // Given - terceira falha anterior; esta é a quarta
+        Message message = message(3);
+
+        // When
+        recoverer.recover(message, failure(new IllegalStateException("Erro"), message));
+
+        // Then
+        verify(rabbitTemplate).send("orders.dlx", "new-orders.queue.dlq", message);
+        assertNotNull(message.getMessageProperties().getHeader(DeadLetterTopology.FAILED_AT_HEADER));
+        assertEquals(1.0, meterRegistry.get("messaging.consumer.dead_lettered")
+                .tag("queue", "new-orders.queue").counter().count());
+    }
+
+    @Test
+    void deveEnviarMensagemIlegivelDiretoParaDlq() {
+        // Given
+        Message message = message(null);
+
+        // When
+        recoverer.recover(message, failure(new MessageConversionException("JSON inválido"), message));
+
+        // Then
+        verify(rabbitTemplate).send("orders.dlx", "new-orders.queue.dlq", message);
+        verify(rabbitTemplate, never()).send(eq(""), any(String.class), any(Message.class));
+    }
+
+    @Test
+    void deveRejeitarMensagemSemFilaDeOrigem() {
+        // Given
+        Message message = new Message("{}".getBytes(), new MessageProperties());
+
+        // When / Then
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> recoverer.recover(message, new IllegalStateException("Erro")));
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
@@ -0,0 +1,128 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    private DeadLetterService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DeadLetterService(rabbitTemplate, "new-orders.queue", "order-status.queue",
+                "notifications.queue", "loyalty-points.queue", "payment-status.queue");
+    }
+
+    private void withChannel() {
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+    }
+
+    private GetResponse deadLetter(long tag, String body) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .messageId("outbox-" + tag)
+                .headers(Map.of(
+                        DeadLetterTopology.ATTEMPTS_HEADER, 4,
+                        DeadLetterTopology.ERROR_HEADER, "IllegalStateException: Erro",
+                        "__TypeId__", "NewOrderEvent",
+                        "x-death", List.of()))
+                .build();
+        return new GetResponse(new Envelope(tag, false, "orders.dlx", "new-orders.queue.dlq"),
+                properties, body.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    @Test
+    void deveConsultarSemRemoverAsMensagensDaDlq() throws Exception {
+        // Given
+        withChannel();
+        when(channel.basicGet("new-orders.queue.dlq", false))
+                .thenReturn(deadLetter(1, "{\"orderId\":1}"), deadLetter(2, "{\"orderId\":2}"), null);
+
+        // When
+        List<DeadLetterService.DeadLetterMessage> messages = service.peek("new-orders", 10);
+
+        // Then - todas voltam para a DLQ
+        assertEquals(2, messages.size());
+        assertEquals("outbox-1", messages.get(0).messageId());
+        assertEquals(4, messages.get(0).attempts());
+        assertEquals("IllegalStateException: Erro", messages.get(0).lastError());
+        assertEquals("{\"orderId\":2}", messages.get(1).payload());
+        verify(channel).basicNack(2, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void deveDevolverParaAFilaOriginalComTentativasZeradas() throws Exception {
+        // Given - canal com publisher confirms
+        withChannel();
+        when(channel.basicGet("new-orders.queue.dlq", false))
+                .thenReturn(deadLetter(1, "{}"), deadLetter(2, "{}"), null);
+        when(channel.getNextPublishSeqNo()).thenReturn(3L);
+
+        // When
+        int replayed = service.replay("new-orders", 100);
+
+        // Then - publica, espera a confirmação e só então remove da DLQ
+        assertEquals(2, replayed);
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        InOrder inOrder = inOrder(channel);
+        inOrder.verify(channel, times(2)).basicPublish(eq(""), eq("new-orders.queue"), properties.capture(), any());
+        inOrder.verify(channel).waitForConfirmsOrDie(anyLong());
+        inOrder.verify(channel).basicAck(2, true);
+        Map<String, Object> headers = properties.getValue().getHeaders();
+        assertFalse(headers.containsKey(DeadLetterTopology.ATTEMPTS_HEADER));
+        assertFalse(headers.containsKey("x-death"));
+        assertEquals("NewOrderEvent", headers.get("__TypeId__"));
+        assertEquals("outbox-2", properties.getValue().getMessageId());
+    }
+
+    @Test
+    void deveManterNaDlqQuandoBrokerNaoConfirma() throws Exception {
+        // Given
+        withChannel();
+        when(channel.basicGet("order-status.queue.dlq", false)).thenReturn(deadLetter(7, "{}"), (GetResponse) null);
+        when(channel.getNextPublishSeqNo()).thenReturn(2L);
+        when(channel.isOpen()).thenReturn(true);
+        doThrow(new TimeoutException()).when(channel).waitForConfirmsOrDie(anyLong());
+
+        // When / Then
+        assertThrows(Exception.class, () -> service.replay("order-status", 10));
+        verify(channel).basicNack(7, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void deveRejeitarFilaDesconhecidaOuLimiteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> service.peek("pagamentos", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.replay("new-orders", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.replay("new-orders", DeadLetterService.MAX_LIMIT + 1));
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
@@ -0,0 +1,73 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListenerMetricsTest {
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ListenerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new ListenerMetrics(meterRegistry);
+    }
+
+    private Message message(String queue, long ageMillis) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        properties.setTimestamp(new Date(System.currentTimeMillis() - ageMillis));
+        return new Message("{}".getBytes(), properties);
+    }
+
+    @Test
+    void deveMedirAtrasoEVazaoPorFilaNoLote() throws Throwable {
+        // Given - lote com mensagens publicadas há 2s e 4s
+        List<Message> batch = List.of(message("new-orders.queue", 2_000), message("new-orders.queue", 4_000));
+        when(invocation.getArguments()).thenReturn(new Object[]{null, batch});
+        when(invocation.proceed()).thenReturn(null);
+
+        // When
+        metrics.invoke(invocation);
+
+        // Then
+        assertEquals(2.0, meterRegistry.get("messaging.consumer.received")
+                .tag("queue", "new-orders.queue").counter().count());
+        var lag = meterRegistry.get("messaging.consumer.lag").tag("queue", "new-orders.queue").timer();
+        assertEquals(2, lag.count());
+        assertTrue(lag.max(TimeUnit.MILLISECONDS) >= 4_000);
+        assertEquals(1, meterRegistry.get("messaging.consumer.batch")
+                .tag("queue", "new-orders.queue").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void deveRegistrarFalhaEPropagarExcecao() throws Throwable {
+        // Given
+        when(invocation.getArguments()).thenReturn(new Object[]{null, message("order-status.queue", 0)});
+        when(invocation.proceed()).thenThrow(new IllegalStateException("falhou"));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> metrics.invoke(invocation));
+        assertEquals(1, meterRegistry.get("messaging.consumer.batch")
+                .tag("queue", "order-status.queue").tag("outcome", "error").timer().count());
+    }
+}
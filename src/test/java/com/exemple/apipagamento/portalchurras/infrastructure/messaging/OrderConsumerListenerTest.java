@@ -0,0 +1,233 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.exemple.apipagamento.portalchurras.application.services.LoyaltyService;
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RabbitListenerProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RabbitRetryProperties;
+import com.exemple.apipagamento.portalchurras.infrastructure.config.RabbitMQConfig;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.consumers.LoyaltyConsumer;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.consumers.OrderConsumer;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.events.NewOrderEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.amqp.rabbit.test.RabbitListenerTest;
+import org.springframework.amqp.rabbit.test.RabbitListenerTestHarness;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Containers dos consumidores montados pelas factories do RabbitMQConfig, sem broker:
+ * as entregas são feitas direto no listener do container e capturadas pelo harness do spring-rabbit-test.
+ */
+@SpringJUnitConfig(OrderConsumerListenerTest.Config.class)
+@TestPropertySource(properties = {
+        "rabbitmq.exchange.orders=test-orders-exchange",
+        "rabbitmq.exchange.dead-letter=test-orders-dlx",
+        "rabbitmq.queue.new-orders=test-new-orders-queue",
+        "rabbitmq.queue.order-status=test-order-status-queue",
+        "rabbitmq.queue.notifications=test-notifications-queue",
+        "rabbitmq.queue.loyalty-points=test-loyalty-points-queue",
+        "rabbitmq.queue.payment-status=test-payment-status-queue",
+        "rabbitmq.routing-key.new-order=test-new-order-key",
+        "rabbitmq.routing-key.order-status=test-order-status-key",
+        "rabbitmq.routing-key.notification=test-notification-key",
+        "rabbitmq.routing-key.loyalty=test-loyalty-key",
+        "rabbitmq.routing-key.payment-status=test-payment-status-key",
+        "messaging.listeners.auto-startup=false",
+        "messaging.listeners.queues.new-orders.concurrency=3",
+        "messaging.listeners.queues.new-orders.max-concurrency=6",
+        "messaging.listeners.queues.new-orders.prefetch=5",
+        "messaging.listeners.queues.new-orders.batch-size=10",
+        "messaging.listeners.queues.new-orders.receive-timeout=PT0.2S",
+        "messaging.listeners.queues.loyalty-points.batch-size=50"
+})
+class OrderConsumerListenerTest {
+
+    @Configuration
+    @RabbitListenerTest(capture = true)
+    @EnableConfigurationProperties({RabbitListenerProperties.class, RabbitRetryProperties.class})
+    @Import({RabbitMQConfig.class, ListenerMetrics.class, DeadLetterRecoverer.class, OrderConsumer.class,
+            LoyaltyConsumer.class})
+    static class Config {
+
+        @Bean
+        ConnectionFactory connectionFactory() {
+            return mock(ConnectionFactory.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        LoyaltyService loyaltyService() {
+            return mock(LoyaltyService.class);
+        }
+
+        @Bean
+        OrderRepository orderRepository() {
+            return mock(OrderRepository.class);
+        }
+    }
+
+    @Autowired
+    private RabbitListenerEndpointRegistry registry;
+
+    @Autowired
+    private RabbitListenerTestHarness harness;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private Queue newOrdersQueue;
+
+    @Autowired
+    private Declarables retryTopology;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Message json(Object payload) throws Exception {
+        return MessageBuilder.withBody(objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setHeader("__TypeId__", payload.getClass().getName())
+                .build();
+    }
+
+    @Test
+    void deveMontarContainerDeNovosPedidosComAsConfiguracoesDaFila() throws Exception {
+        // When
+        SimpleMessageListenerContainer container =
+                (SimpleMessageListenerContainer) registry.getListenerContainer("newOrders");
+
+        // Then - o prefetch configurado (5) sobe até o tamanho do lote
+        assertArrayEquals(new String[]{"test-new-orders-queue"}, container.getQueueNames());
+        assertTrue(container.isConsumerBatchEnabled());
+        assertFalse(container.isAutoStartup());
+        assertEquals(3, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+        assertEquals(6, ReflectionTestUtils.getField(container, "maxConcurrentConsumers"));
+        assertEquals(10, ReflectionTestUtils.getField(container, "batchSize"));
+        assertEquals(10, ReflectionTestUtils.getField(container, "prefetchCount"));
+        assertEquals(200L, ReflectionTestUtils.getField(container, "receiveTimeout"));
+
+        TaskExecutor executor = (TaskExecutor) ReflectionTestUtils.getField(container, "taskExecutor");
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deveEntregarLoteDeNovosPedidosConvertidoParaOListener() throws Exception {
+        // Given
+        SimpleMessageListenerContainer container =
+                (SimpleMessageListenerContainer) registry.getListenerContainer("newOrders");
+        List<Message> batch = List.of(
+                json(new NewOrderEvent(1L, 10L, "Ana", "ana@email.com", new BigDecimal("20.00"))),
+                json(new NewOrderEvent(2L, 11L, "Bia", "bia@email.com", new BigDecimal("35.00"))));
+
+        // When
+        ((ChannelAwareBatchMessageListener) container.getMessageListener()).onMessageBatch(batch, mock(Channel.class));
+
+        // Then
+        RabbitListenerTestHarness.InvocationData invocation =
+                harness.getNextInvocationDataFor("newOrders", 5, TimeUnit.SECONDS);
+        assertNotNull(invocation);
+        List<?> events = (List<?>) invocation.getArguments()[0];
+        assertEquals(2, events.size());
+        assertEquals(2L, ((NewOrderEvent) events.get(1)).getOrderId());
+    }
+
+    @Test
+    void deveUsarFactoryPropriaParaMudancasDeStatus() throws Exception {
+        // Given
+        SimpleMessageListenerContainer container =
+                (SimpleMessageListenerContainer) registry.getListenerContainer("orderStatus");
+        OrderStatusChangeEvent event = new OrderStatusChangeEvent(5L, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                "ana@email.com", "Ana", new BigDecimal("20.00"));
+
+        // When
+        ((ChannelAwareBatchMessageListener) container.getMessageListener())
+                .onMessageBatch(List.of(json(event)), mock(Channel.class));
+
+        // Then - fila sem configuração própria usa os valores padrão
+        assertEquals(1, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+        RabbitListenerTestHarness.InvocationData invocation =
+                harness.getNextInvocationDataFor("orderStatus", 5, TimeUnit.SECONDS);
+        assertNotNull(invocation);
+        assertEquals(OrderStatus.CONFIRMED,
+                ((OrderStatusChangeEvent) ((List<?>) invocation.getArguments()[0]).get(0)).getNewStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveCreditarPontosDoLoteDePedidosEntreguesNumaChamada() throws Exception {
+        // Given - dois pedidos do mesmo cliente no mesmo lote
+        SimpleMessageListenerContainer container =
+                (SimpleMessageListenerContainer) registry.getListenerContainer("loyaltyPoints");
+        List<Message> batch = List.of(
+                json(new LoyaltyPointsEvent(21L, 4L, new BigDecimal("30.00"))),
+                json(new LoyaltyPointsEvent(22L, 4L, new BigDecimal("12.50"))));
+
+        // When
+        ((ChannelAwareBatchMessageListener) container.getMessageListener()).onMessageBatch(batch, mock(Channel.class));
+
+        // Then
+        assertNotNull(harness.getNextInvocationDataFor("loyaltyPoints", 5, TimeUnit.SECONDS));
+        assertEquals(50, ReflectionTestUtils.getField(container, "batchSize"));
+        ArgumentCaptor<List<LoyaltyService.DeliveredOrder>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loyaltyService).accrueDeliveredOrders(captor.capture());
+        assertEquals(List.of(
+                new LoyaltyService.DeliveredOrder(21L, 4L, new BigDecimal("30.00")),
+                new LoyaltyService.DeliveredOrder(22L, 4L, new BigDecimal("12.50"))), captor.getValue());
+    }
+
+    @Test
+    void deveDeclararDlqEFilasDeEsperaParaCadaFila() {
+        // Then - a fila principal manda rejeitadas/expiradas para a DLQ
+        assertEquals("test-orders-dlx", newOrdersQueue.getArguments().get("x-dead-letter-exchange"));
+        assertEquals("test-new-orders-queue.dlq", newOrdersQueue.getArguments().get("x-dead-letter-routing-key"));
+
+        // Then - cada faixa de espera devolve à fila original pela exchange padrão quando o TTL vence
+        List<Queue> queues = retryTopology.getDeclarablesByType(Queue.class);
+        assertEquals(5 * 4, queues.size());
+        Queue secondTier = queues.stream()
+                .filter(q -> q.getName().equals("test-new-orders-queue.retry.2"))
+                .findFirst().orElseThrow();
+        assertEquals(10_000, secondTier.getArguments().get("x-message-ttl"));
+        assertEquals("", secondTier.getArguments().get("x-dead-letter-exchange"));
+        assertEquals("test-new-orders-queue", secondTier.getArguments().get("x-dead-letter-routing-key"));
+        assertTrue(queues.stream().anyMatch(q -> q.getName().equals("test-payment-status-queue.dlq")));
+    }
+}
@@ -0,0 +1,84 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEvent;
+import com.exemple.apipagamento.portalchurras.domain.entities.OutboxEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private OrderEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OrderEventPublisher(rabbitTemplate);
+        ReflectionTestUtils.setField(publisher, "ordersExchange", "orders");
+        ReflectionTestUtils.setField(publisher, "newOrderRoutingKey", "new-order");
+        ReflectionTestUtils.setField(publisher, "orderStatusRoutingKey", "order-status");
+        ReflectionTestUtils.setField(publisher, "paymentStatusRoutingKey", "payment-status");
+    }
+
+    private OutboxEvent event(Long id, OutboxEventType type) {
+        OutboxEvent event = new OutboxEvent(type, id, "com.exemplo.Evento", "{\"id\":" + id + "}");
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+
+    @Test
+    void deveSepararConfirmadosDosRecusadosPeloBroker() {
+        // Given - o broker confirma o evento 1 e recusa o 2
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            boolean ack = correlation.getId().equals("outbox-1");
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "fila cheia"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // When
+        OrderEventPublisher.PublishResult result = publisher.publish(
+                List.of(event(1L, OutboxEventType.NEW_ORDER), event(2L, OutboxEventType.PAYMENT_STATUS_CHANGED)),
+                Duration.ofSeconds(1));
+
+        // Then
+        assertEquals(List.of(1L), result.confirmed());
+        assertTrue(result.failed().get(2L).contains("fila cheia"));
+
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("orders"), eq("new-order"), message.capture(), any(CorrelationData.class));
+        verify(rabbitTemplate).send(eq("orders"), eq("payment-status"), any(Message.class), any(CorrelationData.class));
+        assertEquals("outbox-1", message.getValue().getMessageProperties().getMessageId());
+        assertEquals("com.exemplo.Evento", message.getValue().getMessageProperties().getHeader("__TypeId__"));
+        assertEquals(MessageDeliveryMode.PERSISTENT, message.getValue().getMessageProperties().getDeliveryMode());
+    }
+
+    @Test
+    void deveFalharQuandoConfirmacaoNaoChegaNoPrazo() {
+        // When - nenhuma confirmação é recebida
+        OrderEventPublisher.PublishResult result = publisher.publish(
+                List.of(event(3L, OutboxEventType.ORDER_STATUS_CHANGED)), Duration.ofMillis(50));
+
+        // Then
+        assertTrue(result.confirmed().isEmpty());
+        assertTrue(result.failed().get(3L).startsWith("Confirmação do broker não recebida"));
+    }
+}
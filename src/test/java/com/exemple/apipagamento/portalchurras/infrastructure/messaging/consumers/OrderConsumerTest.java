@@ -0,0 +1,64 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.messaging.consumers;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.OrderStatus;
+import com.exemple.apipagamento.portalchurras.domain.ports.OrderRepository;
+import com.exemple.apipagamento.portalchurras.infrastructure.messaging.OrderStatusChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderConsumerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderConsumer orderConsumer;
+
+    private OrderStatusChangeEvent change(Long orderId, OrderStatus oldStatus, OrderStatus newStatus) {
+        return new OrderStatusChangeEvent(orderId, oldStatus, newStatus, "ana@email.com", "Ana",
+                new BigDecimal("20.00"));
+    }
+
+    @Test
+    void deveDescartarMudancaDeStatusQueChegouDepoisDeUmaMaisNova() {
+        // Given - o pedido 5 já está em preparo quando a confirmação chega atrasada
+        OrderStatusChangeEvent preparing = change(5L, OrderStatus.CONFIRMED, OrderStatus.IN_PREPARATION);
+        OrderStatusChangeEvent confirmed = change(5L, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+        OrderStatusChangeEvent ready = change(6L, OrderStatus.IN_PREPARATION, OrderStatus.READY);
+        when(orderRepository.findStatusesByIds(List.of(5L, 6L)))
+                .thenReturn(Map.of(5L, OrderStatus.IN_PREPARATION, 6L, OrderStatus.READY));
+
+        // When
+        List<OrderStatusChangeEvent> current = orderConsumer.currentChanges(List.of(preparing, confirmed, ready));
+
+        // Then - uma consulta para o lote inteiro
+        assertEquals(List.of(preparing, ready), current);
+        verify(orderRepository).findStatusesByIds(List.of(5L, 6L));
+    }
+
+    @Test
+    void naoDeveProcessarMudancaDePedidoInexistente() {
+        // Given
+        when(orderRepository.findStatusesByIds(List.of(9L))).thenReturn(Map.of());
+
+        // When
+        List<OrderStatusChangeEvent> current = orderConsumer.currentChanges(
+                List.of(change(9L, OrderStatus.PENDING, OrderStatus.CONFIRMED)));
+
+        // Then
+        assertTrue(current.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.exemple.apipagamento.portalchurras.infrastructure.security;
+
+import com.exemple.apipagamento.portalchurras.domain.entities.User;
+import com.exemple.apipagamento.portalchurras.domain.entities.UserRole;
+import com.exemple.apipagamento.portalchurras.domain.events.UserAccessChangedEvent;
+import com.exemple.apipagamento.portalchurras.domain.ports.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticatedUserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AuthenticatedUserCache cache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedUserCache(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        user = new User("Funcionário", "func@test.com", "password123", UserRole.EMPLOYEE);
+        ReflectionTestUtils.setField(user, "id", 7L);
+    }
+
+    @Test
+    void deveMontarPrincipalDasClaimsSemConsultarBancoNaSegundaVez() {
+        // Given
+        when(userRepository.findByEmail("func@test.com")).thenReturn(Optional.of(user));
+        Claims claims = claims("func@test.com", "EMPLOYEE", 7L);
+
+        // When
+        Optional<JwtPrincipal> first = cache.resolve(claims);
+        Optional<JwtPrincipal> second = cache.resolve(claims);
+
+        // Then
+        assertTrue(first.isPresent());
+        assertEquals(7L, second.orElseThrow().getUserId());
+        assertTrue(second.get().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_EMPLOYEE")));
+        verify(userRepository, times(1)).findByEmail("func@test.com");
+    }
+
+    @Test
+    void deveRejeitarUsuarioDesativadoAposInvalidacao() {
+        // Given
+        when(userRepository.findByEmail("func@test.com")).thenReturn(Optional.of(user));
+        Claims claims = claims("func@test.com", "EMPLOYEE", 7L);
+        assertTrue(cache.resolve(claims).isPresent());
+
+        // When
+        user.deactivate();
+        cache.onUserAccessChanged(new UserAccessChangedEvent(7L, "func@test.com"));
+
+        // Then
+        assertTrue(cache.resolve(claims).isEmpty());
+    }
+
+    @Test
+    void deveRejeitarTokenComPapelAntigo() {
+        // Given - token emitido quando o usuário ainda era ADMIN
+        when(userRepository.findByEmail("func@test.com")).thenReturn(Optional.of(user));
+
+        // When
+        Optional<JwtPrincipal> principal = cache.resolve(claims("func@test.com", "ADMIN", 7L));
+
+        // Then
+        assertTrue(principal.isEmpty());
+    }
+
+    @Test
+    void deveRejeitarUsuarioInexistente() {
+        // Given
+        when(userRepository.findByEmail("sumiu@test.com")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertTrue(cache.resolve(claims("sumiu@test.com", "CUSTOMER", 99L)).isEmpty());
+    }
+
+    private Claims claims(String subject, String role, Long userId) {
+        return Jwts.claims()
+                .subject(subject)
+                .add("role", role)
+                .add("userId", userId)
+                .build();
+    }
+}